@@ -0,0 +1,121 @@
+/*
+file: PipelineBenchmark.java
+
+Benchmark of the pipelined lexer ("-pipeline") against lexing on the
+parser's thread
+*/
+
+package cymbal;
+
+import util.ErrorHandler;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The <tt>PipelineBenchmark</tt> class generates a large song and times
+ * lexing and parsing it with the lexer on the parser's thread and with
+ * the lexer on its own thread, alternating the two so that both see the
+ * same JIT and GC conditions.
+ * <p/>
+ * Usage: <tt>java cymbal.PipelineBenchmark [&lt;megabytes&gt; [&lt;runs&gt;]]</tt>
+ * (8 MB and 7 runs by default; the first two runs of each are warm-up).
+ */
+public class PipelineBenchmark {
+    /**
+     * Number of warm-up runs of each front end (not reported)
+     */
+    private static final int WARMUP = 2;
+
+    /**
+     * Notes in each generated phrase
+     */
+    private static final int NOTES_PER_PHRASE = 40;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional size of the song in megabytes and number of runs
+     */
+    public static void main(String[] args) {
+        int megabytes = (args.length > 0 ? Integer.parseInt(args[0]) : 8);
+        int runs = (args.length > 1 ? Integer.parseInt(args[1]) : 7);
+
+        String song = generate(megabytes * 1024 * 1024);
+        System.out.println("song: " + song.length() / 1024 + " KB, "
+                + runs + " runs (+" + WARMUP + " warm-up), "
+                + Runtime.getRuntime().availableProcessors() + " CPU(s)");
+
+        CymbalCompiler serial = new CymbalCompiler();
+        CymbalCompiler pipelined = new CymbalCompiler();
+        pipelined.setPipelineLexer(true);
+        long[] serialTimes = new long[runs];
+        long[] pipelinedTimes = new long[runs];
+        for (int i = -WARMUP; i < runs; i++) {
+            long serialTime = time(serial, song);
+            long pipelinedTime = time(pipelined, song);
+            if (i >= 0) {
+                serialTimes[i] = serialTime;
+                pipelinedTimes[i] = pipelinedTime;
+            }
+        }
+        report("serial", serialTimes, song.length());
+        report("pipelined", pipelinedTimes, song.length());
+    }
+
+    /**
+     * Generate a song of about the given size: many phrases of quarter
+     * notes, and a Song that plays the first one
+     *
+     * @param size size of the song in characters
+     * @return the song
+     */
+    private static String generate(int size) {
+        String[] pitches = {"A", "B", "C", "D", "E", "F", "G"};
+        String[] accidentals = {"", "#", "b"};
+        Random random = new Random(42);
+        StringBuilder song = new StringBuilder(size + 1024);
+        for (int p = 0; song.length() < size; p++) {
+            song.append("Phrase \"p").append(p).append("\" {\n");
+            for (int n = 0; n < NOTES_PER_PHRASE; n++) {
+                song.append("  Quarter ").append(pitches[random.nextInt(pitches.length)])
+                        .append(accidentals[random.nextInt(accidentals.length)])
+                        .append(1 + random.nextInt(6)).append('\n');
+            }
+            song.append("}\n\n");
+        }
+        song.append("Song \"S\" 90 {\n  \"p0\"()\n}\n");
+        return song.toString();
+    }
+
+    /**
+     * Lex and parse the song once
+     *
+     * @param compiler compiler to parse with
+     * @param song     the song
+     * @return elapsed time in nanoseconds
+     */
+    private static long time(CymbalCompiler compiler, String song) {
+        long start = System.nanoTime();
+        compiler.parse(new String[] {"bench.cym"}, new Reader[] {new StringReader(song)},
+                new ErrorHandler(false));
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Print the median and best time of a front end
+     *
+     * @param name  name of the front end
+     * @param times elapsed time of each run in nanoseconds
+     * @param size  size of the song in characters
+     */
+    private static void report(String name, long[] times, int size) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        System.out.println(String.format("%-10s median %8.1f ms  best %8.1f ms  %6.1f MB/s",
+                name, median / 1e6, sorted[0] / 1e6, size / (median / 1e9) / (1024 * 1024)));
+    }
+}
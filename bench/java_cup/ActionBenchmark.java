@@ -0,0 +1,201 @@
+
+package java_cup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import java_cup.runtime.lr_parser;
+import java_cup.runtime.parse_stack;
+
+/** This class measures how fast the generated action code of a parser
+ *  runs as the grammar grows, with all of the actions in one method and
+ *  with the actions split over methods of a few productions each (the
+ *  -split_actions option).  For each grammar size it writes a grammar
+ *  with that many productions (each with an action of its own), runs CUP
+ *  over it both ways, compiles the two parsers and loads them, then times
+ *  reductions: calls of do_action() on a fixed parse stack, for
+ *  productions picked at random, taking turns between the two parsers.
+ *  The parse tables are not involved, so only the action dispatch and
+ *  the actions themselves are measured.<p>
+ *
+ *  Usage: java java_cup.ActionBenchmark [productions per method
+ *  [grammar sizes...]] (16, and 50 to 1600 productions, by default).
+ *  Needs a JDK (to compile the generated parsers).
+ */
+
+public class ActionBenchmark {
+
+  /*-----------------------------------------------------------*/
+  /*--- Constructor(s) ----------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Only constructor is private, so we do not allocate any instances of
+      this class. */
+  private ActionBenchmark() { }
+
+  /*-----------------------------------------------------------*/
+  /*--- Static Variables --------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Number of warm-up runs of each parser (not reported), plus one for
+   *  every WARMUP_PRODUCTIONS productions (so that the JIT has compiled
+   *  every action method before the timed runs). */
+  protected static final int WARMUP = 3;
+
+  /** Productions per additional warm-up run. */
+  protected static final int WARMUP_PRODUCTIONS = 100;
+
+  /** Number of timed runs of each parser. */
+  protected static final int RUNS = 7;
+
+  /** Number of reductions in each run. */
+  protected static final int REDUCTIONS = 4000000;
+
+  /*-----------------------------------------------------------*/
+  /*--- General Methods ---------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Run the benchmark.
+   * @param argv optional productions per method, and grammar sizes.
+   */
+  public static void main(String argv[]) throws Exception
+    {
+      int split = (argv.length > 0) ? Integer.parseInt(argv[0]) : 16;
+      int[] sizes = {50, 100, 200, 400, 800, 1600};
+      if (argv.length > 1)
+	{
+	  sizes = new int[argv.length - 1];
+	  for (int i = 1; i < argv.length; i++)
+	    sizes[i-1] = Integer.parseInt(argv[i]);
+	}
+
+      JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+      if (javac == null)
+	throw new Exception("ActionBenchmark needs a JDK to compile parsers");
+
+      File dir = File.createTempFile("cup-bench", "");
+      dir.delete();
+      dir.mkdir();
+      try
+	{
+	  System.out.println(REDUCTIONS + " reductions per run, " + RUNS +
+			     " runs (after warm-up), median M reductions/s");
+	  System.out.println("productions   one method   " + split +
+			     " per method");
+	  for (int n = 0; n < sizes.length; n++)
+	    {
+	      File grammar = new File(dir, "g" + sizes[n] + ".cup");
+	      write_grammar(grammar, sizes[n]);
+	      lr_parser whole = PushCheck.build(javac, grammar,
+						new File(dir, "whole" + sizes[n]), 0);
+	      lr_parser parts = PushCheck.build(javac, grammar,
+						new File(dir, "split" + sizes[n]), split);
+	      if (parts == null)
+		throw new Exception("could not compile the split actions of " +
+				    grammar);
+
+	      /* (past 64K of bytecode, one method cannot be compiled at all) */
+	      if (whole == null)
+		{
+		  long[][] times = time(new lr_parser[] {parts});
+		  System.out.println(String.format("%11d %12s %12.1f",
+		    sizes[n] + 3, "too large", rate(times[0])));
+		}
+	      else
+		{
+		  long[][] times = time(new lr_parser[] {whole, parts});
+		  System.out.println(String.format("%11d %12.1f %12.1f",
+		    sizes[n] + 3, rate(times[0]), rate(times[1])));
+		}
+	    }
+	}
+      finally
+	{
+	  PushCheck.delete(dir);
+	}
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Write a grammar: a list of items, each one of a given number of
+   *  terminals, reduced by a production of its own with an action of
+   *  its own.
+   * @param file  the grammar file.
+   * @param items the number of item productions.
+   */
+  protected static void write_grammar(File file, int items) throws IOException
+    {
+      PrintWriter out = new PrintWriter(file, "US-ASCII");
+      out.print("terminal String ");
+      for (int i = 0; i < items; i++)
+	out.print((i > 0 ? ", " : "") + "A" + i);
+      out.println(";");
+      out.println("non terminal String list, item;");
+      out.println("list ::= list item:i {: RESULT = i; :}");
+      out.println("       | item:i {: RESULT = i; :}");
+      out.println("       ;");
+      for (int i = 0; i < items; i++)
+	out.println((i == 0 ? "item ::= " : "       | ") + "A" + i +
+		    ":a {: RESULT = a.concat(\"" + i + "\"); :}");
+      out.println("       ;");
+      out.close();
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Time reductions with some parsers, taking turns.
+   * @param parsers the parsers (with the same grammar).
+   * @return the time of each timed run of each parser, in nanoseconds.
+   */
+  protected static long[][] time(lr_parser[] parsers) throws Exception
+    {
+      /* the productions to reduce with, at random */
+      int productions = parsers[0].production_table().length;
+      int[] acts = new int[1 << 16];
+      Random random = new Random(42);
+      for (int i = 0; i < acts.length; i++)
+	acts[i] = random.nextInt(productions);
+
+      /* a stack deep enough for any handle */
+      parse_stack stack = new parse_stack();
+      for (int i = 0; i < 4; i++)
+	stack.push(0, 0, "v" + i, i, i);
+      int top = stack.size() - 1;
+
+      int warmup = WARMUP + productions / WARMUP_PRODUCTIONS;
+      long[][] times = new long[parsers.length][RUNS];
+      for (int run = -warmup; run < RUNS; run++)
+	for (int k = 0; k < parsers.length; k++)
+	  {
+	    int p = (run + warmup + k) % parsers.length;
+	    lr_parser parser = parsers[p];
+	    long start = System.nanoTime();
+	    for (int i = 0; i < REDUCTIONS; i++)
+	      parser.do_action(acts[i & (acts.length - 1)], parser, stack, top);
+	    long time = System.nanoTime() - start;
+	    if (run >= 0)
+	      times[p][run] = time;
+	  }
+      return times;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Median reductions per second (in millions) of some runs.
+   * @param times the time of each run in nanoseconds.
+   */
+  protected static double rate(long[] times)
+    {
+      long[] sorted = times.clone();
+      Arrays.sort(sorted);
+      return REDUCTIONS / (sorted[sorted.length / 2] / 1e9) / 1e6;
+    }
+
+  /*-----------------------------------------------------------*/
+
+}
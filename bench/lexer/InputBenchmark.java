@@ -0,0 +1,236 @@
+/* Cymbal Compiler
+   InputBenchmark.java
+
+   Benchmark of lexing a memory-mapped file against lexing it through
+   a reader, and against the hand-written scanner (with and without a
+   Symbol per token)
+*/
+
+package lexer;
+
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The <tt>InputBenchmark</tt> class writes a large song to a temporary
+ * file and times lexing every token of it, with the file memory-mapped
+ * (the bytes scanned directly, as for any input file named on the
+ * command line) and with the file read through a <tt>FileReader</tt>
+ * (decoded into the lexer's character buffer, as for the sources given
+ * to the compiler as readers), and with the hand-written
+ * <tt>CymbalScanner</tt> (on the memory-mapped file), both as the
+ * generated parser reads it (a <tt>Symbol</tt> per token) and as
+ * <tt>CymbalParser</tt> does (the kind from <tt>nextKind</tt>, and the
+ * lexeme of each token that has one), taking turns so that all see the
+ * same JIT and GC conditions.  The bytes allocated per token (by the
+ * lexer and the tokens it returns) are reported as well, where the JVM
+ * can measure them.
+ * <p/>
+ * Usage: <tt>java lexer.InputBenchmark [&lt;megabytes&gt; [&lt;runs&gt;]]</tt>
+ * (32 MB and 7 runs by default; the first two runs of each are warm-up).
+ */
+public class InputBenchmark {
+    /**
+     * Number of warm-up runs of each input path (not reported)
+     */
+    private static final int WARMUP = 2;
+
+    /**
+     * The input paths compared: the generated lexer on the memory-mapped
+     * file and through a reader, and the hand-written scanner on the
+     * memory-mapped file, with Symbols and without
+     */
+    private static final String[] PATHS = {"mapped", "reader", "scanner", "compact"};
+
+    /**
+     * Index of the path that reads the tokens without Symbols
+     */
+    private static final int COMPACT = 3;
+
+    /**
+     * Notes in each generated phrase
+     */
+    private static final int NOTES_PER_PHRASE = 40;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional size of the song in megabytes and number of runs
+     * @throws Exception if the temporary file cannot be written or read
+     */
+    public static void main(String[] args) throws Exception {
+        int megabytes = (args.length > 0 ? Integer.parseInt(args[0]) : 32);
+        int runs = (args.length > 1 ? Integer.parseInt(args[1]) : 7);
+
+        Path song = Files.createTempFile("cymbal-bench", ".cym");
+        try {
+            Files.write(song, generate(megabytes * 1024 * 1024).getBytes(StandardCharsets.US_ASCII));
+            long size = Files.size(song);
+            System.out.println("song: " + size / 1024 + " KB, "
+                    + runs + " runs (+" + WARMUP + " warm-up)");
+
+            long[][] times = new long[PATHS.length][runs];
+            long[][] bytes = new long[PATHS.length][runs];
+            int[] tokens = new int[PATHS.length];
+            for (int i = -WARMUP; i < runs; i++) {
+                // (each path goes first in turn)
+                for (int k = 0; k < PATHS.length; k++) {
+                    int path = (i + WARMUP + k) % PATHS.length;
+                    TokenSource lexer = open(path, song);
+                    long allocated = allocatedBytes();
+                    long start = System.nanoTime();
+                    tokens[path] = (path == COMPACT ? lexCompact((CompactTokenSource) lexer)
+                            : lex(lexer));
+                    long time = System.nanoTime() - start;
+                    allocated = allocatedBytes() - allocated;
+                    if (i >= 0) {
+                        times[path][i] = time;
+                        bytes[path][i] = allocated;
+                    }
+                }
+            }
+            for (int path = 1; path < PATHS.length; path++) {
+                if (tokens[path] != tokens[0]) {
+                    throw new IllegalStateException("the " + PATHS[0] + " and " + PATHS[path]
+                            + " paths gave " + tokens[0] + " and " + tokens[path] + " tokens");
+                }
+            }
+            System.out.println(tokens[0] + " tokens");
+            for (int path = 0; path < PATHS.length; path++) {
+                report(PATHS[path], times[path], bytes[path], size, tokens[path]);
+            }
+        } finally {
+            Files.deleteIfExists(song);
+        }
+    }
+
+    /**
+     * Generate a song of about the given size: many phrases of quarter
+     * notes, and a Song that plays the first one
+     *
+     * @param size size of the song in characters
+     * @return the song
+     */
+    private static String generate(int size) {
+        String[] pitches = {"A", "B", "C", "D", "E", "F", "G"};
+        String[] accidentals = {"", "#", "b"};
+        Random random = new Random(42);
+        StringBuilder song = new StringBuilder(size + 1024);
+        for (int p = 0; song.length() < size; p++) {
+            song.append("Phrase \"p").append(p).append("\" {\n");
+            for (int n = 0; n < NOTES_PER_PHRASE; n++) {
+                song.append("  Quarter ").append(pitches[random.nextInt(pitches.length)])
+                        .append(accidentals[random.nextInt(accidentals.length)])
+                        .append(1 + random.nextInt(6)).append('\n');
+            }
+            song.append("}\n\n");
+        }
+        song.append("Song \"S\" 90 {\n  \"p0\"()\n}\n");
+        return song.toString();
+    }
+
+    /**
+     * Open a lexer for the song
+     *
+     * @param path which input path to take (an index into PATHS)
+     * @param song the song file
+     * @return the lexer
+     * @throws IOException if the file cannot be opened
+     */
+    private static TokenSource open(int path, Path song) throws IOException {
+        String[] names = {song.toString()};
+        switch (path) {
+            case 0:
+                return new Lexer(names, false);
+            case 1:
+                return new Lexer(names, new Reader[] {new FileReader(song.toFile())}, false);
+            default:
+                return new CymbalScanner(names, false);
+        }
+    }
+
+    /**
+     * Read every token from a lexer
+     *
+     * @param lexer the lexer
+     * @return number of tokens, including EOF
+     * @throws Exception if the input cannot be read
+     */
+    private static int lex(TokenSource lexer) throws Exception {
+        int count = 0;
+        Symbol symbol;
+        do {
+            symbol = lexer.next_token();
+            count++;
+        } while (symbol.sym != TokenIds.EOF);
+        return count;
+    }
+
+    /**
+     * Read every token from a scanner without Symbols, asking for the
+     * lexeme of each token that has one (as <tt>CymbalParser</tt> does for
+     * the tokens it keeps)
+     *
+     * @param scanner the scanner
+     * @return number of tokens, including EOF
+     * @throws IOException if the input cannot be read
+     */
+    private static int lexCompact(CompactTokenSource scanner) throws IOException {
+        int count = 0;
+        int kind;
+        do {
+            kind = scanner.nextKind();
+            scanner.getLexeme();
+            count++;
+        } while (kind != TokenIds.EOF);
+        return count;
+    }
+
+    /**
+     * Get the number of bytes allocated by this thread so far
+     *
+     * @return bytes allocated, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Print the median and best time of an input path, and the median
+     * allocation per token
+     *
+     * @param name      name of the input path
+     * @param times     elapsed time of each run in nanoseconds
+     * @param allocated bytes allocated in each run
+     * @param size      size of the song in bytes
+     * @param tokens    number of tokens in the song
+     */
+    private static void report(String name, long[] times, long[] allocated, long size,
+                               int tokens) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        long[] sortedBytes = allocated.clone();
+        Arrays.sort(sortedBytes);
+        long medianBytes = sortedBytes[sortedBytes.length / 2];
+        System.out.println(String.format("%-10s median %8.1f ms  best %8.1f ms  %6.1f MB/s  %s",
+                name, median / 1e6, sorted[0] / 1e6, size / (median / 1e9) / (1024 * 1024),
+                (medianBytes < 0 ? "" : String.format("%6.1f B/token",
+                        medianBytes / (double) tokens))));
+    }
+}
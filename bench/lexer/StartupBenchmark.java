@@ -0,0 +1,107 @@
+/* Cymbal Compiler
+   StartupBenchmark.java
+
+   Benchmark of the time from loading the lexer to its first token
+*/
+
+package lexer;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The <tt>StartupBenchmark</tt> class times how long the lexer takes to
+ * return its first token: once with the lexer classes loaded afresh (in a
+ * new class loader, as at every JVM start, so the static scanner tables
+ * are unpacked), and once more for a second lexer in the same class
+ * loader (as for each compile in a long-running compiler).
+ * <p/>
+ * Usage: <tt>java lexer.StartupBenchmark [&lt;runs&gt;]</tt> (20 runs by
+ * default; the first two are warm-up).
+ */
+public class StartupBenchmark {
+    /**
+     * Number of warm-up runs (not reported)
+     */
+    private static final int WARMUP = 2;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional number of runs
+     * @throws Exception if the lexer cannot be loaded or run
+     */
+    public static void main(String[] args) throws Exception {
+        int runs = (args.length > 0 ? Integer.parseInt(args[0]) : 20);
+        URL classes = Lexer.class.getProtectionDomain().getCodeSource().getLocation();
+
+        Path song = Files.createTempFile("cymbal-bench", ".cym");
+        try {
+            Files.write(song, "Phrase \"p\" {\n  Quarter C4\n}\nSong \"S\" 90 {\n  \"p\"()\n}\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            String[] filenames = {song.toString()};
+
+            long[] loadTimes = new long[runs];
+            long[] lexerTimes = new long[runs];
+            for (int i = -WARMUP; i < runs; i++) {
+                try (URLClassLoader loader = new URLClassLoader(new URL[] {classes},
+                        ClassLoader.getPlatformClassLoader())) {
+                    long start = System.nanoTime();
+                    Class<?> lexerClass = loader.loadClass(Lexer.class.getName());
+                    firstToken(lexerClass, filenames);
+                    long loadTime = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    firstToken(lexerClass, filenames);
+                    long lexerTime = System.nanoTime() - start;
+                    if (i >= 0) {
+                        loadTimes[i] = loadTime;
+                        lexerTimes[i] = lexerTime;
+                    }
+                }
+            }
+            System.out.println(runs + " runs (+" + WARMUP + " warm-up), time to the first token");
+            report("new class loader", loadTimes);
+            report("new lexer", lexerTimes);
+        } finally {
+            Files.deleteIfExists(song);
+        }
+    }
+
+    /**
+     * Create a lexer and read its first token
+     *
+     * @param lexerClass the lexer class (from some class loader)
+     * @param filenames  files to lex
+     * @throws Exception if the lexer cannot be created or run
+     */
+    private static void firstToken(Class<?> lexerClass, String[] filenames) throws Exception {
+        Constructor<?> constructor = lexerClass.getConstructor(String[].class, boolean.class);
+        Object lexer = constructor.newInstance(filenames, false);
+        Method nextToken = lexerClass.getMethod("next_token");
+        if (nextToken.invoke(lexer) == null) {
+            throw new IOException("no token from " + filenames[0]);
+        }
+    }
+
+    /**
+     * Print the median and best time of a measurement
+     *
+     * @param name  name of the measurement
+     * @param times elapsed time of each run in nanoseconds
+     */
+    private static void report(String name, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        System.out.println(String.format("%-18s median %9.1f us  best %9.1f us",
+                name, median / 1e3, sorted[0] / 1e3));
+    }
+}
@@ -0,0 +1,193 @@
+/* Cymbal Compiler
+   HeapBenchmark.java
+
+   Benchmark of the heap taken by the AST of a song of a million notes,
+   optionally against the AST of another build
+*/
+
+package parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The <tt>HeapBenchmark</tt> class writes a song of many notes to a
+ * temporary file, parses it and measures the heap that the AST takes:
+ * the heap in use (after garbage collection) while the AST is held, less
+ * that in use before the song was parsed.  The song plays its notes in
+ * its own expression list, half of them in octave, volume and repeat
+ * blocks of ten, so that both a long list and many short ones are
+ * measured.  Given the classes of another build of the compiler
+ * (such as one whose list nodes keep their elements in a
+ * <tt>java.util.Vector</tt>), it loads both builds in class loaders of
+ * their own and measures the AST of each in turn.  Both the generated
+ * <tt>Parser</tt> and the hand-written <tt>CymbalParser</tt> of this
+ * build are measured.
+ * <p/>
+ * Usage: <tt>java parser.HeapBenchmark [&lt;notes&gt; [&lt;runs&gt; [&lt;other
+ * build's classes&gt;]]]</tt> (a million notes and 3 runs by default;
+ * the median is reported).  A heap of a gigabyte or so is needed for a
+ * million notes.
+ */
+public class HeapBenchmark {
+    /**
+     * Kinds of block the notes are grouped in
+     */
+    private static final String[] BLOCKS = {"Octave + {", "Volume forte {", "Repeat {"};
+
+    /**
+     * The AST being measured (held here so that it stays reachable)
+     */
+    private static Object held;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional number of notes, number of runs and class path
+     *             of the build to compare with
+     * @throws Exception if the temporary file cannot be written, or a build
+     *                   cannot be loaded or fails to parse the song
+     */
+    public static void main(String[] args) throws Exception {
+        int notes = (args.length > 0 ? Integer.parseInt(args[0]) : 1000000);
+        int runs = (args.length > 1 ? Integer.parseInt(args[1]) : 3);
+
+        String[] names;
+        URL[] classes;
+        boolean[] hand;
+        URL current = Parser.class.getProtectionDomain().getCodeSource().getLocation();
+        if (args.length > 2) {
+            names = new String[] {"this build", "hand parser", args[2]};
+            classes = new URL[] {current, current, Paths.get(args[2]).toUri().toURL()};
+            hand = new boolean[] {false, true, false};
+        } else {
+            names = new String[] {"this build", "hand parser"};
+            classes = new URL[] {current, current};
+            hand = new boolean[] {false, true};
+        }
+
+        Path song = Files.createTempFile("cymbal-heap", ".cym");
+        URLClassLoader[] loaders = new URLClassLoader[classes.length];
+        try {
+            Files.write(song, generate(notes).getBytes(StandardCharsets.US_ASCII));
+            System.out.println("song: " + notes + " notes, " + Files.size(song) / 1024 + " KB, "
+                    + runs + " runs");
+            for (int b = 0; b < classes.length; b++) {
+                loaders[b] = new URLClassLoader(new URL[] {classes[b]},
+                        ClassLoader.getPlatformClassLoader());
+                // (loads the build's classes before anything is measured)
+                parse(loaders[b], song, hand[b]);
+                held = null;
+            }
+
+            long[][] bytes = new long[classes.length][runs];
+            for (int i = 0; i < runs; i++) {
+                for (int b = 0; b < classes.length; b++) {
+                    long before = usedHeap();
+                    held = parse(loaders[b], song, hand[b]);
+                    bytes[b][i] = usedHeap() - before;
+                    held = null;
+                }
+            }
+            for (int b = 0; b < classes.length; b++) {
+                long[] sorted = bytes[b].clone();
+                Arrays.sort(sorted);
+                long median = sorted[sorted.length / 2];
+                System.out.println(String.format("%-12s %8.1f MB  %6.1f B/note",
+                        names[b], median / (1024.0 * 1024.0), median / (double) notes));
+            }
+        } finally {
+            for (URLClassLoader loader : loaders) {
+                if (loader != null) {
+                    loader.close();
+                }
+            }
+            Files.deleteIfExists(song);
+        }
+    }
+
+    /**
+     * Generate a Song of the given number of notes, every other ten of
+     * them in a block
+     *
+     * @param notes number of notes
+     * @return the song
+     */
+    static String generate(int notes) {
+        String[] pitches = {"A", "B", "C", "D", "E", "F", "G"};
+        String[] accidentals = {"", "#", "b"};
+        Random random = new Random(42);
+        StringBuilder song = new StringBuilder(notes * 14 + 1024);
+        song.append("Song \"S\" 90 {\n");
+        for (int n = 0; n < notes; n++) {
+            if (n % 20 == 10) {
+                song.append("  ").append(BLOCKS[(n / 20) % BLOCKS.length]).append('\n');
+            }
+            song.append("  Quarter ").append(pitches[random.nextInt(pitches.length)])
+                    .append(accidentals[random.nextInt(accidentals.length)])
+                    .append(1 + random.nextInt(6)).append('\n');
+            if (n % 20 == 19) {
+                song.append("  }\n");
+            }
+        }
+        if (notes % 20 > 10) {
+            song.append("  }\n");
+        }
+        song.append("}\n");
+        return song.toString();
+    }
+
+    /**
+     * Lex and parse the song with a build's lexer and parser
+     *
+     * @param loader class loader of the build
+     * @param song   the song file
+     * @param hand   whether to parse with the build's hand-written parser
+     * @return the parser's result (holding the AST)
+     * @throws Exception if the build cannot be loaded or fails to parse the song
+     */
+    private static Object parse(ClassLoader loader, Path song, boolean hand) throws Exception {
+        Class<?> lexerClass = loader.loadClass("lexer.Lexer");
+        Class<?> parserClass = loader.loadClass(hand ? "parser.CymbalParser" : "parser.Parser");
+        Constructor<?> constructor = parserClass.getConstructor(loader.loadClass(
+                hand ? "lexer.TokenSource" : "java_cup.runtime.Scanner"));
+        try {
+            Object lexer = lexerClass.getConstructor(String[].class, boolean.class)
+                    .newInstance(new String[] {song.toString()}, false);
+            Object result = parserClass.getMethod("parse").invoke(constructor.newInstance(lexer));
+            if (result == null) {
+                throw new IllegalStateException("no parse tree from " + loader);
+            }
+            return result;
+        } catch (InvocationTargetException e) {
+            throw (e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Get the heap in use, after collecting garbage until it stops shrinking
+     *
+     * @return bytes of heap in use
+     */
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
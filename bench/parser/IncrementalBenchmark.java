@@ -0,0 +1,167 @@
+/* Cymbal Compiler
+   IncrementalBenchmark.java
+
+   Benchmark of the incremental parser: edits of a large source, against
+   parsing the source in full
+*/
+
+package parser;
+
+import util.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The <tt>IncrementalBenchmark</tt> class generates a large source (the
+ * phrases of <tt>ParseBenchmark</tt>, one note to a line) and times an
+ * <tt>IncrementalParser</tt> bringing its AST up to date after small
+ * edits at random points of the source, against a full parse of the
+ * source by the same parser (which is what a compile of the edited
+ * source does, lexing included).  Each kind of edit is timed on its own:
+ * a note changed (no lines added or removed, so only the damaged phrase
+ * is touched), a line end added and removed again (so every phrase after
+ * the edit has its line numbers shifted), a phrase added and removed
+ * again, and a note changed through <tt>update</tt> (which is given the
+ * whole new source, and compares it with the old one to find the edit).
+ * The AST is fetched after every edit, and the time that takes (moving
+ * the nodes after an edit that added or removed lines) is reported
+ * apart; the speed-up is that of the edit and the fetch together.
+ * <p/>
+ * Usage: <tt>java parser.IncrementalBenchmark [&lt;lines&gt; [&lt;edits&gt;]]</tt>
+ * (20000 lines and 2000 edits of each kind by default, after as many
+ * again of warm-up).
+ */
+public class IncrementalBenchmark {
+    /**
+     * Number of full parses timed (after as many again of warm-up)
+     */
+    private static final int FULL_RUNS = 15;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional number of lines of the source, and of edits of
+     *             each kind
+     */
+    public static void main(String[] args) {
+        int lines = (args.length > 0 ? Integer.parseInt(args[0]) : 20000);
+        int numEdits = (args.length > 1 ? Integer.parseInt(args[1]) : 2000);
+
+        // (the generated source is sized in characters)
+        String sample = ParseBenchmark.generate(1 << 16);
+        String text = ParseBenchmark.generate((int) ((long) lines * sample.length()
+                / countLines(sample)));
+        IncrementalParser parser = new IncrementalParser("library.cym");
+        ErrorHandler errorHandler = new ErrorHandler();
+
+        long[] full = new long[FULL_RUNS];
+        for (int run = -FULL_RUNS; run < FULL_RUNS; run++) {
+            long start = System.nanoTime();
+            parser.parse(text, errorHandler);
+            long time = System.nanoTime() - start;
+            if (run >= 0) {
+                full[run] = time;
+            }
+        }
+        System.out.println(String.format("%d lines, %d characters, %d phrases", countLines(text),
+                text.length(), parser.parse(text, errorHandler).getPhraseList().getSize()));
+        System.out.println(String.format("%-24s median %9.1f us  %8d characters lexed",
+                "full parse", median(full) / 1e3, text.length()));
+
+        String[] kinds = {"note changed", "line added/removed", "phrase added/removed",
+            "note changed (update)"};
+        String added = "Phrase \"new\" {\n  Half C 4\n  Quarter Rest\n}\n\n";
+        for (int kind = 0; kind < kinds.length; kind++) {
+            Random random = new Random(42);
+            parser.parse(text, errorHandler);
+            List<Integer> notes = find(text, "  Quarter ");
+            long[] edits = new long[2 * numEdits];
+            long[] asts = new long[2 * numEdits];
+            long lexed = 0;
+            for (int e = -numEdits; e < numEdits; e++) {
+                int note = notes.get(random.nextInt(notes.size())) + "  Quarter ".length();
+                int phrase = text.lastIndexOf("Phrase ", note);
+                String edited = text.substring(0, note) + "G" + text.substring(note + 1);
+                // (an edit and the edit undoing it, each followed by fetching the AST)
+                for (int undo = 0; undo < 2; undo++) {
+                    long start = System.nanoTime();
+                    switch (kind) {
+                        case 0:
+                            parser.edit(note, 1, (undo == 0 ? "G" : text.substring(note, note + 1)),
+                                    errorHandler);
+                            break;
+                        case 1:
+                            parser.edit(note, undo, (undo == 0 ? "\n" : ""), errorHandler);
+                            break;
+                        case 2:
+                            parser.edit(phrase, (undo == 0 ? 0 : added.length()),
+                                    (undo == 0 ? added : ""), errorHandler);
+                            break;
+                        default:
+                            parser.update((undo == 0 ? edited : text), errorHandler);
+                            break;
+                    }
+                    long middle = System.nanoTime();
+                    parser.getFile();
+                    long end = System.nanoTime();
+                    lexed += parser.getReparsedLength();
+                    if (e >= 0) {
+                        edits[2 * e + undo] = middle - start;
+                        asts[2 * e + undo] = end - middle;
+                    }
+                }
+            }
+            long total = median(edits) + median(asts);
+            System.out.println(String.format("%-24s median %9.1f us  %8d characters lexed"
+                    + "  %5.0fx faster  (AST fetched: %.1f us more)", kinds[kind],
+                    median(edits) / 1e3, lexed / (4 * numEdits), (double) median(full) / total,
+                    median(asts) / 1e3));
+        }
+    }
+
+    /**
+     * Find every occurrence of a string in the source
+     *
+     * @param text   the source
+     * @param target the string
+     * @return the offset of each occurrence
+     */
+    private static List<Integer> find(String text, String target) {
+        List<Integer> found = new ArrayList<Integer>();
+        for (int at = text.indexOf(target); at >= 0; at = text.indexOf(target, at + 1)) {
+            found.add(at);
+        }
+        return found;
+    }
+
+    /**
+     * Count the lines of a source
+     *
+     * @param text the source
+     * @return the number of lines
+     */
+    private static int countLines(String text) {
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Median of some times
+     *
+     * @param times times in nanoseconds
+     * @return the median
+     */
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
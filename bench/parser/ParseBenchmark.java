@@ -0,0 +1,234 @@
+/* Cymbal Compiler
+   ParseBenchmark.java
+
+   Benchmark of the parser on a large song, optionally against the
+   parser of another build
+*/
+
+package parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The <tt>ParseBenchmark</tt> class writes a large song to a temporary
+ * file and times parsing it: the song is lexed into a
+ * <tt>TokenBuffer</tt> first (not timed), so that only the parser (its
+ * parse stack, the actions and the AST they build) is measured.  Given
+ * the classes of another build of the compiler (such as one whose CUP
+ * runtime keeps its parse stack in a <tt>java.util.Stack</tt>), it loads
+ * both builds in class loaders of their own and takes turns parsing with
+ * each, so that both see the same JIT and GC conditions.  The bytes
+ * allocated per token by the parser are reported as well, where the JVM
+ * can measure them.  The hand-written <tt>CymbalParser</tt> of this build
+ * is timed the same way, alongside the generated one.
+ * <p/>
+ * Usage: <tt>java parser.ParseBenchmark [&lt;megabytes&gt; [&lt;runs&gt;
+ * [&lt;other build's classes&gt;]]]</tt> (16 MB and 7 runs by default; the
+ * first two runs of each are warm-up).
+ */
+public class ParseBenchmark {
+    /**
+     * Number of warm-up runs of each build (not reported)
+     */
+    private static final int WARMUP = 2;
+
+    /**
+     * Notes in each generated phrase
+     */
+    private static final int NOTES_PER_PHRASE = 40;
+
+    /**
+     * Run the benchmark
+     *
+     * @param args optional size of the song in megabytes, number of runs and
+     *             class path of the build to compare with
+     * @throws Exception if the temporary file cannot be written, or a build
+     *                   cannot be loaded or fails to parse the song
+     */
+    public static void main(String[] args) throws Exception {
+        int megabytes = (args.length > 0 ? Integer.parseInt(args[0]) : 16);
+        int runs = (args.length > 1 ? Integer.parseInt(args[1]) : 7);
+
+        String[] names;
+        URL[] classes;
+        boolean[] hand;
+        URL current = Parser.class.getProtectionDomain().getCodeSource().getLocation();
+        if (args.length > 2) {
+            names = new String[] {"this build", "hand parser", args[2]};
+            classes = new URL[] {current, current, Paths.get(args[2]).toUri().toURL()};
+            hand = new boolean[] {false, true, false};
+        } else {
+            names = new String[] {"this build", "hand parser"};
+            classes = new URL[] {current, current};
+            hand = new boolean[] {false, true};
+        }
+
+        Path song = Files.createTempFile("cymbal-bench", ".cym");
+        URLClassLoader[] loaders = new URLClassLoader[classes.length];
+        try {
+            Files.write(song, generate(megabytes * 1024 * 1024).getBytes(StandardCharsets.US_ASCII));
+            System.out.println("song: " + Files.size(song) / 1024 + " KB, "
+                    + runs + " runs (+" + WARMUP + " warm-up)");
+            for (int b = 0; b < classes.length; b++) {
+                loaders[b] = new URLClassLoader(new URL[] {classes[b]},
+                        ClassLoader.getPlatformClassLoader());
+            }
+
+            long[][] times = new long[classes.length][runs];
+            long[][] bytes = new long[classes.length][runs];
+            int[] tokens = new int[classes.length];
+            for (int i = -WARMUP; i < runs; i++) {
+                // (each build goes first in turn)
+                for (int k = 0; k < classes.length; k++) {
+                    int b = (i + WARMUP + k) % classes.length;
+                    Object buffer = lex(loaders[b], song);
+                    tokens[b] = (Integer) buffer.getClass().getMethod("size").invoke(buffer);
+                    long allocated = allocatedBytes();
+                    long start = System.nanoTime();
+                    parse(loaders[b], buffer, hand[b]);
+                    long time = System.nanoTime() - start;
+                    allocated = allocatedBytes() - allocated;
+                    if (i >= 0) {
+                        times[b][i] = time;
+                        bytes[b][i] = allocated;
+                    }
+                }
+            }
+            for (int b = 1; b < classes.length; b++) {
+                if (tokens[b] != tokens[0]) {
+                    throw new IllegalStateException(names[0] + " and " + names[b]
+                            + " lexed " + tokens[0] + " and " + tokens[b] + " tokens");
+                }
+            }
+            System.out.println(tokens[0] + " tokens");
+            for (int b = 0; b < classes.length; b++) {
+                report(names[b], times[b], bytes[b], tokens[b]);
+            }
+        } finally {
+            for (URLClassLoader loader : loaders) {
+                if (loader != null) {
+                    loader.close();
+                }
+            }
+            Files.deleteIfExists(song);
+        }
+    }
+
+    /**
+     * Generate a song of about the given size: many phrases of quarter
+     * notes, some of them inside nested octave and volume blocks, and a
+     * Song that plays the first one
+     *
+     * @param size size of the song in characters
+     * @return the song
+     */
+    static String generate(int size) {
+        String[] pitches = {"A", "B", "C", "D", "E", "F", "G"};
+        String[] accidentals = {"", "#", "b"};
+        Random random = new Random(42);
+        StringBuilder song = new StringBuilder(size + 1024);
+        for (int p = 0; song.length() < size; p++) {
+            song.append("Phrase \"p").append(p).append("\" {\n");
+            for (int n = 0; n < NOTES_PER_PHRASE; n++) {
+                if (n % 10 == 0) {
+                    song.append("  Octave + { Volume forte {\n");
+                }
+                song.append("  Quarter ").append(pitches[random.nextInt(pitches.length)])
+                        .append(accidentals[random.nextInt(accidentals.length)])
+                        .append(1 + random.nextInt(6)).append('\n');
+                if (n % 10 == 9) {
+                    song.append("  } }\n");
+                }
+            }
+            song.append("}\n\n");
+        }
+        song.append("Song \"S\" 90 {\n  \"p0\"()\n}\n");
+        return song.toString();
+    }
+
+    /**
+     * Lex the song into a token buffer, with a build's lexer
+     *
+     * @param loader class loader of the build
+     * @param song   the song file
+     * @return the build's <tt>TokenBuffer</tt>
+     * @throws Exception if the build cannot be loaded or fails to lex the song
+     */
+    private static Object lex(ClassLoader loader, Path song) throws Exception {
+        Class<?> lexerClass = loader.loadClass("lexer.Lexer");
+        Class<?> sourceClass = loader.loadClass("lexer.TokenSource");
+        Class<?> bufferClass = loader.loadClass("lexer.TokenBuffer");
+        Object lexer = lexerClass.getConstructor(String[].class, boolean.class)
+                .newInstance(new String[] {song.toString()}, false);
+        return bufferClass.getConstructor(sourceClass).newInstance(lexer);
+    }
+
+    /**
+     * Parse the tokens in a token buffer, with a build's parser
+     *
+     * @param loader class loader of the build
+     * @param buffer the build's <tt>TokenBuffer</tt>
+     * @param hand   whether to parse with the build's hand-written parser
+     * @throws Exception if the build cannot be loaded or fails to parse the song
+     */
+    private static void parse(ClassLoader loader, Object buffer, boolean hand) throws Exception {
+        Class<?> parserClass = loader.loadClass(hand ? "parser.CymbalParser" : "parser.Parser");
+        Constructor<?> constructor = parserClass.getConstructor(loader.loadClass(
+                hand ? "lexer.TokenSource" : "java_cup.runtime.Scanner"));
+        Method parse = parserClass.getMethod("parse");
+        try {
+            if (parse.invoke(constructor.newInstance(buffer)) == null) {
+                throw new IllegalStateException("no parse tree from " + loader);
+            }
+        } catch (InvocationTargetException e) {
+            throw (e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Get the number of bytes allocated by this thread so far
+     *
+     * @return bytes allocated, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Print the median and best time of a build, and the median allocation
+     * per token
+     *
+     * @param name      name of the build
+     * @param times     elapsed time of each run in nanoseconds
+     * @param allocated bytes allocated in each run
+     * @param tokens    number of tokens in the song
+     */
+    private static void report(String name, long[] times, long[] allocated, int tokens) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        long[] sortedBytes = allocated.clone();
+        Arrays.sort(sortedBytes);
+        long medianBytes = sortedBytes[sortedBytes.length / 2];
+        System.out.println(String.format("%-12s median %8.1f ms  best %8.1f ms  %6.2f M tokens/s  %s",
+                name, median / 1e6, sorted[0] / 1e6, tokens / (median / 1e9) / 1e6,
+                (medianBytes < 0 ? "" : String.format("%6.1f B/token",
+                        medianBytes / (double) tokens))));
+    }
+}
@@ -0,0 +1,219 @@
+/* Cymbal Compiler
+   TableBenchmark.java
+
+   Benchmark of the parser's start-up: the size of its parse tables and
+   the time taken to initialize its class and decode the tables,
+   optionally against the parser of another build
+*/
+
+package parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * The <tt>TableBenchmark</tt> class measures what the parser's tables cost
+ * a compile before it has parsed anything: the bytes of the decoded
+ * tables (and of the class files they are compiled into), the time taken
+ * to load and initialize the <tt>Parser</tt> class, and the time taken to
+ * fetch the tables from a parser (decoding them, if the class has not
+ * done so already).  Each sample is taken in a JVM of its own, so that
+ * every one is a cold start like that of a compile; given the classes of
+ * another build of the compiler (such as one whose tables are decoded
+ * from rows when the class is initialized), the two builds take turns.
+ * <p/>
+ * Usage: <tt>java parser.TableBenchmark [&lt;runs&gt; [&lt;other build's
+ * classes&gt;]]</tt> (9 runs by default)
+ */
+public class TableBenchmark {
+    /**
+     * Bytes of the header of an array object (on a 64-bit JVM)
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * Bytes of a reference to an array in an array of arrays (compressed)
+     */
+    private static final int REFERENCE = 4;
+
+    /**
+     * Run the benchmark, or with <tt>-once &lt;classes&gt;</tt> take one
+     * sample of a build and print it
+     *
+     * @param args optional number of runs and class path of the build to
+     *             compare with
+     * @throws Exception if a build cannot be loaded, or a sample fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("-once")) {
+            sample(Paths.get(args[1]));
+            return;
+        }
+        int runs = (args.length > 0 ? Integer.parseInt(args[0]) : 9);
+
+        String[] names;
+        Path[] classes;
+        Path current = Paths.get(Parser.class.getProtectionDomain()
+                .getCodeSource().getLocation().toURI());
+        if (args.length > 1) {
+            names = new String[] {"this build", args[1]};
+            classes = new Path[] {current, Paths.get(args[1])};
+        } else {
+            names = new String[] {"this build"};
+            classes = new Path[] {current};
+        }
+
+        long[][] init = new long[classes.length][runs];
+        long[][] use = new long[classes.length][runs];
+        String[] tables = new String[classes.length];
+        for (int i = 0; i < runs; i++) {
+            // (each build goes first in turn)
+            for (int k = 0; k < classes.length; k++) {
+                int b = (i + k) % classes.length;
+                String[] fields = fork(classes[b]).split(" ");
+                init[b][i] = Long.parseLong(fields[0]);
+                use[b][i] = Long.parseLong(fields[1]);
+                tables[b] = fields[2] + " B decoded (" + fields[3] + " B on the heap), "
+                        + fields[4] + " B of class files";
+            }
+        }
+        System.out.println(runs + " runs, each in a new JVM; median times");
+        for (int b = 0; b < classes.length; b++) {
+            System.out.println(String.format("%-12s class init %7.3f ms  first use %7.3f ms  "
+                    + "total %7.3f ms", names[b], median(init[b]) / 1e6, median(use[b]) / 1e6,
+                    (median(init[b]) + median(use[b])) / 1e6));
+            System.out.println(String.format("%-12s tables: %s", "", tables[b]));
+        }
+    }
+
+    /**
+     * Take one sample of a build in a new JVM
+     *
+     * @param classes class path of the build
+     * @return the line the sample printed
+     * @throws Exception if the JVM cannot be started, or the sample fails
+     */
+    private static String fork(Path classes) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TableBenchmark.class.getName(), "-once", classes.toString())
+                .redirectErrorStream(true).start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line = reader.readLine();
+        String rest;
+        while ((rest = reader.readLine()) != null) {
+            line += "\n" + rest;
+        }
+        if (process.waitFor() != 0 || line == null) {
+            throw new IllegalStateException("sample of " + classes + " failed: " + line);
+        }
+        return line;
+    }
+
+    /**
+     * Load a build's parser in a class loader of its own and print the time
+     * taken to initialize the class, the time taken to fetch a parser's
+     * tables, the bytes of the tables' elements and on the heap,
+     * and the bytes of the parser's class files other than its actions
+     *
+     * @param classes class path of the build
+     * @throws Exception if the build cannot be loaded
+     */
+    private static void sample(Path classes) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                ClassLoader.getPlatformClassLoader());
+        // (the runtime's classes are the same for any parser, so they are
+        // loaded first, and only the parser's own class is timed)
+        Class<?> runtime = Class.forName("java_cup.runtime.lr_parser", true, loader);
+        Class.forName("java_cup.runtime.Symbol", true, loader);
+        long start = System.nanoTime();
+        Class<?> parserClass = Class.forName("parser.Parser", true, loader);
+        long init = System.nanoTime() - start;
+
+        Object parser = parserClass.getConstructor().newInstance();
+        Method[] methods = {
+            parserClass.getMethod("production_table"), null,
+            parserClass.getMethod("action_table"), method(runtime, "action_comb_table"),
+            parserClass.getMethod("reduce_table"), method(runtime, "reduce_comb_table")
+        };
+        start = System.nanoTime();
+        Object[] tables = new Object[methods.length / 2];
+        for (int t = 0; t < tables.length; t++) {
+            if (methods[2 * t + 1] != null) {
+                tables[t] = methods[2 * t + 1].invoke(parser);
+            }
+            if (tables[t] == null) {
+                tables[t] = methods[2 * t].invoke(parser);
+            }
+        }
+        long use = System.nanoTime() - start;
+
+        long decoded = 0;
+        long heap = 0;
+        for (Object table : tables) {
+            if (table instanceof short[][]) {
+                short[][] rows = (short[][]) table;
+                heap += ARRAY_HEADER + REFERENCE * rows.length;
+                for (short[] row : rows) {
+                    if (row != null) {
+                        decoded += 2 * row.length;
+                        heap += ARRAY_HEADER + 2 * row.length;
+                    }
+                }
+            } else {
+                // (a comb table: its four arrays, and the object holding them)
+                long bytes = ((Integer) table.getClass().getMethod("footprint").invoke(table));
+                decoded += bytes;
+                heap += bytes + 4 * ARRAY_HEADER + ARRAY_HEADER + 4 * REFERENCE;
+            }
+        }
+
+        long classBytes = 0;
+        File[] files = classes.resolve("parser").toFile().listFiles();
+        for (File file : (files == null ? new File[0] : files)) {
+            String name = file.getName();
+            if (name.equals("Parser.class")
+                    || (name.startsWith("Parser$") && !name.contains("actions"))) {
+                classBytes += Files.size(file.toPath());
+            }
+        }
+        System.out.println(init + " " + use + " " + decoded + " " + heap + " " + classBytes);
+    }
+
+    /**
+     * Find a method of the CUP runtime's parser class, if the build has it
+     *
+     * @param runtime the build's <tt>lr_parser</tt> class
+     * @param name    name of the method
+     * @return the method, or null for a build without it (such as one from
+     * before comb-compressed tables)
+     */
+    private static Method method(Class<?> runtime, String name) {
+        try {
+            return runtime.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Median of some times
+     *
+     * @param times times in nanoseconds
+     * @return the median
+     */
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,201 @@
+/*
+file: BatchCompiler.java
+
+Batch mode for Main ("-batch <dir> [-outdir <dir>] [-jobs <num>]"):
+compiles every song in a directory tree to its own .s file in one JVM.
+*/
+
+import ast.File;
+import util.CompilationException;
+import visitor.NoteCountVisitor;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <tt>BatchCompiler</tt> class compiles each <tt>.cym</tt> file found
+ * under a directory as an independent song, writing <tt>name.s</tt> to the
+ * matching place under the output directory.
+ * <p/>
+ * Compiles run on a fixed pool of worker threads (at most <tt>numJobs</tt>
+ * at a time), largest file first so that one long song does not start
+ * last and stretch the run.  A file with errors is reported and skipped;
+ * it does not stop the other compiles.  At the end a summary with the
+ * throughput in files and notes per second is printed.
+ */
+public class BatchCompiler {
+    /**
+     * Options of every compile (shared by the workers, and never changed)
+     */
+    private Main.CompileOptions options;
+
+    /**
+     * Directory that is searched for .cym files
+     */
+    private Path srcDir;
+
+    /**
+     * Directory the .s files are written to
+     */
+    private Path destDir;
+
+    /**
+     * Maximum number of concurrent compiles
+     */
+    private int numJobs;
+
+    /**
+     * Number of files compiled without errors
+     */
+    private AtomicInteger numCompiled = new AtomicInteger();
+
+    /**
+     * Number of notes in the files compiled without errors
+     */
+    private AtomicLong numNotes = new AtomicLong();
+
+    /**
+     * Files that failed to compile
+     */
+    private List<Path> failed = Collections.synchronizedList(new ArrayList<Path>());
+
+    /**
+     * BatchCompiler constructor
+     *
+     * @param options options of every compile
+     * @param srcDir  directory that is searched for .cym files
+     * @param destDir directory the .s files are written to
+     * @param numJobs maximum number of concurrent compiles
+     */
+    public BatchCompiler(Main.CompileOptions options, String srcDir, String destDir,
+                         int numJobs) {
+        this.options = options;
+        this.srcDir = Paths.get(srcDir);
+        this.destDir = Paths.get(destDir);
+        this.numJobs = numJobs;
+    }
+
+    /**
+     * Compile every song and print the summary
+     *
+     * @return exit status (0 if every file compiled, 1 otherwise)
+     * @throws IOException          if the directory cannot be searched
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public int run() throws IOException, InterruptedException {
+        List<Path> songs = findSongs();
+        if (songs.isEmpty()) {
+            options.stderr.println("Error: no .cym files in '" + srcDir + "'");
+            throw new CompilationException("no .cym files in '" + srcDir + "'");
+        }
+
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(numJobs, songs.size()));
+        for (final Path song : songs) {
+            workers.execute(new Runnable() {
+                public void run() {
+                    compile(song);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // summary
+        options.stdout.println("batch: " + numCompiled.get() + " compiled, " + failed.size()
+                + " failed, in " + String.format("%.3f", seconds) + " s");
+        options.stdout.println("batch: " + String.format("%.1f", songs.size() / seconds) + " files/s, "
+                + String.format("%.1f", numNotes.get() / seconds) + " notes/s");
+        Collections.sort(failed);
+        for (Path song : failed) {
+            options.stdout.println("failed: " + song);
+        }
+        int missing = songs.size() - numCompiled.get() - failed.size();
+        if (missing != 0) {
+            // (a worker lost a file without recording it: never a success)
+            options.stderr.println("Error: " + missing + " of " + songs.size()
+                    + " files were neither compiled nor failed");
+            return 1;
+        }
+        return failed.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Find the .cym files under the source directory, largest first
+     *
+     * @return list of song files
+     * @throws IOException if the directory cannot be searched
+     */
+    private List<Path> findSongs() throws IOException {
+        final List<Path> songs = new ArrayList<Path>();
+        Files.walkFileTree(srcDir, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".cym")) {
+                    songs.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        // the work queue is FIFO, so this schedules the largest files first
+        final Map<Path, Long> sizes = new HashMap<Path, Long>();
+        for (Path song : songs) {
+            sizes.put(song, Files.size(song));
+        }
+        Collections.sort(songs, new Comparator<Path>() {
+            public int compare(Path a, Path b) {
+                int bySize = sizes.get(b).compareTo(sizes.get(a));
+                return bySize != 0 ? bySize : a.compareTo(b);
+            }
+        });
+        return songs;
+    }
+
+    /**
+     * Compile one song, recording whether it succeeded
+     *
+     * @param song the .cym file to compile
+     */
+    private void compile(Path song) {
+        String name = srcDir.relativize(song).toString();
+        Path out = destDir.resolve(name.substring(0, name.length() - ".cym".length()) + ".s");
+        try {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            File file = Main.compileFiles(options, new String[] {song.toString()},
+                    out.toString());
+            if (file != null) {
+                // (not counted when the output came from the compile cache)
+                numNotes.addAndGet(new NoteCountVisitor().countNotes(file));
+            }
+            numCompiled.incrementAndGet();
+        } catch (CompilationException e) {
+            // errors have already been reported
+            failed.add(song);
+        } catch (Throwable e) {
+            // (an Error too, such as the lexer's or a stack overflow: the
+            // other files go on)
+            e.printStackTrace(options.stderr);
+            options.stderr.println("Internal error within compiler while compiling " + song);
+            failed.add(song);
+        }
+    }
+}
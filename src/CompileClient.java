@@ -0,0 +1,97 @@
+/*
+file: CompileClient.java
+
+Thin client for CompileDaemon: forwards its commandline to a running
+daemon and replays the daemon's output and exit status.
+*/
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * The <tt>CompileClient</tt> class sends its arguments to a running
+ * <tt>CompileDaemon</tt> and behaves as if the compiler had run
+ * locally: it prints the compiler's output and exits with the
+ * compiler's exit status.  It also reports how long the compile took
+ * inside the daemon.
+ * <p/>
+ * Usage: <tt>CompileClient [-port &lt;port&gt;] &lt;compiler arguments&gt;</tt>
+ *
+ * @see CompileDaemon
+ */
+public class CompileClient {
+    /**
+     * Main method, forwards the arguments to the daemon
+     *
+     * @param args optional -port flag followed by the compiler arguments
+     */
+    public static void main(String[] args) {
+        int port = CompileDaemon.DEFAULT_PORT;
+        int first = 0;
+        if (args.length >= 1 && args[0].equals("-port")) {
+            if (args.length == 1 || !args[1].matches("[1-9][0-9]{0,4}")
+                    || Integer.parseInt(args[1]) > 65535) {
+                System.err.println("Usage error: must specify a port number (1 to 65535) with -port");
+                System.err.println("Usage: CompileClient [-port <port>] <compiler arguments>");
+                System.exit(1);
+            }
+            port = Integer.parseInt(args[1]);
+            first = 2;
+        }
+
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        } catch (IOException e) {
+            System.err.println("Error: no Cymbal compile daemon on port " + port
+                    + " (" + e.getMessage() + ")");
+            System.exit(1);
+            return;
+        }
+
+        try {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // send the working directory and the arguments
+            out.writeUTF(System.getProperty("user.dir"));
+            out.writeInt(args.length - first);
+            for (int i = first; i < args.length; i++) {
+                out.writeUTF(args[i]);
+            }
+            out.flush();
+
+            // replay the reply
+            int status = in.readInt();
+            long elapsed = in.readLong();
+            System.out.write(readBytes(in));
+            System.out.flush();
+            System.err.write(readBytes(in));
+            System.err.println("# compiled by daemon in "
+                    + String.format("%.3f", elapsed / 1e6) + " ms");
+            socket.close();
+            System.exit(status);
+        } catch (IOException e) {
+            // (the daemon was there, but the request or its reply was cut off)
+            System.err.println("Error: lost the connection to the Cymbal compile daemon on port "
+                    + port + " (" + e + ")");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read a length-prefixed block of bytes
+     *
+     * @param in stream to read from
+     * @return the bytes read
+     * @throws IOException if the read fails
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+file: CompileDaemon.java
+
+Keeps one compiler JVM warm between compiles.  Started with
+"Main -daemon [<port>]" and driven by CompileClient.
+*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * The <tt>CompileDaemon</tt> class listens on a local socket and runs
+ * each compile request through <tt>Main.compile</tt> in this JVM, so
+ * repeated compiles skip JVM startup, loading of the lexer and parser
+ * tables and JIT warm-up.
+ * <p/>
+ * A request is the client's working directory followed by its
+ * commandline arguments.  The reply is the exit status, the time the
+ * compile took (in nanoseconds) and what the compile printed to its
+ * standard output and standard error, which <tt>Main.compile</tt> is
+ * given as streams (System.out and System.err stay the daemon's own, so
+ * the parser's trace of -dp is printed by the daemon).  Requests are
+ * handled one at a time, in the order they arrive.  A compile that
+ * throws anything, an <tt>Error</tt> included (such as a stack overflow
+ * on deeply nested blocks), fails with status 1 and the stack trace in
+ * its standard error, and the daemon goes on to the next request.
+ *
+ * @see CompileClient
+ */
+public class CompileDaemon {
+    /**
+     * Port used when none is given on the commandline
+     */
+    public static final int DEFAULT_PORT = 7461;
+
+    /**
+     * Port the daemon listens on
+     */
+    private int port;
+
+    /**
+     * Number of requests handled so far
+     */
+    private int numRequests = 0;
+
+    /**
+     * CompileDaemon constructor
+     *
+     * @param port port to listen on (loopback interface only)
+     */
+    public CompileDaemon(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Accept and handle compile requests until the JVM is stopped
+     *
+     * @throws IOException if the server socket cannot be opened
+     */
+    public void serve() throws IOException {
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        System.err.println("Cymbal compile daemon listening on port " + port);
+
+        while (true) {
+            Socket socket = server.accept();
+            try {
+                handle(socket);
+            } catch (IOException e) {
+                System.err.println("request failed: " + e.getMessage());
+            } catch (Throwable e) {
+                // whatever one request does, keep serving the others
+                System.err.println("request failed: " + e);
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * Read one request, compile it and send back the reply
+     *
+     * @param socket connection to the client
+     * @throws IOException if the connection fails
+     */
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+        // read the working directory and the arguments
+        String workDir = in.readUTF();
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        // compile, capturing what the compiler prints for the client
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        PrintStream compileOut = new PrintStream(outBytes, true);
+        PrintStream compileErr = new PrintStream(errBytes, true);
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = Main.compile(args, new java.io.File(workDir), compileOut, compileErr);
+        } catch (Throwable e) {
+            // (an Error, which Main.compile lets through as a local compile would)
+            e.printStackTrace(compileErr);
+            compileErr.println("Internal error within compiler: stopping compilation");
+            status = 1;
+        }
+        compileOut.flush();
+        compileErr.flush();
+        long elapsed = System.nanoTime() - start;
+
+        numRequests++;
+        System.err.println("request " + numRequests + ": "
+                + (status == 0 ? "ok" : "failed") + " in "
+                + String.format("%.3f", elapsed / 1e6) + " ms");
+
+        // send the reply
+        out.writeInt(status);
+        out.writeLong(elapsed);
+        writeBytes(out, outBytes.toByteArray());
+        writeBytes(out, errBytes.toByteArray());
+        out.flush();
+    }
+
+    /**
+     * Write a length-prefixed block of bytes
+     *
+     * @param out   stream to write to
+     * @param bytes bytes to write
+     * @throws IOException if the write fails
+     */
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+file: CompileWatcher.java
+
+Watch mode for Main ("-watch"): recompiles the song every time one of
+its input files is saved, without restarting the JVM.
+*/
+
+import util.CompilationException;
+import util.CompileCache;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The <tt>CompileWatcher</tt> class compiles the input files once and then
+ * watches their directories, recompiling whenever an input file changes.
+ * <p/>
+ * Editors often write a file in several steps (truncate, write, rename),
+ * so after the first change the watcher waits until the directories have
+ * been quiet for <tt>DEBOUNCE_MS</tt> before compiling.  A save that
+ * leaves every input file's contents as they were does not trigger a
+ * compile.  The input files' ASTs are kept from one compile to the next,
+ * and each compile reparses only the phrases and Songs that changed (see
+ * <tt>IncrementalParser</tt>).  Each cycle still reads every input file
+ * twice (once to hash it, once to find what changed against the old
+ * version), so its cost grows with the size of the files even when only
+ * a note changed; the generated code is always written in full.  Each
+ * cycle reports how long the compile took and how long after the save
+ * the output file was rewritten.  It runs until the JVM is stopped.
+ */
+public class CompileWatcher {
+    /**
+     * Quiet period (in milliseconds) that ends a burst of changes
+     */
+    private static final long DEBOUNCE_MS = 100;
+
+    /**
+     * Options of every compile
+     */
+    private Main.CompileOptions options;
+
+    /**
+     * Input file names
+     */
+    private String[] inFiles;
+
+    /**
+     * Output file name
+     */
+    private String outFile;
+
+    /**
+     * Absolute paths of the input files, for matching change events
+     */
+    private Set<Path> watched = new HashSet<Path>();
+
+    /**
+     * Hash of the input files' contents at the last compile
+     */
+    private String lastHash = null;
+
+    /**
+     * CompileWatcher constructor
+     *
+     * @param options options of every compile
+     * @param inFiles input file names
+     * @param outFile output file name
+     */
+    public CompileWatcher(Main.CompileOptions options, String[] inFiles, String outFile) {
+        this.options = options;
+        this.inFiles = inFiles;
+        this.outFile = outFile;
+    }
+
+    /**
+     * Compile, then recompile on every change until the JVM is stopped
+     *
+     * @return never returns normally
+     * @throws IOException          if the directories cannot be watched
+     * @throws InterruptedException if interrupted while waiting for changes
+     */
+    public int run() throws IOException, InterruptedException {
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        Set<Path> dirs = new HashSet<Path>();
+        for (String inFile : inFiles) {
+            Path path = Paths.get(inFile).toAbsolutePath().normalize();
+            watched.add(path);
+            if (dirs.add(path.getParent())) {
+                // editors that save by renaming a temporary file produce ENTRY_CREATE
+                path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+
+        rebuild();
+        options.stderr.println("watch: waiting for changes to " + watched.size()
+                + " input file(s) (Ctrl-C to stop)");
+
+        while (true) {
+            if (!drain(watcher.take())) {
+                continue;
+            }
+            // debounce: wait until the burst of changes is over
+            WatchKey key;
+            while ((key = watcher.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                drain(key);
+            }
+            rebuild();
+        }
+    }
+
+    /**
+     * Consume the events of a watch key and re-arm it
+     *
+     * @param key key that has been signalled
+     * @return true if any event may concern an input file
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost, so assume the worst
+                relevant = true;
+            }
+            else if (watched.contains(dir.resolve((Path) event.context()))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Compile the input files if their contents changed since the last compile,
+     * and report the timing
+     */
+    private void rebuild() {
+        String hash;
+        long saved = 0;
+        try {
+            hash = CompileCache.hash("", inFiles);
+            for (String inFile : inFiles) {
+                saved = Math.max(saved, Files.getLastModifiedTime(Paths.get(inFile)).toMillis());
+            }
+        } catch (IOException e) {
+            // an input file is missing or mid-save; its next event brings us back
+            return;
+        }
+        if (hash.equals(lastHash)) {
+            return;
+        }
+        boolean first = (lastHash == null);
+        lastHash = hash;
+
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            Main.compileFiles(options, inFiles, outFile);
+            ok = true;
+        } catch (CompilationException e) {
+            // errors have already been reported
+            ok = false;
+        } catch (Throwable e) {
+            // (an Error too, e.g. the lexer's for a '\r' in a string: a
+            // failed compile never ends the watch)
+            e.printStackTrace(options.stderr);
+            options.stderr.println("Internal error within compiler: stopping compilation");
+            ok = false;
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        long sinceSave = System.currentTimeMillis() - saved;
+
+        if (ok && first) {
+            options.stderr.println("watch: wrote " + outFile + " in " + elapsed + " ms");
+        }
+        else if (ok) {
+            options.stderr.println("watch: rewrote " + outFile + " in " + elapsed + " ms ("
+                    + sinceSave + " ms after save)");
+        }
+        else {
+            options.stderr.println("watch: errors, " + outFile + " not rewritten (after "
+                    + elapsed + " ms)");
+        }
+    }
+}
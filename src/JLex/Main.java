@@ -293,6 +293,7 @@ class CSpec {
     boolean m_unix;
     boolean m_public;
     boolean m_ignorecase;
+    boolean m_byte_input;
 
     char m_init_code[];
     int m_init_read;
@@ -378,6 +379,7 @@ class CSpec {
         m_public = false;
         m_yyeof = false;
         m_ignorecase = false;
+        m_byte_input = false;
 
 	/* Initialize variables for JLex runtime options. */
         m_verbose = true;
@@ -652,10 +654,10 @@ class CEmit {
         m_outstream.println("\tprivate final int YY_F = -1;");
         m_outstream.println("\tprivate final int YY_NO_STATE = -1;");
 
-        m_outstream.println("\tprivate final int YY_NOT_ACCEPT = 0;");
-        m_outstream.println("\tprivate final int YY_START = 1;");
-        m_outstream.println("\tprivate final int YY_END = 2;");
-        m_outstream.println("\tprivate final int YY_NO_ANCHOR = 4;");
+        m_outstream.println("\tprivate static final int YY_NOT_ACCEPT = 0;");
+        m_outstream.println("\tprivate static final int YY_START = 1;");
+        m_outstream.println("\tprivate static final int YY_END = 2;");
+        m_outstream.println("\tprivate static final int YY_NO_ANCHOR = 4;");
 
         // internal
         m_outstream.println("\tprivate final int YY_BOL = " + m_spec.BOL + ";");
@@ -678,6 +680,9 @@ class CEmit {
         m_outstream.println("\tprivate int yy_buffer_start;");
         m_outstream.println("\tprivate int yy_buffer_end;");
         m_outstream.println("\tprivate char yy_buffer[];");
+        if (m_spec.m_byte_input) {
+            m_outstream.println("\tprivate java.nio.ByteBuffer yy_bytes;");
+        }
         if (m_spec.m_count_chars) {
             m_outstream.println("\tprivate int yychar;");
         }
@@ -829,7 +834,7 @@ class CEmit {
 	      /*++index;*/
         }
 
-        m_outstream.println("\tprivate final int yy_state_dtrans[] = {");
+        m_outstream.println("\tprivate static final int yy_state_dtrans[] = {");
         for (index = 0; index < m_spec.m_state_dtrans.length; ++index) {
             m_outstream.print("\t\t" + m_spec.m_state_dtrans[index]);
             if (index < m_spec.m_state_dtrans.length - 1) {
@@ -842,6 +847,23 @@ class CEmit {
         m_outstream.println("\t};");
     }
 
+    /**
+     * ************************************************************
+     * Function: yy_char
+     * Description: Returns the expression for the input character
+     * at an index (of yy_buffer, or of yy_bytes under %byteinput).
+     * ************************************************************
+     */
+    private String yy_char
+    (
+            String index
+    ) {
+        if (m_spec.m_byte_input) {
+            return "yy_char(" + index + ")";
+        }
+        return "yy_buffer[" + index + "]";
+    }
+
     /**
      * ************************************************************
      * Function: emit_helpers
@@ -903,6 +925,16 @@ class CEmit {
         m_outstream.println("\t\tint j;");
         m_outstream.println();
 
+        if (m_spec.m_byte_input) {
+            m_outstream.println("\t\tif (null != yy_bytes) {");
+            m_outstream.println("\t\t\tif (yy_buffer_index < yy_buffer_read) {");
+            m_outstream.println("\t\t\t\treturn yy_bytes.get(yy_buffer_index++) & 0xff;");
+            m_outstream.println("\t\t\t}");
+            m_outstream.println("\t\t\treturn YY_EOF;");
+            m_outstream.println("\t\t}");
+            m_outstream.println();
+        }
+
         m_outstream.println("\t\tif (yy_buffer_index < yy_buffer_read) {");
         m_outstream.println("\t\t\treturn yy_buffer[yy_buffer_index++];");
 	/*m_outstream.println("\t\t\t++yy_buffer_index;");*/
@@ -947,13 +979,21 @@ class CEmit {
         m_outstream.println("\t\treturn yy_buffer[yy_buffer_index++];");
         m_outstream.println("\t}");
 	
+	/* Function: yy_char */
+        if (m_spec.m_byte_input) {
+            m_outstream.println("\tprivate int yy_char (int index) {");
+            m_outstream.println("\t\treturn (null != yy_bytes) ? "
+                    + "(yy_bytes.get(index) & 0xff) : yy_buffer[index];");
+            m_outstream.println("\t}");
+        }
+
 	/* Function: yy_move_end */
         m_outstream.println("\tprivate void yy_move_end () {");
         m_outstream.println("\t\tif (yy_buffer_end > yy_buffer_start &&");
-        m_outstream.println("\t\t    '\\n' == yy_buffer[yy_buffer_end-1])");
+        m_outstream.println("\t\t    '\\n' == " + yy_char("yy_buffer_end-1") + ")");
         m_outstream.println("\t\t\tyy_buffer_end--;");
         m_outstream.println("\t\tif (yy_buffer_end > yy_buffer_start &&");
-        m_outstream.println("\t\t    '\\r' == yy_buffer[yy_buffer_end-1])");
+        m_outstream.println("\t\t    '\\r' == " + yy_char("yy_buffer_end-1") + ")");
         m_outstream.println("\t\t\tyy_buffer_end--;");
         m_outstream.println("\t}");
 
@@ -965,10 +1005,10 @@ class CEmit {
                 m_outstream.println("\t\tint i;");
                 m_outstream.println("\t\tfor (i = yy_buffer_start; "
                         + "i < yy_buffer_index; ++i) {");
-                m_outstream.println("\t\t\tif ('\\n' == yy_buffer[i] && !yy_last_was_cr) {");
+                m_outstream.println("\t\t\tif ('\\n' == " + yy_char("i") + " && !yy_last_was_cr) {");
                 m_outstream.println("\t\t\t\t++yyline;");
                 m_outstream.println("\t\t\t}");
-                m_outstream.println("\t\t\tif ('\\r' == yy_buffer[i]) {");
+                m_outstream.println("\t\t\tif ('\\r' == " + yy_char("i") + ") {");
                 m_outstream.println("\t\t\t\t++yyline;");
                 m_outstream.println("\t\t\t\tyy_last_was_cr=true;");
                 m_outstream.println("\t\t\t} else yy_last_was_cr=false;");
@@ -993,17 +1033,26 @@ class CEmit {
         m_outstream.println("\t\tyy_at_bol = " +
                 "(yy_buffer_end > yy_buffer_start) &&");
         m_outstream.println("\t\t            " +
-                "('\\r' == yy_buffer[yy_buffer_end-1] ||");
+                "('\\r' == " + yy_char("yy_buffer_end-1") + " ||");
         m_outstream.println("\t\t            " +
-                " '\\n' == yy_buffer[yy_buffer_end-1] ||");
+                " '\\n' == " + yy_char("yy_buffer_end-1") + " ||");
         m_outstream.println("\t\t            " + /* unicode LS */
-                " 2028/*LS*/ == yy_buffer[yy_buffer_end-1] ||");
+                " 2028/*LS*/ == " + yy_char("yy_buffer_end-1") + " ||");
         m_outstream.println("\t\t            " + /* unicode PS */
-                " 2029/*PS*/ == yy_buffer[yy_buffer_end-1]);");
+                " 2029/*PS*/ == " + yy_char("yy_buffer_end-1") + ");");
         m_outstream.println("\t}");
 
 	/* Function: yytext */
         m_outstream.println("\tprivate java.lang.String yytext () {");
+        if (m_spec.m_byte_input) {
+            m_outstream.println("\t\tif (null != yy_bytes) {");
+            m_outstream.println("\t\t\tchar text[] = new char[yy_buffer_end - yy_buffer_start];");
+            m_outstream.println("\t\t\tfor (int i = 0; i < text.length; ++i) {");
+            m_outstream.println("\t\t\t\ttext[i] = (char) (yy_bytes.get(yy_buffer_start + i) & 0xff);");
+            m_outstream.println("\t\t\t}");
+            m_outstream.println("\t\t\treturn (new java.lang.String(text));");
+            m_outstream.println("\t\t}");
+        }
         m_outstream.println("\t\treturn (new java.lang.String(yy_buffer,");
         m_outstream.println("\t\t\tyy_buffer_start,");
         m_outstream.println("\t\t\tyy_buffer_end - yy_buffer_start));");
@@ -1014,6 +1063,11 @@ class CEmit {
         m_outstream.println("\t\treturn yy_buffer_end - yy_buffer_start;");
         m_outstream.println("\t}");
 
+	/* Function: yycharat */
+        m_outstream.println("\tprivate char yycharat (int pos) {");
+        m_outstream.println("\t\treturn (char) " + yy_char("yy_buffer_start + pos") + ";");
+        m_outstream.println("\t}");
+
 	/* Function: yy_double */
         m_outstream.println("\tprivate char[] yy_double (char buf[]) {");
         m_outstream.println("\t\tint i;");
@@ -1025,6 +1079,19 @@ class CEmit {
         m_outstream.println("\t\treturn newbuf;");
         m_outstream.println("\t}");
 
+	/* Function: yy_switch_input */
+        if (m_spec.m_byte_input) {
+            m_outstream.println("\tprivate void yy_switch_input (java.io.BufferedReader reader,");
+            m_outstream.println("\t\t\tjava.nio.ByteBuffer bytes) {");
+            m_outstream.println("\t\tyy_reader = reader;");
+            m_outstream.println("\t\tyy_bytes = bytes;");
+            m_outstream.println("\t\tyy_buffer_read = (null != bytes) ? bytes.limit() : 0;");
+            m_outstream.println("\t\tyy_buffer_index = 0;");
+            m_outstream.println("\t\tyy_buffer_start = 0;");
+            m_outstream.println("\t\tyy_buffer_end = 0;");
+            m_outstream.println("\t}");
+        }
+
 	/* Function: yy_error */
         m_outstream.println("\tprivate final int YY_E_INTERNAL = 0;");
         m_outstream.println("\tprivate final int YY_E_MATCH = 1;");
@@ -1051,45 +1118,25 @@ class CEmit {
 	m_outstream.println("\t}");*/
 
 
-        // Function: private int [][] unpackFromString(int size1, int size2, String st)
+        // Function: private static int [][] unpackFromString(int size1, int size2, String st)
         // Added 6/24/98 Raimondas Lencevicius
-        // May be made more efficient by replacing String operations
-        // Assumes correctly formed input String. Performs no error checking
-        m_outstream.println("\tprivate int[][] unpackFromString" +
+        // The tables are static, so they are unpacked once when the class
+        // is loaded rather than for every lexer; each run of equal values
+        // is a pair of chars (length, value + 1), read without any String
+        // operations.  Assumes correctly formed input String.
+        m_outstream.println("\tprivate static int[][] unpackFromString" +
                 "(int size1, int size2, String st) {");
-        m_outstream.println("\t\tint colonIndex = -1;");
-        m_outstream.println("\t\tString lengthString;");
+        m_outstream.println("\t\tint index = 0;");
         m_outstream.println("\t\tint sequenceLength = 0;");
         m_outstream.println("\t\tint sequenceInteger = 0;");
         m_outstream.println();
-        m_outstream.println("\t\tint commaIndex;");
-        m_outstream.println("\t\tString workString;");
-        m_outstream.println();
         m_outstream.println("\t\tint res[][] = new int[size1][size2];");
         m_outstream.println("\t\tfor (int i= 0; i < size1; i++) {");
         m_outstream.println("\t\t\tfor (int j= 0; j < size2; j++) {");
-        m_outstream.println("\t\t\t\tif (sequenceLength != 0) {");
-        m_outstream.println("\t\t\t\t\tres[i][j] = sequenceInteger;");
-        m_outstream.println("\t\t\t\t\tsequenceLength--;");
-        m_outstream.println("\t\t\t\t\tcontinue;");
-        m_outstream.println("\t\t\t\t}");
-        m_outstream.println("\t\t\t\tcommaIndex = st.indexOf(',');");
-        m_outstream.println("\t\t\t\tworkString = (commaIndex==-1) ? st :");
-        m_outstream.println("\t\t\t\t\tst.substring(0, commaIndex);");
-        m_outstream.println("\t\t\t\tst = st.substring(commaIndex+1);");
-        m_outstream.println("\t\t\t\tcolonIndex = workString.indexOf(':');");
-        m_outstream.println("\t\t\t\tif (colonIndex == -1) {");
-        m_outstream.println("\t\t\t\t\tres[i][j]=Integer.parseInt(workString);");
-        m_outstream.println("\t\t\t\t\tcontinue;");
+        m_outstream.println("\t\t\t\tif (sequenceLength == 0) {");
+        m_outstream.println("\t\t\t\t\tsequenceLength = st.charAt(index++);");
+        m_outstream.println("\t\t\t\t\tsequenceInteger = st.charAt(index++) - 1;");
         m_outstream.println("\t\t\t\t}");
-        m_outstream.println("\t\t\t\tlengthString =");
-        m_outstream.println("\t\t\t\t\tworkString.substring(colonIndex+1);");
-        m_outstream.println("\t\t\t\tsequenceLength=" +
-                "Integer.parseInt(lengthString);");
-        m_outstream.println("\t\t\t\tworkString=" +
-                "workString.substring(0,colonIndex);");
-        m_outstream.println("\t\t\t\tsequenceInteger=" +
-                "Integer.parseInt(workString);");
         m_outstream.println("\t\t\t\tres[i][j] = sequenceInteger;");
         m_outstream.println("\t\t\t\tsequenceLength--;");
         m_outstream.println("\t\t\t}");
@@ -1152,7 +1199,7 @@ class CEmit {
             CUtility.ASSERT(null != m_outstream);
         }
 
-        m_outstream.println("\tprivate int yy_acpt[] = {");
+        m_outstream.println("\tprivate static final int yy_acpt[] = {");
         size = m_spec.m_accept_vector.size();
         for (elem = 0; elem < size; ++elem) {
             accept = (CAccept) m_spec.m_accept_vector.elementAt(elem);
@@ -1191,13 +1238,13 @@ class CEmit {
         int[] yy_cmap = new int[m_spec.m_ccls_map.length];
         for (i = 0; i < m_spec.m_ccls_map.length; ++i)
             yy_cmap[i] = m_spec.m_col_map[m_spec.m_ccls_map[i]];
-        m_outstream.print("\tprivate int yy_cmap[] = unpackFromString(");
+        m_outstream.print("\tprivate static final int yy_cmap[] = unpackFromString(");
         emit_table_as_string(new int[][]{yy_cmap});
         m_outstream.println(")[0];");
         m_outstream.println();
 
         // CSA: modified yy_rmap to use string packing 9-Aug-1999
-        m_outstream.print("\tprivate int yy_rmap[] = unpackFromString(");
+        m_outstream.print("\tprivate static final int yy_rmap[] = unpackFromString(");
         emit_table_as_string(new int[][]{m_spec.m_row_map});
         m_outstream.println(")[0];");
         m_outstream.println();
@@ -1213,7 +1260,7 @@ class CEmit {
             yy_nxt[elem] = dtrans.m_dtrans;
         }
         m_outstream.print
-                ("\tprivate int yy_nxt[][] = unpackFromString(");
+                ("\tprivate static final int yy_nxt[][] = unpackFromString(");
         emit_table_as_string(yy_nxt);
         m_outstream.println(");");
         m_outstream.println();
@@ -1228,74 +1275,66 @@ class CEmit {
      * yy_nxt[][] values are coded into a string
      * by printing integers and representing
      * integer sequences as "value:length" pairs.
+     * Now each sequence (of one or more equal values) is a pair of
+     * chars, length then value + 1, so that unpacking is a loop over
+     * charAt() with no substrings or parsing.
      * ************************************************************
      */
     private void emit_table_as_string(int[][] ia) {
-        int sequenceLength = 0; // RL - length of the number sequence
-        boolean sequenceStarted = false; // RL - has number sequence started?
-        int previousInt = -20; // RL - Bogus -20 state.
-
         // RL - Output matrix size
         m_outstream.print(ia.length);
         m_outstream.print(",");
         m_outstream.print(ia.length > 0 ? ia[0].length : 0);
         m_outstream.println(",");
 
+        // RL - Output matrix, a (length, value + 1) pair of chars for each
+        // sequence of equal values
         StringBuffer outstr = new StringBuffer();
-
-        //  RL - Output matrix 
+        int sequenceLength = 0;
+        int sequenceInteger = 0;
         for (int elem = 0; elem < ia.length; ++elem) {
             for (int i = 0; i < ia[elem].length; ++i) {
                 int writeInt = ia[elem][i];
-                if (writeInt == previousInt) // RL - sequence?
-                {
-                    if (sequenceStarted) {
-                        sequenceLength++;
-                    }
-                    else {
-                        outstr.append(writeInt);
-                        outstr.append(":");
-                        sequenceLength = 2;
-                        sequenceStarted = true;
-                    }
-                }
-                else // RL - no sequence or end sequence
-                {
-                    if (sequenceStarted) {
-                        outstr.append(sequenceLength);
-                        outstr.append(",");
-                        sequenceLength = 0;
-                        sequenceStarted = false;
-                    }
-                    else {
-                        if (previousInt != -20) {
-                            outstr.append(previousInt);
-                            outstr.append(",");
-                        }
-                    }
+                if (sequenceLength > 0 && (writeInt != sequenceInteger
+                        || sequenceLength == Character.MAX_VALUE)) {
+                    emit_table_char(outstr, sequenceLength);
+                    emit_table_char(outstr, sequenceInteger + 1);
+                    sequenceLength = 0;
                 }
-                previousInt = writeInt;
+                sequenceInteger = writeInt;
+                sequenceLength++;
                 // CSA: output in 75 character chunks.
                 if (outstr.length() > 75) {
-                    String s = outstr.toString();
-                    m_outstream.println("\"" + s.substring(0, 75) + "\" +");
-                    outstr = new StringBuffer(s.substring(75));
+                    m_outstream.println("\"" + outstr + "\" +");
+                    outstr = new StringBuffer();
                 }
             }
         }
-        if (sequenceStarted) {
-            outstr.append(sequenceLength);
+        if (sequenceLength > 0) {
+            emit_table_char(outstr, sequenceLength);
+            emit_table_char(outstr, sequenceInteger + 1);
         }
-        else {
-            outstr.append(previousInt);
+        m_outstream.print("\"" + outstr + "\"");
+    }
+
+    /**
+     * ************************************************************
+     * Function: emit_table_char
+     * Description: Append a table value to a string literal as one
+     * char: an octal escape below 256 (never a \\u escape, which
+     * javac would read as a raw line break for U+000A), a unicode
+     * escape above.
+     * ************************************************************
+     */
+    private void emit_table_char(StringBuffer outstr, int value) {
+        CUtility.ASSERT(value >= 0 && value <= Character.MAX_VALUE);
+        if (value < 256) {
+            outstr.append("\\").append(Integer.toOctalString(value));
         }
-        // CSA: output in 75 character chunks.
-        if (outstr.length() > 75) {
-            String s = outstr.toString();
-            m_outstream.println("\"" + s.substring(0, 75) + "\" +");
-            outstr = new StringBuffer(s.substring(75));
+        else {
+            String hex = Integer.toHexString(value);
+            outstr.append("\\u").append("0000".substring(hex.length())).append(hex);
         }
-        m_outstream.print("\"" + outstr + "\"");
     }
 
     /**
@@ -5296,6 +5335,13 @@ class CLexGen {
             'c', '\0'
     };
 
+    private char m_byteinput_dir[] = {
+            '%', 'b', 'y',
+            't', 'e', 'i',
+            'n', 'p', 'u',
+            't', '\0'
+    };
+
     /**
      * ************************************************************
      * Function: userDeclare
@@ -5374,6 +5420,24 @@ class CLexGen {
                                 m_input.m_line_number);
                         break;
 
+                    case 'b':
+                        if (0 == CUtility.charncmp(m_input.m_line,
+                                0,
+                                m_byteinput_dir,
+                                0,
+                                m_byteinput_dir.length - 1)) {
+			  /* Allow reading from a byte buffer, one
+			     character per byte, instead of the reader. */
+                            m_input.m_line_index = m_byteinput_dir.length;
+                            m_spec.m_byte_input = true;
+                            break;
+                        }
+
+		      /* Bad directive. */
+                        CError.parse_error(CError.E_DIRECT,
+                                m_input.m_line_number);
+                        break;
+
                     case 'c':
                         if (0 == CUtility.charncmp(m_input.m_line,
                                 0,
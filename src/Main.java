@@ -38,13 +38,22 @@ changes:
 2.)Optimized for Midi Synthesizer
 */
 
-import java_cup.runtime.Symbol;
+import lexer.CymbalScanner;
 import lexer.Lexer;
 import codegenmips.*;
-import parser.Parser;
-import semant.SemanticAnalyzer;
+import cymbal.CymbalCompiler;
+import parser.IncrementalParser;
+import util.CompilationException;
+import util.CompileCache;
+import util.CompileEvent;
+import util.CompileStats;
+import util.ErrorHandler;
+import util.ReplacingFileOutputStream;
 import ast.File;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Main class that runs the Bantam compiler
  * Constructs and runs each phase of the compiler
@@ -85,32 +94,248 @@ public class Main {
      * Integer indicating target (0=mips, 1=x86, 2=jvm -- mips by default)
      */
     private static int targetType = 0;
+    /**
+     * Directory of .cym files to compile one by one (null unless -batch is given)
+     */
+    private static String batchDir = null;
+    /**
+     * Directory that batch mode writes the .s files to (the batch directory by default)
+     */
+    private static String outDir = null;
+    /**
+     * Maximum number of concurrent compiles in batch mode
+     */
+    private static int numJobs = Runtime.getRuntime().availableProcessors();
+    /**
+     * Watch mode: recompile whenever an input file changes
+     */
+    private static boolean watch = false;
+    /**
+     * Incremental parsers of the input files, kept from one compile to the
+     * next in watch mode (null otherwise)
+     */
+    private static ConcurrentMap<String, IncrementalParser> incrementalParsers = null;
+    /**
+     * Lex each input file on its own thread, overlapping the parser
+     */
+    private static boolean pipeline = false;
+    /**
+     * Streaming compile: generate code for each top-level Song expression as
+     * soon as it is parsed, holding only the phrases in memory
+     */
+    private static boolean stream = false;
+    /**
+     * Write the date of the compile into the assembly (off by default, so
+     * that the same input always gives byte-identical output)
+     */
+    private static boolean timestamp = false;
+    /**
+     * Scan with the hand-written scanner instead of the generated lexer
+     */
+    private static boolean fastLex = false;
+    /**
+     * Parse with the hand-written parser instead of the generated one
+     */
+    private static boolean fastParse = false;
+    /**
+     * Statistics output: 0 = none, 1 = text (-stats), 2 = one JSON line (-statsjson)
+     */
+    private static int statsFormat = 0;
+    /**
+     * Per-phase statistics of the current compile (null unless -stats or -statsjson is given)
+     */
+    private static CompileStats stats = null;
+    /**
+     * Directory of the compile cache (null unless -cache is given)
+     */
+    private static String cacheDir = null;
+    /**
+     * Maximum size of the compile cache in megabytes
+     */
+    private static int cacheSize = 64;
+    /**
+     * The compile cache (null when caching is off)
+     */
+    private static CompileCache cache = null;
+    /**
+     * Standard output and standard error of the current compile (those of
+     * the client, when the compile runs in the daemon)
+     */
+    private static java.io.PrintStream stdout = System.out, stderr = System.err;
 
     /**
      * Constant for MIPS target
      */
     private static final int TARG_MIPS = 0;
 
+    /**
+     * File name that stands for standard input (as an input file) or
+     * standard output (with -o)
+     */
+    private static final String STDIO = "-";
+
+    /**
+     * Name that errors in standard input are reported against
+     */
+    private static final String STDIN_NAME = "<stdin>";
+
+    /**
+     * The options of one compile, copied from the flags once they are
+     * processed.  <tt>compileFiles</tt> reads only these, never the static
+     * flags, so the jobs of batch mode can run it on several threads while
+     * the flags are reset for the next compile of the daemon.
+     */
+    static final class CompileOptions {
+        /** Whether garbage collection is enabled */
+        final boolean gcEnabled;
+        /** Whether optimization is enabled */
+        final boolean optimize;
+        /** Debugging flags of the phases that compileFiles runs */
+        final boolean debugLexer, debugParser, debugSemant, debugCodeGen;
+        /** Whether to stop after semantic analysis */
+        final boolean stopAfterSemant;
+        /** Target (TARG_MIPS) */
+        final int targetType;
+        /** Lex each input file on its own thread, overlapping the parser */
+        final boolean pipeline;
+        /** Generate code for each top-level Song expression as it is parsed */
+        final boolean stream;
+        /** Write the date of the compile into the assembly */
+        final boolean timestamp;
+        /** Scan and parse with the hand-written scanner and parser */
+        final boolean fastLex, fastParse;
+        /** Incremental parsers of the input files (null unless watching) */
+        final ConcurrentMap<String, IncrementalParser> incrementalParsers;
+        /** Statistics to record the phases in (null unless -stats or -statsjson) */
+        final CompileStats stats;
+        /** The compile cache (null when caching is off) */
+        final CompileCache cache;
+        /** Standard output and standard error of the compile */
+        final java.io.PrintStream stdout, stderr;
+
+        /**
+         * CompileOptions constructor - copies the current flags
+         */
+        private CompileOptions() {
+            gcEnabled = Main.gcEnabled;
+            optimize = (Main.opt > 0);
+            debugLexer = Main.debugLexer;
+            debugParser = Main.debugParser;
+            debugSemant = Main.debugSemant;
+            debugCodeGen = Main.debugCodeGen;
+            stopAfterSemant = Main.stopAfterSemant;
+            targetType = Main.targetType;
+            pipeline = Main.pipeline;
+            stream = Main.stream;
+            timestamp = Main.timestamp;
+            fastLex = Main.fastLex;
+            fastParse = Main.fastParse;
+            incrementalParsers = Main.incrementalParsers;
+            stats = Main.stats;
+            cache = Main.cache;
+            stdout = Main.stdout;
+            stderr = Main.stderr;
+        }
+    }
+
 
     /**
      * Prints out a usage message to the screen
      * Modified by DJS to include [-dt]
      */
     private static void showHelp() {
-        System.err.println("Usage: Cymbal [-h] [-o <output_file>] [-t <architecture>]");
-        System.err.println("               [-gc] [-int] [-opt <num>] [-dl] [-dp] [-ds]");
-        System.err.println("               [-di] [-do] [-dc] [-sl] [-ss] [-so] <input_files>");
-        System.err.println("man Cymbal for more details");
-        System.exit(1);
+        stderr.println("Usage: Cymbal [-h] [-o <output_file>] [-t <architecture>]");
+        stderr.println("               [-gc] [-int] [-opt <num>] [-dl] [-dp] [-ds]");
+        stderr.println("               [-di] [-do] [-dc] [-sl] [-ss] [-so] <input_files>");
+        stderr.println("               [-cache <dir>] [-cachesize <megabytes>] [-watch]");
+        stderr.println("               [-stats] [-statsjson] [-pipeline] [-stream] [-timestamp]");
+        stderr.println("               [-fastlex] [-fastparse]");
+        stderr.println("       Cymbal [<flags>] -batch <dir> [-outdir <dir>] [-jobs <num>]");
+        stderr.println("       Cymbal -daemon [<port>]");
+        stderr.println("       (an input or output file of '-' means stdin or stdout)");
+        stderr.println("       (with several Songs, each goes to <output_file minus .s>.<song>.s)");
+        stderr.println("man Cymbal for more details");
+        throw new CompilationException("usage error");
+    }
+
+    /**
+     * Resets every flag to its default value
+     * Needed because the flags are static and a daemon runs many compiles
+     */
+    private static void resetFlags() {
+        inFiles = null;
+        outFile = "out.s";
+        gcEnabled = false;
+        stopAfterLexing = stopAfterParsing = stopAfterSemant = stopAfterOpt = false;
+        debugLexer = debugParser = debugSemant = debugInt = debugOpt = debugCodeGen = false;
+        opt = 0;
+        intMode = false;
+        targetType = TARG_MIPS;
+        batchDir = null;
+        outDir = null;
+        numJobs = Runtime.getRuntime().availableProcessors();
+        watch = false;
+        incrementalParsers = null;
+        pipeline = false;
+        stream = false;
+        timestamp = false;
+        fastLex = false;
+        fastParse = false;
+        statsFormat = 0;
+        stats = null;
+        cacheDir = null;
+        cacheSize = 64;
+        cache = null;
+    }
+
+    /**
+     * Resolves relative input and output file names against a working directory
+     * (the client's directory when compiling on behalf of a daemon client)
+     *
+     * @param workDir directory that relative file names are relative to
+     */
+    private static void resolvePaths(java.io.File workDir) {
+        for (int i = 0; i < inFiles.length; i++) {
+            inFiles[i] = resolvePath(workDir, inFiles[i]);
+        }
+        outFile = resolvePath(workDir, outFile);
+        if (batchDir != null) {
+            batchDir = resolvePath(workDir, batchDir);
+        }
+        if (outDir != null) {
+            outDir = resolvePath(workDir, outDir);
+        }
+        if (cacheDir != null) {
+            cacheDir = resolvePath(workDir, cacheDir);
+        }
+    }
+
+    /**
+     * Resolves one file name against a working directory
+     *
+     * @param workDir directory that relative file names are relative to
+     * @param name    file name to resolve
+     * @return the absolute file name
+     */
+    private static String resolvePath(java.io.File workDir, String name) {
+        if (name.equals(STDIO)) {
+            return name;
+        }
+        java.io.File file = new java.io.File(name);
+        if (file.isAbsolute()) {
+            return name;
+        }
+        return new java.io.File(workDir, name).getPath();
     }
 
     /**
      * Get target name
-     * Converts targetType (global) into the target name
+     * Converts a targetType into the target name
      *
+     * @param targetType the target
      * @return name of target
      */
-    private static String getTargName() {
+    private static String getTargName(int targetType) {
         if (targetType == TARG_MIPS) {
             return "mips";
         }
@@ -132,14 +357,14 @@ public class Main {
         // cnt represents the number of input files found - initialize to 0
         int cnt = 0;
 
-        // if no arguments then call showHelp (which eventually exits)
+        // if no arguments then call showHelp (which eventually halts)
         if (args.length == 0) {
             showHelp();
         }
 
         // otherwise inspect the arguments
         for (int i = 0; i < args.length; i++) {
-            // if '-h' or help then call showHelp (which eventually exits)
+            // if '-h' or help then call showHelp (which eventually halts)
             if (args[i].equals("-h")) {
                 showHelp();
             }
@@ -193,8 +418,8 @@ public class Main {
             else if (args[i].equals("-t")) {
                 // check if no further arguments
                 if (i == args.length - 1) {
-                    // if not, then print error message and call showHelp() (which eventually exits)
-                    System.err.println("Usage error: must specify a target architecture with -t");
+                    // if not, then print error message and call showHelp() (which eventually halts)
+                    stderr.println("Usage error: must specify a target architecture with -t");
                     showHelp();
                 }
                 i++;
@@ -203,9 +428,9 @@ public class Main {
                     targetType = TARG_MIPS;
                 }
                 else {
-                    // if not, then print error message and call showHelp() (which eventually exits)
-                    System.err.println("Usage error: bad target architecture: " + args[i]);
-                    System.err.println("             must be 'mips', 'x86', or 'jvm'");
+                    // if not, then print error message and call showHelp() (which eventually halts)
+                    stderr.println("Usage error: bad target architecture: " + args[i]);
+                    stderr.println("             must be 'mips', 'x86', or 'jvm'");
                     showHelp();
                 }
             }
@@ -214,8 +439,8 @@ public class Main {
             else if (args[i].equals("-o")) {
                 // check if no further arguments
                 if (i == args.length - 1) {
-                    // if not, then print error message and call showHelp() (which eventually exits)
-                    System.err.println("Usage error: must specify an output file with -o");
+                    // if not, then print error message and call showHelp() (which eventually halts)
+                    stderr.println("Usage error: must specify an output file with -o");
                     showHelp();
                 }
                 i++;
@@ -224,8 +449,108 @@ public class Main {
        
             }
 
+            // if -batch is set then user is specifying a directory of songs to compile
+            else if (args[i].equals("-batch")) {
+                if (i == args.length - 1) {
+                    stderr.println("Usage error: must specify a directory with -batch");
+                    showHelp();
+                }
+                i++;
+                batchDir = args[i];
+            }
+
+            // if -outdir is set then user is specifying where batch mode writes its output
+            else if (args[i].equals("-outdir")) {
+                if (i == args.length - 1) {
+                    stderr.println("Usage error: must specify a directory with -outdir");
+                    showHelp();
+                }
+                i++;
+                outDir = args[i];
+            }
+
+            // if -jobs is set then user is limiting the number of concurrent batch compiles
+            else if (args[i].equals("-jobs")) {
+                if (i == args.length - 1 || !args[i + 1].matches("[1-9][0-9]*")) {
+                    stderr.println("Usage error: must specify a positive number with -jobs");
+                    showHelp();
+                }
+                i++;
+                numJobs = Integer.parseInt(args[i]);
+            }
+
+            // if -watch is set then recompile whenever an input file changes
+            else if (args[i].equals("-watch")) {
+                watch = true;
+            }
+
+            // if -pipeline is set then lex on a separate thread while parsing
+            else if (args[i].equals("-pipeline")) {
+                pipeline = true;
+            }
+
+            // if -stream is set then generate code while parsing, in bounded memory
+            else if (args[i].equals("-stream")) {
+                stream = true;
+            }
+
+            // if -timestamp is set then write the date into the assembly
+            else if (args[i].equals("-timestamp")) {
+                timestamp = true;
+            }
+
+            // if -fastlex is set then scan with the hand-written scanner
+            else if (args[i].equals("-fastlex")) {
+                fastLex = true;
+            }
+
+            // if -fastparse is set then parse with the hand-written parser
+            // (-dp still traces the generated parser)
+            else if (args[i].equals("-fastparse")) {
+                fastParse = true;
+            }
+
+            // if -stats or -statsjson is set then report per-phase statistics
+            else if (args[i].equals("-stats")) {
+                statsFormat = 1;
+            }
+            else if (args[i].equals("-statsjson")) {
+                statsFormat = 2;
+            }
+
+            // if -cache is set then user is specifying a compile cache directory
+            else if (args[i].equals("-cache")) {
+                if (i == args.length - 1) {
+                    stderr.println("Usage error: must specify a directory with -cache");
+                    showHelp();
+                }
+                i++;
+                cacheDir = args[i];
+            }
+
+            // if -cachesize is set then user is limiting the size of the compile cache
+            else if (args[i].equals("-cachesize")) {
+                if (i == args.length - 1 || !args[i + 1].matches("[1-9][0-9]*")) {
+                    stderr.println("Usage error: must specify a positive number with -cachesize");
+                    showHelp();
+                }
+                i++;
+                cacheSize = Integer.parseInt(args[i]);
+            }
+
             // any other arguments must be input files
 
+            // check if argument is '-' (standard input, which can only be read once)
+            else if (args[i].equals(STDIO)) {
+                for (int j = 0; j < cnt; j++) {
+                    if (inFiles[j].equals(STDIO)) {
+                        stderr.println("Usage error: standard input ('-') given twice");
+                        showHelp();
+                    }
+                }
+                inFiles[cnt++] = args[i];
+            }
+
             // check if argument ends in .cym
             else if (args[i].length() >= 5 && args[i].substring(args[i].length() - 4).equals(".cym")) {
                 // if so then set next entry in inFiles
@@ -235,15 +560,27 @@ public class Main {
             else {
                 // if we get to here then we have an illegal argument
                 // (we treat this as a bad input file name)
-                System.err.println("Usage error: bad input file name: " + args[i]);
-                System.err.println("             file names must end with '.cym'");
+                stderr.println("Usage error: bad input file name: " + args[i]);
+                stderr.println("             file names must end with '.cym'");
                 showHelp();
             }
         }
 
-        // make sure at least one input file was specified
-        if (cnt == 0) {
-            System.err.println("Usage error: must specify some input files");
+        // make sure at least one input file was specified (or, in batch mode, none)
+        if (batchDir != null && cnt > 0) {
+            stderr.println("Usage error: cannot give input files with -batch");
+            showHelp();
+        }
+        if (batchDir == null && cnt == 0) {
+            stderr.println("Usage error: must specify some input files");
+            showHelp();
+        }
+        if (batchDir == null && outDir != null) {
+            stderr.println("Usage error: -outdir is only used with -batch");
+            showHelp();
+        }
+        if (watch && (batchDir != null || stopAfterLexing || statsFormat != 0)) {
+            stderr.println("Usage error: -watch cannot be used with -batch, -sl or -stats");
             showHelp();
         }
 
@@ -252,58 +589,440 @@ public class Main {
         inFiles = new String[cnt];
         for (int i = 0; i < cnt; i++)
             inFiles[i] = tmp[i];
+
+        if (stream && (stopAfterSemant || batchDir != null)) {
+            // (batch mode counts the notes of the AST, which a stream does not keep)
+            stderr.println("Usage error: -stream cannot be used with -ss or -batch");
+            showHelp();
+        }
+        if (watch && (usesStdin(inFiles) || outFile.equals(STDIO))) {
+            stderr.println("Usage error: -watch cannot be used with standard input or output");
+            showHelp();
+        }
+    }
+
+    /**
+     * Checks whether standard input is one of the input files
+     *
+     * @param filenames input file names
+     * @return true if one of the names is '-'
+     */
+    private static boolean usesStdin(String[] filenames) {
+        for (String filename : filenames) {
+            if (filename.equals(STDIO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens standard input for the input files that are '-'
+     * The other input files are left for the lexer to open
+     *
+     * @param filenames input file names
+     * @return a reader for each name (null except for '-'), or null if no
+     * name is '-'
+     */
+    private static java.io.Reader[] openStdin(String[] filenames) {
+        if (!usesStdin(filenames)) {
+            return null;
+        }
+        java.io.Reader[] sources = new java.io.Reader[filenames.length];
+        for (int i = 0; i < filenames.length; i++) {
+            if (filenames[i].equals(STDIO)) {
+                sources[i] = new java.io.InputStreamReader(System.in);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Gives the names that input files are reported under
+     *
+     * @param filenames input file names
+     * @return the names, with '-' replaced by STDIN_NAME
+     */
+    private static String[] sourceNames(String[] filenames) {
+        String[] names = new String[filenames.length];
+        for (int i = 0; i < filenames.length; i++) {
+            names[i] = (filenames[i].equals(STDIO) ? STDIN_NAME : filenames[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Opens standard output for the assembly
+     * The stream is buffered, so the assembly goes out in large writes as
+     * it is generated, and closing it only flushes (standard output stays
+     * open for later output, such as the statistics of a daemon compile)
+     *
+     * @param stdout standard output
+     * @return print stream writing to standard output
+     */
+    private static java.io.PrintStream openStdout(java.io.PrintStream stdout) {
+        return new java.io.PrintStream(new java.io.BufferedOutputStream(stdout, 1 << 16) {
+            public void close() throws java.io.IOException {
+                flush();
+            }
+        });
+    }
+
+    /**
+     * Runs the phases after flag processing on one set of input files
+     * Only reads its options, so batch mode calls it from several threads
+     * at once
+     *
+     * When the compile cache is on and already holds the output for these
+     * input files and flags, the output is copied from the cache and no
+     * phase runs at all
+     *
+     * An input file named '-' is read from standard input, and an output
+     * file named '-' is written to standard output; neither is cached.
+     * Nor is a compile with -timestamp, whose output differs every time
+     *
+     * When the input holds several Songs, the phrases are checked once and
+     * each Song is generated on its own task into its own output file
+     * (see songOutputNames); such compiles are not cached
+     *
+     * @param options the options of the compile
+     * @param filenames input file names
+     * @param outFilename output file name
+     * @return the AST that was compiled, or null if the output came from the cache
+     * @throws CompilationException if compilation stops because of errors
+     * @throws java.io.IOException if the cache cannot be read or written
+     */
+    static File compileFiles(CompileOptions options, String[] filenames, String outFilename)
+            throws java.io.IOException {
+        CompileCache cache = options.cache;
+        CompileStats stats = options.stats;
+        // check the compile cache (only whole compiles are cached)
+        String cacheKey = null;
+        boolean toStdout = outFilename.equals(STDIO);
+        if (cache != null && !options.stopAfterSemant && !options.timestamp && !toStdout
+                && !usesStdin(filenames)) {
+            try {
+                cacheKey = cache.key(filenames,
+                        "gc=" + options.gcEnabled + " opt=" + options.optimize
+                        + " target=" + getTargName(options.targetType));
+            } catch (java.io.IOException e) {
+                // unreadable input: let the lexer report it
+            }
+            if (cacheKey != null && cache.fetch(cacheKey, outFilename)) {
+                return null;
+            }
+        }
+
+        // flight recorder event spanning the compile
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        String[] songOutFilenames = null;
+        try {
+            // lexing and parsing (each input file independently), then semantic analysis
+            CymbalCompiler compiler = new CymbalCompiler(options.gcEnabled, options.optimize,
+                    options.debugLexer, options.debugParser, options.debugSemant,
+                    options.debugCodeGen);
+            compiler.setPipelineLexer(options.pipeline);
+            compiler.setTimestamp(options.timestamp);
+            compiler.setHandScanner(options.fastLex);
+            compiler.setHandParser(options.fastParse);
+            compiler.setIncrementalParsers(options.incrementalParsers);
+            compiler.setErr(options.stderr);
+            ErrorHandler errorHandler = new ErrorHandler(options.stderr);
+            if (options.stream) {
+                // all phases at once, one Song expression at a time
+                File file = streamFiles(options, compiler, filenames, outFilename, errorHandler);
+                event.succeeded = true;
+                if (cacheKey != null) {
+                    cache.store(cacheKey, outFilename);
+                }
+                return file;
+            }
+            File file = compiler.parse(sourceNames(filenames), openStdin(filenames),
+                    errorHandler, stats, event);
+            compiler.analyze(file, errorHandler, stats);
+            if (options.stopAfterSemant) {
+                event.succeeded = true;
+                return file;
+            }
+
+
+            // code generation
+            if (options.targetType == TARG_MIPS && file.getSongList().getSize() > 1) {
+                // each Song into its own file, concurrently (not cached)
+                songOutFilenames = songOutputNames(options, outFilename, file);
+                compiler.generateSongs(file, songOutFilenames, stats);
+                event.succeeded = true;
+                return file;
+            }
+            if (options.targetType == TARG_MIPS) {
+                MipsCodeGenerator codeGenerator = toStdout
+                        ? new MipsCodeGenerator(file, openStdout(options.stdout),
+                                options.gcEnabled, options.optimize, options.debugCodeGen)
+                        : new MipsCodeGenerator(file, outFilename,
+                                options.gcEnabled, options.optimize, options.debugCodeGen);
+                codeGenerator.setStats(stats);
+                codeGenerator.setTimestamp(options.timestamp);
+                codeGenerator.setErr(options.stderr);
+                codeGenerator.generate();
+            }
+            event.succeeded = true;
+            if (cacheKey != null) {
+                cache.store(cacheKey, outFilename);
+            }
+            return file;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.files = CymbalCompiler.joinNames(filenames);
+                if (songOutFilenames != null) {
+                    for (String songOutFilename : songOutFilenames) {
+                        event.outputBytes += new java.io.File(songOutFilename).length();
+                    }
+                }
+                else {
+                    event.outputBytes = (event.succeeded && !toStdout
+                            ? new java.io.File(outFilename).length() : 0);
+                }
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Names the output file of each Song of a file with several Songs:
+     * the output file name minus any .s extension, then the song name
+     * (with characters other than letters, digits, '-' and '_' replaced
+     * by '_'), then .s
+     *
+     * @param options     the options of the compile
+     * @param outFilename output file name
+     * @param file        the AST, with several Songs
+     * @return the output file name of each Song, in song order
+     * @throws CompilationException if the output is standard output,
+     *                              or two Songs would share an output file
+     */
+    private static String[] songOutputNames(CompileOptions options, String outFilename,
+                                            File file) {
+        if (outFilename.equals(STDIO)) {
+            options.stderr.println("Error: several Songs cannot be written to standard output");
+            throw new CompilationException("several Songs to standard output");
+        }
+        String stem = (outFilename.endsWith(".s")
+                ? outFilename.substring(0, outFilename.length() - 2) : outFilename);
+        String[] names = new String[file.getSongList().getSize()];
+        java.util.Set<String> used = new java.util.HashSet<String>();
+        for (int i = 0; i < names.length; i++) {
+            String song = ((ast.Song) file.getSongList().get(i)).getName();
+            names[i] = stem + "." + song.replaceAll("[^A-Za-z0-9_-]", "_") + ".s";
+            if (!used.add(names[i])) {
+                options.stderr.println("Error: Song \"" + song + "\" would overwrite the output file '"
+                        + names[i] + "' of another Song");
+                throw new CompilationException("two Songs with the same output file");
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Compiles in a single streaming pass (-stream)
+     * The assembly is written to a temporary file next to the output file
+     * and renamed when the compile succeeds, so errors found after code
+     * generation started never leave a partial output file behind
+     * (on stdout, a partial output cannot be taken back)
+     *
+     * @param options      the options of the compile
+     * @param compiler     the compiler
+     * @param filenames    input file names
+     * @param outFilename  output file name
+     * @param errorHandler error handler that all errors are registered with
+     * @return the AST, without the Song's expressions
+     * @throws CompilationException if compilation stops because of errors
+     * @throws java.io.IOException if the output file cannot be written
+     */
+    private static File streamFiles(CompileOptions options, CymbalCompiler compiler,
+                                    String[] filenames, String outFilename,
+                                    ErrorHandler errorHandler)
+            throws java.io.IOException {
+        if (outFilename.equals(STDIO)) {
+            return compiler.stream(sourceNames(filenames), openStdin(filenames), errorHandler,
+                    openStdout(options.stdout), options.stats);
+        }
+
+        ReplacingFileOutputStream outFile;
+        try {
+            outFile = new ReplacingFileOutputStream(java.nio.file.Paths.get(outFilename));
+        } catch (java.io.IOException e) {
+            options.stderr.println("Error: don't have permission to write to file '"
+                    + outFilename + "'");
+            throw new CompilationException("cannot write to file '" + outFilename + "'");
+        }
+        try {
+            java.io.PrintStream out = new java.io.PrintStream(outFile);
+            File file = compiler.stream(sourceNames(filenames), openStdin(filenames), errorHandler,
+                    out, options.stats);
+            if (out.checkError()) {
+                throw new java.io.IOException("cannot write to file '" + outFilename + "'");
+            }
+            // (left alone if it already holds this output)
+            outFile.commit();
+            return file;
+        } finally {
+            outFile.discard();
+        }
+    }
+
+    /**
+     * Prints the statistics in the format chosen with -stats or -statsjson
+     * (to stderr when the assembly went to stdout)
+     */
+    private static void printStats() {
+        java.io.PrintStream statsOut = (outFile.equals(STDIO) ? stderr : stdout);
+        if (statsFormat == 1) {
+            statsOut.print(stats.toText());
+        }
+        else if (statsFormat == 2) {
+            statsOut.println(stats.toJson());
+        }
     }
 
     /**
      * Main method, which drives compilation
      * builds and runs each phase of the compiler
+     * (or starts a compile daemon if the first argument is -daemon)
      *
      * @param args list of commandline arguments
      */
     public static void main(String[] args) {
-        // process flags
-        processFlags(args);
+        if (args.length > 0 && args[0].equals("-daemon")) {
+            int port = CompileDaemon.DEFAULT_PORT;
+            if (args.length > 1) {
+                if (args.length > 2 || !args[1].matches("[1-9][0-9]{0,4}")
+                        || Integer.parseInt(args[1]) > 65535) {
+                    stderr.println("Usage error: must specify a port number (1 to 65535) with -daemon");
+                    try {
+                        showHelp();
+                    } catch (CompilationException e) {
+                        System.exit(1);
+                    }
+                }
+                port = Integer.parseInt(args[1]);
+            }
+            try {
+                new CompileDaemon(port).serve();
+            } catch (java.io.IOException e) {
+                stderr.println("Error: cannot run daemon on port " + port + ": " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        System.exit(compile(args, null, System.out, System.err));
+    }
+
+    /**
+     * Runs one complete compilation, never exiting the JVM
+     * Used directly by main and by the compile daemon for each request
+     *
+     * @param args    list of commandline arguments
+     * @param workDir directory that relative file names are resolved against
+     *                (null to use the names as given)
+     * @param out     standard output of the compile (the assembly when the
+     *                output file is '-', and reports such as -stats)
+     * @param err     standard error of the compile (diagnostics)
+     * @return exit status (0 on success, 1 on failure)
+     */
+    public static synchronized int compile(String[] args, java.io.File workDir,
+                                           java.io.PrintStream out, java.io.PrintStream err) {
+        resetFlags();
+        stdout = out;
+        stderr = err;
 
         try {
-            // lexing
-            Lexer lexer = new Lexer(inFiles, debugLexer);
-            if (stopAfterLexing) {
-                // if stopAfterLexing==true, then print tokens and exit
-                lexer.printTokens();
-                System.exit(0);
+            // process flags
+            processFlags(args);
+            if (workDir != null && usesStdin(inFiles)) {
+                stderr.println("Usage error: the daemon cannot read standard input");
+                return 1;
             }
-
-            // parsing
-            Parser parser = new Parser(lexer);
-            Symbol result = null;
-            if (debugParser) {
-                result = parser.debug_parse();
+            if (workDir != null) {
+                resolvePaths(workDir);
             }
-            else {
-                result = parser.parse();
+            if (cacheDir != null) {
+                try {
+                    cache = new CompileCache(cacheDir, cacheSize * 1024L * 1024L);
+                } catch (java.io.IOException e) {
+                    stderr.println("Error: cannot use cache directory '" + cacheDir + "'");
+                    throw new CompilationException("cannot use cache directory '" + cacheDir + "'");
+                }
             }
 
-            // semantic analysis
-            SemanticAnalyzer semanticAnalyzer =
-                    new SemanticAnalyzer((File) result.value, debugSemant);
-            semanticAnalyzer.analyze();
-            if (stopAfterSemant) {
-                System.exit(0);
+            if (statsFormat != 0) {
+                stats = new CompileStats();
             }
 
+            if (batchDir != null) {
+                // compile every song in the directory to its own output file
+                // (statistics are summed over the songs)
+                CompileStats.Timer timer = CompileStats.start(stats, "total");
+                int status = new BatchCompiler(new CompileOptions(), batchDir,
+                        (outDir != null ? outDir : batchDir), numJobs).run();
+                CompileStats.stop(timer);
+                printStats();
+                return status;
+            }
 
-            // code generation
-            if (targetType == TARG_MIPS) {
-                MipsCodeGenerator codeGenerator = new MipsCodeGenerator((File) result.value, outFile,
-                        gcEnabled, (opt > 0),
-                        debugCodeGen);
-                codeGenerator.generate();
+            if (stopAfterLexing) {
+                // if stopAfterLexing==true, then print tokens and stop
+                // (a missing file is reported here rather than by the lexer,
+                // which reports on System.err)
+                for (String inFile : inFiles) {
+                    if (!inFile.equals(STDIO)) {
+                        Lexer.checkFile(inFile, stderr);
+                    }
+                }
+                java.io.Reader[] sources = openStdin(inFiles);
+                if (fastLex) {
+                    CymbalScanner scanner = (sources != null)
+                            ? new CymbalScanner(sourceNames(inFiles), sources, debugLexer)
+                            : new CymbalScanner(inFiles, debugLexer);
+                    scanner.printTokens(stdout);
+                    return 0;
+                }
+                Lexer lexer = (sources != null)
+                        ? new Lexer(sourceNames(inFiles), sources, debugLexer)
+                        : new Lexer(inFiles, debugLexer);
+                lexer.printTokens(stdout);
+                return 0;
             }
 
+            if (watch) {
+                // compile, then recompile on every change until stopped
+                if (workDir != null) {
+                    stderr.println("Usage error: -watch cannot be used through the daemon");
+                    return 1;
+                }
+                // (each recompile reparses only what changed in the input files)
+                incrementalParsers = new ConcurrentHashMap<String, IncrementalParser>();
+                return new CompileWatcher(new CompileOptions(), inFiles, outFile).run();
+            }
+
+            CompileStats.Timer timer = CompileStats.start(stats, "total");
+            compileFiles(new CompileOptions(), inFiles, outFile);
+            CompileStats.stop(timer);
+            printStats();
+            return 0;
+
+        } catch (CompilationException e) {
+            // errors have already been reported
+            return 1;
         } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Internal error within compiler: stopping compilation");
-            System.exit(1);
+            e.printStackTrace(stderr);
+            stderr.println("Internal error within compiler: stopping compilation");
+            return 1;
+        } finally {
+            stdout = System.out;
+            stderr = System.err;
         }
     }
 }
@@ -256,14 +256,6 @@ public abstract class ASTNode {
      * The source line number corresponding to this AST node
      */
     protected int lineNum;
-    /**
-     * The source starting character number (within line) corresponding to this AST node
-     */
-    protected int charNum;
-    /**
-     * The source starting line corresponding to this AST node
-     */
-    protected String lineStr;
 
     /**
      * ASTNode constructor
@@ -283,6 +275,16 @@ public abstract class ASTNode {
         return lineNum;
     }
 
+    /**
+     * Set the line number corresponding to this AST node (when the source
+     * has changed above it, so that it has moved)
+     *
+     * @param lineNum source line number
+     */
+    public void setLineNum(int lineNum) {
+        this.lineNum = lineNum;
+    }
+
     /**
      * Visitor method
      *
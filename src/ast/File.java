@@ -9,7 +9,7 @@ import visitor.Visitor;
 
 
 /**
- * The <tt>File</tt> class holds the phraseList and song
+ * The <tt>File</tt> class holds the phraseList and songs
  * of the program loaded
  *
  * @see ASTNode
@@ -21,21 +21,35 @@ public class File extends ASTNode {
      */
     protected PhraseList phraseList;
     /**
-     * List of phrase declarations that comprise the program
+     * Songs to be played (empty for a phrase library)
      */
-    protected Song song;
+    protected SongList songList;
 
     /**
      * Note constructor
      *
      * @param lineNum   source line number corresponding to this AST node
      * @param phraseList list of phrase declarations
-     * @param song song to be played
+     * @param song song to be played (null for a phrase library)
      */
     public File(int lineNum, PhraseList phraseList, Song song) {
+        this(lineNum, phraseList, new SongList(lineNum));
+        if (song != null)
+            songList.addElement(song);
+        songList.freeze();
+    }
+
+    /**
+     * File constructor for several songs
+     *
+     * @param lineNum   source line number corresponding to this AST node
+     * @param phraseList list of phrase declarations
+     * @param songList songs to be played, each into its own output
+     */
+    public File(int lineNum, PhraseList phraseList, SongList songList) {
         super(lineNum);
         this.phraseList = phraseList;
-        this.song = song;
+        this.songList = songList;
     }
 
     /**
@@ -48,12 +62,32 @@ public class File extends ASTNode {
     }
     
     /**
-     * Get the song in the file
+     * Get the song in the file (the first one if there are several)
      *
-     * @return song
+     * @return song, or null if the file has none
      */
     public Song getSong() {
-        return song;
+        return (songList.getSize() > 0 ? (Song) songList.get(0) : null);
+    }
+
+    /**
+     * Get the songs in the file
+     *
+     * @return list of songs (empty if the file has none)
+     */
+    public SongList getSongList() {
+        return songList;
+    }
+
+    /**
+     * Get the program for one of the songs: this file's phrases and
+     * just that song
+     *
+     * @param song one of the songs in the file
+     * @return file holding the phrases and the song
+     */
+    public File forSong(Song song) {
+        return new File(lineNum, phraseList, song);
     }
 
     /**
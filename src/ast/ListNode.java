@@ -34,22 +34,36 @@ package ast;
 
 import visitor.Visitor;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Vector;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * The abstract <tt>ListNode</tt> class represents a generic list of AST
  * nodes.  It contains a line number (<tt>lineNum</tt>) and a list
- * (<tt>listElements</tt>).
+ * (<tt>listElements</tt>), kept in an array that grows as elements are
+ * added.  Once the parser is done with a list it freezes it, which trims
+ * the array to the elements and allows no more to be added.
  *
  * @see ASTNode
  */
 public abstract class ListNode extends ASTNode
     implements Iterable<ASTNode> {
     /**
-     * List of ASTNode elements
+     * Array of ASTNode elements (the first <tt>size</tt> of them are in use)
      */
-    private Vector<ASTNode> listElements;
+    private ASTNode[] listElements;
+
+    /**
+     * Number of elements in the list
+     */
+    private int size;
+
+    /**
+     * Whether the list has been frozen
+     */
+    private boolean frozen;
 
     /**
      * ListNode constructor
@@ -58,7 +72,7 @@ public abstract class ListNode extends ASTNode
      */
     protected ListNode(int lineNum) {
         super(lineNum);
-        listElements = new Vector<ASTNode>();
+        listElements = new ASTNode[4];
     }
 
     /**
@@ -66,19 +80,98 @@ public abstract class ListNode extends ASTNode
      *
      * @param node element to add
      * @return the updated list
+     * @throws IllegalStateException if the list has been frozen
      */
     public ListNode addElement(ASTNode node) {
-        listElements.add(node);
+        if (frozen) {
+            throw new IllegalStateException("the list has been frozen");
+        }
+        if (size == listElements.length) {
+            listElements = Arrays.copyOf(listElements, size + (size >> 1) + 1);
+        }
+        listElements[size++] = node;
+        return this;
+    }
+
+    /**
+     * Freeze this list node:  trim its array to its elements, and allow
+     * no more to be added
+     *
+     * @return the list
+     */
+    public ListNode freeze() {
+        if (size < listElements.length) {
+            listElements = Arrays.copyOf(listElements, size);
+        }
+        frozen = true;
         return this;
     }
 
+    /**
+     * Whether this list node has been frozen
+     *
+     * @return true if it has been frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Replace some of the elements of this list node with other nodes
+     * (allowed in a frozen list, which stays trimmed)
+     *
+     * @param from  index of the first element to replace
+     * @param to    index after the last element to replace
+     * @param nodes nodes to put in their place
+     * @throws IndexOutOfBoundsException if the range is not in the list
+     */
+    public void replaceElements(int from, int to, List<? extends ASTNode> nodes) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + " to " + to + ", size " + size);
+        }
+        int newSize = size - (to - from) + nodes.size();
+        ASTNode[] elements = listElements;
+        if (newSize > listElements.length || (frozen && newSize < listElements.length)) {
+            elements = new ASTNode[frozen ? newSize : newSize + (newSize >> 1) + 1];
+            System.arraycopy(listElements, 0, elements, 0, from);
+        }
+        System.arraycopy(listElements, to, elements, from + nodes.size(), size - to);
+        for (int i = 0; i < nodes.size(); i++) {
+            elements[from + i] = nodes.get(i);
+        }
+        if (elements == listElements) {
+            for (int i = newSize; i < size; i++) {
+                elements[i] = null;
+            }
+        }
+        listElements = elements;
+        size = newSize;
+    }
+
     /**
      * Returns an iterator for this list
      *
      * @return iterator for this list
      */
     public Iterator<ASTNode> iterator() {
-        return listElements.iterator();
+        return new Iterator<ASTNode>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            public ASTNode next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return listElements[next++];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
 
     /**
@@ -87,7 +180,7 @@ public abstract class ListNode extends ASTNode
      * @return list size
      */
     public int getSize() {
-        return listElements.size();
+        return size;
     }
 
     /**
@@ -98,7 +191,10 @@ public abstract class ListNode extends ASTNode
      *         too large or too small
      */
     public ASTNode get(int index) {
-        return listElements.get(index);
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return listElements[index];
     }
 
     /**
@@ -0,0 +1,36 @@
+/* Cymbal Compiler
+   SongList.java
+*/
+package ast;
+
+import visitor.Visitor;
+
+
+/**
+ * The <tt>SongList</tt> class represents the list of songs in a file
+ * (each compiled into its own output, sharing the file's phrases).
+ *
+ * @see ListNode
+ * @see Song
+ */
+public class SongList extends ListNode {
+    /**
+     * Song list constructor
+     *
+     * @param lineNum source line number corresponding to this AST node
+     */
+    public SongList(int lineNum) {
+        super(lineNum);
+    }
+
+    /**
+     * Visitor method
+     *
+     * @param v visitor object
+     * @return result of visiting this node
+     * @see visitor.Visitor
+     */
+    public Object accept(Visitor v) {
+        return v.visit(this);
+    }
+}
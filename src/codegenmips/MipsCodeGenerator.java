@@ -78,9 +78,34 @@ public class MipsCodeGenerator {
     
     private int stringIndex;
 
+    /** Statistics to record the phases in (null unless -stats is given) */
+    private CompileStats stats = null;
+
+    /** Boolean indicating whether the date is written into the assembly
+      * (off by default, so the same input always gives the same bytes) */
+    private boolean timestamp = false;
+
+    /** Counts the bytes of assembly written (reported by the flush phase) */
+    private ByteCounter byteCounter;
+
+    /** Filename of the assembly output file (null when writing to a
+      * stream given by the caller) */
+    private String outFileName = null;
+
+    /** The assembly output file, opened by generate and replaced when the
+      * assembly is complete */
+    private ReplacingFileOutputStream outFile = null;
+
+    /** Stream that an unwritable output file is reported on */
+    private PrintStream err = System.err;
+
+    /** Generates the song of a streamed compile (null unless streaming) */
+    private CodeGenVisitor songVisitor = null;
+
     /** MipsCodeGenerator constructor
       * @param root root of the class hierarchy tree
-      * @param outFile filename of the assembly output file
+      * @param outFile filename of the assembly output file (opened by
+      *        generate)
       * @param gc boolean indicating whether garbage collection is enabled
       * @param opt boolean indicating whether optimization is enabled
       * @param debug boolean indicating whether debugging is enabled
@@ -91,16 +116,74 @@ public class MipsCodeGenerator {
 	this.gc = gc;
 	this.opt = opt;
 	this.debug = debug;
+	this.outFileName = outFile;
+    }
+
+    /** MipsCodeGenerator constructor
+      * @param file root of the AST
+      * @param out stream the assembly is written to (closed by generate)
+      * @param gc boolean indicating whether garbage collection is enabled
+      * @param opt boolean indicating whether optimization is enabled
+      * @param debug boolean indicating whether debugging is enabled
+      * */
+    public MipsCodeGenerator(File file, PrintStream out,
+			     boolean gc, boolean opt, boolean debug) {
+	this.file = file;
+	this.gc = gc;
+	this.opt = opt;
+	this.debug = debug;
+	setOut(out);
+    }
+
+    /** Set the stream the assembly is written to
+      * @param out the stream
+      * */
+    private void setOut(OutputStream out) {
+	this.byteCounter = new ByteCounter(out);
+	this.out = new PrintStream(byteCounter);
+	assemblySupport = new MipsSupport(this.out);
+    }
+
+    /** Set the statistics that the length map and code generation
+      * phases are recorded in
+      * @param stats the statistics (null to not record)
+      * */
+    public void setStats(CompileStats stats) {
+	this.stats = stats;
+    }
 
+    /** Set whether the date of the compile is written into the assembly
+      * @param timestamp true to write the date (the output then differs
+      * on every compile)
+      * */
+    public void setTimestamp(boolean timestamp) {
+	this.timestamp = timestamp;
+    }
+
+    /** Set the stream that an unwritable output file is reported on
+      * @param err the stream (System.err by default)
+      * */
+    public void setErr(PrintStream err) {
+	this.err = err;
+    }
+
+    /** Open the assembly output file (buffered, since the assembly is
+      * written a line at a time); the assembly goes to a temporary file
+      * that replaces the file once it is complete, and only if it differs
+      * from what the file already holds
+      * @param outFile filename of the assembly output file
+      * @param err stream to report an unwritable file on
+      * @return stream for the file
+      * */
+    private static ReplacingFileOutputStream openFile(String outFile, PrintStream err) {
 	try {
-	    out = new PrintStream(new FileOutputStream(outFile));
-	    assemblySupport = new MipsSupport(out);
+	    return new ReplacingFileOutputStream(java.nio.file.Paths.get(outFile));
 	}
 	catch(IOException e) {
-	    // if don't have permission to write to file then report an error and exit
-	    System.err.println("Error: don't have "
+	    // if don't have permission to write to file then report an error and halt
+	    err.println("Error: don't have "
 	    					+ "permission to write to file '" + outFile + "'");
-	    System.exit(1);
+	    throw new CompilationException("cannot write to file '" + outFile + "'");
 	}
     }
 
@@ -111,6 +194,86 @@ public class MipsCodeGenerator {
       *   2 - generate a map of lengths and their associate MIPS values
       * */
     public void generate() {
+	if (outFileName != null) {
+	    outFile = openFile(outFileName, err);
+	    setOut(outFile);
+	}
+	try {
+	    initNoteMap();
+
+	    //0 - Generate the length of notes to be played for passed tempo
+	    CompileStats.Timer timer = CompileStats.start(stats, "lengthMap");
+	    genLengths(file);
+	    CompileStats.stop(timer);
+
+	    // 1 to 3 - the data section, then the start of the text section
+	    timer = CompileStats.start(stats, "codegen");
+	    genStart();
+
+	    //4 - Generate the notes
+	    noteGen();
+
+	    //5 - close the assembly file (the JVM may outlive this compile)
+	    close();
+	    CompileStats.stop(timer);
+	    // comment out
+	    //throw new RuntimeException("MIPS code generator unimplemented");
+	}
+	finally {
+	    // (leaves the old file alone if the assembly is incomplete)
+	    discardFile();
+	}
+    }
+
+    /** Start generating a streamed song: the song's top-level expressions
+      * are then handed to <tt>genSongExpr</tt> one at a time as they are
+      * parsed, and <tt>finishSong</tt> generates the phrases
+      * @param song the song (its expression list is not used)
+      * */
+    public void startSong(Song song) {
+	initNoteMap();
+	genLengths(new File(song.getLineNum(), null, song));
+	genStart();
+	genNotesStart();
+	songVisitor = new CodeGenVisitor(null, assemblySupport);
+	songVisitor.genSongStart(noteMap, lengthMap);
+    }
+
+    /** Generate a top-level expression of a streamed song
+      * @param expr the expression
+      * */
+    public void genSongExpr(Expr expr) {
+	songVisitor.genSongExpr(expr);
+    }
+
+    /** Finish a streamed song: end the song, generate the phrases and
+      * close the assembly file
+      * @param file the whole file (the song's expressions are not used)
+      * */
+    public void finishSong(File file) {
+	songVisitor.genSongEnd();
+	PhraseCodeGenVisitor pcgv = new PhraseCodeGenVisitor(file, assemblySupport);
+	pcgv.genPhrases(file, noteMap, lengthMap);
+	close();
+    }
+
+    /** Drop the temporary file of an assembly output file that was never
+      * completed (nothing to do once it has been put in place)
+      * */
+    private void discardFile() {
+	if (outFile != null) {
+	    try {
+		outFile.discard();
+	    }
+	    catch (IOException e) {
+		// only a stray temporary file is left
+	    }
+	}
+    }
+
+    /** Fill in the offsets of each note into the chromatic scale
+      * */
+    private void initNoteMap() {
     //Offsets for each note into chromatic scale
     noteMap.put("A",0);
     noteMap.put("B",2);
@@ -119,11 +282,11 @@ public class MipsCodeGenerator {
     noteMap.put("E",7);
     noteMap.put("F",8);
     noteMap.put("G",10);
-   
-    
-    //0 - Generate the length of notes to be played for passed tempo
-    genLengths();
-    
+    }
+
+    /** Generate the data section and start the text section
+      * */
+    private void genStart() {
     // 1 - start the data section
     dataStart();
     
@@ -138,12 +301,28 @@ public class MipsCodeGenerator {
     
     // 3 - start the text section
     textStart();
-    
-    //4 - Generate the notes
-    noteGen();
-	// comment out
-	//throw new RuntimeException("MIPS code generator unimplemented");
+    }
 
+    /** Close the assembly file, recording the flush phase, and put it in
+      * place of the old one
+      * */
+    private void close() {
+    CompileStats.Timer flushTimer = CompileStats.start(stats, "flush");
+    out.close();
+    if (outFile != null) {
+	try {
+	    if (out.checkError())
+		throw new IOException("write failed");
+	    outFile.commit();
+	}
+	catch (IOException e) {
+	    err.println("Error: cannot write to file '" + outFileName + "'");
+	    throw new CompilationException("cannot write to file '" + outFileName + "'");
+	}
+    }
+    flushTimer.setOutputBytes(byteCounter.getCount());
+    CompileStats.stop(flushTimer);
+    CompileStats.count(stats, "instructions", assemblySupport.getNumInstructions());
     }
     
    
@@ -156,7 +335,9 @@ public class MipsCodeGenerator {
 	private void dataStart() {
 		assemblySupport.genComment("Authors: Tyler Harley, "
 								+ "Harry Bartlett, Terrence Tan");
-		assemblySupport.genComment("Date: " + new Date());
+		if (timestamp) {
+			assemblySupport.genComment("Date: " + new Date());
+		}
 		//TODO
 		//add filename Support
 		//assemblySupport.genComment("Files: " + "myFile" + "\n");
@@ -171,12 +352,29 @@ public class MipsCodeGenerator {
     	assemblySupport.genTextStart();
     }
     
-    private void genLengths(){
+    private void genLengths(File file){
 		LengthMapVisitor lmv = new LengthMapVisitor(file);
     	lengthMap = lmv.genLengthMap(file, lengthMap);
     }
     
     private void noteGen() {
+    	genNotesStart();
+		//run the note generation visitor
+		CompileStats.Timer timer = CompileStats.start(stats, "codeGenVisitor");
+		CodeGenVisitor cgv = new CodeGenVisitor(file,assemblySupport);
+		cgv.genCode(file, noteMap, lengthMap);
+		CompileStats.stop(timer);
+		
+		timer = CompileStats.start(stats, "phraseCodeGenVisitor");
+		PhraseCodeGenVisitor pcgv = new PhraseCodeGenVisitor(file,assemblySupport);
+		pcgv.genPhrases(file, noteMap, lengthMap);
+		CompileStats.stop(timer);
+		
+	}
+
+    /** Load the defaults for the MIDI syscall before the notes
+      * */
+    private void genNotesStart() {
     	//enables syscall of MIDI out
     	assemblySupport.genLoadImm("$v0", 33 );
     	
@@ -190,13 +388,37 @@ public class MipsCodeGenerator {
   	 	assemblySupport.genLoadImm("$a2", 0);
         
 		assemblySupport.genComment("Notes Start");
-		//run the note generation visitor
-		CodeGenVisitor cgv = new CodeGenVisitor(file,assemblySupport);
-		cgv.genCode(file, noteMap, lengthMap);
-		
-		PhraseCodeGenVisitor pcgv = new PhraseCodeGenVisitor(file,assemblySupport);
-		pcgv.genPhrases(file, noteMap, lengthMap);
-		
 	}
+
+    /** Output stream filter that counts the bytes written through it
+      * */
+    private static class ByteCounter extends FilterOutputStream {
+	/** number of bytes written so far */
+	private long count = 0;
+
+	/** ByteCounter constructor
+	  * @param out stream the bytes are passed on to
+	  * */
+	ByteCounter(OutputStream out) {
+	    super(out);
+	}
+
+	public void write(int b) throws IOException {
+	    out.write(b);
+	    count++;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+	    out.write(b, off, len);
+	    count += len;
+	}
+
+	/** get the number of bytes written so far
+	  * @return number of bytes
+	  * */
+	long getCount() {
+	    return count;
+	}
+    }
    
 }
@@ -103,6 +103,11 @@ public class MipsSupport {
      */
     private PrintStream out;
 
+    /**
+     * Number of instructions generated so far
+     */
+    private int numInstructions = 0;
+
     /**
      * MipsSupport constructor
      *
@@ -112,6 +117,25 @@ public class MipsSupport {
         this.out = out;
     }
 
+    /**
+     * Get the number of instructions generated so far
+     *
+     * @return number of instructions (labels, directives and comments are not counted)
+     */
+    public int getNumInstructions() {
+        return numInstructions;
+    }
+
+    /**
+     * Print one instruction and count it
+     *
+     * @param instruction the instruction line (starting with a tab)
+     */
+    private void genInstruction(String instruction) {
+        out.println(instruction);
+        numInstructions++;
+    }
+
     /* Methods for manipulating the next available stack offset */
 
     /**
@@ -493,7 +517,7 @@ public class MipsSupport {
         checkReg(destReg);
         checkReg(baseReg);
         checkWordOffset(offset);
-        out.println("\tlw " + destReg + " " + offset + "(" + baseReg + ")");
+        genInstruction("\tlw " + destReg + " " + offset + "(" + baseReg + ")");
     }
 
     /**
@@ -506,7 +530,7 @@ public class MipsSupport {
     public void genLoadByte(String destReg, int offset, String baseReg) {
         checkReg(destReg);
         checkReg(baseReg);
-        out.println("\tlb " + destReg + " " + offset + "(" + baseReg + ")");
+        genInstruction("\tlb " + destReg + " " + offset + "(" + baseReg + ")");
     }
 
     /**
@@ -520,7 +544,7 @@ public class MipsSupport {
         checkReg(srcReg);
         checkReg(baseReg);
         checkWordOffset(offset);
-        out.println("\tsw " + srcReg + " " + offset + "(" + baseReg + ")");
+        genInstruction("\tsw " + srcReg + " " + offset + "(" + baseReg + ")");
     }
 
     /**
@@ -533,7 +557,7 @@ public class MipsSupport {
     public void genStoreByte(String srcReg, int offset, String baseReg) {
         checkReg(srcReg);
         checkReg(baseReg);
-        out.println("\tsb " + srcReg + " " + offset + "(" + baseReg + ")");
+        genInstruction("\tsb " + srcReg + " " + offset + "(" + baseReg + ")");
     }
 
     /**
@@ -544,7 +568,7 @@ public class MipsSupport {
      */
     public void genLoadAddr(String destReg, String label) {
         checkReg(destReg);
-        out.println("\tla " + destReg + " " + label);
+        genInstruction("\tla " + destReg + " " + label);
     }
 
     /**
@@ -555,7 +579,7 @@ public class MipsSupport {
      */
     public void genLoadImm(String destReg, int imm) {
         checkReg(destReg);
-        out.println("\tli " + destReg + " " + imm);
+        genInstruction("\tli " + destReg + " " + imm);
     }
 
     /**
@@ -570,7 +594,7 @@ public class MipsSupport {
                              String operand2) {
         checkReg(destReg);
         checkReg(srcReg);
-        out.println("\t" + op + " " + destReg + " " + srcReg + " " + operand2);
+        genInstruction("\t" + op + " " + destReg + " " + srcReg + " " + operand2);
     }
 
     /**
@@ -813,7 +837,7 @@ public class MipsSupport {
     private void genUnaryOp(String op, String destReg, String srcReg) {
         checkReg(destReg);
         checkReg(srcReg);
-        out.println("\t" + op + " " + destReg + " " + srcReg);
+        genInstruction("\t" + op + " " + destReg + " " + srcReg);
     }
 
     /**
@@ -861,7 +885,7 @@ public class MipsSupport {
      * @param label label string
      */
     public void genDirCall(String label) {
-        out.println("\tjal " + label);
+        genInstruction("\tjal " + label);
     }
 
     /**
@@ -871,14 +895,14 @@ public class MipsSupport {
      */
     public void genInDirCall(String reg) {
         checkReg(reg);
-        out.println("\tjalr " + reg);
+        genInstruction("\tjalr " + reg);
     }
 
     /**
      * Generate a return
      */
     public void genRetn() {
-        out.println("\tjr " + getRAReg());
+        genInstruction("\tjr " + getRAReg());
     }
 
     /**
@@ -887,7 +911,7 @@ public class MipsSupport {
      * @param label label string
      */
     public void genUncondBr(String label) {
-        out.println("\tb " + label);
+        genInstruction("\tb " + label);
     }
 
     /**
@@ -902,7 +926,7 @@ public class MipsSupport {
                            String label) {
         checkReg(reg1);
         checkReg(reg2);
-        out.println("\t" + op + " " + reg1 + " " + reg2 + " " + label);
+        genInstruction("\t" + op + " " + reg1 + " " + reg2 + " " + label);
     }
 
     /**
@@ -985,25 +1009,25 @@ public class MipsSupport {
     public void genSyscall(int syscallId) {
         // syscall number is passed via $v0 (for spim)
         if (syscallId == SYSCALL_EXIT) {
-            out.println("\tli $v0 17");
+            genInstruction("\tli $v0 17");
         }
         else if (syscallId == SYSCALL_FILE_OPEN) {
-            out.println("\tli $v0 13");
+            genInstruction("\tli $v0 13");
         }
         else if (syscallId == SYSCALL_FILE_CLOSE) {
-            out.println("\tli $v0 16");
+            genInstruction("\tli $v0 16");
         }
         else if (syscallId == SYSCALL_FILE_READ) {
-            out.println("\tli $v0 14");
+            genInstruction("\tli $v0 14");
         }
         else if (syscallId == SYSCALL_FILE_WRITE) {
-            out.println("\tli $v0 15");
+            genInstruction("\tli $v0 15");
         }
         else if (syscallId == SYSCALL_GET_TIME) {
-            out.println("\tli $v0 18");
+            genInstruction("\tli $v0 18");
         }
         else if (syscallId == SYSCALL_SBRK) {
-            out.println("\tli $v0 9");
+            genInstruction("\tli $v0 9");
         }
         //Syscall without side effects
         else if (syscallId == MIDI_CALL) {
@@ -1011,6 +1035,6 @@ public class MipsSupport {
         else {
             throw new RuntimeException("bad syscall identifier");
         }
-        out.println("\tsyscall");
+        genInstruction("\tsyscall");
     }
 }
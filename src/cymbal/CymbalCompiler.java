@@ -0,0 +1,1061 @@
+/*
+file: CymbalCompiler.java
+
+Embeddable entry point to the compiler: compiles Cymbal sources in
+memory and hands back the assembly and the errors instead of printing
+them or stopping the JVM.
+*/
+
+package cymbal;
+
+import ast.ASTNode;
+import ast.Expr;
+import ast.File;
+import ast.Phrase;
+import ast.PhraseList;
+import ast.Song;
+import ast.SongList;
+import codegenmips.MipsCodeGenerator;
+import java_cup.runtime.Symbol;
+import lexer.CymbalScanner;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import lexer.TokenPipeline;
+import lexer.TokenSource;
+import parser.CymbalParser;
+import parser.IncrementalParser;
+import parser.Parser;
+import parser.SongListener;
+import semant.SemanticAnalyzer;
+import util.CompilationException;
+import util.CompileEvent;
+import util.CompileStats;
+import util.ErrorHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The <tt>CymbalCompiler</tt> class runs every phase of the compiler
+ * (lexing, parsing, semantic analysis and MIPS code generation) on
+ * sources given as strings or readers.
+ * <p/>
+ * <tt>compile</tt> never prints and never exits: errors come back as
+ * the diagnostics of the <tt>Result</tt>.  A compiler only holds its
+ * options, and every compile builds its own lexers, parsers and error
+ * handlers, so once its options are set one instance can be used by many
+ * threads at once.
+ * <p/>
+ * The phase methods (<tt>parse</tt>, <tt>analyze</tt> and
+ * <tt>generate</tt>) are also public for drivers such as <tt>Main</tt>
+ * that report errors themselves and write the assembly to a file.
+ */
+public class CymbalCompiler {
+    /**
+     * Whether garbage collection is enabled
+     */
+    private final boolean gc;
+
+    /**
+     * Whether optimization is enabled
+     */
+    private final boolean opt;
+
+    /**
+     * Debugging flags for each phase of the compiler
+     */
+    private final boolean debugLexer, debugParser, debugSemant, debugCodeGen;
+
+    /**
+     * Whether each source is lexed on its own thread while it is parsed
+     */
+    private boolean pipelineLexer = false;
+
+    /**
+     * Whether the date of the compile is written into the assembly
+     */
+    private boolean timestamp = false;
+
+    /**
+     * Whether sources are scanned by the hand-written scanner instead of
+     * the generated lexer
+     */
+    private boolean handScanner = false;
+
+    /**
+     * Whether sources are parsed by the hand-written parser instead of
+     * the generated one
+     */
+    private boolean handParser = false;
+
+    /**
+     * Stream that a missing input file or an unwritable output file is
+     * reported on (source errors are registered with the error handler)
+     */
+    private PrintStream err = System.err;
+
+    /**
+     * Incremental parsers of the files read by name, kept from one compile
+     * to the next (null to parse every source in full)
+     */
+    private ConcurrentMap<String, IncrementalParser> incrementalParsers = null;
+
+    /**
+     * CymbalCompiler constructor - default options (no gc, no optimization, no debugging)
+     */
+    public CymbalCompiler() {
+        this(false, false, false, false, false, false);
+    }
+
+    /**
+     * CymbalCompiler constructor
+     *
+     * @param gc           whether garbage collection is enabled
+     * @param opt          whether optimization is enabled
+     * @param debugLexer   whether lexer debugging is enabled
+     * @param debugParser  whether parser debugging is enabled
+     * @param debugSemant  whether semantic analysis debugging is enabled
+     * @param debugCodeGen whether code generation debugging is enabled
+     */
+    public CymbalCompiler(boolean gc, boolean opt, boolean debugLexer, boolean debugParser,
+                          boolean debugSemant, boolean debugCodeGen) {
+        this.gc = gc;
+        this.opt = opt;
+        this.debugLexer = debugLexer;
+        this.debugParser = debugParser;
+        this.debugSemant = debugSemant;
+        this.debugCodeGen = debugCodeGen;
+    }
+
+    /**
+     * Lex each source on a separate thread that runs ahead of its parser
+     * (worthwhile for very large sources on a multi-core machine)
+     *
+     * @param pipelineLexer whether each source is lexed on a separate thread
+     */
+    public void setPipelineLexer(boolean pipelineLexer) {
+        this.pipelineLexer = pipelineLexer;
+    }
+
+    /**
+     * Write the date of the compile into the assembly (without it the same
+     * sources always give the same bytes)
+     *
+     * @param timestamp whether the date of the compile is written
+     */
+    public void setTimestamp(boolean timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Scan sources with the hand-written <tt>CymbalScanner</tt> (same
+     * tokens, faster) instead of the lexer generated from lexer.jlex
+     *
+     * @param handScanner whether the hand-written scanner is used
+     */
+    public void setHandScanner(boolean handScanner) {
+        this.handScanner = handScanner;
+    }
+
+    /**
+     * Parse sources with the hand-written <tt>CymbalParser</tt> (same AST
+     * and errors, faster) instead of the parser generated from parser.cup,
+     * which still traces the parse when parser debugging is enabled
+     *
+     * @param handParser whether the hand-written parser is used
+     */
+    public void setHandParser(boolean handParser) {
+        this.handParser = handParser;
+    }
+
+    /**
+     * Report a missing input file or an unwritable output file on the given
+     * stream rather than on System.err
+     *
+     * @param err the stream
+     */
+    public void setErr(PrintStream err) {
+        this.err = err;
+    }
+
+    /**
+     * Parse the files read by name incrementally: each file is handed to
+     * its parser in the map (a parser is added for a file that has none),
+     * which reparses only the phrases and Songs changed since the file was
+     * last parsed, and reuses the rest of its AST.  The parsers give the
+     * same ASTs and errors as the generated parser and lexer; they are not
+     * used for sources given as readers, nor when the lexer or parser is
+     * debugged or statistics are collected (-stats).
+     *
+     * @param incrementalParsers the parsers, by file name (kept by the caller
+     *                           from one compile to the next), or null to
+     *                           parse every source in full
+     */
+    public void setIncrementalParsers(ConcurrentMap<String, IncrementalParser> incrementalParsers) {
+        this.incrementalParsers = incrementalParsers;
+    }
+
+    /**
+     * Compile a single source
+     *
+     * @param name   name of the source (used in diagnostics)
+     * @param source the Cymbal program
+     * @return the assembly or the diagnostics
+     */
+    public Result compile(String name, String source) {
+        return compile(new String[] {name}, new Reader[] {new StringReader(source)});
+    }
+
+    /**
+     * Compile several sources as one program (library phrases plus one or
+     * more Songs, each generated on its own task)
+     *
+     * @param names   name of each source (used in diagnostics)
+     * @param sources reader for each source
+     * @return the assembly or the diagnostics
+     */
+    public Result compile(String[] names, Reader[] sources) {
+        ErrorHandler errorHandler = new ErrorHandler(false);
+        long outputBytes = 0;
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        File file;
+        try {
+            file = parse(names, sources, errorHandler, null, event);
+            analyze(file, errorHandler);
+            int numSongs = file.getSongList().getSize();
+            ByteArrayOutputStream[] songBytes = new ByteArrayOutputStream[numSongs];
+            PrintStream[] outs = new PrintStream[numSongs];
+            for (int i = 0; i < numSongs; i++) {
+                songBytes[i] = new ByteArrayOutputStream();
+                outs[i] = new PrintStream(songBytes[i], false, "UTF-8");
+            }
+            generateSongs(file, outs, null);
+            List<String> assemblies = new ArrayList<String>();
+            for (ByteArrayOutputStream songOut : songBytes) {
+                assemblies.add(songOut.toString("UTF-8"));
+                outputBytes += songOut.size();
+            }
+            event.succeeded = true;
+            return new Result(file, assemblies, errorHandler.getErrors());
+        } catch (CompilationException e) {
+            return new Result(null, null, errorHandler.getErrors());
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Internal error: UTF-8 unsupported", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.files = joinNames(names);
+                event.outputBytes = outputBytes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Join source names for reports
+     *
+     * @param names the source names
+     * @return the names separated by spaces
+     */
+    public static String joinNames(String[] names) {
+        StringBuilder joined = new StringBuilder();
+        for (String name : names) {
+            joined.append(joined.length() > 0 ? " " : "").append(name);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Lex and parse every source on the fork/join common pool, then merge
+     * the results into a single AST.  Phrases are kept in source order,
+     * so the merged AST does not depend on scheduling.
+     *
+     * @param names        name of each source (also the file opened when
+     *                     <tt>sources</tt> is null)
+     * @param sources      reader for each source, or null to read the files <tt>names</tt>
+     *                     (a null entry reads the file of that name)
+     * @param errorHandler error handler that lexing and parsing errors are registered with
+     * @return the merged AST
+     * @throws CompilationException if any source has lexical or syntax errors,
+     *                              or the sources hold no Song
+     */
+    public File parse(String[] names, Reader[] sources, ErrorHandler errorHandler) {
+        return parse(names, sources, errorHandler, null);
+    }
+
+    /**
+     * Lex and parse every source, recording statistics
+     * (with statistics, each source is lexed completely before it is
+     * parsed, so that lexing and parsing are timed separately; a
+     * pipelined lexer is timed on its own thread instead)
+     *
+     * @param names        name of each source (also the file opened when
+     *                     <tt>sources</tt> is null)
+     * @param sources      reader for each source, or null to read the files <tt>names</tt>
+     *                     (a null entry reads the file of that name)
+     * @param errorHandler error handler that lexing and parsing errors are registered with
+     * @param stats        statistics to record the lex and parse phases and the
+     *                     token, node and phrase counts in (may be null)
+     * @return the merged AST
+     * @throws CompilationException if any source has lexical or syntax errors,
+     *                              or the sources hold no Song
+     */
+    public File parse(String[] names, Reader[] sources, ErrorHandler errorHandler,
+                      CompileStats stats) {
+        return parse(names, sources, errorHandler, stats, null);
+    }
+
+    /**
+     * Lex and parse every source, recording statistics and the number of
+     * AST nodes the parsers built in the event of the compile
+     *
+     * @param names        name of each source (also the file opened when
+     *                     <tt>sources</tt> is null)
+     * @param sources      reader for each source, or null to read the files <tt>names</tt>
+     *                     (a null entry reads the file of that name)
+     * @param errorHandler error handler that lexing and parsing errors are registered with
+     * @param stats        statistics to record the lex and parse phases and the
+     *                     token, node and phrase counts in (may be null)
+     * @param event        event of the compile, whose node count is set (may be null)
+     * @return the merged AST
+     * @throws CompilationException if any source has lexical or syntax errors,
+     *                              or the sources hold no Song
+     */
+    public File parse(String[] names, Reader[] sources, ErrorHandler errorHandler,
+                      CompileStats stats, CompileEvent event) {
+        checkFiles(names, sources);
+        List<File> parts = parseSources(names, sources, errorHandler, stats, event);
+
+        // merge in source order
+        PhraseList phraseList = null;
+        SongList songList = null;
+        for (int i = 0; i < names.length; i++) {
+            File part = parts.get(i);
+            if (part.getPhraseList() != null) {
+                if (phraseList == null) {
+                    phraseList = new PhraseList(0);
+                }
+                for (ASTNode phrase : part.getPhraseList()) {
+                    phraseList.addElement(phrase);
+                }
+            }
+            for (ASTNode song : part.getSongList()) {
+                if (songList == null) {
+                    songList = new SongList(part.getLineNum());
+                }
+                songList.addElement(song);
+            }
+        }
+        if (songList == null) {
+            errorHandler.register(ErrorHandler.PARSE_ERROR, names[names.length - 1], 1,
+                    "no Song in any input file");
+        }
+        errorHandler.checkErrors();
+        if (phraseList != null) {
+            phraseList.freeze();
+        }
+
+        File file = new File(songList.getLineNum(), phraseList, (SongList) songList.freeze());
+        CompileStats.count(stats, "phrases", (phraseList != null ? phraseList.getSize() : 0));
+        return file;
+    }
+
+    /**
+     * Lex and parse each source on its own task
+     *
+     * @param names        name of each source
+     * @param sources      reader for each source, or null to read the files <tt>names</tt>
+     * @param errorHandler error handler that lexing and parsing errors are registered with
+     * @param stats        statistics to record the lex and parse phases in (may be null)
+     * @param event        event of the compile, whose node count is set (may be null)
+     * @return the AST of each source, in source order
+     * @throws CompilationException if any source has lexical or syntax errors
+     */
+    private List<File> parseSources(String[] names, Reader[] sources, ErrorHandler errorHandler,
+                                    CompileStats stats, CompileEvent event) {
+        List<ParseTask> tasks = new ArrayList<ParseTask>();
+        for (int i = 0; i < names.length; i++) {
+            tasks.add(new ParseTask(names[i], (sources != null ? sources[i] : null), stats));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // collect the errors of every source before giving up on any of them
+        boolean failed = false;
+        List<File> parts = new ArrayList<File>();
+        for (ParseTask task : tasks) {
+            File part = task.join();
+            failed |= (part == null);
+            parts.add(part);
+            errorHandler.registerAll(task.errorHandler);
+            if (event != null) {
+                event.nodes += task.nodes;
+            }
+        }
+        if (failed) {
+            errorHandler.checkErrors();
+            // a source that failed without registering an error (e.g., a missing file)
+            throw new CompilationException("cannot parse every source");
+        }
+        return parts;
+    }
+
+    /**
+     * Lex, parse, check and generate code for the sources in a single pass
+     * that holds only the phrases in memory: each top-level expression of
+     * the Song is checked and its code generated as soon as it is parsed,
+     * and then dropped.  The Song must be in the last source, and be the
+     * only one; the other sources (phrase libraries) are parsed first, as
+     * by <tt>parse</tt>.
+     * <p/>
+     * Errors are reported as by <tt>parse</tt> and <tt>analyze</tt>, but
+     * only after code generation has started, so on an error the output
+     * is incomplete and should be discarded.
+     *
+     * @param names        name of each source (also the file opened when
+     *                     <tt>sources</tt> is null)
+     * @param sources      reader for each source, or null to read the files <tt>names</tt>
+     *                     (a null entry reads the file of that name)
+     * @param errorHandler error handler that all errors are registered with
+     * @param out          stream the assembly is written to (closed when done)
+     * @param stats        statistics to record in (may be null)
+     * @return the AST, without the Song's expressions
+     * @throws CompilationException if there are lexical, syntax or semantic errors
+     */
+    public File stream(String[] names, Reader[] sources, ErrorHandler errorHandler,
+                       PrintStream out, CompileStats stats) {
+        CompileStats.Timer timer = CompileStats.start(stats, "stream");
+        int last = names.length - 1;
+        try {
+            checkFiles(names, sources);
+            // the phrase libraries
+            List<File> parts = parseSources(Arrays.copyOf(names, last),
+                    (sources != null ? Arrays.copyOf(sources, last) : null), errorHandler, stats,
+                    null);
+            for (int i = 0; i < last; i++) {
+                if (parts.get(i).getSong() != null) {
+                    errorHandler.register(ErrorHandler.PARSE_ERROR, names[i],
+                            parts.get(i).getSong().getLineNum(),
+                            "when streaming, the Song must be in the last input file");
+                }
+            }
+            errorHandler.checkErrors();
+
+            SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer(null, errorHandler, debugSemant);
+            MipsCodeGenerator codeGenerator = new MipsCodeGenerator(null, out, gc, opt, debugCodeGen);
+            codeGenerator.setStats(stats);
+            codeGenerator.setTimestamp(timestamp);
+            SongStreamer streamer = new SongStreamer(semanticAnalyzer, codeGenerator);
+            semanticAnalyzer.startStream();
+            PhraseList phraseList = null;
+            for (File part : parts) {
+                if (part.getPhraseList() != null) {
+                    if (phraseList == null) {
+                        phraseList = new PhraseList(0);
+                    }
+                    for (ASTNode phrase : part.getPhraseList()) {
+                        streamer.phraseParsed((Phrase) phrase);
+                        phraseList.addElement(phrase);
+                    }
+                }
+            }
+
+            // the song, streamed
+            File part = parseStreamed(names[last], (sources != null ? sources[last] : null),
+                    errorHandler, streamer);
+            if (part.getSong() == null) {
+                errorHandler.register(ErrorHandler.PARSE_ERROR, names[last], 1,
+                        "no Song in the last input file");
+                errorHandler.checkErrors();
+            }
+            if (part.getSongList().getSize() > 1) {
+                errorHandler.register(ErrorHandler.PARSE_ERROR, names[last],
+                        part.getSongList().get(1).getLineNum(),
+                        "when streaming, only one Song can be given");
+                errorHandler.checkErrors();
+            }
+            if (part.getPhraseList() != null) {
+                if (phraseList == null) {
+                    phraseList = new PhraseList(0);
+                }
+                for (ASTNode phrase : part.getPhraseList()) {
+                    phraseList.addElement(phrase);
+                }
+            }
+            if (phraseList != null) {
+                phraseList.freeze();
+            }
+            File file = new File(part.getLineNum(), phraseList, part.getSong());
+            semanticAnalyzer.finishStream();
+            codeGenerator.finishSong(file);
+            return file;
+        } finally {
+            // (already closed, unless there were errors)
+            out.close();
+            CompileStats.stop(timer);
+        }
+    }
+
+    /**
+     * Lex and parse a source, handing its phrases and Song expressions to
+     * a listener as they are parsed
+     *
+     * @param name         name of the source
+     * @param source       reader for the source, or null to open the file <tt>name</tt>
+     * @param errorHandler error handler that lexing and parsing errors are registered with
+     * @param listener     listener for the phrases and Song expressions
+     * @return the AST of the source, without the Song's expressions
+     * @throws CompilationException if the source has lexical or syntax errors
+     */
+    private File parseStreamed(String name, Reader source, ErrorHandler errorHandler,
+                               SongListener listener) {
+        TokenSource scanner = openLexer(name, source);
+        TokenPipeline pipeline = null;
+        if (pipelineLexer) {
+            scanner = pipeline = new TokenPipeline(scanner, null, name);
+        }
+        try {
+            return parseTokens(scanner, errorHandler, listener, null);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (pipeline != null) {
+                pipeline.close();
+            }
+        }
+    }
+
+    /**
+     * Check the AST for semantic errors
+     *
+     * @param file         root of the AST
+     * @param errorHandler error handler that semantic errors are registered with
+     * @throws CompilationException if there are semantic errors
+     */
+    public void analyze(File file, ErrorHandler errorHandler) {
+        analyze(file, errorHandler, null);
+    }
+
+    /**
+     * Check the AST for semantic errors, recording each check in the statistics
+     *
+     * @param file         root of the AST
+     * @param errorHandler error handler that semantic errors are registered with
+     * @param stats        statistics to record the checks in (may be null)
+     * @throws CompilationException if there are semantic errors
+     */
+    public void analyze(File file, ErrorHandler errorHandler, CompileStats stats) {
+        SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer(file, errorHandler, debugSemant);
+        semanticAnalyzer.setStats(stats);
+        semanticAnalyzer.analyze();
+    }
+
+    /**
+     * Generate the MIPS assembly for a semantically correct AST
+     *
+     * @param file root of the AST
+     * @param out  stream the assembly is written to (closed when done)
+     */
+    public void generate(File file, PrintStream out) {
+        generate(file, out, null);
+    }
+
+    /**
+     * Generate the MIPS assembly, recording the phases and the
+     * instruction count in the statistics
+     *
+     * @param file  root of the AST
+     * @param out   stream the assembly is written to (closed when done)
+     * @param stats statistics to record in (may be null)
+     */
+    public void generate(File file, PrintStream out, CompileStats stats) {
+        MipsCodeGenerator codeGenerator = new MipsCodeGenerator(file, out, gc, opt, debugCodeGen);
+        codeGenerator.setStats(stats);
+        codeGenerator.setTimestamp(timestamp);
+        codeGenerator.generate();
+    }
+
+    /**
+     * Generate the MIPS assembly of each Song of a semantically correct
+     * AST into its own stream, each on its own fork/join task (the phrases
+     * are shared, and generated again for every Song)
+     *
+     * @param file  root of the AST
+     * @param outs  stream for each Song, in song order (each closed when done)
+     * @param stats statistics to record in (may be null)
+     */
+    public void generateSongs(File file, PrintStream[] outs, CompileStats stats) {
+        List<SongTask> tasks = new ArrayList<SongTask>();
+        for (int i = 0; i < outs.length; i++) {
+            tasks.add(new SongTask(file, (Song) file.getSongList().get(i), outs[i], null, stats));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Generate the MIPS assembly of each Song of a semantically correct
+     * AST into its own file, each on its own fork/join task
+     *
+     * @param file         root of the AST
+     * @param outFilenames output file for each Song, in song order
+     * @param stats        statistics to record in (may be null)
+     * @throws CompilationException if an output file cannot be written
+     */
+    public void generateSongs(File file, String[] outFilenames, CompileStats stats) {
+        List<SongTask> tasks = new ArrayList<SongTask>();
+        for (int i = 0; i < outFilenames.length; i++) {
+            tasks.add(new SongTask(file, (Song) file.getSongList().get(i), null, outFilenames[i],
+                    stats));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Check that the files read by name are there, before any is lexed
+     * (so that a missing file is reported on <tt>err</tt>, not by a lexer)
+     *
+     * @param names   name of each source
+     * @param sources reader for each source, or null to read the files <tt>names</tt>
+     * @throws CompilationException if a file is missing
+     */
+    private void checkFiles(String[] names, Reader[] sources) {
+        for (int i = 0; i < names.length; i++) {
+            if (sources == null || sources[i] == null) {
+                Lexer.checkFile(names[i], err);
+            }
+        }
+    }
+
+    /**
+     * Open the lexer (or the hand-written scanner) for a source
+     *
+     * @param name   name of the source
+     * @param source reader for the source, or null to open the file <tt>name</tt>
+     * @return the lexer
+     */
+    private TokenSource openLexer(String name, Reader source) {
+        Reader[] readers = new Reader[] {source};
+        if (handScanner) {
+            return new CymbalScanner(new String[] {name}, readers, debugLexer);
+        }
+        return new Lexer(new String[] {name}, readers, debugLexer);
+    }
+
+    /**
+     * Parse the tokens of a source, with the generated parser (always when
+     * tracing the parse) or the hand-written one
+     *
+     * @param scanner      the lexer of the source
+     * @param errorHandler error handler that parsing errors are registered with
+     * @param listener     listener for the phrases and Song expressions (null
+     *                     unless streaming)
+     * @param task         task to tell the number of tokens read and nodes
+     *                     built (null when streaming)
+     * @return the AST of the source
+     * @throws CompilationException if the source has lexical or syntax errors
+     * @throws Exception if the lexer fails
+     */
+    private File parseTokens(TokenSource scanner, ErrorHandler errorHandler,
+                             SongListener listener, ParseTask task) throws Exception {
+        if (handParser && !debugParser) {
+            CymbalParser parser = new CymbalParser(scanner);
+            parser.setErrorHandler(errorHandler);
+            parser.setSongListener(listener);
+            try {
+                return parser.parse();
+            } finally {
+                if (task != null) {
+                    task.parsed(tokenCount(scanner), parser.getNodeCount());
+                }
+            }
+        }
+        Parser parser = new Parser(scanner);
+        parser.setErrorHandler(errorHandler);
+        parser.setSongListener(listener);
+        try {
+            Symbol result = debugParser ? parser.debug_parse() : parser.parse();
+            return (File) result.value;
+        } finally {
+            if (task != null) {
+                task.parsed(tokenCount(scanner), parser.getNodeCount());
+            }
+        }
+    }
+
+    /**
+     * Get the number of tokens a lexer has handed out
+     *
+     * @param scanner the lexer
+     * @return number of tokens returned so far (including EOF, once)
+     */
+    private static int tokenCount(TokenSource scanner) {
+        if (scanner instanceof TokenBuffer) {
+            return ((TokenBuffer) scanner).size();
+        }
+        if (scanner instanceof TokenPipeline) {
+            return ((TokenPipeline) scanner).getTokenCount();
+        }
+        if (scanner instanceof CymbalScanner) {
+            return ((CymbalScanner) scanner).getTokenCount();
+        }
+        return ((Lexer) scanner).getTokenCount();
+    }
+
+    /**
+     * Listener that checks each phrase and Song expression as it is parsed,
+     * and generates the code of each Song expression as long as no errors
+     * have been found
+     */
+    private static class SongStreamer implements SongListener {
+        /**
+         * Semantic analyzer, started for streaming
+         */
+        private final SemanticAnalyzer semanticAnalyzer;
+
+        /**
+         * Code generator of the song
+         */
+        private final MipsCodeGenerator codeGenerator;
+
+        /**
+         * Number of Songs started
+         */
+        private int numSongs = 0;
+
+        /**
+         * SongStreamer constructor
+         *
+         * @param semanticAnalyzer semantic analyzer, started for streaming
+         * @param codeGenerator    code generator of the song
+         */
+        SongStreamer(SemanticAnalyzer semanticAnalyzer, MipsCodeGenerator codeGenerator) {
+            this.semanticAnalyzer = semanticAnalyzer;
+            this.codeGenerator = codeGenerator;
+        }
+
+        public void phraseParsed(Phrase phrase) {
+            semanticAnalyzer.analyzePhrase(phrase);
+        }
+
+        public void songStarted(Song song) {
+            // (a second Song is an error, reported once parsing is done)
+            if (++numSongs == 1) {
+                codeGenerator.startSong(song);
+            }
+        }
+
+        public void songExprParsed(Expr expr) {
+            // after an error the output is discarded, and the code generator
+            // may not cope with the erroneous expression
+            if (numSongs == 1 && semanticAnalyzer.analyzeSongExpr(expr)) {
+                codeGenerator.genSongExpr(expr);
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that generates the code of a single Song
+     */
+    @SuppressWarnings("serial")  // (fork/join tasks are never serialized)
+    private class SongTask extends RecursiveAction {
+        /**
+         * The program for the Song (the phrases and just that Song)
+         */
+        private final File file;
+
+        /**
+         * Stream the assembly is written to (null to open <tt>outFilename</tt>)
+         */
+        private final PrintStream out;
+
+        /**
+         * Output file name (used when <tt>out</tt> is null)
+         */
+        private final String outFilename;
+
+        /**
+         * Statistics to record code generation in (may be null)
+         */
+        private final CompileStats stats;
+
+        /**
+         * SongTask constructor
+         *
+         * @param file        root of the AST
+         * @param song        the Song to generate
+         * @param out         stream the assembly is written to, or null to open
+         *                    <tt>outFilename</tt>
+         * @param outFilename output file name (used when <tt>out</tt> is null)
+         * @param stats       statistics to record code generation in (may be null)
+         */
+        SongTask(File file, Song song, PrintStream out, String outFilename, CompileStats stats) {
+            this.file = file.forSong(song);
+            this.out = out;
+            this.outFilename = outFilename;
+            this.stats = stats;
+        }
+
+        /**
+         * Generate the Song's assembly
+         */
+        protected void compute() {
+            MipsCodeGenerator codeGenerator = (out != null)
+                    ? new MipsCodeGenerator(file, out, gc, opt, debugCodeGen)
+                    : new MipsCodeGenerator(file, outFilename, gc, opt, debugCodeGen);
+            codeGenerator.setStats(stats);
+            codeGenerator.setTimestamp(timestamp);
+            codeGenerator.setErr(err);
+            codeGenerator.generate();
+        }
+    }
+
+    /**
+     * Fork/join task that lexes and parses a single source
+     */
+    @SuppressWarnings("serial")  // (fork/join tasks are never serialized)
+    private class ParseTask extends RecursiveTask<File> {
+        /**
+         * Name of the source
+         */
+        private final String name;
+
+        /**
+         * Reader for the source (null to open the file <tt>name</tt>)
+         */
+        private final Reader source;
+
+        /**
+         * Statistics to record lexing and parsing in (may be null)
+         */
+        private final CompileStats stats;
+
+        /**
+         * Error handler for this source's errors (merged by <tt>parse</tt>)
+         */
+        private final ErrorHandler errorHandler = new ErrorHandler(false);
+
+        /**
+         * Timer of the parse phase (null until parsing starts)
+         */
+        private CompileStats.Timer parseTimer = null;
+
+        /**
+         * Number of AST nodes built by the parser (summed by <tt>parse</tt>)
+         */
+        private int nodes = 0;
+
+        /**
+         * ParseTask constructor
+         *
+         * @param name   name of the source
+         * @param source reader for the source, or null to open the file <tt>name</tt>
+         * @param stats  statistics to record lexing and parsing in (may be null)
+         */
+        ParseTask(String name, Reader source, CompileStats stats) {
+            this.name = name;
+            this.source = source;
+            this.stats = stats;
+        }
+
+        /**
+         * Lex and parse the source
+         * (a failure is returned rather than thrown, because invokeAll
+         * would cancel the other sources' tasks)
+         *
+         * @return the AST of the source (possibly without a Song),
+         * or null if the source has errors
+         */
+        protected File compute() {
+            try {
+                if (incrementalParsers != null && source == null && !debugLexer && !debugParser
+                        && stats == null) {
+                    File part = parseIncrementally();
+                    if (part != null) {
+                        return part;
+                    }
+                }
+                TokenSource scanner;
+                TokenPipeline pipeline = null;
+                if (pipelineLexer) {
+                    // lex on another thread while parsing (that thread times the lex phase)
+                    scanner = pipeline = new TokenPipeline(openLexer(name, source), stats, name);
+                }
+                else {
+                    CompileStats.Timer timer = CompileStats.start(stats, "lex");
+                    timer.setFile(name);
+                    scanner = openLexer(name, source);
+                    if (stats != null) {
+                        // lex everything now, so that parsing is timed on its own
+                        TokenBuffer tokens = new TokenBuffer(scanner);
+                        timer.setTokens(tokens.size());
+                        CompileStats.count(stats, "tokens", tokens.size());
+                        scanner = tokens;
+                    }
+                    CompileStats.stop(timer);
+                }
+
+                try {
+                    parseTimer = CompileStats.start(stats, "parse");
+                    parseTimer.setFile(name);
+                    File part = parseTokens(scanner, errorHandler, null, this);
+                    CompileStats.stop(parseTimer);
+                    return part;
+                } finally {
+                    if (pipeline != null) {
+                        pipeline.close();
+                    }
+                }
+            } catch (CompilationException e) {
+                // the errors are in errorHandler
+                return null;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Record what the parser did, as counted while it ran (so that
+         * neither the tokens nor the nodes are counted by another pass)
+         *
+         * @param tokens number of tokens the parser read
+         * @param nodes  number of AST nodes the parser built
+         */
+        void parsed(int tokens, int nodes) {
+            this.nodes = nodes;
+            parseTimer.setTokens(tokens);
+            parseTimer.setNodes(nodes);
+            CompileStats.count(stats, "astNodes", nodes);
+        }
+
+        /**
+         * Bring the AST of the file up to date with its incremental parser
+         *
+         * @return the AST of the file, or null if the file cannot be read
+         * (it is then opened as usual, which reports the error)
+         * @throws CompilationException if the file has lexical or syntax errors
+         */
+        private File parseIncrementally() {
+            String text;
+            try {
+                // (decoded as by the FileReader of the lexers)
+                text = new String(Files.readAllBytes(Paths.get(name)), Charset.defaultCharset());
+            } catch (IOException e) {
+                return null;
+            } catch (InvalidPathException e) {
+                return null;
+            }
+            IncrementalParser parser = incrementalParsers.get(name);
+            if (parser == null) {
+                incrementalParsers.putIfAbsent(name, new IncrementalParser(name));
+                parser = incrementalParsers.get(name);
+            }
+            synchronized (parser) {
+                try {
+                    return parser.update(text, errorHandler);
+                } finally {
+                    nodes = parser.getNodeCount();
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of a compile: the assembly if the compile succeeded,
+     * the diagnostics if it did not
+     */
+    public static class Result {
+        /**
+         * Root of the AST (null if the compile failed)
+         */
+        private final File file;
+
+        /**
+         * Generated assembly of each Song, in song order (null if the compile failed)
+         */
+        private final List<String> assemblies;
+
+        /**
+         * Errors found, ordered by source name and line number
+         */
+        private final List<ErrorHandler.Error> diagnostics;
+
+        /**
+         * Result constructor
+         *
+         * @param file        root of the AST (null if the compile failed)
+         * @param assemblies  generated assembly of each Song (null if the compile failed)
+         * @param diagnostics errors found
+         */
+        Result(File file, List<String> assemblies, List<ErrorHandler.Error> diagnostics) {
+            this.file = file;
+            this.assemblies = (assemblies != null ? Collections.unmodifiableList(assemblies) : null);
+            this.diagnostics = Collections.unmodifiableList(diagnostics);
+        }
+
+        /**
+         * Whether the compile succeeded
+         *
+         * @return true if assembly was generated
+         */
+        public boolean succeeded() {
+            return assemblies != null;
+        }
+
+        /**
+         * Get the generated assembly (of the first Song, if there are several)
+         *
+         * @return the MIPS assembly, or null if the compile failed
+         */
+        public String getAssembly() {
+            return (assemblies != null ? assemblies.get(0) : null);
+        }
+
+        /**
+         * Get the generated assembly of every Song
+         *
+         * @return the MIPS assembly of each Song in song order,
+         * or null if the compile failed
+         */
+        public List<String> getAssemblies() {
+            return assemblies;
+        }
+
+        /**
+         * Get the AST that was compiled
+         *
+         * @return root of the AST, or null if the compile failed
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Get the errors found
+         *
+         * @return the errors (empty if the compile succeeded)
+         */
+        public List<ErrorHandler.Error> getDiagnostics() {
+            return diagnostics;
+        }
+    }
+}
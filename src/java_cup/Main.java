@@ -51,6 +51,10 @@ import java.io.*;
  *   <dd> produce a dump of all of the above
  *   <dt> -debug         
  *   <dd> turn on debugging messages within JavaCup 
+ *   <dt> -split_actions #
+ *   <dd> put the actions of every # productions in a method of their own,
+ *        instead of all of them in one method (which the JIT will not
+ *        compile once it is too large)
  *   <dt> -nopositions
  *   <dd> don't generate the positions code
  *   <dt> -noscanner
@@ -249,7 +253,8 @@ public class Main {
 "    -compact_red   compact tables by defaulting to most frequent reduce\n" +
 "    -nowarn        don't warn about useless productions, etc.\n" +
 "    -nosummary     don't print the usual summary of parse states, etc.\n" +
-"    -nopositions   don't propagate the left and right token position values\n" +
+"    -split_actions # put the actions of every # productions in a separate method\n" +
+"    -nopositions   don't declare the left and right positions of labels\n" +
 "    -noscanner     don't refer to java_cup.runtime.Scanner\n" +
 "    -progress      print messages to indicate progress of the system\n" +
 "    -time          print time usage summary\n" +
@@ -325,6 +330,20 @@ public class Main {
 		usage("-expect must be followed by a decimal integer");
 	      }
 	    }
+	  else if (argv[i].equals("-split_actions"))
+	    {
+	      /* must have an arg */
+	      if (++i >= len || argv[i].startsWith("-") || 
+				argv[i].endsWith(".cup")) 
+		usage("-split_actions must have a number argument");
+
+	      /* record the number */
+	      try {
+	        emit.split_actions = Integer.parseInt(argv[i]);
+	      } catch (NumberFormatException e) {
+		usage("-split_actions must be followed by a decimal integer");
+	      }
+	    }
 	  else if (argv[i].equals("-compact_red"))  opt_compact_red = true;
 	  else if (argv[i].equals("-nosummary"))    no_summary = true;
 	  else if (argv[i].equals("-nowarn"))       emit.nowarn = true;
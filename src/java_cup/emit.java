@@ -2,6 +2,7 @@ package java_cup;
 
 import java.io.PrintWriter;
 import java.util.Stack;
+import java.util.Vector;
 import java.util.Enumeration;
 import java.util.Date;
 
@@ -64,6 +65,7 @@ import java.util.Date;
      emit_production_table - emit declaration and init for the production table
      do_action_table       - emit declaration and init for the action table
      do_reduce_table       - emit declaration and init for the reduce-goto table
+     comb_compress         - compress a table by row displacement
 
    Finally, this class uses a number of public instance variables to communicate
    optional parameters and flags used to control how code is generated,
@@ -87,6 +89,8 @@ import java.util.Date;
    import_list             - list of imports for use with action class.
    num_conflicts           - number of conflicts detected. 
    nowarn                  - true if we are not to issue warning messages.
+   split_actions           - number of productions whose actions go in each 
+			     action method (0 for a single method).
    not_reduced             - count of number of productions that never reduce.
    unused_term             - count of unused terminal symbols.
    unused_non_term         - count of unused non terminal symbols.
@@ -168,6 +172,12 @@ public class emit {
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
+  /** Number of productions whose actions go in each action method (0 puts
+   *  all of them in a single method). */
+  public static int split_actions = 0;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
   /** Count of the number on non-reduced productions found. */
   public static int not_reduced = 0;
 
@@ -312,8 +322,6 @@ public class emit {
   protected static void emit_action_code(PrintWriter out, production start_prod)
     throws internal_error
     {
-      production prod;
-
       long start_time = System.currentTimeMillis();
 
       /* class header */
@@ -340,23 +348,75 @@ public class emit {
       out.println("    this.parser = parser;");
       out.println("  }");
 
+      /* action methods: all in one, or split into groups of productions
+	 (by index) with a method that selects the group */
+      if (split_actions <= 0)
+	{
+	  emit_action_method(out, "public final", pre("do_action"),
+	    "Method with the actual generated action code.", 
+	    production.all(), start_prod);
+	}
+      else
+	{
+	  emit_action_dispatch(out);
+	  for (int first = 0; first < production.number(); first += split_actions)
+	    {
+	      Vector<production> group = new Vector<production>();
+	      int last = Math.min(first + split_actions, production.number()) - 1;
+	      for (int i = first; i <= last; i++)
+		if (production.find(i) != null)
+		  group.addElement(production.find(i));
+	      emit_action_method(out, "private", 
+		pre("do_action_part" + (first / split_actions)),
+		"Method with the generated action code for productions " + 
+		first + " to " + last + ".", group.elements(), start_prod);
+	    }
+	}
+
+      /* end of class */
+      out.println("}");
+      out.println();
+
+      action_code_time = System.currentTimeMillis() - start_time;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Emit a method of the action class holding the action code of some
+   *  productions, each as a case of a switch on the action number.
+   * @param out        stream to produce output on.
+   * @param modifiers  modifiers of the method.
+   * @param name       name of the method.
+   * @param comment    doc comment of the method.
+   * @param prods      the productions.
+   * @param start_prod the start production of the grammar.
+   */
+  protected static void emit_action_method(
+    PrintWriter out, 
+    String      modifiers, 
+    String      name, 
+    String      comment, 
+    Enumeration<?> prods, 
+    production  start_prod)
+    throws internal_error
+    {
+      production prod;
+
       /* action method head */
       out.println();
-      out.println("  /** Method with the actual generated action code. */");
-      out.println("  public final java_cup.runtime.Symbol " + 
-		     pre("do_action") + "(");
-      out.println("    int                        " + pre("act_num,"));
-      out.println("    java_cup.runtime.lr_parser " + pre("parser,"));
-      out.println("    java.util.Stack            " + pre("stack,"));
-      out.println("    int                        " + pre("top)"));
+      out.println("  /** " + comment + " */");
+      out.println("  " + modifiers + " java.lang.Object " + name + "(");
+      out.println("    int                          " + pre("act_num,"));
+      out.println("    java_cup.runtime.lr_parser   " + pre("parser,"));
+      out.println("    java_cup.runtime.parse_stack " + pre("stack,"));
+      out.println("    int                          " + pre("top)"));
       out.println("    throws java.lang.Exception");
       out.println("    {");
 
-      /* declaration of result symbol */
-      /* New declaration!! now return Symbol
-	 6/13/96 frankf */
-      out.println("      /* Symbol object for return from actions */");
-      out.println("      java_cup.runtime.Symbol " + pre("result") + ";");
+      /* declaration of result value (the parser pushes it onto the
+	 parse stack along with the LHS symbol number and positions) */
+      out.println("      /* Value of the LHS for return from actions */");
+      out.println("      java.lang.Object " + pre("result") + ";");
       out.println();
 
       /* switch top */
@@ -365,7 +425,7 @@ public class emit {
       out.println("        {");
 
       /* emit action code for each production as a separate case */
-      for (Enumeration p = production.all(); p.hasMoreElements(); )
+      for (Enumeration<?> p = prods; p.hasMoreElements(); )
 	{
 	  prod = (production)p.nextElement();
 
@@ -401,12 +461,12 @@ public class emit {
 	    out.println("              " + "// propagate RESULT from " +
 			s.name());
 	    out.println("              " + "if ( " +
-	      "((java_cup.runtime.Symbol) " + emit.pre("stack") + ".elementAt("
-              + emit.pre("top") + "-" + index + ")).value != null )");
+	      emit.pre("stack") + ".value("
+              + emit.pre("top") + "-" + index + ") != null )");
 	    out.println("                " + "RESULT = " +
 	      "(" + prod.lhs().the_symbol().stack_type() + ") " +
-	      "((java_cup.runtime.Symbol) " + emit.pre("stack") + ".elementAt("
-              + emit.pre("top") + "-" + index + ")).value;");
+	      emit.pre("stack") + ".value("
+              + emit.pre("top") + "-" + index + ");");
 	  }
 
         /* if there is an action string, emit it */
@@ -414,35 +474,9 @@ public class emit {
               !prod.action().equals(""))
             out.println(prod.action().code_string());
 
-	  /* here we have the left and right values being propagated.  
-		must make this a command line option.
-	     frankf 6/18/96 */
-
-         /* Create the code that assigns the left and right values of
-            the new Symbol that the production is reducing to */
-	  if (emit.lr_values()) {	    
-	    int loffset;
-	    String leftstring, rightstring;
-	    int roffset = 0;
-	    rightstring = "((java_cup.runtime.Symbol)" + emit.pre("stack") + ".elementAt(" + 
-	      emit.pre("top") + "-" + roffset + ")).right";	  
-	    if (prod.rhs_length() == 0) 
-	      leftstring = rightstring;
-	    else {
-	      loffset = prod.rhs_length() - 1;
-	      leftstring = "((java_cup.runtime.Symbol)" + emit.pre("stack") + ".elementAt(" + 
-		emit.pre("top") + "-" + loffset + ")).left";	  
-	    }
-	    out.println("              " + pre("result") + " = new java_cup.runtime.Symbol(" + 
-			prod.lhs().the_symbol().index() + "/*" +
-			prod.lhs().the_symbol().name() + "*/" + 
-			", " + leftstring + ", " + rightstring + ", RESULT);");
-	  } else {
-	    out.println("              " + pre("result") + " = new java_cup.runtime.Symbol(" + 
-			prod.lhs().the_symbol().index() + "/*" +
-			prod.lhs().the_symbol().name() + "*/" + 
-			", RESULT);");
-	  }
+	  /* the parser itself gives the LHS the left position of the first
+	     symbol of the handle and the right position of the last one */
+	  out.println("              " + pre("result") + " = RESULT;");
 	  
 	  /* end of their block */
 	  out.println("            }");
@@ -454,7 +488,7 @@ public class emit {
 	      out.println("          " + pre("parser") + ".done_parsing();");
 	    }
 
-	  /* code to return lhs symbol */
+	  /* code to return lhs value */
 	  out.println("          return " + pre("result") + ";");
 	  out.println();
 	}
@@ -471,11 +505,53 @@ public class emit {
       /* end of method */
       out.println("    }");
 
-      /* end of class */
-      out.println("}");
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Emit the action method that calls the method holding the action of
+   *  each group of split_actions productions.  The groups are selected 
+   *  with a switch on the action number divided by the group size, which
+   *  compiles to a jump table.
+   * @param out stream to produce output on.
+   */
+  protected static void emit_action_dispatch(PrintWriter out)
+    {
+      int groups = (production.number() + split_actions - 1) / split_actions;
+
+      /* method head */
       out.println();
+      out.println("  /** Method with the actual generated action code, split " +
+		  "into methods of");
+      out.println("   *  " + split_actions + " productions each (so that " +
+		  "each is small enough to be compiled). */");
+      out.println("  public final java.lang.Object " + pre("do_action") + "(");
+      out.println("    int                          " + pre("act_num,"));
+      out.println("    java_cup.runtime.lr_parser   " + pre("parser,"));
+      out.println("    java_cup.runtime.parse_stack " + pre("stack,"));
+      out.println("    int                          " + pre("top)"));
+      out.println("    throws java.lang.Exception");
+      out.println("    {");
 
-      action_code_time = System.currentTimeMillis() - start_time;
+      /* switch on the group */
+      out.println("      /* select the method by the action number */");
+      out.println("      switch (" + pre("act_num") + " / " + split_actions + ")");
+      out.println("        {");
+      for (int g = 0; g < groups; g++)
+	{
+	  out.println("          case " + g + ":");
+	  out.println("            return " + pre("do_action_part" + g) + "(" + 
+		      pre("act_num") + ", " + pre("parser") + ", " + 
+		      pre("stack") + ", " + pre("top") + ");");
+	}
+      out.println("          default:");
+      out.println("            throw new Exception(");
+      out.println("               \"Invalid action number found in " +
+				  "internal parse table\");");
+      out.println("        }");
+
+      /* end of method */
+      out.println("    }");
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
@@ -507,31 +583,27 @@ public class emit {
 	  prod_table[i][0] = (short) prod.lhs().the_symbol().index();
 	  prod_table[i][1] = (short) prod.rhs_length();
 	}
-      /* do the top of the table */
+      /* do the table (in the tables class) */
       out.println();
-      out.println("  /** Production table. */");
-      out.println("  protected static final short _production_table[][] = ");
-      out.print  ("    unpackFromStrings(");
+      out.println("    /** Production table. */");
+      out.println("    static final short[][] production = ");
+      out.print  ("      unpackFromStrings(");
       do_table_as_string(out, prod_table);
       out.println(");");
 
-      /* do the public accessor method */
-      out.println();
-      out.println("  /** Access to production table. */");
-      out.println("  public short[][] production_table() " + 
-						 "{return _production_table;}");
-
       production_table_time = System.currentTimeMillis() - start_time;
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
-  /** Emit the action table. 
+  /** Emit the action table (in the tables class), comb-compressed unless
+   *  it is too large to be. 
    * @param out             stream to produce output on.
    * @param act_tab         the internal representation of the action table.
    * @param compact_reduces do we use the most frequent reduce as default?
+   * @return whether the table was comb-compressed.
    */
-  protected static void do_action_table(
+  protected static boolean do_action_table(
     PrintWriter        out, 
     parse_action_table act_tab,
     boolean            compact_reduces)
@@ -616,27 +688,22 @@ public class emit {
 
       /* finish off the init of the table */
       out.println();
-      out.println("  /** Parse-action table. */");
-      out.println("  protected static final short[][] _action_table = "); 
-      out.print  ("    unpackFromStrings(");
-      do_table_as_string(out, action_table);
-      out.println(");");
-
-      /* do the public accessor method */
-      out.println();
-      out.println("  /** Access to parse-action table. */");
-      out.println("  public short[][] action_table() {return _action_table;}");
+      out.println("    /** Parse-action table. */");
+      boolean comb = do_comb_or_rows(out, "action", action_table);
 
       action_table_time = System.currentTimeMillis() - start_time;
+      return comb;
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
-  /** Emit the reduce-goto table. 
+  /** Emit the reduce-goto table (in the tables class), comb-compressed 
+   *  unless it is too large to be. 
    * @param out     stream to produce output on.
    * @param red_tab the internal representation of the reduce-goto table.
+   * @return whether the table was comb-compressed.
    */
-  protected static void do_reduce_table(
+  protected static boolean do_reduce_table(
     PrintWriter out, 
     parse_reduce_table red_tab)
     {
@@ -678,19 +745,131 @@ public class emit {
 
       /* emit the table. */
       out.println();
-      out.println("  /** <code>reduce_goto</code> table. */");
-      out.println("  protected static final short[][] _reduce_table = "); 
-      out.print  ("    unpackFromStrings(");
-      do_table_as_string(out, reduce_goto_table);
+      out.println("    /** <code>reduce_goto</code> table. */");
+      boolean comb = do_comb_or_rows(out, "reduce", reduce_goto_table);
+
+      goto_table_time = System.currentTimeMillis() - start_time;
+      return comb;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Emit the declaration and init of a table in the tables class: 
+   *  comb-compressed, or as rows if the compressed table would not fit 
+   *  in short indexes.
+   * @param out   stream to produce output on.
+   * @param name  name of the field.
+   * @param rows  the rows of the table (index, value pairs ending with a 
+   *              -1, default pair).
+   * @return whether the table was comb-compressed.
+   */
+  protected static boolean do_comb_or_rows(
+    PrintWriter out, 
+    String      name, 
+    short[][]   rows)
+    {
+      short[][] comb = comb_compress(rows);
+      if (comb != null)
+	{
+	  out.println("    static final java_cup.runtime.comb_table " + name +
+		      " = ");
+	  out.print  ("      java_cup.runtime.comb_table.unpack(");
+	  do_table_as_string(out, comb);
+	}
+      else
+	{
+	  out.println("    static final short[][] " + name + " = ");
+	  out.print  ("      unpackFromStrings(");
+	  do_table_as_string(out, rows);
+	}
       out.println(");");
+      return comb != null;
+    }
 
-      /* do the public accessor method */
-      out.println();
-      out.println("  /** Access to <code>reduce_goto</code> table. */");
-      out.println("  public short[][] reduce_table() {return _reduce_table;}");
-      out.println();
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
-      goto_table_time = System.currentTimeMillis() - start_time;
+  /** Compress a table by row displacement.  The rows (largest first) are 
+   *  each placed at the first displacement (base) where none of their 
+   *  entries fall on an entry of a row placed before them, so that all of 
+   *  the rows share one array of entries; a parallel check array records 
+   *  which row each entry belongs to, and the default at the end of each 
+   *  row becomes the value of all of the row's other entries.
+   * @param rows the rows of the table (index, value pairs ending with a 
+   *             -1, default pair).
+   * @return the base, default, check and value arrays of the compressed
+   *         table, or null if it would be too long for short indexes.
+   */
+  protected static short[][] comb_compress(short[][] rows)
+    {
+      short[] base     = new short[rows.length];
+      short[] defaults = new short[rows.length];
+      short[] check    = new short[64];
+      short[] value    = new short[64];
+      int     length   = 0;
+      java.util.Arrays.fill(check, (short)-1);
+
+      /* place the rows with the most entries first */
+      Integer[] order = new Integer[rows.length];
+      for (int i = 0; i < rows.length; i++)
+	order[i] = Integer.valueOf(i);
+      final short[][] by_size = rows;
+      java.util.Arrays.sort(order, new java.util.Comparator<Integer>() {
+	public int compare(Integer a, Integer b) {
+	  return by_size[b.intValue()].length - by_size[a.intValue()].length;
+	}
+      });
+
+      for (int k = 0; k < order.length; k++)
+	{
+	  int i = order[k].intValue();
+	  short[] row = rows[i];
+	  int entries = row.length - 2;
+	  defaults[i] = row[entries+1];
+
+	  /* find the first base where all the entries are free */
+	  int b;
+	  for (b = 0; ; b++)
+	    {
+	      int j;
+	      for (j = 0; j < entries; j += 2)
+		if (b + row[j] < check.length && check[b + row[j]] != -1)
+		  break;
+	      if (j >= entries)
+		break;
+	    }
+	  if (b > Short.MAX_VALUE)
+	    return null;
+	  base[i] = (short)b;
+
+	  /* and put them there */
+	  for (int j = 0; j < entries; j += 2)
+	    {
+	      int index = b + row[j];
+	      if (index >= Short.MAX_VALUE)
+		return null;
+	      if (index >= check.length)
+		{
+		  int size = Math.max(check.length * 2, index + 1);
+		  short[] new_check = new short[size];
+		  short[] new_value = new short[size];
+		  System.arraycopy(check, 0, new_check, 0, check.length);
+		  System.arraycopy(value, 0, new_value, 0, value.length);
+		  java.util.Arrays.fill(new_check, check.length, size, (short)-1);
+		  check = new_check;
+		  value = new_value;
+		}
+	      check[index] = (short)i;
+	      value[index] = row[j+1];
+	      if (index >= length)
+		length = index + 1;
+	    }
+	}
+
+      short[] used_check = new short[length];
+      short[] used_value = new short[length];
+      System.arraycopy(check, 0, used_check, 0, length);
+      System.arraycopy(value, 0, used_value, 0, length);
+      return new short[][] {base, defaults, used_check, used_value};
     }
 
   // print a string array encoding the given short[][] array.
@@ -800,10 +979,40 @@ public class emit {
 		      "(java_cup.runtime.Scanner s) {super(s);}");
       }
 
-      /* emit the various tables */
+      /* emit the various tables, in a class of their own so that they
+	 are decoded when the parser first uses them rather than when
+	 this class is initialized */
+      out.println();
+      out.println("  /** Parse tables, decoded on first use. */");
+      out.println("  protected static class " + pre("tables") + " {");
       emit_production_table(out);
-      do_action_table(out, action_table, compact_reduces);
-      do_reduce_table(out, reduce_table);
+      boolean action_comb = do_action_table(out, action_table, 
+					    compact_reduces);
+      boolean reduce_comb = do_reduce_table(out, reduce_table);
+      out.println("  }");
+
+      /* and the public accessor methods */
+      out.println();
+      out.println("  /** Access to production table. */");
+      out.println("  public short[][] production_table() " + 
+		  "{return " + pre("tables") + ".production;}");
+      out.println();
+      out.println("  /** Access to parse-action table. */");
+      if (action_comb)
+	out.println("  public java_cup.runtime.comb_table action_comb_table() " +
+		    "{return " + pre("tables") + ".action;}");
+      else
+	out.println("  public short[][] action_table() " +
+		    "{return " + pre("tables") + ".action;}");
+      out.println();
+      out.println("  /** Access to <code>reduce_goto</code> table. */");
+      if (reduce_comb)
+	out.println("  public java_cup.runtime.comb_table reduce_comb_table() " +
+		    "{return " + pre("tables") + ".reduce;}");
+      else
+	out.println("  public short[][] reduce_table() " +
+		    "{return " + pre("tables") + ".reduce;}");
+      out.println();
 
       /* instance of the action encapsulation class */
       out.println("  /** Instance of action encapsulation class. */");
@@ -820,11 +1029,11 @@ public class emit {
 
       /* access to action code */
       out.println("  /** Invoke a user supplied parse action. */");
-      out.println("  public java_cup.runtime.Symbol do_action(");
-      out.println("    int                        act_num,");
-      out.println("    java_cup.runtime.lr_parser parser,");
-      out.println("    java.util.Stack            stack,");
-      out.println("    int                        top)");
+      out.println("  public java.lang.Object do_action(");
+      out.println("    int                          act_num,");
+      out.println("    java_cup.runtime.lr_parser   parser,");
+      out.println("    java_cup.runtime.parse_stack stack,");
+      out.println("    int                          top)");
       out.println("    throws java.lang.Exception");
       out.println("  {");
       out.println("    /* call code in generated class */");
@@ -20,9 +20,12 @@ public class parser extends java_cup.runtime.lr_parser {
   /** Constructor which sets the default scanner. */
   public parser(java_cup.runtime.Scanner s) {super(s);}
 
-  /** Production table. */
-  protected static final short _production_table[][] = 
-    unpackFromStrings(new String[] {
+  /** Parse tables, decoded on first use. */
+  protected static class CUP$parser$tables {
+
+    /** Production table. */
+    static final short[][] production = 
+      unpackFromStrings(new String[] {
     "\000\153\000\002\002\004\000\002\055\002\000\002\003" +
     "\012\000\002\003\007\000\002\056\002\000\002\004\006" +
     "\000\002\004\003\000\002\005\004\000\002\005\003\000" +
@@ -58,272 +61,239 @@ public class parser extends java_cup.runtime.lr_parser {
     "\012\003\000\002\011\002\000\002\011\003\000\002\037" +
     "\002" });
 
+    /** Parse-action table. */
+    static final java_cup.runtime.comb_table action = 
+      java_cup.runtime.comb_table.unpack(new String[] {
+    "\000\004\000\247\346\002\357\015\033\u01a0\u0234\042\064" +
+    "\115\371\u02b6\373\005\353\u010c\u010e\165\u011f\u0121\u0132\u0134" +
+    "\u0307\u0237\u0145\u031e\u0147\u0158\046\u015a\u016b\u016d\123\u0245\070" +
+    "\u0253\227\245\146\u0360\u017e\u0180\247\275\u0256\077\177\016" +
+    "\u01a5\017\027\u0264\u022d\135\164\166\250\u0191\064\130\u01a2" +
+    "\161\212\u037d\276\235\310\312\u037f\341\316\u0380\u0384\342" +
+    "\351\316\376\u0182\320\346\u0103\u0101\u0111\u0193\103\132\134" +
+    "\u0120\163\u012e\u0315\u0323\u0326\u0334\u0123\u0136\214\u0337\u0149\u0345" +
+    "\u01b5\u0274\u0348\u0356\u0359\230\u0367\u036a\u015c\u02d5\347\u019d\u0385" +
+    "\u0272\u01aa\u0146\u014a\u01cc\u01ce\u0283\u0175\u0291\u0294\u01bd\u01c5\261" +
+    "\u016c\u017f\u01cd\u01dc\u01e4\u01f3\u01ec\312\u0202\u0188\u01a5\u01fb\002" +
+    "\u01b0\u02ac\u02b2\u02b8\u02cf\u01c5\u01d9\u01d3\u02d5\u01e5\u02df\244\u0210" +
+    "\246\u01e9\u0203\u02ef\u02f7\u01f6\u0212\u02fd\u01f7\u021b\u0306\u01f8\u022a" +
+    "\u0314\004\000\247\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\002\002\002\002\002\002\002\002\002\002" +
+    "\002\002\000\u03a0\003\214\250\001\214\214\214\214\214" +
+    "\214\214\214\214\061\063\214\017\017\005\005\214\214" +
+    "\214\214\061\063\006\214\214\006\006\006\006\006\006" +
+    "\006\006\006\005\011\061\063\064\064\064\006\006\006" +
+    "\006\036\036\012\006\006\012\012\012\012\012\012\012" +
+    "\012\012\074\074\126\126\044\044\074\012\012\012\012" +
+    "\057\057\013\012\012\013\013\013\013\013\013\013\013" +
+    "\013\127\127\130\130\067\126\042\013\013\013\013\075" +
+    "\075\050\013\013\050\050\050\050\050\050\050\050\050" +
+    "\132\132\070\127\071\130\067\050\050\050\050\077\077" +
+    "\060\050\050\060\060\060\060\060\060\060\060\060\142" +
+    "\142\023\132\070\023\071\060\060\060\060\100\100\153" +
+    "\060\060\153\153\153\153\153\153\153\153\153\230\232" +
+    "\232\142\072\103\103\153\153\153\153\230\046\177\153" +
+    "\153\177\177\177\177\177\177\177\177\177\047\102\230" +
+    "\047\232\054\072\177\177\177\177\104\055\207\177\177" +
+    "\207\207\207\207\207\207\207\207\207\105\105\115\102" +
+    "\110\110\120\207\207\207\207\107\113\104\207\207\002" +
+    "\002\002\114\002\002\002\002\002\002\004\004\121\004" +
+    "\004\004\004\004\004\014\020\016\107\113\116\160\002" +
+    "\123\160\020\114\014\020\016\014\004\016\014\021\016" +
+    "\022\122\014\014\016\016\014\014\016\016\021\116\022" +
+    "\021\123\022\021\024\022\025\124\021\021\022\022\021" +
+    "\021\022\022\024\131\025\024\140\025\024\026\025\027" +
+    "\140\024\024\025\025\024\024\025\025\026\133\027\026" +
+    "\141\027\026\032\027\034\141\026\026\027\027\026\026" +
+    "\027\027\032\165\034\032\144\034\032\035\034\037\144" +
+    "\032\032\034\034\032\032\034\034\035\166\037\035\156" +
+    "\037\035\040\037\041\156\035\035\037\037\035\035\037" +
+    "\037\040\200\041\040\200\041\040\052\041\053\172\040" +
+    "\040\041\041\040\040\041\041\052\201\053\052\117\053" +
+    "\052\073\053\117\211\052\052\053\053\052\052\053\053" +
+    "\073\073\125\007\073\076\073\125\062\007\007\073\161" +
+    "\161\007\073\073\076\076\062\212\076\007\076\146\164" +
+    "\164\062\076\007\007\215\076\076\175\062\175\175\175" +
+    "\175\175\175\176\222\176\176\176\176\176\176\202\146" +
+    "\202\202\202\202\202\202\175\167\167\170\170\223\224" +
+    "\203\176\203\203\203\203\203\203\204\202\204\204\204" +
+    "\204\204\204\206\226\206\206\206\206\206\206\203\205" +
+    "\205\205\205\205\205\213\204\213\213\213\213\213\213" +
+    "\233\206\234\234\234\234\234\234\205\210\234\231\210" +
+    "\237\242\245\213\240\240\240\240\240\240\001\234\240" +
+    "\243\243\243\243\243\243\001\001\243\001\001\001\231" +
+    "\240\066\246\246\246\246\246\246\010\243\246\031\066" +
+    "\001\010\010\001\031\031\010\066\001\031\001\246\043" +
+    "\001\010\066\001\031\043\043\001\010\010\043\031\031" +
+    "\045\001\001\056\001\043\045\045\001\056\056\045\043" +
+    "\043\056\001\001\065\001\045\001\001\056\065\065\001" +
+    "\045\045\065\056\056\163\001\147\001\001\065\163\163" +
+    "\001\001\001\163\065\065\147\001\001\171\147\163\147" +
+    "\001\001\171\171\147\163\163\171\147\147\173\001\001" +
+    "\174\001\171\173\173\001\174\174\173\171\171\174\001" +
+    "\001\001\001\173\001\001\174\001\001\001\173\173\001" +
+    "\174\174\216\216\216\216\216\216\217\217\217\217\217" +
+    "\217\220\220\220\220\220\220\015\015\001\015\216\001" +
+    "\001\001\001\001\217\001\015\001\001\015\220\221\221" +
+    "\221\221\221\221\225\225\225\225\225\225\227\001\157" +
+    "\157\001\157\227\227\001\001\221\227\001\001\157\001" +
+    "\225\157\001\227\235\235\235\235\235\235\227\227\236" +
+    "\236\236\236\236\236\241\241\241\241\241\241\001\001" +
+    "\235\244\244\244\244\244\244\001\236\001\030\001\134" +
+    "\030\241\247\247\247\247\247\247\001\030\244\134\030" +
+    "\135\001\001\136\134\001\001\033\001\134\033\247\135" +
+    "\134\134\136\001\137\135\033\143\136\033\135\001\001" +
+    "\136\135\135\137\136\136\143\001\145\137\001\150\143" +
+    "\001\137\001\001\143\137\137\145\143\143\150\001\151" +
+    "\145\001\152\150\001\145\001\001\150\145\145\151\150" +
+    "\150\152\001\154\151\001\155\152\051\151\001\051\152" +
+    "\151\151\154\152\152\155\001\051\154\001\051\155\101" +
+    "\154\106\111\155\154\154\112\155\155\001\101\001\106" +
+    "\111\001\001\001\112\101\162\106\111\162\001\001\112" +
+    "\101\001\106\111\001\162\001\112\162\000\u03a0\251\054" +
+    "\001\002\026\027\040\036\022\042\030\017\015\uff97\uffd9" +
+    "\216\uffe0\055\007\012\033\023\035\041\116\uffd9\163\025" +
+    "\053\026\027\040\036\022\042\030\017\015\014\061\uff97" +
+    "\uffd9\071\072\070\033\023\035\041\uffdb\uffdb\034\025\160" +
+    "\026\027\040\036\022\042\030\017\015\uffcd\uffcd\ufffe\126" +
+    "\uffb1\uffb1\uffcd\033\023\035\041\uffdc\uffdc\uff9a\025\016\uff9a" +
+    "\uff9a\uff9a\uff9a\uff9a\uff9a\uff9a\uff9a\uff9a\uffc8\uffc8\uffc9\uffc9\uffd2" +
+    "\120\044\uff9a\uff9a\uff9a\uff9a\uffce\uffce\054\uff9a\uff9a\026\027" +
+    "\040\036\022\042\030\017\015\uffc3\uffc3\uffd6\uffc8\uffd4\uffc9" +
+    "\uffd2\033\023\035\041\102\103\uff9b\025\053\uff9b\uff9b\uff9b" +
+    "\uff9b\uff9b\uff9b\uff9b\uff9b\uff9b\uffc5\uffc5\047\uffc3\uffd6\045\uffd4" +
+    "\uff9b\uff9b\uff9b\uff9b\uffcf\uffcf\054\uff9b\uff9b\026\027\040\036" +
+    "\022\042\030\017\015\uff97\uffff\126\uffc5\077\uffd0\uffd0\033" +
+    "\023\035\041\116\050\054\025\053\026\027\040\036\022" +
+    "\042\030\017\015\uffb3\077\uff97\uffb3\120\045\074\033\023" +
+    "\035\041\077\057\054\025\053\026\027\040\036\022\042" +
+    "\030\017\015\107\103\117\074\112\103\uffcc\033\023\035" +
+    "\041\077\uffca\074\025\053\006\000\000\126\000\000\000" +
+    "\000\000\000\200\uff97\uffaf\uff97\uff97\uff97\uff97\uff97\uff97\uffa1" +
+    "\051\uffa2\074\uffca\122\047\000\uffcb\170\uffb4\120\uffa1\uffb4" +
+    "\uffa2\uffa1\uff97\uffa2\uffa1\uffa6\uffa2\uff9f\124\uffa1\uffa1\uffa2\uffa2" +
+    "\uffa1\uffa1\uffa2\uffa2\uffa6\120\uff9f\uffa6\uffcb\uff9f\uffa6\uffa5\uff9f" +
+    "\uffaa\uffc7\uffa6\uffa6\uff9f\uff9f\uffa6\uffa6\uff9f\uff9f\uffa5\133\uffaa" +
+    "\uffa5\uffc1\uffaa\uffa5\uffa9\uffaa\uffa3\uffc1\uffa5\uffa5\uffaa\uffaa\uffa5" +
+    "\uffa5\uffaa\uffaa\uffa9\135\uffa3\uffa9\143\uffa3\uffa9\uffa0\uffa3\uff9e" +
+    "\144\uffa9\uffa9\uffa3\uffa3\uffa9\uffa9\uffa3\uffa3\uffa0\172\uff9e\uffa0" +
+    "\uffc2\uff9e\uffa0\uffa7\uff9e\uffa8\uffc2\uffa0\uffa0\uff9e\uff9e\uffa0\uffa0" +
+    "\uff9e\uff9e\uffa7\170\uffa8\uffa7\uffc0\uffa8\uffa7\uff9d\uffa8\uffa4\uffc0" +
+    "\uffa7\uffa7\uffa8\uffa8\uffa7\uffa7\uffa8\uffa8\uff9d\ufffd\uffa4\uff9d\051" +
+    "\uffa4\uff9d\uffab\uffa4\uff9c\174\uff9d\uff9d\uffa4\uffa4\uff9d\uff9d\uffa4" +
+    "\uffa4\uffab\203\uff9c\uffab\uffb0\uff9c\uffab\uffae\uff9c\uffb0\ufff8\uffab" +
+    "\uffab\uff9c\uff9c\uffab\uffab\uff9c\uff9c\uffae\uffae\uffc4\uffeb\uffae\uffad" +
+    "\uffae\uffaf\uffda\uffeb\uffeb\uffae\uffdd\uffdd\uffeb\uffae\uffae\uffad\uffad" +
+    "\uffda\214\uffad\uffeb\uffad\077\uffe2\167\065\uffad\uffeb\uffeb\uffb6" +
+    "\uffad\uffad\ufffb\uffda\ufffb\ufffb\ufffb\ufffb\ufffb\ufffb\uff97\246\uff97" +
+    "\uff97\uff97\uff97\uff97\uff97\ufffc\074\ufffc\ufffc\ufffc\ufffc\ufffc\ufffc" +
+    "\ufffb\uffb2\uffb2\uffde\uffde\243\240\210\uff97\ufff2\ufff2\ufff2\ufff2" +
+    "\ufff2\ufff2\ufff9\ufffc\ufff9\ufff9\ufff9\ufff9\ufff9\ufff9\ufffa\234\ufffa" +
+    "\ufffa\ufffa\ufffa\ufffa\ufffa\ufff2\223\224\007\012\227\225\ufff7" +
+    "\ufff9\ufff7\ufff7\ufff7\ufff7\ufff7\ufff7\235\ufffa\uff99\uff99\uff99\uff99" +
+    "\uff99\uff99\014\uffb5\236\126\215\241\244\247\ufff7\uff99\uff99" +
+    "\uff99\uff99\uff99\uff99\002\uff99\236\uff99\uff99\uff99\uff99\uff99\uff99" +
+    "\002\002\236\002\002\002\120\uff99\uffd7\uff99\uff99\uff99\uff99" +
+    "\uff99\uff99\uff97\uff99\236\uffe7\uffd7\002\007\012\002\uffe7\uffe7" +
+    "\uff97\uffd7\002\uffe7\002\uff99\uffe3\002\065\uffd7\002\uffe7\uffe3" +
+    "\uffe3\002\014\uff97\uffe3\uffe7\uffe7\uffe8\002\002\uffdf\002\uffe3" +
+    "\uffe8\uffe8\002\uffdf\uffdf\uffe8\uffe3\uffe3\uffdf\002\002\uffec\002" +
+    "\uffe8\002\002\uffdf\uffec\uffec\002\uffe8\uffe8\uffec\uffdf\uffdf\uffe9" +
+    "\002\uff97\002\002\uffec\uffe9\uffe9\002\002\002\uffe9\uffec\uffec" +
+    "\uff97\002\002\uffe1\154\uffe9\uff97\002\002\uffe1\uffe1\uff97\uffe9" +
+    "\uffe9\uffe1\uff97\uff97\uffe5\002\002\uffea\002\uffe1\uffe5\uffe5\002" +
+    "\uffea\uffea\uffe5\uffe1\uffe1\uffea\002\002\002\002\uffe5\002\002" +
+    "\uffea\002\002\002\uffe5\uffe5\002\uffea\uffea\ufff3\ufff3\ufff3\ufff3" +
+    "\ufff3\ufff3\ufff5\ufff5\ufff5\ufff5\ufff5\ufff5\ufff1\ufff1\ufff1\ufff1\ufff1" +
+    "\ufff1\uffb1\uffb1\002\uffab\ufff3\002\002\002\002\002\ufff5\002" +
+    "\uffab\002\002\uffab\ufff1\ufff4\ufff4\ufff4\ufff4\ufff4\ufff4\ufff6\ufff6" +
+    "\ufff6\ufff6\ufff6\ufff6\uff97\002\uffb2\uffb2\002\uffab\007\012\002" +
+    "\002\ufff4\uff97\002\002\uffab\002\ufff6\uffab\002\065\uff98\uff98" +
+    "\uff98\uff98\uff98\uff98\014\uff97\uffee\uffee\uffee\uffee\uffee\uffee\uffed" +
+    "\uffed\uffed\uffed\uffed\uffed\002\002\uff98\uffef\uffef\uffef\uffef\uffef" +
+    "\uffef\002\uffee\002\uffb7\002\uffc6\uffb7\uffed\ufff0\ufff0\ufff0\ufff0" +
+    "\ufff0\ufff0\002\uffb7\uffef\uffc6\uffb7\uff97\002\002\uffbd\uffc6\002" +
+    "\002\uffe4\002\uffc6\uff9c\ufff0\uff97\uffc6\uffc6\uffbd\002\077\uff97" +
+    "\uff9c\uff97\uffbd\uff9c\uff97\002\002\uffbd\uff97\uff97\uffbf\uffbd\uffbd" +
+    "\uff97\002\uffbb\uffbf\002\uffbe\uff97\002\147\002\002\uff97\074" +
+    "\146\uffbb\uff97\uff97\uffbe\002\uffb9\uffbb\002\uffbc\uffbe\002\uffbb" +
+    "\002\002\uffbe\uffbb\uffbb\uffb9\uffbe\uffbe\uffbc\002\uffba\uffb9\002" +
+    "\uffac\uffbc\uffb8\uffb9\002\uffb8\uffbc\uffb9\uffb9\uffba\uffbc\uffbc\uffac" +
+    "\002\uffb8\uffba\002\uffb8\uffac\uffd3\uffba\uffd5\uffd1\uffac\uffba\uffba" +
+    "\uffd8\uffac\uffac\002\uffd3\002\uffd5\uffd1\002\002\002\uffd8\uffd3" +
+    "\uffe6\uffd5\uffd1\uff9c\002\002\uffd8\uffd3\002\uffd5\uffd1\002\uff9c" +
+    "\002\uffd8\uff9c" });
+
+    /** <code>reduce_goto</code> table. */
+    static final java_cup.runtime.comb_table reduce = 
+      java_cup.runtime.comb_table.unpack(new String[] {
+    "\000\004\000\247\006\002\003\050\002\002\010\002\025" +
+    "\002\002\002\002\060\002\002\002\060\002\002\002\002" +
+    "\002\002\002\072\002\002\002\002\002\002\002\002\002" +
+    "\002\002\002\100\002\002\002\002\002\002\002\002\106" +
+    "\002\002\002\002\002\067\072\073\016\002\002\002\002" +
+    "\002\002\002\043\002\024\002\002\036\002\002\002\002" +
+    "\027\002\113\002\073\002\002\002\074\074\101\002\002" +
+    "\002\002\002\076\002\002\075\002\002\002\062\002\002" +
+    "\063\100\002\002\002\072\002\002\002\002\071\002\110" +
+    "\002\107\002\140\002\002\002\002\002\002\002\126\121" +
+    "\116\002\002\011\002\002\002\107\002\117\002\002\123" +
+    "\002\002\002\002\002\002\002\002\002\002\043\133\104" +
+    "\111\002\002\002\002\002\006\002\002\012\002\002\021" +
+    "\002\002\000\247\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\000\174\001\001\001\004\205\002\205\234\205" +
+    "\205\205\240\203\006\010\243\205\205\205\006\006\203" +
+    "\246\135\010\006\054\135\135\135\004\062\012\114\006" +
+    "\010\010\010\012\010\012\227\006\114\072\012\005\002" +
+    "\005\072\104\227\072\072\012\104\005\114\104\104\107" +
+    "\012\227\227\227\107\227\023\107\107\102\143\023\102" +
+    "\102\160\143\143\231\061\160\023\207\137\207\126\146" +
+    "\176\231\160\146\147\177\232\153\017\137\061\153\126" +
+    "\230\147\231\033\050\067\070\232\071\116\120\207\124" +
+    "\176\125\134\162\164\230\166\200\177\211\214\000\174" +
+    "\002\002\002\176\225\003\220\236\012\217\227\241\205" +
+    "\020\012\244\221\216\007\160\164\206\247\137\065\161" +
+    "\057\141\140\136\175\112\020\126\163\063\061\066\023" +
+    "\062\017\012\030\127\077\036\012\004\010\074\105\065" +
+    "\100\075\031\074\007\124\100\075\110\030\063\230\066" +
+    "\074\062\017\100\075\074\137\036\103\075\164\144\136" +
+    "\232\114\161\045\210\150\211\130\074\203\127\174\156" +
+    "\151\200\130\154\055\147\113\155\124\231\152\124\042" +
+    "\051\107\104\124\072\120\122\030\133\204\131\135\172" +
+    "\165\113\170\201\030\212\051" });
+  }
+
   /** Access to production table. */
-  public short[][] production_table() {return _production_table;}
-
-  /** Parse-action table. */
-  protected static final short[][] _action_table = 
-    unpackFromStrings(new String[] {
-    "\000\247\000\026\003\006\004\000\005\000\007\000\010" +
-    "\000\011\000\012\000\013\000\014\000\035\000\001\002" +
-    "\000\004\002\251\001\002\000\024\004\200\005\uff97\007" +
-    "\uff97\010\uff97\011\uff97\012\uff97\013\uff97\014\uff97\035\uff97" +
-    "\001\002\000\010\011\007\012\012\035\014\001\002\000" +
-    "\042\003\163\006\026\007\027\010\040\011\036\012\022" +
-    "\013\042\014\030\015\017\016\015\026\033\027\023\030" +
-    "\035\031\041\035\025\036\160\001\002\000\020\003\uffeb" +
-    "\011\uffeb\012\uffeb\016\uffeb\026\uffeb\035\uffeb\036\uffeb\001" +
-    "\002\000\020\003\uff97\011\007\012\012\016\uff97\026\065" +
-    "\035\014\036\uff97\001\002\000\004\011\061\001\002\000" +
-    "\042\003\034\006\026\007\027\010\040\011\036\012\022" +
-    "\013\042\014\030\015\017\016\015\026\033\027\023\030" +
-    "\035\031\041\035\025\036\016\001\002\000\042\003\uff9a" +
-    "\006\uff9a\007\uff9a\010\uff9a\011\uff9a\012\uff9a\013\uff9a\014" +
-    "\uff9a\015\uff9a\016\uff9a\026\uff9a\027\uff9a\030\uff9a\031\uff9a" +
-    "\035\uff9a\036\uff9a\001\002\000\022\003\uffa1\017\uffa1\022" +
-    "\uffa1\025\uffa1\032\uffa1\033\uffa1\036\uffa1\037\uffa1\001\002" +
-    "\000\014\017\uffb1\020\uffb1\022\uffab\033\uffab\036\uffab\001" +
-    "\002\000\022\003\uffa2\017\uffa2\022\uffa2\025\uffa2\032\uffa2" +
-    "\033\uffa2\036\uffa2\037\uffa2\001\002\000\006\017\uffe0\020" +
-    "\055\001\002\000\010\022\051\033\uffb4\036\uffb4\001\002" +
-    "\000\022\003\uffa6\017\uffa6\022\uffa6\025\uffa6\032\uffa6\033" +
-    "\uffa6\036\uffa6\037\uffa6\001\002\000\022\003\uff9f\017\uff9f" +
-    "\022\uff9f\025\uff9f\032\uff9f\033\uff9f\036\uff9f\037\uff9f\001" +
-    "\002\000\006\033\047\036\045\001\002\000\022\003\uffa5" +
-    "\017\uffa5\022\uffa5\025\uffa5\032\uffa5\033\uffa5\036\uffa5\037" +
-    "\uffa5\001\002\000\022\003\uffaa\017\uffaa\022\uffaa\025\uffaa" +
-    "\032\uffaa\033\uffaa\036\uffaa\037\uffaa\001\002\000\022\003" +
-    "\uffa9\017\uffa9\022\uffa9\025\uffa9\032\uffa9\033\uffa9\036\uffa9" +
-    "\037\uffa9\001\002\000\022\003\uffa3\017\uffa3\022\uffa3\025" +
-    "\uffa3\032\uffa3\033\uffa3\036\uffa3\037\uffa3\001\002\000\012" +
-    "\017\uffb7\022\uffb7\033\uffb7\036\uffb7\001\002\000\020\003" +
-    "\uffe7\011\uffe7\012\uffe7\016\uffe7\026\uffe7\035\uffe7\036\uffe7" +
-    "\001\002\000\022\003\uffa0\017\uffa0\022\uffa0\025\uffa0\032" +
-    "\uffa0\033\uffa0\036\uffa0\037\uffa0\001\002\000\012\017\uffe4" +
-    "\022\uff9c\033\uff9c\036\uff9c\001\002\000\022\003\uff9e\017" +
-    "\uff9e\022\uff9e\025\uff9e\032\uff9e\033\uff9e\036\uff9e\037\uff9e" +
-    "\001\002\000\022\003\uffa7\017\uffa7\022\uffa7\025\uffa7\032" +
-    "\uffa7\033\uffa7\036\uffa7\037\uffa7\001\002\000\006\017\uffdb" +
-    "\020\uffdb\001\002\000\022\003\uffa8\017\uffa8\022\uffa8\025" +
-    "\uffa8\032\uffa8\033\uffa8\036\uffa8\037\uffa8\001\002\000\022" +
-    "\003\uff9d\017\uff9d\022\uff9d\025\uff9d\032\uff9d\033\uff9d\036" +
-    "\uff9d\037\uff9d\001\002\000\022\003\uffa4\017\uffa4\022\uffa4" +
-    "\025\uffa4\032\uffa4\033\uffa4\036\uffa4\037\uffa4\001\002\000" +
-    "\004\017\044\001\002\000\020\003\uffe3\011\uffe3\012\uffe3" +
-    "\016\uffe3\026\uffe3\035\uffe3\036\uffe3\001\002\000\006\017" +
-    "\uffb1\020\uffb1\001\002\000\020\003\uffe8\011\uffe8\012\uffe8" +
-    "\016\uffe8\026\uffe8\035\uffe8\036\uffe8\001\002\000\004\034" +
-    "\050\001\002\000\006\033\uffb3\036\uffb3\001\002\000\042" +
-    "\003\054\006\026\007\027\010\040\011\036\012\022\013" +
-    "\042\014\030\015\017\016\015\026\033\027\023\030\035" +
-    "\031\041\035\025\036\053\001\002\000\012\017\uffb8\022" +
-    "\uffb8\033\uffb8\036\uffb8\001\002\000\022\003\uffab\017\uffab" +
-    "\022\uffab\025\uffab\032\uffab\033\uffab\036\uffab\037\uffab\001" +
-    "\002\000\022\003\uff9c\017\uff9c\022\uff9c\025\uff9c\032\uff9c" +
-    "\033\uff9c\036\uff9c\037\uff9c\001\002\000\004\036\045\001" +
-    "\002\000\004\017\057\001\002\000\020\003\uffdf\011\uffdf" +
-    "\012\uffdf\016\uffdf\026\uffdf\035\uffdf\036\uffdf\001\002\000" +
-    "\006\017\uffdc\020\uffdc\001\002\000\042\003\uff9b\006\uff9b" +
-    "\007\uff9b\010\uff9b\011\uff9b\012\uff9b\013\uff9b\014\uff9b\015" +
-    "\uff9b\016\uff9b\026\uff9b\027\uff9b\030\uff9b\031\uff9b\035\uff9b" +
-    "\036\uff9b\001\002\000\010\003\uff97\016\116\036\uff97\001" +
-    "\002\000\012\003\uffda\016\uffda\026\065\036\uffda\001\002" +
-    "\000\010\003\uffd9\016\uffd9\036\uffd9\001\002\000\010\027" +
-    "\071\030\072\031\070\001\002\000\020\003\uffec\011\uffec" +
-    "\012\uffec\016\uffec\026\uffec\035\uffec\036\uffec\001\002\000" +
-    "\012\003\uffd7\016\uffd7\026\uffd7\036\uffd7\001\002\000\006" +
-    "\003\uffd2\036\uffd2\001\002\000\006\003\uffd6\036\uffd6\001" +
-    "\002\000\006\003\uffd4\036\uffd4\001\002\000\006\003\077" +
-    "\036\074\001\002\000\022\003\uffae\017\uffae\020\uffae\023" +
-    "\uffae\025\uffae\032\uffae\036\uffae\037\uffae\001\002\000\010" +
-    "\017\uffcd\020\uffcd\025\uffcd\001\002\000\006\017\uffce\020" +
-    "\uffce\001\002\000\022\003\uffad\017\uffad\020\uffad\023\uffad" +
-    "\025\uffad\032\uffad\036\uffad\037\uffad\001\002\000\006\017" +
-    "\102\020\103\001\002\000\006\017\uffcf\020\uffcf\001\002" +
-    "\000\012\003\uffd3\016\uffd3\026\uffd3\036\uffd3\001\002\000" +
-    "\006\003\077\036\074\001\002\000\006\017\uffd0\020\uffd0" +
-    "\001\002\000\006\003\077\036\074\001\002\000\006\017" +
-    "\107\020\103\001\002\000\012\003\uffd5\016\uffd5\026\uffd5" +
-    "\036\uffd5\001\002\000\006\003\077\036\074\001\002\000" +
-    "\006\017\112\020\103\001\002\000\012\003\uffd1\016\uffd1" +
-    "\026\uffd1\036\uffd1\001\002\000\012\003\uffd8\016\uffd8\026" +
-    "\uffd8\036\uffd8\001\002\000\006\003\uffca\036\uffca\001\002" +
-    "\000\006\003\126\036\120\001\002\000\004\015\117\001" +
-    "\002\000\006\003\122\036\120\001\002\000\006\017\uffb0" +
-    "\024\uffb0\001\002\000\004\017\uffcc\001\002\000\004\017" +
-    "\uffaf\001\002\000\004\017\124\001\002\000\006\003\uffcb" +
-    "\036\uffcb\001\002\000\004\024\uffc7\001\002\000\006\017" +
-    "\uffc4\024\uffaf\001\002\000\010\002\ufffe\003\126\036\120" +
-    "\001\002\000\010\002\uffc8\003\uffc8\036\uffc8\001\002\000" +
-    "\010\002\uffc9\003\uffc9\036\uffc9\001\002\000\004\017\133" +
-    "\001\002\000\010\002\uffc3\003\uffc3\036\uffc3\001\002\000" +
-    "\004\024\135\001\002\000\016\003\uffc6\017\uffc6\025\uffc6" +
-    "\032\uffc6\036\uffc6\037\uffc6\001\002\000\016\003\uff97\017" +
-    "\uff97\025\uff97\032\uff97\036\uff97\037\uff97\001\002\000\016" +
-    "\003\uffbd\017\uffbd\025\uffbd\032\uffbd\036\uffbd\037\uffbd\001" +
-    "\002\000\016\003\077\017\uffbf\025\uffbf\032\147\036\074" +
-    "\037\146\001\002\000\006\017\uffc1\025\uffc1\001\002\000" +
-    "\006\017\143\025\144\001\002\000\010\002\uffc5\003\uffc5" +
-    "\036\uffc5\001\002\000\016\003\uff97\017\uff97\025\uff97\032" +
-    "\uff97\036\uff97\037\uff97\001\002\000\006\017\uffc2\025\uffc2" +
-    "\001\002\000\016\003\uffbb\017\uffbb\025\uffbb\032\uffbb\036" +
-    "\uffbb\037\uffbb\001\002\000\006\003\077\036\074\001\002" +
-    "\000\020\003\uff97\017\uff97\023\154\025\uff97\032\uff97\036" +
-    "\uff97\037\uff97\001\002\000\016\003\uffbe\017\uffbe\025\uffbe" +
-    "\032\uffbe\036\uffbe\037\uffbe\001\002\000\016\003\uffb9\017" +
-    "\uffb9\025\uffb9\032\uffb9\036\uffb9\037\uffb9\001\002\000\016" +
-    "\003\uffbc\017\uffbc\025\uffbc\032\uffbc\036\uffbc\037\uffbc\001" +
-    "\002\000\042\003\054\006\026\007\027\010\040\011\036" +
-    "\012\022\013\042\014\030\015\017\016\015\026\033\027" +
-    "\023\030\035\031\041\035\025\036\053\001\002\000\016" +
-    "\003\uffba\017\uffba\025\uffba\032\uffba\036\uffba\037\uffba\001" +
-    "\002\000\016\003\uffac\017\uffac\025\uffac\032\uffac\036\uffac" +
-    "\037\uffac\001\002\000\006\017\uffc0\025\uffc0\001\002\000" +
-    "\014\017\uffb2\020\uffb2\022\uffab\033\uffab\036\uffab\001\002" +
-    "\000\006\033\047\036\170\001\002\000\006\017\uffdd\020" +
-    "\uffdd\001\002\000\012\017\uffe6\022\uff9c\033\uff9c\036\uff9c" +
-    "\001\002\000\020\003\uffe9\011\uffe9\012\uffe9\016\uffe9\026" +
-    "\uffe9\035\uffe9\036\uffe9\001\002\000\006\017\uffe2\020\167" +
-    "\001\002\000\004\017\172\001\002\000\004\036\170\001" +
-    "\002\000\006\017\uffb2\020\uffb2\001\002\000\006\017\uffde" +
-    "\020\uffde\001\002\000\020\003\uffe1\011\uffe1\012\uffe1\016" +
-    "\uffe1\026\uffe1\035\uffe1\036\uffe1\001\002\000\004\017\174" +
-    "\001\002\000\020\003\uffe5\011\uffe5\012\uffe5\016\uffe5\026" +
-    "\uffe5\035\uffe5\036\uffe5\001\002\000\020\003\uffea\011\uffea" +
-    "\012\uffea\016\uffea\026\uffea\035\uffea\036\uffea\001\002\000" +
-    "\022\005\ufffb\007\ufffb\010\ufffb\011\ufffb\012\ufffb\013\ufffb" +
-    "\014\ufffb\035\ufffb\001\002\000\022\005\uff97\007\uff97\010" +
-    "\uff97\011\uff97\012\uff97\013\uff97\014\uff97\035\uff97\001\002" +
-    "\000\042\003\054\006\026\007\027\010\040\011\036\012" +
-    "\022\013\042\014\030\015\017\016\015\026\033\027\023" +
-    "\030\035\031\041\035\025\036\053\001\002\000\006\017" +
-    "\ufffd\022\051\001\002\000\004\017\203\001\002\000\022" +
-    "\005\ufffc\007\ufffc\010\ufffc\011\ufffc\012\ufffc\013\ufffc\014" +
-    "\ufffc\035\ufffc\001\002\000\022\005\210\007\ufff2\010\ufff2" +
-    "\011\ufff2\012\ufff2\013\ufff2\014\ufff2\035\ufff2\001\002\000" +
-    "\022\005\ufff9\007\ufff9\010\ufff9\011\ufff9\012\ufff9\013\ufff9" +
-    "\014\ufff9\035\ufff9\001\002\000\020\007\223\010\224\011" +
-    "\007\012\012\013\227\014\225\035\014\001\002\000\022" +
-    "\005\ufffa\007\ufffa\010\ufffa\011\ufffa\012\ufffa\013\ufffa\014" +
-    "\ufffa\035\ufffa\001\002\000\042\003\054\006\026\007\027" +
-    "\010\040\011\036\012\022\013\042\014\030\015\017\016" +
-    "\015\026\033\027\023\030\035\031\041\035\025\036\053" +
-    "\001\002\000\006\017\uffb5\022\215\001\002\000\004\017" +
-    "\ufff8\001\002\000\004\017\214\001\002\000\022\005\ufff7" +
-    "\007\ufff7\010\ufff7\011\ufff7\012\ufff7\013\ufff7\014\ufff7\035" +
-    "\ufff7\001\002\000\044\003\054\006\026\007\027\010\040" +
-    "\011\036\012\022\013\042\014\030\015\017\016\015\021" +
-    "\216\026\033\027\023\030\035\031\041\035\025\036\053" +
-    "\001\002\000\004\017\uffb6\001\002\000\020\007\ufff3\010" +
-    "\ufff3\011\ufff3\012\ufff3\013\ufff3\014\ufff3\035\ufff3\001\002" +
-    "\000\020\007\ufff5\010\ufff5\011\ufff5\012\ufff5\013\ufff5\014" +
-    "\ufff5\035\ufff5\001\002\000\020\007\ufff1\010\ufff1\011\ufff1" +
-    "\012\ufff1\013\ufff1\014\ufff1\035\ufff1\001\002\000\020\007" +
-    "\ufff4\010\ufff4\011\ufff4\012\ufff4\013\ufff4\014\ufff4\035\ufff4" +
-    "\001\002\000\004\006\246\001\002\000\004\006\243\001" +
-    "\002\000\004\015\240\001\002\000\020\007\ufff6\010\ufff6" +
-    "\011\ufff6\012\ufff6\013\ufff6\014\ufff6\035\ufff6\001\002\000" +
-    "\004\015\234\001\002\000\020\003\uff97\011\007\012\012" +
-    "\016\uff97\026\065\035\014\036\uff97\001\002\000\010\003" +
-    "\uff97\016\116\036\uff97\001\002\000\006\003\126\036\120" +
-    "\001\002\000\010\002\uffff\003\126\036\120\001\002\000" +
-    "\004\037\235\001\002\000\022\007\uff99\010\uff99\011\uff99" +
-    "\012\uff99\013\uff99\014\uff99\017\236\035\uff99\001\002\000" +
-    "\020\007\uff98\010\uff98\011\uff98\012\uff98\013\uff98\014\uff98" +
-    "\035\uff98\001\002\000\020\007\uffee\010\uffee\011\uffee\012" +
-    "\uffee\013\uffee\014\uffee\035\uffee\001\002\000\004\037\241" +
-    "\001\002\000\022\007\uff99\010\uff99\011\uff99\012\uff99\013" +
-    "\uff99\014\uff99\017\236\035\uff99\001\002\000\020\007\uffed" +
-    "\010\uffed\011\uffed\012\uffed\013\uffed\014\uffed\035\uffed\001" +
-    "\002\000\004\037\244\001\002\000\022\007\uff99\010\uff99" +
-    "\011\uff99\012\uff99\013\uff99\014\uff99\017\236\035\uff99\001" +
-    "\002\000\020\007\uffef\010\uffef\011\uffef\012\uffef\013\uffef" +
-    "\014\uffef\035\uffef\001\002\000\004\037\247\001\002\000" +
-    "\022\007\uff99\010\uff99\011\uff99\012\uff99\013\uff99\014\uff99" +
-    "\017\236\035\uff99\001\002\000\020\007\ufff0\010\ufff0\011" +
-    "\ufff0\012\ufff0\013\ufff0\014\ufff0\035\ufff0\001\002\000\004" +
-    "\002\001\001\002" });
+  public short[][] production_table() {return CUP$parser$tables.production;}
 
   /** Access to parse-action table. */
-  public short[][] action_table() {return _action_table;}
-
-  /** <code>reduce_goto</code> table. */
-  protected static final short[][] _reduce_table = 
-    unpackFromStrings(new String[] {
-    "\000\247\000\006\003\003\055\004\001\001\000\002\001" +
-    "\001\000\006\004\176\037\175\001\001\000\010\012\012" +
-    "\014\010\024\007\001\001\000\016\017\020\025\160\026" +
-    "\164\033\161\044\163\054\030\001\001\000\002\001\001" +
-    "\000\016\012\012\024\065\037\063\040\061\041\066\043" +
-    "\062\001\001\000\002\001\001\000\016\017\020\025\023" +
-    "\027\017\034\036\045\031\054\030\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\004\063\055\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\010\027\017\034\036\045\045" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\004\061\042\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\004\054\051\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\004" +
-    "\034\057\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\006\015\114\037\113" +
-    "\001\001\000\004\041\112\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\004" +
-    "\066\107\001\001\000\004\064\104\001\001\000\004\065" +
-    "\072\001\001\000\012\042\077\047\074\052\100\053\075" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\010\047\074\052\103\053\075\001" +
-    "\001\000\002\001\001\000\012\042\105\047\074\052\100" +
-    "\053\075\001\001\000\002\001\001\000\002\001\001\000" +
-    "\012\042\110\047\074\052\100\053\075\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\010\016\126\030\127\046\124\001\001\000\002" +
-    "\001\001\000\004\046\120\001\001\000\002\001\001\000" +
-    "\004\067\122\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\004\070\133\001\001\000\004\072" +
-    "\131\001\001\000\006\030\130\046\124\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\004\071\135\001\001\000\012" +
-    "\031\137\035\141\036\140\037\136\001\001\000\002\001" +
-    "\001\000\006\032\150\047\147\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\010\031\137\036" +
-    "\144\037\136\001\001\000\002\001\001\000\002\001\001" +
-    "\000\006\047\074\053\156\001\001\000\006\037\151\051" +
-    "\152\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\006\050\154\054\155\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\010\026\164\033\161\044\174\001\001\000\002\001" +
-    "\001\000\004\060\172\001\001\000\002\001\001\000\004" +
-    "\062\165\001\001\000\002\001\001\000\004\033\170\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\006\005\203\037\204\001\001\000\006" +
-    "\017\200\054\030\001\001\000\004\056\201\001\001\000" +
-    "\002\001\001\000\002\001\001\000\006\007\205\020\206" +
-    "\001\001\000\002\001\001\000\022\006\225\010\220\012" +
-    "\012\013\217\014\227\022\221\023\216\024\007\001\001" +
-    "\000\002\001\001\000\010\017\210\021\211\054\030\001" +
-    "\001\000\002\001\001\000\004\057\212\001\001\000\002" +
-    "\001\001\000\002\001\001\000\004\054\051\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\002\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\016\012\012\024\065\037\063\040\230\041\066\043" +
-    "\062\001\001\000\006\015\231\037\113\001\001\000\010" +
-    "\016\232\030\127\046\124\001\001\000\006\030\130\046" +
-    "\124\001\001\000\002\001\001\000\004\011\236\001\001" +
-    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-    "\004\011\241\001\001\000\002\001\001\000\002\001\001" +
-    "\000\004\011\244\001\001\000\002\001\001\000\002\001" +
-    "\001\000\004\011\247\001\001\000\002\001\001\000\002" +
-    "\001\001" });
+  public java_cup.runtime.comb_table action_comb_table() {return CUP$parser$tables.action;}
 
   /** Access to <code>reduce_goto</code> table. */
-  public short[][] reduce_table() {return _reduce_table;}
+  public java_cup.runtime.comb_table reduce_comb_table() {return CUP$parser$tables.reduce;}
 
   /** Instance of action encapsulation class. */
   protected CUP$parser$actions action_obj;
@@ -335,11 +305,11 @@ public class parser extends java_cup.runtime.lr_parser {
     }
 
   /** Invoke a user supplied parse action. */
-  public java_cup.runtime.Symbol do_action(
-    int                        act_num,
-    java_cup.runtime.lr_parser parser,
-    java.util.Stack            stack,
-    int                        top)
+  public java.lang.Object do_action(
+    int                          act_num,
+    java_cup.runtime.lr_parser   parser,
+    java_cup.runtime.parse_stack stack,
+    int                          top)
     throws java.lang.Exception
   {
     /* call code in generated class */
@@ -492,15 +462,15 @@ class CUP$parser$actions {
   }
 
   /** Method with the actual generated action code. */
-  public final java_cup.runtime.Symbol CUP$parser$do_action(
-    int                        CUP$parser$act_num,
-    java_cup.runtime.lr_parser CUP$parser$parser,
-    java.util.Stack            CUP$parser$stack,
-    int                        CUP$parser$top)
+  public final java.lang.Object CUP$parser$do_action(
+    int                          CUP$parser$act_num,
+    java_cup.runtime.lr_parser   CUP$parser$parser,
+    java_cup.runtime.parse_stack CUP$parser$stack,
+    int                          CUP$parser$top)
     throws java.lang.Exception
     {
-      /* Symbol object for return from actions */
-      java_cup.runtime.Symbol CUP$parser$result;
+      /* Value of the LHS for return from actions */
+      java.lang.Object CUP$parser$result;
 
       /* select the action based on the action number */
       switch (CUP$parser$act_num)
@@ -510,7 +480,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(29/*empty*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -519,7 +489,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(7/*opt_semi*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -528,7 +498,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(7/*opt_semi*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -537,7 +507,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(8/*non_terminal*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -546,7 +516,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(8/*non_terminal*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -558,7 +528,7 @@ class CUP$parser$actions {
 		lexer.emit_error("Illegal use of reserved word");
 		RESULT="ILLEGAL";
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -567,7 +537,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "nonassoc"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -576,7 +546,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "right"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -585,7 +555,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "left"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -594,7 +564,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "precedence"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -603,7 +573,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "start"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -612,7 +582,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "with"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -621,7 +591,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "scan"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -630,7 +600,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "init"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -639,7 +609,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "nonterminal"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -648,7 +618,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "non"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -657,7 +627,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "terminal"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -666,7 +636,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "parser"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -675,7 +645,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "action"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -684,7 +654,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = "code"; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -692,11 +662,11 @@ class CUP$parser$actions {
           case 86: // robust_id ::= ID 
             {
               String RESULT = null;
-		int the_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int the_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String the_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int the_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int the_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String the_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 RESULT = the_id; 
-              CUP$parser$result = new java_cup.runtime.Symbol(42/*robust_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -704,11 +674,11 @@ class CUP$parser$actions {
           case 85: // label_id ::= robust_id 
             {
               String RESULT = null;
-		int the_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int the_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String the_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int the_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int the_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String the_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 RESULT = the_id; 
-              CUP$parser$result = new java_cup.runtime.Symbol(38/*label_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -720,7 +690,7 @@ class CUP$parser$actions {
 		lexer.emit_error("Illegal use of reserved word");
 		RESULT="ILLEGAL";
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(37/*symbol_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -728,11 +698,11 @@ class CUP$parser$actions {
           case 83: // symbol_id ::= ID 
             {
               String RESULT = null;
-		int the_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int the_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String the_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int the_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int the_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String the_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 RESULT = the_id; 
-              CUP$parser$result = new java_cup.runtime.Symbol(37/*symbol_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -744,7 +714,7 @@ class CUP$parser$actions {
 		lexer.emit_error("Illegal use of reserved word");
 		RESULT="ILLEGAL";
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(36/*nt_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -752,11 +722,11 @@ class CUP$parser$actions {
           case 81: // nt_id ::= ID 
             {
               String RESULT = null;
-		int the_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int the_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String the_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int the_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int the_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String the_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 RESULT = the_id; 
-              CUP$parser$result = new java_cup.runtime.Symbol(36/*nt_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -764,9 +734,9 @@ class CUP$parser$actions {
           case 80: // new_non_term_id ::= ID 
             {
               Object RESULT = null;
-		int non_term_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int non_term_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String non_term_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int non_term_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int non_term_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String non_term_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 
 	  /* see if this non terminal has been declared before */
 	  if (symbols.get(non_term_id) != null)
@@ -791,7 +761,7 @@ class CUP$parser$actions {
 	      symbols.put(non_term_id, new symbol_part(this_nt));
 	    }
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(26/*new_non_term_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -799,9 +769,9 @@ class CUP$parser$actions {
           case 79: // new_term_id ::= ID 
             {
               Object RESULT = null;
-		int term_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int term_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String term_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int term_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int term_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String term_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 
 	  /* see if this terminal has been declared before */
 	  if (symbols.get(term_id) != null)
@@ -821,7 +791,7 @@ class CUP$parser$actions {
 	        new symbol_part(new terminal(term_id, multipart_name)));
 	    }
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(25/*new_term_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -830,7 +800,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 		 multipart_name = multipart_name.concat("[]"); 
-              CUP$parser$result = new java_cup.runtime.Symbol(19/*type_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -839,7 +809,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(19/*type_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -848,7 +818,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(15/*import_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -857,7 +827,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 		 append_multipart("*"); 
-              CUP$parser$result = new java_cup.runtime.Symbol(15/*import_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -865,11 +835,11 @@ class CUP$parser$actions {
           case 74: // multipart_id ::= robust_id 
             {
               Object RESULT = null;
-		int an_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int an_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String an_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int an_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int an_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String an_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 append_multipart(an_id); 
-              CUP$parser$result = new java_cup.runtime.Symbol(13/*multipart_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -877,11 +847,11 @@ class CUP$parser$actions {
           case 73: // multipart_id ::= multipart_id DOT robust_id 
             {
               Object RESULT = null;
-		int another_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int another_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String another_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int another_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int another_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String another_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 append_multipart(another_id); 
-              CUP$parser$result = new java_cup.runtime.Symbol(13/*multipart_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -890,7 +860,7 @@ class CUP$parser$actions {
             {
               String RESULT = null;
 		 RESULT = null; 
-              CUP$parser$result = new java_cup.runtime.Symbol(39/*opt_label*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -898,11 +868,11 @@ class CUP$parser$actions {
           case 71: // opt_label ::= COLON label_id 
             {
               String RESULT = null;
-		int labidleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int labidright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String labid = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int labidleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int labidright = CUP$parser$stack.right(CUP$parser$top-0);
+		String labid = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 RESULT = labid; 
-              CUP$parser$result = new java_cup.runtime.Symbol(39/*opt_label*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -910,14 +880,14 @@ class CUP$parser$actions {
           case 70: // prod_part ::= CODE_STRING 
             {
               Object RESULT = null;
-		int code_strleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int code_strright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String code_str = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int code_strleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int code_strright = CUP$parser$stack.right(CUP$parser$top-0);
+		String code_str = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 
 	  /* add a new production part */
 	  add_rhs_part(new action_part(code_str));
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(24/*prod_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -925,12 +895,12 @@ class CUP$parser$actions {
           case 69: // prod_part ::= symbol_id opt_label 
             {
               Object RESULT = null;
-		int symidleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int symidright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		String symid = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		int labidleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int labidright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String labid = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int symidleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int symidright = CUP$parser$stack.right(CUP$parser$top-1);
+		String symid = (String)CUP$parser$stack.value(CUP$parser$top-1);
+		int labidleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int labidright = CUP$parser$stack.right(CUP$parser$top-0);
+		String labid = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		 
 	  /* try to look up the id */
 	  production_part symb = (production_part)symbols.get(symid);
@@ -948,7 +918,7 @@ class CUP$parser$actions {
 	      add_rhs_part(add_lab(symb, labid));
 	    }
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(24/*prod_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -957,7 +927,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(23/*prod_part_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -966,7 +936,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(23/*prod_part_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1002,7 +972,7 @@ class CUP$parser$actions {
 	  /* reset the rhs accumulation in any case */
 	  new_rhs();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(28/*rhs*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1010,9 +980,9 @@ class CUP$parser$actions {
           case 65: // rhs ::= prod_part_list PERCENT_PREC term_id 
             {
               Object RESULT = null;
-		int term_nameleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int term_nameright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String term_name = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int term_nameleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int term_nameright = CUP$parser$stack.right(CUP$parser$top-0);
+		String term_name = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		
 	  java_cup.symbol sym = null;
 	  if (lhs_nt != null) 
@@ -1065,7 +1035,7 @@ class CUP$parser$actions {
 	  /* reset the rhs accumulation in any case */
 	  new_rhs();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(28/*rhs*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1074,7 +1044,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(27/*rhs_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1083,7 +1053,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(27/*rhs_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1092,10 +1062,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$13
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(22/*production*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1104,7 +1074,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
  lexer.emit_error("Syntax Error"); 
-              CUP$parser$result = new java_cup.runtime.Symbol(56/*NT$13*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1113,16 +1083,16 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$11
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-4)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-4)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-4) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-4);
               // propagate RESULT from NT$12
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		int lhs_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left;
-		int lhs_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).right;
-		String lhs_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-5)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-2) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-2);
+		int lhs_idleft = CUP$parser$stack.left(CUP$parser$top-5);
+		int lhs_idright = CUP$parser$stack.right(CUP$parser$top-5);
+		String lhs_id = (String)CUP$parser$stack.value(CUP$parser$top-5);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(22/*production*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1130,11 +1100,11 @@ class CUP$parser$actions {
           case 59: // NT$12 ::= 
             {
               Object RESULT = null;
-		int lhs_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
-		int lhs_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
-		String lhs_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+		int lhs_idleft = CUP$parser$stack.left(CUP$parser$top-2);
+		int lhs_idright = CUP$parser$stack.right(CUP$parser$top-2);
+		String lhs_id = (String)CUP$parser$stack.value(CUP$parser$top-2);
  
-              CUP$parser$result = new java_cup.runtime.Symbol(55/*NT$12*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1142,9 +1112,9 @@ class CUP$parser$actions {
           case 58: // NT$11 ::= 
             {
               Object RESULT = null;
-		int lhs_idleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int lhs_idright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String lhs_id = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int lhs_idleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int lhs_idright = CUP$parser$stack.right(CUP$parser$top-0);
+		String lhs_id = (String)CUP$parser$stack.value(CUP$parser$top-0);
 
 	  /* lookup the lhs nt */
 	  lhs_nt = (non_terminal)non_terms.get(lhs_id);
@@ -1160,7 +1130,7 @@ class CUP$parser$actions {
 	  /* reset the rhs accumulation */
 	  new_rhs();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(54/*NT$11*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1169,7 +1139,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(12/*production_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1178,7 +1148,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(12/*production_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1187,7 +1157,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(11/*start_spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1196,13 +1166,13 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$10
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		int start_nameleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left;
-		int start_nameright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).right;
-		String start_name = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
+		int start_nameleft = CUP$parser$stack.left(CUP$parser$top-2);
+		int start_nameright = CUP$parser$stack.right(CUP$parser$top-2);
+		String start_name = (String)CUP$parser$stack.value(CUP$parser$top-2);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(11/*start_spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1210,9 +1180,9 @@ class CUP$parser$actions {
           case 53: // NT$10 ::= 
             {
               Object RESULT = null;
-		int start_nameleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int start_nameright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String start_name = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int start_nameleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int start_nameright = CUP$parser$stack.right(CUP$parser$top-0);
+		String start_name = (String)CUP$parser$stack.value(CUP$parser$top-0);
  
 	  /* verify that the name has been declared as a non terminal */
 	  non_terminal nt = (non_terminal)non_terms.get(start_name);
@@ -1236,7 +1206,7 @@ class CUP$parser$actions {
 	      new_rhs();
 	    }
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(53/*NT$10*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1244,9 +1214,9 @@ class CUP$parser$actions {
           case 52: // term_id ::= symbol_id 
             {
               String RESULT = null;
-		int symleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int symright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String sym = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int symleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int symright = CUP$parser$stack.right(CUP$parser$top-0);
+		String sym = (String)CUP$parser$stack.value(CUP$parser$top-0);
 		
 	  /* check that the symbol_id is a terminal */
 	  if (symbols.get(sym) == null)
@@ -1257,7 +1227,7 @@ class CUP$parser$actions {
 	    }
           RESULT = sym;
          
-              CUP$parser$result = new java_cup.runtime.Symbol(41/*term_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1265,14 +1235,14 @@ class CUP$parser$actions {
           case 51: // terminal_id ::= term_id 
             {
               String RESULT = null;
-		int symleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left;
-		int symright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right;
-		String sym = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-0)).value;
+		int symleft = CUP$parser$stack.left(CUP$parser$top-0);
+		int symright = CUP$parser$stack.right(CUP$parser$top-0);
+		String sym = (String)CUP$parser$stack.value(CUP$parser$top-0);
 			
 	  add_precedence(sym);
 	  RESULT = sym;
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(40/*terminal_id*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1281,7 +1251,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(32/*terminal_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1290,7 +1260,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(32/*terminal_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1299,10 +1269,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$9
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-2) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-2);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(31/*preced*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1313,7 +1283,7 @@ class CUP$parser$actions {
 
 	  update_precedence(assoc.nonassoc);
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(52/*NT$9*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1322,10 +1292,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$8
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-2) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-2);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(31/*preced*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1336,7 +1306,7 @@ class CUP$parser$actions {
 
 	  update_precedence(assoc.right);
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(51/*NT$8*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1345,10 +1315,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$7
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-2) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-2);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(31/*preced*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1359,7 +1329,7 @@ class CUP$parser$actions {
 
 	  update_precedence(assoc.left);
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(50/*NT$7*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1368,7 +1338,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(33/*precedence_l*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1377,7 +1347,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(33/*precedence_l*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1386,7 +1356,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(30/*precedence_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1395,7 +1365,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(30/*precedence_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1404,7 +1374,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(21/*non_term_name_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1413,7 +1383,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(21/*non_term_name_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1422,7 +1392,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(20/*term_name_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1431,7 +1401,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(20/*term_name_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1440,10 +1410,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$6
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(35/*declares_non_term*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1455,7 +1425,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(49/*NT$6*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1464,10 +1434,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$5
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(34/*declares_term*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1479,7 +1449,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(48/*NT$5*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1488,10 +1458,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$4
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1503,7 +1473,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(47/*NT$4*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1512,10 +1482,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$3
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1527,7 +1497,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(46/*NT$3*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1536,7 +1506,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1545,7 +1515,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1554,7 +1524,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1563,7 +1533,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(18/*symbol*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1572,7 +1542,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(10/*symbol_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1581,7 +1551,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(10/*symbol_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1589,16 +1559,16 @@ class CUP$parser$actions {
           case 20: // scan_code ::= SCAN WITH CODE_STRING opt_semi 
             {
               Object RESULT = null;
-		int user_codeleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int user_coderight = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		String user_code = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int user_codeleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int user_coderight = CUP$parser$stack.right(CUP$parser$top-1);
+		String user_code = (String)CUP$parser$stack.value(CUP$parser$top-1);
 		 
 	  if (emit.scan_code!=null)
 	    lexer.emit_error("Redundant scan code (skipping)");
 	  else /* save the user code */
 	    emit.scan_code = user_code;
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(17/*scan_code*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1606,16 +1576,16 @@ class CUP$parser$actions {
           case 19: // init_code ::= INIT WITH CODE_STRING opt_semi 
             {
               Object RESULT = null;
-		int user_codeleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int user_coderight = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		String user_code = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int user_codeleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int user_coderight = CUP$parser$stack.right(CUP$parser$top-1);
+		String user_code = (String)CUP$parser$stack.value(CUP$parser$top-1);
 		 
 	  if (emit.init_code!=null)
 	    lexer.emit_error("Redundant init code (skipping)");
 	  else /* save the user code */
 	    emit.init_code = user_code;
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(16/*init_code*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1623,16 +1593,16 @@ class CUP$parser$actions {
           case 18: // parser_code_part ::= PARSER CODE CODE_STRING opt_semi 
             {
               Object RESULT = null;
-		int user_codeleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int user_coderight = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		String user_code = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int user_codeleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int user_coderight = CUP$parser$stack.right(CUP$parser$top-1);
+		String user_code = (String)CUP$parser$stack.value(CUP$parser$top-1);
 		
 	  if (emit.parser_code!=null)
 	    lexer.emit_error("Redundant parser code (skipping)");
 	  else /* save the user included code string */
 	    emit.parser_code = user_code;
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(9/*parser_code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1640,16 +1610,16 @@ class CUP$parser$actions {
           case 17: // action_code_part ::= ACTION CODE CODE_STRING opt_semi 
             {
               Object RESULT = null;
-		int user_codeleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int user_coderight = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		String user_code = (String)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int user_codeleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int user_coderight = CUP$parser$stack.right(CUP$parser$top-1);
+		String user_code = (String)CUP$parser$stack.value(CUP$parser$top-1);
 		
 	  if (emit.action_code!=null)
 	    lexer.emit_error("Redundant action code (skipping)");
 	  else /* save the user included code string */
 	    emit.action_code = user_code;
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(4/*action_code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1658,7 +1628,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(5/*code_parts*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1667,7 +1637,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(5/*code_parts*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1676,7 +1646,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(6/*code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1685,7 +1655,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(6/*code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1694,7 +1664,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(6/*code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1703,7 +1673,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(6/*code_part*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1712,10 +1682,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$2
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(14/*import_spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1730,7 +1700,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(45/*NT$2*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1739,7 +1709,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(3/*import_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1748,7 +1718,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(3/*import_list*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1757,7 +1727,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(2/*package_spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1766,10 +1736,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$1
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-1) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-1);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(2/*package_spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1784,7 +1754,7 @@ class CUP$parser$actions {
 	  /* reset the accumulated multipart name */
 	  multipart_name = new String();
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(44/*NT$1*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1793,7 +1763,7 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
 
-              CUP$parser$result = new java_cup.runtime.Symbol(1/*spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1802,10 +1772,10 @@ class CUP$parser$actions {
             {
               Object RESULT = null;
               // propagate RESULT from NT$0
-              if ( ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-7)).value != null )
-                RESULT = (Object) ((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-7)).value;
+              if ( CUP$parser$stack.value(CUP$parser$top-7) != null )
+                RESULT = (Object) CUP$parser$stack.value(CUP$parser$top-7);
 
-              CUP$parser$result = new java_cup.runtime.Symbol(1/*spec*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-7)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1820,7 +1790,7 @@ class CUP$parser$actions {
           /* declare start non terminal */
           non_terms.put("$START", non_terminal.START_nt);
 	
-              CUP$parser$result = new java_cup.runtime.Symbol(43/*NT$0*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           return CUP$parser$result;
 
@@ -1828,11 +1798,11 @@ class CUP$parser$actions {
           case 0: // $START ::= spec EOF 
             {
               Object RESULT = null;
-		int start_valleft = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left;
-		int start_valright = ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).right;
-		Object start_val = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
+		int start_valleft = CUP$parser$stack.left(CUP$parser$top-1);
+		int start_valright = CUP$parser$stack.right(CUP$parser$top-1);
+		Object start_val = (Object)CUP$parser$stack.value(CUP$parser$top-1);
 		RESULT = start_val;
-              CUP$parser$result = new java_cup.runtime.Symbol(0/*$START*/, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).left, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-0)).right, RESULT);
+              CUP$parser$result = RESULT;
             }
           /* ACCEPT */
           CUP$parser$parser.done_parsing();
@@ -0,0 +1,25 @@
+package java_cup.runtime;
+
+/**
+ * Defines the ReduceListener interface, through which an lr_parser hands
+ * over each non terminal of the kinds the listener was registered for
+ * (see <code>lr_parser.set_reduce_listener()</code>) as soon as the
+ * parser reduces it, with the value computed by its action.  This lets
+ * the top-level parts of the input (e.g., the declarations of a file) be
+ * processed while the rest of the input is still being read, in
+ * particular by a parser driven by <code>lr_parser.feed()</code>.
+ *
+ * @see java_cup.runtime.lr_parser
+ */
+public interface ReduceListener {
+    /** Called after a reduce to a non terminal the listener is registered
+     *  for, before the parser shifts any further input.
+     *
+     * @param nt    the index of the non terminal.
+     * @param value the value of the non terminal (the RESULT of its action).
+     * @param left  its left position.
+     * @param right its right position.
+     */
+    public void reduced(int nt, Object value, int left, int right)
+      throws java.lang.Exception;
+}
@@ -0,0 +1,104 @@
+
+package java_cup.runtime;
+
+/** This class implements a parse table compressed by row displacement
+ *  (a "comb" table).  The table has a row for each state and a column for
+ *  each Symbol, but only the significant entries of each row are stored:
+ *  all of the rows are overlaid on one pair of arrays, each row shifted
+ *  (by its base) so that its entries fall where no other row's do.  Each
+ *  stored entry records the row it belongs to in a parallel check array,
+ *  and every other entry of a row takes the row's default (an error or a
+ *  default reduction in the action table, no state in the reduce-goto
+ *  table).  A lookup is then two array reads and a compare, rather than a
+ *  search of the row.<p>
+ *
+ *  Tables are generated by JavaCup and decoded once (see unpack()) into
+ *  arrays that are shared by all the parsers using them and never modified.
+ *
+ * @see     java_cup.runtime.lr_parser
+ */
+
+public final class comb_table {
+  /*-----------------------------------------------------------*/
+  /*--- Constructor(s) ----------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Constructor from the four arrays of the table.
+   *
+   * @param base     the displacement of each row.
+   * @param defaults the default entry of each row.
+   * @param check    the row each stored entry belongs to (-1 for none).
+   * @param value    the stored entries.
+   */
+  public comb_table(short[] base, short[] defaults, short[] check, short[] value)
+    {
+      this.base     = base;
+      this.defaults = defaults;
+      this.check    = check;
+      this.value    = value;
+    }
+
+  /*-----------------------------------------------------------*/
+  /*--- (Access to) Instance Variables ------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** The displacement of each row. */
+  private final short[] base;
+
+  /** The default entry of each row. */
+  private final short[] defaults;
+
+  /** The row that each stored entry belongs to (-1 for none). */
+  private final short[] check;
+
+  /** The stored entries. */
+  private final short[] value;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** The number of rows in the table. */
+  public int num_rows() { return base.length; }
+
+  /** The number of stored entries (including unused ones). */
+  public int length() { return check.length; }
+
+  /** The size of the table's arrays, in bytes (of array elements). */
+  public int footprint()
+    {
+      return 2 * (base.length + defaults.length + check.length + value.length);
+    }
+
+  /*-----------------------------------------------------------*/
+  /*--- General Methods ---------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Fetch an entry of the table.
+   *
+   * @param row the row (the state).
+   * @param col the column (the Symbol index).
+   */
+  public short get(int row, int col)
+    {
+      int index = base[row] + col;
+      if (index < check.length && check[index] == row)
+	return value[index];
+      return defaults[row];
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Decode a table from the strings JavaCup generates: the base, default,
+   *  check and value arrays as a table of four rows, encoded as for
+   *  lr_parser.unpackFromStrings().
+   *
+   * @param sa the strings.
+   */
+  public static comb_table unpack(String[] sa)
+    {
+      short[][] arrays = lr_parser.unpackFromStrings(sa);
+      return new comb_table(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+  /*-----------------------------------------------------------*/
+
+}
@@ -1,8 +1,6 @@
 				    
 package java_cup.runtime;
 
-import java.util.Stack;
-
 /** This class implements a skeleton table driven LR parser.  In general,
  *  LR parsers are a form of bottom up shift-reduce parsers.  Shift-reduce
  *  parsers act by shifting input onto a parse stack until the Symbols 
@@ -15,18 +13,18 @@ import java.util.Stack;
  *  To control the decision of whether to shift or reduce at any given point, 
  *  the parser uses a state machine (the "viable prefix recognition machine" 
  *  built by the parser generator).  The current state of the machine is placed
- *  on top of the parse stack (stored as part of a Symbol object representing
- *  a terminal or non terminal).  The parse action table is consulted 
- *  (using the current state and the current lookahead Symbol as indexes) to 
- *  determine whether to shift or to reduce.  When the parser shifts, it 
- *  changes to a new state by pushing a new Symbol (containing a new state) 
- *  onto the stack.  When the parser reduces, it pops the handle (right hand 
+ *  on top of the parse stack (stored alongside the value of the terminal or 
+ *  non terminal in that position; see parse_stack).  The parse action table
+ *  is consulted (using the current state and the current lookahead Symbol as
+ *  indexes) to determine whether to shift or to reduce.  When the parser 
+ *  shifts, it changes to a new state by pushing the Symbol (with the new 
+ *  state) onto the stack.  When the parser reduces, it pops the handle (right hand 
  *  side of a production) off the stack.  This leaves the parser in the state 
  *  it was in before any of those Symbols were matched.  Next the reduce-goto 
  *  table is consulted (using the new state and current lookahead Symbol as 
  *  indexes) to determine a new state to go to.  The parser then shifts to 
- *  this goto state by pushing the left hand side Symbol of the production 
- *  (also containing the new state) onto the stack.<p>
+ *  this goto state by pushing the left hand side of the production (with 
+ *  the new state) onto the stack.<p>
  *
  *  This class actually provides four LR parsers.  The methods parse() and 
  *  debug_parse() provide two versions of the main parser (the only difference 
@@ -38,6 +36,13 @@ import java.util.Stack;
  *  input in order to execute all actions and re-synchronize the actual parser 
  *  configuration.<p>
  *
+ *  The main parsers pull their input from scan().  A parser can instead
+ *  be pushed its input one Symbol at a time with feed() (and finish() at
+ *  the end), which advances it as far as each Symbol allows and returns,
+ *  so that it can be driven by input as it arrives.  With either, a
+ *  ReduceListener can be handed the non terminals of chosen kinds as soon
+ *  as they are reduced (see set_reduce_listener()).<p>
+ *
  *  This is an abstract class which is normally filled out by a subclass
  *  generated by the JavaCup parser generator.  In addition to supplying
  *  the actual parse tables, generated code also supplies methods which 
@@ -49,9 +54,9 @@ import java.util.Stack;
  *  <dd> Provides a reference to the production table (indicating the index of
  *       the left hand side non terminal and the length of the right hand side
  *       for each production in the grammar).
- *  <dt> short[][] action_table()
+ *  <dt> comb_table action_comb_table()
  *  <dd> Provides a reference to the parse action table.
- *  <dt> short[][] reduce_table()
+ *  <dt> comb_table reduce_comb_table()
  *  <dd> Provides a reference to the reduce-goto table.
  *  <dt> int start_state()      
  *  <dd> Indicates the index of the start state.
@@ -61,11 +66,11 @@ import java.util.Stack;
  *  <dd> Indicates the index of the EOF Symbol.
  *  <dt> int error_sym() 
  *  <dd> Indicates the index of the error Symbol.
- *  <dt> Symbol do_action() 
+ *  <dt> Object do_action() 
  *  <dd> Executes a piece of user supplied action code.  This always comes at 
- *       the point of a reduce in the parse, so this code also allocates and 
- *       fills in the left hand side non terminal Symbol object that is to be 
- *       pushed onto the stack for the reduce.
+ *       the point of a reduce in the parse, so this code also computes the 
+ *       value of the left hand side non terminal that is to be pushed onto 
+ *       the stack for the reduce.
  *  <dt> void init_actions()
  *  <dd> Code to initialize a special object that encapsulates user supplied
  *       actions (this object is used by do_action() to actually carry out the 
@@ -106,7 +111,7 @@ import java.util.Stack;
  *  </dl>
  *
  * @see     java_cup.runtime.Symbol
- * @see     java_cup.runtime.Symbol
+ * @see     java_cup.runtime.parse_stack
  * @see     java_cup.runtime.virtual_parse_stack
  * @version last updated: 7/3/96
  * @author  Frank Flannery
@@ -173,9 +178,26 @@ public abstract class lr_parser {
    *  state shifted to).  Reduces are encoded as negative values (one less 
    *  than the production reduced by).  Error entries are denoted by zero. 
    * 
+   *  Parsers generated with comb-compressed tables supply 
+   *  action_comb_table() instead, and do not supply this table.
+   * 
    * @see java_cup.runtime.lr_parser#get_action
    */
-  public abstract short[][] action_table();
+  public short[][] action_table() {return null;}
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** The action table compressed by row displacement (supplied by 
+   *  generated subclass, or null if the subclass supplies action_table() 
+   *  instead).  It holds the same actions as action_table(), each of them
+   *  fetched directly by state and terminal number.  The default action 
+   *  of each state (an error, or with -compact_red its most common 
+   *  reduce) is folded into the table, and is the action for every 
+   *  terminal not stored in the state's row.
+   *
+   * @see java_cup.runtime.comb_table
+   */
+  public comb_table action_comb_table() {return null;}
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
@@ -190,9 +212,22 @@ public abstract class lr_parser {
    *  then indexed by that state and the LHS of the reducing production to 
    *  indicate where to "shift" to. 
    *
+   *  Parsers generated with comb-compressed tables supply 
+   *  reduce_comb_table() instead, and do not supply this table.
+   *
    * @see java_cup.runtime.lr_parser#get_reduce
    */
-  public abstract short[][] reduce_table();
+  public short[][] reduce_table() {return null;}
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** The reduce-goto table compressed by row displacement (supplied by 
+   *  generated subclass, or null if the subclass supplies reduce_table()
+   *  instead).  Entries not stored in a state's row are -1.
+   *
+   * @see java_cup.runtime.comb_table
+   */
+  public comb_table reduce_comb_table() {return null;}
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
@@ -232,6 +267,56 @@ public abstract class lr_parser {
       _done_parsing = true;
     }
 
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** The listener that reduces are handed to (null for none). */
+  protected ReduceListener reduce_listener = null;
+
+  /** Which non terminals (by index) are handed to the reduce listener. */
+  protected boolean[] reduce_listened = null;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Set the listener that is handed each non terminal of the given kinds
+   *  as soon as it is reduced (by parse(), debug_parse(), feed() or error
+   *  recovery alike).  Listening for the non terminals that make up the
+   *  top level of the input lets a client process each of them while the
+   *  rest of the input is still to come.
+   *
+   * @param listener      the listener (null for none).
+   * @param non_terminals the indexes of the non terminals it is handed.
+   */
+  public void set_reduce_listener(ReduceListener listener, int[] non_terminals)
+    {
+      reduce_listener = listener;
+      reduce_listened = null;
+      if (listener == null) return;
+
+      int max = -1;
+      for (int i = 0; i < non_terminals.length; i++)
+	max = Math.max(max, non_terminals[i]);
+      reduce_listened = new boolean[max+1];
+      for (int i = 0; i < non_terminals.length; i++)
+	reduce_listened[non_terminals[i]] = true;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Hand a reduced non terminal to the reduce listener if it is one of
+   *  the kinds the listener is registered for.
+   *
+   * @param nt    the index of the non terminal.
+   * @param value its value.
+   * @param left  its left position.
+   * @param right its right position.
+   */
+  protected void notify_reduce(int nt, Object value, int left, int right)
+    throws java.lang.Exception
+    {
+      if (nt < reduce_listened.length && reduce_listened[nt])
+	reduce_listener.reduced(nt, value, left, right);
+    }
+
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
   /* Global parse state shared by parse(), error recovery, and 
    * debugging routines */
@@ -248,7 +333,7 @@ public abstract class lr_parser {
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
   /** The parse stack itself. */
-  protected Stack stack = new Stack();
+  protected parse_stack stack = new parse_stack();
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
@@ -267,6 +352,16 @@ public abstract class lr_parser {
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
 
+  /** Direct reference to the comb-compressed action table (if any). */
+  protected comb_table action_comb;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Direct reference to the comb-compressed reduce-goto table (if any). */
+  protected comb_table reduce_comb;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
   /** This is the scanner object used by the default implementation
    *  of scan() to get Symbols.  To avoid name conflicts with existing
    *  code, this field is private. [CSA/davidm] */
@@ -288,18 +383,19 @@ public abstract class lr_parser {
 
   /** Perform a bit of user supplied action code (supplied by generated 
    *  subclass).  Actions are indexed by an internal action number assigned
-   *  at parser generation time.
+   *  at parser generation time.  The value returned is the value of the
+   *  left hand side non terminal; its positions are those of the handle.
    *
    * @param act_num   the internal index of the action to be performed.
    * @param parser    the parser object we are acting for.
    * @param stack     the parse stack of that object.
    * @param top       the index of the top element of the parse stack.
    */
-  public abstract Symbol do_action(
-    int       act_num, 
-    lr_parser parser, 
-    Stack     stack, 
-    int       top) 
+  public abstract Object do_action(
+    int         act_num, 
+    lr_parser   parser, 
+    parse_stack stack, 
+    int         top) 
     throws java.lang.Exception;
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
@@ -417,12 +513,17 @@ public abstract class lr_parser {
    *  entries in the table), and the list is terminated by a default entry 
    *  (denoted with a Symbol index of -1).  To find the proper entry in a row 
    *  we do a linear or binary search (depending on the size of the row).  
+   *  If the parser has a comb-compressed table, the action is fetched from
+   *  that directly instead.
    *
    * @param state the state index of the action being accessed.
    * @param sym   the Symbol index of the action being accessed.
    */
   protected final short get_action(int state, int sym)
     {
+      if (action_comb != null)
+	return action_comb.get(state, sym);
+
       short tag;
       int first, last, probe;
       short[] row = action_tab[state];
@@ -471,13 +572,17 @@ public abstract class lr_parser {
    *  Within each row, a list of index, value pairs are given (as sequential
    *  entries in the table), and the list is terminated by a default entry 
    *  (denoted with a Symbol index of -1).  To find the proper entry in a row 
-   *  we do a linear search.  
+   *  we do a linear search.  If the parser has a comb-compressed table, the 
+   *  state is fetched from that directly instead.
    *
    * @param state the state index of the entry being accessed.
    * @param sym   the Symbol index of the entry being accessed.
    */
   protected final short get_reduce(int state, int sym)
     {
+      if (reduce_comb != null)
+	return reduce_comb.get(state, sym);
+
       short tag;
       short[] row = reduce_tab[state];
 
@@ -509,20 +614,13 @@ public abstract class lr_parser {
    */
   public Symbol parse() throws java.lang.Exception
     {
-      /* the current action code */
-      int act;
-
-      /* the Symbol/stack element returned by a reduce */
-      Symbol lhs_sym = null;
-
-      /* information about production being reduced with */
-      short handle_size, lhs_sym_num;
-
       /* set up direct reference to tables to drive the parser */
 
       production_tab = production_table();
       action_tab     = action_table();
       reduce_tab     = reduce_table();
+      action_comb    = action_comb_table();
+      reduce_comb    = reduce_comb_table();
 
       /* initialize the action encapsulation object */
       init_actions();
@@ -534,12 +632,71 @@ public abstract class lr_parser {
       cur_token = scan(); 
 
       /* push dummy Symbol with start state to get us underway */
-      stack.removeAllElements();
-      stack.push(new Symbol(0, start_state()));
+      stack.clear();
+      stack.push(start_state(), 0, null, 0, 0);
       tos = 0;
 
       /* continue until we are told to stop */
       for (_done_parsing = false; !_done_parsing; )
+	{
+	  /* parse the Symbols from scan() until the end, or an error */
+	  shift_tokens(true);
+
+	  /* if one could not be shifted, we have an error */
+	  if (!_done_parsing)
+	    {
+	      /* call user syntax error reporting routine */
+	      syntax_error(cur_token);
+
+	      /* try to error recover */
+	      if (!error_recovery(false))
+		{
+		  /* if that fails give up with a fatal syntax error */
+		  unrecovered_syntax_error(cur_token);
+
+		  /* just in case that wasn't fatal enough, end parse */
+		  done_parsing();
+		}
+	    }
+	}
+
+      /* the result is the left hand side of the last reduce (or of the
+	 error recovery), on the top of the stack */
+      return stack.empty() ? null : stack.symbol(tos);
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Run the parser on the current input Symbol: perform every reduce the
+   *  tables call for with it as lookahead, then shift it, and (when pulling
+   *  input) go on the same way with the next Symbol from scan().  This is
+   *  the part of parsing that parse() and feed() share; each handles a
+   *  syntax error its own way (parse() pulls the Symbols to recover with
+   *  from scan(), feed() waits for them to be fed).
+   *
+   * @param pull whether to go on with Symbols from scan() (for parse()) or
+   *             to return once the current Symbol is shifted (for feed()).
+   * @return true if the current Symbol was shifted (only when not
+   *         pulling), false if the parse ended or a syntax error was found
+   *         (with the offending Symbol current).
+   */
+  private boolean shift_tokens(boolean pull) throws java.lang.Exception
+    {
+      /* the current action code */
+      int act;
+
+      /* the value returned by a reduce */
+      Object lhs_val;
+
+      /* information about production being reduced with */
+      short handle_size, lhs_sym_num;
+
+      /* the positions of the handle being reduced */
+      int lhs_left, lhs_right;
+
+      /* continue until we are told to stop, or an error (or, when not
+	 pulling, until the Symbol is shifted) */
+      while (!_done_parsing)
 	{
 	  /* Check current token for freshness. */
 	  if (cur_token.used_by_parser)
@@ -548,7 +705,7 @@ public abstract class lr_parser {
 	  /* current state is always on the top of the stack */
 
 	  /* look up action out of the current state with the current input */
-	  act = get_action(((Symbol)stack.peek()).parse_state, cur_token.sym);
+	  act = get_action(stack.top_state(), cur_token.sym);
 
 	  /* decode the action -- > 0 encodes shift */
 	  if (act > 0)
@@ -556,58 +713,197 @@ public abstract class lr_parser {
 	      /* shift to the encoded state by pushing it on the stack */
 	      cur_token.parse_state = act-1;
 	      cur_token.used_by_parser = true;
-	      stack.push(cur_token);
+	      stack.push(act-1, cur_token);
 	      tos++;
 
-	      /* advance to the next Symbol */
+	      /* advance to the next Symbol, or wait for it to be fed */
+	      if (!pull)
+		return true;
 	      cur_token = scan();
 	    }
 	  /* if its less than zero, then it encodes a reduce action */
 	  else if (act < 0)
 	    {
 	      /* perform the action for the reduce */
-	      lhs_sym = do_action((-act)-1, this, stack, tos);
+	      lhs_val = do_action((-act)-1, this, stack, tos);
 
 	      /* look up information about the production */
 	      lhs_sym_num = production_tab[(-act)-1][0];
 	      handle_size = production_tab[(-act)-1][1];
 
+	      /* the left hand side spans the handle (or is empty, at its end) */
+	      lhs_right = stack.right(tos);
+	      lhs_left  = (handle_size == 0) ? lhs_right 
+					     : stack.left(tos-handle_size+1);
+
 	      /* pop the handle off the stack */
-	      for (int i = 0; i < handle_size; i++)
-		{
-		  stack.pop();
-		  tos--;
-		}
+	      stack.pop(handle_size);
+	      tos -= handle_size;
 	      
 	      /* look up the state to go to from the one popped back to */
-	      act = get_reduce(((Symbol)stack.peek()).parse_state, lhs_sym_num);
+	      act = get_reduce(stack.top_state(), lhs_sym_num);
 
 	      /* shift to that state */
-	      lhs_sym.parse_state = act;
-	      lhs_sym.used_by_parser = true;
-	      stack.push(lhs_sym);
+	      stack.push(act, lhs_sym_num, lhs_val, lhs_left, lhs_right);
 	      tos++;
+
+	      /* hand the non terminal over, if it is one the listener wants */
+	      if (reduce_listener != null)
+		notify_reduce(lhs_sym_num, lhs_val, lhs_left, lhs_right);
 	    }
 	  /* finally if the entry is zero, we have an error */
-	  else if (act == 0)
+	  else
+	    return false;
+	}
+      return false;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+  /* Push-mode parsing */
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Whether a parse driven by feed() is under way. */
+  protected boolean _pushing = false;
+
+  /** The number of Symbols gathered in the lookahead buffer while a parse
+   *  driven by feed() recovers from a syntax error (0 when not recovering).
+   */
+  protected int push_lookahead = 0;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Advance the parse by one input Symbol.  This is the push-mode
+   *  counterpart of parse(): rather than pulling Symbols from scan(), the
+   *  parser is handed them one at a time by its caller, and runs every
+   *  action it can before returning for the next one, so it can be driven
+   *  by input as it arrives (e.g., from a producer that cannot block).
+   *  The first call starts a new parse (as parse() does, calling
+   *  init_actions() and user_init()), and the parse is ended by finish().
+   *  Actions, reduce listeners and error reporting are the same as for
+   *  parse() given the same Symbols, and so is error recovery, which
+   *  gathers the Symbols it needs to parse ahead over as they come in.
+   *
+   * @param token the next input Symbol (EOF at the end of the input).
+   * @return false once the parse has ended (by accepting or after an
+   *         unrecoverable error), so that further input would be ignored.
+   */
+  public boolean feed(Symbol token) throws java.lang.Exception
+    {
+      if (!_pushing) begin_push();
+      if (_done_parsing) return false;
+
+      cur_token = token;
+
+      /* recovering from an error: first fill the lookahead buffer, then
+	 (as error_recovery() does) try to parse ahead over it with each
+	 further Symbol, dropping its first Symbol each time that fails */
+      if (push_lookahead > 0)
+	{
+	  if (push_lookahead < error_sync_size())
 	    {
-	      /* call user syntax error reporting routine */
-	      syntax_error(cur_token);
+	      lookahead[push_lookahead++] = cur_token;
+	      return true;
+	    }
 
-	      /* try to error recover */
-	      if (!error_recovery(false))
+	  lookahead_pos = 0;
+	  if (!try_parse_ahead(false))
+	    {
+	      if (lookahead[0].sym == EOF_sym())
 		{
-		  /* if that fails give up with a fatal syntax error */
+		  push_lookahead = 0;
 		  unrecovered_syntax_error(cur_token);
-
-		  /* just in case that wasn't fatal enough, end parse */
 		  done_parsing();
-		} else {
-		  lhs_sym = (Symbol)stack.peek();
+		  return false;
 		}
+	      for (int i = 1; i < error_sync_size(); i++)
+		lookahead[i-1] = lookahead[i];
+	      lookahead[error_sync_size()-1] = cur_token;
+	      return true;
 	    }
+
+	  /* do the real parse across the lookahead, then go on as usual */
+	  push_lookahead = 0;
+	  parse_lookahead(false);
 	}
-      return lhs_sym;
+
+      /* reduce as needed, shift the Symbol, and wait for the next one */
+      if (shift_tokens(false))
+	return true;
+      if (_done_parsing)
+	return false;
+
+      /* the Symbol could not be shifted: call user syntax error reporting
+	 routine */
+      syntax_error(cur_token);
+
+      /* get into a recovery configuration (if that fails give up with a
+	 fatal syntax error), and start gathering lookahead */
+      if (!find_recovery_config(false))
+	{
+	  unrecovered_syntax_error(cur_token);
+	  done_parsing();
+	  return false;
+	}
+      lookahead = new Symbol[error_sync_size()];
+      lookahead[0] = cur_token;
+      push_lookahead = 1;
+      return true;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** End a parse driven by feed(), feeding EOF until the parser accepts or
+   *  gives up (as a scanner returns EOF again and again at the end of its
+   *  input), and return the result as parse() does.  A caller that has
+   *  its own EOF Symbol (with its position) should feed() that first.
+   *  The next call to feed() starts a new parse.
+   *
+   * @return the left hand side of the last reduce (the start symbol after
+   *         accepting), on the top of the stack.
+   */
+  public Symbol finish() throws java.lang.Exception
+    {
+      if (!_pushing) begin_push();
+      try
+	{
+	  while (!_done_parsing)
+	    feed(new Symbol(EOF_sym()));
+	}
+      finally
+	{
+	  _pushing = false;
+	}
+      return stack.empty() ? null : stack.symbol(tos);
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Start a parse driven by feed(), setting up as parse() does (without
+   *  reading any input).
+   */
+  protected void begin_push() throws java.lang.Exception
+    {
+      /* set up direct reference to tables to drive the parser */
+      production_tab = production_table();
+      action_tab     = action_table();
+      reduce_tab     = reduce_table();
+      action_comb    = action_comb_table();
+      reduce_comb    = reduce_comb_table();
+
+      /* initialize the action encapsulation object */
+      init_actions();
+
+      /* do user initialization */
+      user_init();
+
+      /* push dummy Symbol with start state to get us underway */
+      stack.clear();
+      stack.push(start_state(), 0, null, 0, 0);
+      tos = 0;
+
+      _done_parsing = false;
+      push_lookahead = 0;
+      _pushing = true;
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
@@ -638,8 +934,8 @@ public abstract class lr_parser {
       /* dump the stack */
       for (int i=0; i<stack.size(); i++)
 	{
-	  debug_message("Symbol: " + ((Symbol)stack.elementAt(i)).sym +
-			" State: " + ((Symbol)stack.elementAt(i)).parse_state);
+	  debug_message("Symbol: " + stack.sym(i) +
+			" State: " + stack.state(i));
 	}
       debug_message("==========================================");
     }
@@ -677,8 +973,7 @@ public abstract class lr_parser {
   public void debug_stack() {
       StringBuffer sb=new StringBuffer("## STACK:");
       for (int i=0; i<stack.size(); i++) {
-	  Symbol s = (Symbol) stack.elementAt(i);
-	  sb.append(" <state "+s.parse_state+", sym "+s.sym+">");
+	  sb.append(" <state "+stack.state(i)+", sym "+stack.sym(i)+">");
 	  if ((i%3)==2 || (i==(stack.size()-1))) {
 	      debug_message(sb.toString());
 	      sb = new StringBuffer("         ");
@@ -699,16 +994,21 @@ public abstract class lr_parser {
       /* the current action code */
       int act;
 
-      /* the Symbol/stack element returned by a reduce */
-      Symbol lhs_sym = null;
+      /* the value returned by a reduce */
+      Object lhs_val;
 
       /* information about production being reduced with */
       short handle_size, lhs_sym_num;
 
+      /* the positions of the handle being reduced */
+      int lhs_left, lhs_right;
+
       /* set up direct reference to tables to drive the parser */
       production_tab = production_table();
       action_tab     = action_table();
       reduce_tab     = reduce_table();
+      action_comb    = action_comb_table();
+      reduce_comb    = reduce_comb_table();
 
       debug_message("# Initializing parser");
 
@@ -724,8 +1024,8 @@ public abstract class lr_parser {
       debug_message("# Current Symbol is #" + cur_token.sym);
 
       /* push dummy Symbol with start state to get us underway */
-      stack.removeAllElements();
-      stack.push(new Symbol(0, start_state()));
+      stack.clear();
+      stack.push(start_state(), 0, null, 0, 0);
       tos = 0;
 
       /* continue until we are told to stop */
@@ -739,7 +1039,7 @@ public abstract class lr_parser {
 	  //debug_stack();
 
 	  /* look up action out of the current state with the current input */
-	  act = get_action(((Symbol)stack.peek()).parse_state, cur_token.sym);
+	  act = get_action(stack.top_state(), cur_token.sym);
 
 	  /* decode the action -- > 0 encodes shift */
 	  if (act > 0)
@@ -748,7 +1048,7 @@ public abstract class lr_parser {
 	      cur_token.parse_state = act-1;
 	      cur_token.used_by_parser = true;
 	      debug_shift(cur_token);
-	      stack.push(cur_token);
+	      stack.push(act-1, cur_token);
 	      tos++;
 
 	      /* advance to the next Symbol */
@@ -759,7 +1059,7 @@ public abstract class lr_parser {
 	  else if (act < 0)
 	    {
 	      /* perform the action for the reduce */
-	      lhs_sym = do_action((-act)-1, this, stack, tos);
+	      lhs_val = do_action((-act)-1, this, stack, tos);
 
 	      /* look up information about the production */
 	      lhs_sym_num = production_tab[(-act)-1][0];
@@ -767,25 +1067,29 @@ public abstract class lr_parser {
 
 	      debug_reduce((-act)-1, lhs_sym_num, handle_size);
 
+	      /* the left hand side spans the handle (or is empty, at its end) */
+	      lhs_right = stack.right(tos);
+	      lhs_left  = (handle_size == 0) ? lhs_right 
+					     : stack.left(tos-handle_size+1);
+
 	      /* pop the handle off the stack */
-	      for (int i = 0; i < handle_size; i++)
-		{
-		  stack.pop();
-		  tos--;
-		}
+	      stack.pop(handle_size);
+	      tos -= handle_size;
 	      
 	      /* look up the state to go to from the one popped back to */
-	      act = get_reduce(((Symbol)stack.peek()).parse_state, lhs_sym_num);
+	      act = get_reduce(stack.top_state(), lhs_sym_num);
 	      debug_message("# Reduce rule: top state " +
-			     ((Symbol)stack.peek()).parse_state +
+			     stack.top_state() +
 			     ", lhs sym " + lhs_sym_num + " -> state " + act); 
 
 	      /* shift to that state */
-	      lhs_sym.parse_state = act;
-	      lhs_sym.used_by_parser = true;
-	      stack.push(lhs_sym);
+	      stack.push(act, lhs_sym_num, lhs_val, lhs_left, lhs_right);
 	      tos++;
 
+	      /* hand the non terminal over, if it is one the listener wants */
+	      if (reduce_listener != null)
+		notify_reduce(lhs_sym_num, lhs_val, lhs_left, lhs_right);
+
 	      debug_message("# Goto state #" + act);
 	    }
 	  /* finally if the entry is zero, we have an error */
@@ -802,12 +1106,13 @@ public abstract class lr_parser {
 
 		  /* just in case that wasn't fatal enough, end parse */
 		  done_parsing();
-		} else {
-		  lhs_sym = (Symbol)stack.peek();
 		}
 	    }
 	}
-      return lhs_sym;
+
+      /* the result is the left hand side of the last reduce (or of the
+	 error recovery), on the top of the stack */
+      return stack.empty() ? null : stack.symbol(tos);
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
@@ -898,7 +1203,7 @@ public abstract class lr_parser {
   protected boolean shift_under_error()
     {
       /* is there a shift under error Symbol */
-      return get_action(((Symbol)stack.peek()).parse_state, error_sym()) > 0;
+      return get_action(stack.top_state(), error_sym()) > 0;
     }
 
   /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
@@ -912,14 +1217,13 @@ public abstract class lr_parser {
    */
   protected boolean find_recovery_config(boolean debug)
     {
-      Symbol error_token;
       int act;
 
       if (debug) debug_message("# Finding recovery state on stack");
 
       /* Remember the right-position of the top symbol on the stack */
-      int right_pos = ((Symbol)stack.peek()).right;
-      int left_pos  = ((Symbol)stack.peek()).left;
+      int right_pos = stack.right(tos);
+      int left_pos  = stack.left(tos);
 
       /* pop down until we can shift under error Symbol */
       while (!shift_under_error())
@@ -927,8 +1231,9 @@ public abstract class lr_parser {
 	  /* pop the stack */
 	  if (debug) 
 	    debug_message("# Pop stack by one, state was # " +
-	                  ((Symbol)stack.peek()).parse_state);
-          left_pos = ((Symbol)stack.pop()).left;	
+	                  stack.top_state());
+          left_pos = stack.left(tos);
+	  stack.pop();
 	  tos--;
 
 	  /* if we have hit bottom, we fail */
@@ -940,19 +1245,16 @@ public abstract class lr_parser {
 	}
 
       /* state on top of the stack can shift under error, find the shift */
-      act = get_action(((Symbol)stack.peek()).parse_state, error_sym());
+      act = get_action(stack.top_state(), error_sym());
       if (debug) 
 	{
 	  debug_message("# Recover state found (#" + 
-			((Symbol)stack.peek()).parse_state + ")");
+			stack.top_state() + ")");
 	  debug_message("# Shifting on error to state #" + (act-1));
 	}
 
-      /* build and shift a special error Symbol */
-      error_token = new Symbol(error_sym(), left_pos, right_pos);
-      error_token.parse_state = act-1;
-      error_token.used_by_parser = true;
-      stack.push(error_token);
+      /* shift the special error Symbol */
+      stack.push(act-1, error_sym(), null, left_pos, right_pos);
       tos++;
 
       return true;
@@ -1117,12 +1419,15 @@ public abstract class lr_parser {
       /* the current action code */
       int act;
 
-      /* the Symbol/stack element returned by a reduce */
-      Symbol lhs_sym = null;
+      /* the value returned by a reduce */
+      Object lhs_val;
 
       /* information about production being reduced with */
       short handle_size, lhs_sym_num;
 
+      /* the positions of the handle being reduced */
+      int lhs_left, lhs_right;
+
       /* restart the saved input at the beginning */
       lookahead_pos = 0;
 
@@ -1131,7 +1436,7 @@ public abstract class lr_parser {
 	  debug_message("# Reparsing saved input with actions");
 	  debug_message("# Current Symbol is #" + cur_err_token().sym);
 	  debug_message("# Current state is #" + 
-			((Symbol)stack.peek()).parse_state);
+			stack.top_state());
 	}
 
       /* continue until we accept or have read all lookahead input */
@@ -1141,7 +1446,7 @@ public abstract class lr_parser {
 
 	  /* look up action out of the current state with the current input */
 	  act = 
-	    get_action(((Symbol)stack.peek()).parse_state, cur_err_token().sym);
+	    get_action(stack.top_state(), cur_err_token().sym);
 
 	  /* decode the action -- > 0 encodes shift */
 	  if (act > 0)
@@ -1150,7 +1455,7 @@ public abstract class lr_parser {
 	      cur_err_token().parse_state = act-1;
 	      cur_err_token().used_by_parser = true;
 	      if (debug) debug_shift(cur_err_token());
-	      stack.push(cur_err_token());
+	      stack.push(act-1, cur_err_token());
 	      tos++;
 
 	      /* advance to the next Symbol, if there is none, we are done */
@@ -1175,7 +1480,7 @@ public abstract class lr_parser {
 	  else if (act < 0)
 	    {
 	      /* perform the action for the reduce */
-	      lhs_sym = do_action((-act)-1, this, stack, tos);
+	      lhs_val = do_action((-act)-1, this, stack, tos);
 
 	      /* look up information about the production */
 	      lhs_sym_num = production_tab[(-act)-1][0];
@@ -1183,21 +1488,25 @@ public abstract class lr_parser {
 
 	      if (debug) debug_reduce((-act)-1, lhs_sym_num, handle_size);
 
+	      /* the left hand side spans the handle (or is empty, at its end) */
+	      lhs_right = stack.right(tos);
+	      lhs_left  = (handle_size == 0) ? lhs_right 
+					     : stack.left(tos-handle_size+1);
+
 	      /* pop the handle off the stack */
-	      for (int i = 0; i < handle_size; i++)
-		{
-		  stack.pop();
-		  tos--;
-		}
+	      stack.pop(handle_size);
+	      tos -= handle_size;
 	      
 	      /* look up the state to go to from the one popped back to */
-	      act = get_reduce(((Symbol)stack.peek()).parse_state, lhs_sym_num);
+	      act = get_reduce(stack.top_state(), lhs_sym_num);
 
 	      /* shift to that state */
-	      lhs_sym.parse_state = act;
-	      lhs_sym.used_by_parser = true;
-	      stack.push(lhs_sym);
+	      stack.push(act, lhs_sym_num, lhs_val, lhs_left, lhs_right);
 	      tos++;
+
+	      /* hand the non terminal over, if it is one the listener wants */
+	      if (reduce_listener != null)
+		notify_reduce(lhs_sym_num, lhs_val, lhs_left, lhs_right);
 	       
 	      if (debug) debug_message("# Goto state #" + act);
 
@@ -1206,7 +1515,7 @@ public abstract class lr_parser {
 	     (shouldn't happen here, but...)*/
 	  else if (act == 0)
 	    {
-	      report_fatal_error("Syntax error", lhs_sym);
+	      report_fatal_error("Syntax error", stack.symbol(tos));
 	      return;
 	    }
 	}
@@ -1219,18 +1528,26 @@ public abstract class lr_parser {
   /** Utility function: unpacks parse tables from strings */
   protected static short[][] unpackFromStrings(String[] sa)
     {
-      // Concatanate initialization strings.
-      StringBuffer sb = new StringBuffer(sa[0]);
-      for (int i=1; i<sa.length; i++)
-	sb.append(sa[i]);
+      // Concatanate initialization strings (into one array of chars,
+      // which is decoded without any further copying or locking).
+      int length = 0;
+      for (int i=0; i<sa.length; i++)
+	length += sa[i].length();
+      char[] sb = new char[length];
+      length = 0;
+      for (int i=0; i<sa.length; i++) {
+	sa[i].getChars(0, sa[i].length(), sb, length);
+	length += sa[i].length();
+      }
       int n=0; // location in initialization string
-      int size1 = (((int)sb.charAt(n))<<16) | ((int)sb.charAt(n+1)); n+=2;
+      int size1 = (((int)sb[n])<<16) | ((int)sb[n+1]); n+=2;
       short[][] result = new short[size1][];
       for (int i=0; i<size1; i++) {
-        int size2 = (((int)sb.charAt(n))<<16) | ((int)sb.charAt(n+1)); n+=2;
-        result[i] = new short[size2];
+        int size2 = (((int)sb[n])<<16) | ((int)sb[n+1]); n+=2;
+        short[] row = new short[size2];
         for (int j=0; j<size2; j++)
-          result[i][j] = (short) (sb.charAt(n++)-2);
+          row[j] = (short) (sb[n++]-2);
+        result[i] = row;
       }
       return result;
     }
@@ -0,0 +1,203 @@
+
+package java_cup.runtime;
+
+/** This class implements the parse stack of an lr_parser.  Rather than a
+ *  stack of Symbol objects each recording its parse state, it keeps a set
+ *  of parallel arrays indexed by stack position: the parse state, and the
+ *  Symbol number, value and left and right positions of the terminal or
+ *  non terminal in that position.  Nothing is allocated for a shift or a
+ *  reduce (the arrays double in size when they fill), and unlike
+ *  java.util.Stack none of the operations are synchronized.  Generated
+ *  action code reads the values and positions of the right hand side of
+ *  the production being reduced with value(), left() and right(), indexed
+ *  down from the top of the stack.
+ *
+ * @see     java_cup.runtime.lr_parser
+ * @see     java_cup.runtime.virtual_parse_stack
+ */
+
+public final class parse_stack {
+  /*-----------------------------------------------------------*/
+  /*--- Constructor(s) ----------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Constructor for an empty stack. */
+  public parse_stack()
+    {
+      this(64);
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Constructor for an empty stack with room for a given number of
+   *  elements before it has to grow.
+   *
+   * @param capacity the initial capacity (at least 1).
+   */
+  public parse_stack(int capacity)
+    {
+      if (capacity < 1) capacity = 1;
+      states = new int[capacity];
+      syms   = new int[capacity];
+      values = new Object[capacity];
+      lefts  = new int[capacity];
+      rights = new int[capacity];
+      size   = 0;
+    }
+
+  /*-----------------------------------------------------------*/
+  /*--- (Access to) Instance Variables ------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** The parse state of each element. */
+  private int[] states;
+
+  /** The Symbol number of each element. */
+  private int[] syms;
+
+  /** The value of each element. */
+  private Object[] values;
+
+  /** The left position of each element. */
+  private int[] lefts;
+
+  /** The right position of each element. */
+  private int[] rights;
+
+  /** The number of elements on the stack. */
+  private int size;
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** The number of elements on the stack. */
+  public int size() { return size; }
+
+  /** Indicate whether the stack is empty. */
+  public boolean empty() { return size == 0; }
+
+  /** The parse state of the element at a given index. */
+  public int state(int index) { return states[index]; }
+
+  /** The Symbol number of the element at a given index. */
+  public int sym(int index) { return syms[index]; }
+
+  /** The value of the element at a given index. */
+  public Object value(int index) { return values[index]; }
+
+  /** The left position of the element at a given index. */
+  public int left(int index) { return lefts[index]; }
+
+  /** The right position of the element at a given index. */
+  public int right(int index) { return rights[index]; }
+
+  /** The parse state on the top of the stack. */
+  public int top_state() { return states[size-1]; }
+
+  /*-----------------------------------------------------------*/
+  /*--- General Methods ---------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Push an element onto the stack.
+   *
+   * @param state the parse state to go to.
+   * @param sym   the Symbol number of the terminal or non terminal.
+   * @param value its value.
+   * @param left  its left position.
+   * @param right its right position.
+   */
+  public void push(int state, int sym, Object value, int left, int right)
+    {
+      if (size == states.length) grow();
+      states[size] = state;
+      syms[size]   = sym;
+      values[size] = value;
+      lefts[size]  = left;
+      rights[size] = right;
+      size++;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Push a Symbol from the input onto the stack.
+   *
+   * @param state the parse state to go to.
+   * @param s     the Symbol.
+   */
+  public void push(int state, Symbol s)
+    {
+      push(state, s.sym, s.value, s.left, s.right);
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Pop the top element off the stack. */
+  public void pop()
+    {
+      values[--size] = null;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Pop a number of elements off the stack.
+   *
+   * @param count the number of elements to pop.
+   */
+  public void pop(int count)
+    {
+      for (int i = 0; i < count; i++)
+	values[--size] = null;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Remove all the elements from the stack. */
+  public void clear()
+    {
+      while (size > 0)
+	values[--size] = null;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Make a Symbol (recording its parse state) for the element at a given
+   *  index, such as the result returned by the parser.
+   *
+   * @param index the index of the element.
+   */
+  public Symbol symbol(int index)
+    {
+      Symbol s = new Symbol(syms[index], lefts[index], rights[index],
+			    values[index]);
+      s.parse_state = states[index];
+      s.used_by_parser = true;
+      return s;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Double the capacity of the stack. */
+  private void grow()
+    {
+      int capacity = states.length * 2;
+      states = copy(states, capacity);
+      syms   = copy(syms, capacity);
+      lefts  = copy(lefts, capacity);
+      rights = copy(rights, capacity);
+      Object[] new_values = new Object[capacity];
+      System.arraycopy(values, 0, new_values, 0, size);
+      values = new_values;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Copy an int array into a larger one. */
+  private int[] copy(int[] from, int capacity)
+    {
+      int[] to = new int[capacity];
+      System.arraycopy(from, 0, to, 0, size);
+      return to;
+    }
+
+  /*-----------------------------------------------------------*/
+
+}
@@ -0,0 +1,45 @@
+/* Cymbal Compiler
+   CompactTokenSource.java
+
+   Tokens as an int kind, line and offset, read from the scanner's
+   fields instead of a Symbol per token
+*/
+
+package lexer;
+
+import java.io.IOException;
+
+/** The <tt>CompactTokenSource</tt> interface is implemented by scanners
+  * that can hand out their tokens without making an object for each:
+  * <tt>nextKind</tt> scans the next token and returns its kind, and the
+  * token's line, offset and lexeme are then read from the scanner, until
+  * the next call.  A lexeme is only made into a string for a token whose
+  * lexeme is not fixed (a string constant, or an error message) and only
+  * when it is asked for; the others are shared constants.  The tokens are
+  * those that <tt>next_token</tt> returns (which makes the
+  * <tt>Symbol</tt> the generated parser needs from these same fields).
+  * */
+public interface CompactTokenSource extends TokenSource {
+    /** scan the next token
+      * @return the kind of the token (from TokenIds; EOF, again and
+      *         again, at the end of the input)
+      * @throws IOException if the input cannot be read
+      * */
+    int nextKind() throws IOException;
+
+    /** getter method for accessing the line of the last token
+      * @return line of the token (its Symbol's <tt>left</tt>)
+      * */
+    int getTokenLine();
+
+    /** getter method for accessing the offset of the last token
+      * @return offset of the token in its file (its Symbol's <tt>right</tt>)
+      * */
+    int getTokenOffset();
+
+    /** getter method for accessing the lexeme of the last token
+      * @return the lexeme (its Symbol's value), or null for a token
+      *         without one (a keyword, or EOF)
+      * */
+    String getLexeme();
+}
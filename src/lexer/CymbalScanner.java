@@ -0,0 +1,646 @@
+/* Cymbal Compiler
+   CymbalScanner.java
+
+   Hand-written scanner for Cymbal, an alternative to the lexer that
+   JLex generates from lexer.jlex
+*/
+
+package lexer;
+
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/** The <tt>CymbalScanner</tt> class scans Cymbal sources with code written
+  * for Cymbal's few tokens (a switch on the first character, then a
+  * direct comparison with the keyword or number it can start), instead
+  * of the generic automaton that JLex generates, which looks up two
+  * tables and makes a method call for every character.
+  * <p/>
+  * It returns exactly the tokens that <tt>Lexer</tt> returns, with the
+  * same lines and offsets, the same errors, the same handling of several
+  * files (each opened only when it is reached) and of unterminated
+  * strings and comments; <tt>ScannerCheck</tt> compares the two.  Only
+  * input on which the generated lexer fails with an exception (a
+  * character beyond ASCII) is reported here as an unrecognized character
+  * instead.
+  * <p/>
+  * Tokens are scanned into the scanner's fields (kind, line, offset and
+  * lexeme), so a parser that reads them through <tt>nextKind</tt> gets
+  * them without an object per token; <tt>next_token</tt> makes a
+  * <tt>Symbol</tt> of them for the generated parser.
+  * */
+public class CymbalScanner implements CompactTokenSource {
+    /** size of the character buffer */
+    private static final int BUFFER_SIZE = 1 << 14;
+    /** maximum string size allowed */
+    private static final int MAX_STRING_SIZE = 5000;
+
+    /** what the scanning methods return when they have no token (as
+      * at the end of a source that is not the last) */
+    private static final int NONE = -1;
+
+    /** lexical states (as in lexer.jlex) */
+    private static final int YYINITIAL = 0;
+    private static final int YYINSTRING = 1;
+    private static final int YYSTR_ESCAPE = 2;
+    private static final int YYMLCOMMENT = 3;
+
+    /** boolean indicating whether debugging is enabled */
+    private boolean debug;
+    /** names of the sources */
+    private String[] filenames;
+    /** reader given for each source (null for a file that the scanner
+      * opens itself when it gets to it)
+      * */
+    private Reader[] readers;
+    /** index of the source being scanned */
+    private int fileCnt = 0;
+
+    /** bytes of the source being scanned, if it is mapped into memory */
+    private ByteBuffer bytes;
+    /** reader of the source being scanned, if it is not mapped */
+    private Reader reader;
+    /** reader for the source being scanned, if the scanner opened it */
+    private Reader openedReader;
+    /** block that mapped bytes are copied through */
+    private byte[] byteBlock;
+    /** whether the source has no more characters to give */
+    private boolean atEnd;
+
+    /** characters of the source, buffer[pos..limit) not yet scanned */
+    private char[] buffer = new char[BUFFER_SIZE];
+    /** index of the next character to scan */
+    private int pos = 0;
+    /** number of characters in the buffer */
+    private int limit = 0;
+    /** offset in the source of buffer[0] */
+    private int bufferOffset = 0;
+
+    /** current lexical state */
+    private int state = YYINITIAL;
+    /** line of the next character to scan */
+    private int line = 1;
+    /** whether the last character scanned was a '\r' (so that a '\n'
+      * after it does not start another line)
+      * */
+    private boolean lastWasCr = false;
+    /** line at the start of the last token (or skipped text) */
+    private int tokenLine = 1;
+    /** offset in the source of the start of the last token */
+    private int tokenOffset = 0;
+    /** lexeme of the last token (null for a keyword, or for a string
+      * constant whose string has not been made yet) */
+    private String lexeme = null;
+    /** whether the last token is a string constant, whose lexeme is made
+      * from currStringConst when it is asked for */
+    private boolean lexemeInBuilder = false;
+    /** holds the current string constant (one builder is reused for every string) */
+    private StringBuilder currStringConst = new StringBuilder();
+    /** number of tokens returned so far (EOF counted once, though the
+      * parser reads it again before it accepts) */
+    private int numTokens = 0;
+    /** whether the last token returned was EOF */
+    private boolean atEof = false;
+
+    /** CymbalScanner constructor
+      * @param filenames list of filename strings
+      * @param debug boolean indicating whether debugging is enabled
+      * */
+    public CymbalScanner(String[] filenames, boolean debug) {
+	this(filenames, new Reader[filenames.length], debug);
+    }
+
+    /** CymbalScanner constructor - scans sources that are already open
+      * (e.g., strings handed to the compiler API, or standard input)
+      * @param filenames names of the sources (used in error messages)
+      * @param readers one reader for each source (a null reader opens
+      *        the file of that name)
+      * @param debug boolean indicating whether debugging is enabled
+      * */
+    public CymbalScanner(String[] filenames, Reader[] readers, boolean debug) {
+	this.debug = debug;
+	this.filenames = filenames;
+	this.readers = readers;
+	if (filenames.length == 0)
+	    throw new RuntimeException("Must specify at least one filename to scan");
+
+	// as in the lexer, files are only opened when they are reached, but
+	// a missing file is reported before anything is scanned
+	for (int i = 0; i < readers.length; i++) {
+	    if (readers[i] == null)
+		Lexer.checkFile(filenames[i]);
+	}
+	switchInput(0);
+    }
+
+    /** getter method for accessing the current line number
+      * @return line number at the start of the last token
+      * */
+    public int getCurrLineNum() {
+	return tokenLine;
+    }
+
+    /** getter method for accessing the current file name
+      * @return current filename string
+      * */
+    public String getCurrFilename() {
+	return filenames[fileCnt];
+    }
+
+    /** getter method for accessing the number of tokens returned
+      * @return number of tokens returned so far (including EOF, once)
+      * */
+    public int getTokenCount() {
+	return numTokens;
+    }
+
+    /** getter method for accessing the line of the last token
+      * @return line at the start of the last token
+      * */
+    public int getTokenLine() {
+	return tokenLine;
+    }
+
+    /** getter method for accessing the offset of the last token
+      * @return offset of the start of the last token in its source
+      * */
+    public int getTokenOffset() {
+	return tokenOffset;
+    }
+
+    /** getter method for accessing the lexeme of the last token
+      * @return the lexeme (null for a keyword or EOF)
+      * */
+    public String getLexeme() {
+	if (lexemeInBuilder) {
+	    lexeme = currStringConst.toString();
+	    lexemeInBuilder = false;
+	}
+	return lexeme;
+    }
+
+    /** return the next token
+      * @return the next token (EOF, again and again, once every source
+      *         has been scanned)
+      * @throws IOException if a source cannot be read
+      * */
+    public Symbol next_token() throws IOException {
+	int kind = nextKind();
+	return new Symbol(kind, tokenLine, tokenOffset, getLexeme());
+    }
+
+    /** scan the next token into the scanner's fields
+      * @return the kind of the token (EOF, again and again, once every
+      *         source has been scanned)
+      * @throws IOException if a source cannot be read
+      * */
+    public int nextKind() throws IOException {
+	int kind = scan();
+	if (kind != TokenIds.EOF || !atEof)
+	    numTokens++;
+	atEof = (kind == TokenIds.EOF);
+	return kind;
+    }
+
+    /** scan the next token (for nextKind)
+      * @return the kind of the token
+      * @throws IOException if a source cannot be read
+      * */
+    private int scan() throws IOException {
+	lexemeInBuilder = false;
+	while (true) {
+	    tokenLine = line;
+	    tokenOffset = bufferOffset + pos;
+	    if (pos >= limit && !ensure(1)) {
+		int kind = endOfFile();
+		if (kind != NONE)
+		    return kind;
+		continue;
+	    }
+	    switch (state) {
+	    case YYINSTRING:
+	    case YYSTR_ESCAPE: {
+		int kind = scanString();
+		if (kind != NONE)
+		    return kind;
+		continue;
+	    }
+	    case YYMLCOMMENT:
+		scanComment();
+		continue;
+	    default:
+		break;
+	    }
+
+	    char c = buffer[pos];
+	    switch (c) {
+	    case ' ': case '\t': case '\f':
+		pos++;
+		lastWasCr = false;
+		continue;
+	    case '\n': case '\r':
+		pos++;
+		newLine(c);
+		continue;
+	    }
+	    lastWasCr = false;
+	    switch (c) {
+	    case '/':
+		if (peek(1) == '/') {
+		    skipLineComment();
+		    continue;
+		}
+		if (peek(1) == '*') {
+		    pos += 2;
+		    state = YYMLCOMMENT;
+		    continue;
+		}
+		return error();
+	    case '"':
+		pos++;
+		currStringConst.setLength(0);
+		state = YYINSTRING;
+		continue;
+	    case 'A': case 'B': case 'C': case 'D': case 'F': case 'G':
+		return token(TokenIds.NOTE, Lexer.CHAR_LEXEMES[c], 1);
+	    case 'E':
+		if (matches("Eighth"))
+		    return token(TokenIds.LENGTH, "Eighth", 6);
+		return token(TokenIds.NOTE, Lexer.CHAR_LEXEMES[c], 1);
+	    case '0': case '1': case '2': case '3': case '4': case '5':
+	    case '6': case '7': case '8': case '9':
+		return number(c);
+	    case '#': case 'b': case '+': case '-':
+		return token(c == '#' || c == 'b' ? TokenIds.ACCIDENTAL : TokenIds.OCTAVEMODVAL,
+			     Lexer.CHAR_LEXEMES[c], 1);
+	    case '(':
+		return token(TokenIds.LPAREN, "(", 1);
+	    case ')':
+		return token(TokenIds.RPAREN, ")", 1);
+	    case '{':
+		return token(TokenIds.LBRACE, "{", 1);
+	    case '}':
+		return token(TokenIds.RBRACE, "}", 1);
+	    case 'S':
+		if (matches("Song"))
+		    return token(TokenIds.SONG, null, 4);
+		break;
+	    case 'P':
+		if (matches("Phrase"))
+		    return token(TokenIds.PHRASE, null, 6);
+		break;
+	    case 'O':
+		if (matches("Octave"))
+		    return token(TokenIds.OCTAVE, null, 6);
+		break;
+	    case 'R':
+		if (matches("Rest"))
+		    return token(TokenIds.REST, "Rest", 4);
+		if (matches("Repeat"))
+		    return token(TokenIds.REPEAT, null, 6);
+		break;
+	    case 'V':
+		if (matches("Volume"))
+		    return token(TokenIds.VOLUME, null, 6);
+		break;
+	    case 'T':
+		if (matches("Tempo"))
+		    return token(TokenIds.TEMPO, null, 5);
+		break;
+	    case 'I':
+		if (matches("Instrument"))
+		    return token(TokenIds.INSTRUMENT, null, 10);
+		break;
+	    case 'Q':
+		if (matches("Quarter"))
+		    return token(TokenIds.LENGTH, "Quarter", 7);
+		break;
+	    case 'H':
+		if (matches("Half"))
+		    return token(TokenIds.LENGTH, "Half", 4);
+		break;
+	    case 'W':
+		if (matches("Whole"))
+		    return token(TokenIds.LENGTH, "Whole", 5);
+		break;
+	    case 'p':
+		if (matches("piano"))
+		    return token(TokenIds.VOLUMEWORD, "piano", 5);
+		break;
+	    case 'd':
+		if (matches("default"))
+		    return token(TokenIds.VOLUMEWORD, "default", 7);
+		break;
+	    case 'f':
+		if (matches("forte"))
+		    return token(TokenIds.VOLUMEWORD, "forte", 5);
+		break;
+	    case 'm':
+		if (matches("mesopiano"))
+		    return token(TokenIds.VOLUMEWORD, "mesopiano", 9);
+		if (matches("mesoforte"))
+		    return token(TokenIds.VOLUMEWORD, "mesoforte", 9);
+		break;
+	    }
+	    return error();
+	}
+    }
+
+    /** take a token that starts at the current position and move past it
+      * @param kind kind of token (from TokenIds)
+      * @param lexeme the lexeme (null for a keyword)
+      * @param length number of characters in the token
+      * @return the kind of token
+      * */
+    private int token(int kind, String lexeme, int length) {
+	pos += length;
+	this.lexeme = lexeme;
+	return kind;
+    }
+
+    /** take a token that has already been moved past
+      * @param kind kind of token (from TokenIds)
+      * @param lexeme the lexeme (null for a keyword or EOF)
+      * @return the kind of token
+      * */
+    private int token(int kind, String lexeme) {
+	return token(kind, lexeme, 0);
+    }
+
+    /** take the error for an unrecognized character and move past it
+      * @return the kind of token
+      * */
+    private int error() {
+	char c = buffer[pos];
+	return token(TokenIds.LEX_ERROR, "Unrecognized character: " + c, 1);
+    }
+
+    /** scan a tempo constant (60-129) or else an octave (0-7), or report
+      * an unrecognized digit
+      * @param c the first digit
+      * @return the kind of token
+      * */
+    private int number(char c) throws IOException {
+	int next = peek(1);
+	if (c == '1' && next >= '0' && next <= '2' && isDigit(peek(2)))
+	    return token(TokenIds.TEMPOINTCONST,
+			 Lexer.TEMPO_LEXEMES[100 + (next - '0') * 10 + (peek(2) - '0')], 3);
+	if (c >= '6' && isDigit(next))
+	    return token(TokenIds.TEMPOINTCONST,
+			 Lexer.TEMPO_LEXEMES[(c - '0') * 10 + (next - '0')], 2);
+	if (c <= '7')
+	    return token(TokenIds.OCTAVEINTCONST, Lexer.CHAR_LEXEMES[c], 1);
+	return error();
+    }
+
+    /** scan the inside of a string constant up to the token that ends
+      * it (or that reports an error in it)
+      * @return the kind of token, or NONE at the end of the source
+      * */
+    private int scanString() throws IOException {
+	while (pos < limit || ensure(1)) {
+	    char c = buffer[pos];
+	    if (state == YYSTR_ESCAPE) {
+		tokenLine = line;
+		tokenOffset = bufferOffset + pos;
+		pos++;
+		state = YYINSTRING;
+		if (c == 'n' || c == 't' || c == 'f' || c == '\\' || c == '"') {
+		    lastWasCr = false;
+		    currStringConst.append('\\').append(c);
+		    continue;
+		}
+		newLine(c);
+		return token(TokenIds.LEX_ERROR, "Unrecognized escape character in string");
+	    }
+	    switch (c) {
+	    case '"':
+		tokenLine = line;
+		tokenOffset = bufferOffset + pos;
+		pos++;
+		lastWasCr = false;
+		state = YYINITIAL;
+		if (currStringConst.length() > MAX_STRING_SIZE)
+		    return token(TokenIds.LEX_ERROR, "String too long");
+		// (the string is made only if the lexeme is asked for)
+		lexemeInBuilder = true;
+		return token(TokenIds.STRING_CONST, null);
+	    case '\\':
+		pos++;
+		lastWasCr = false;
+		state = YYSTR_ESCAPE;
+		break;
+	    case '\n':
+		tokenLine = line;
+		tokenOffset = bufferOffset + pos;
+		pos++;
+		newLine(c);
+		state = YYINITIAL;
+		return token(TokenIds.LEX_ERROR, "Unterminated or Multi-line string");
+	    case '\r':
+		// no rule of the lexer matches a '\r' in a string
+		throw new Error("Lexical Error: Unmatched Input.");
+	    default:
+		pos++;
+		lastWasCr = false;
+		currStringConst.append(c);
+		break;
+	    }
+	}
+	return NONE;
+    }
+
+    /** skip a multi-line comment, up to and including its end */
+    private void scanComment() throws IOException {
+	while (pos < limit || ensure(1)) {
+	    char c = buffer[pos];
+	    if (c == '*' && peek(1) == '/') {
+		pos += 2;
+		lastWasCr = false;
+		state = YYINITIAL;
+		return;
+	    }
+	    pos++;
+	    newLine(c);
+	}
+    }
+
+    /** skip a comment up to the end of the line (not including the line
+      * terminator)
+      * */
+    private void skipLineComment() throws IOException {
+	pos += 2;
+	while (pos < limit || ensure(1)) {
+	    char c = buffer[pos];
+	    if (c == '\n' || c == '\r')
+		return;
+	    pos++;
+	}
+    }
+
+    /** count a character that has been scanned towards the line number
+      * (as the lexer does: "\r", "\n" and "\r\n" each end a line)
+      * @param c the character
+      * */
+    private void newLine(char c) {
+	if (c == '\n') {
+	    if (!lastWasCr)
+		line++;
+	    lastWasCr = false;
+	}
+	else if (c == '\r') {
+	    line++;
+	    lastWasCr = true;
+	}
+	else
+	    lastWasCr = false;
+    }
+
+    /** handle the end of a source: report an unterminated comment, or go
+      * on to the next source, or return EOF
+      * @return the kind of token, or NONE to go on scanning the next source
+      * */
+    private int endOfFile() throws IOException {
+	if (state == YYMLCOMMENT) {
+	    state = YYINITIAL;
+	    return token(TokenIds.LEX_ERROR, "Unterminated multi-line comment");
+	}
+	closeInput();
+	if (fileCnt < filenames.length - 1) {
+	    fileCnt++;
+	    switchInput(fileCnt);
+	    line = 1;
+	    return NONE;
+	}
+	return token(TokenIds.EOF, null);
+    }
+
+    /** check whether the text at the current position starts with a word
+      * @param word the word
+      * @return true if it does
+      * */
+    private boolean matches(String word) throws IOException {
+	int length = word.length();
+	if (limit - pos < length && !ensure(length))
+	    return false;
+	for (int i = 1; i < length; i++) {
+	    if (buffer[pos + i] != word.charAt(i))
+		return false;
+	}
+	return true;
+    }
+
+    /** get a character ahead of the current position
+      * @param ahead how far ahead (0 for the current character)
+      * @return the character, or -1 past the end of the source
+      * */
+    private int peek(int ahead) throws IOException {
+	if (limit - pos <= ahead && !ensure(ahead + 1))
+	    return -1;
+	return buffer[pos + ahead];
+    }
+
+    /** check whether a character (or -1) is a decimal digit
+      * @param c the character
+      * @return true if it is a digit
+      * */
+    private static boolean isDigit(int c) {
+	return c >= '0' && c <= '9';
+    }
+
+    /** make sure that a number of characters from the current position
+      * are in the buffer, reading more of the source if needed
+      * @param n number of characters needed
+      * @return true if there are that many (false only near the end of
+      *         the source)
+      * */
+    private boolean ensure(int n) throws IOException {
+	if (limit - pos >= n)
+	    return true;
+	// move the characters that have not been scanned to the front
+	int remaining = limit - pos;
+	System.arraycopy(buffer, pos, buffer, 0, remaining);
+	bufferOffset += pos;
+	pos = 0;
+	limit = remaining;
+	while (limit < n && !atEnd) {
+	    int space = buffer.length - limit;
+	    if (bytes != null) {
+		int count = Math.min(bytes.remaining(), space);
+		if (count == 0) {
+		    atEnd = true;
+		    break;
+		}
+		if (byteBlock == null)
+		    byteBlock = new byte[BUFFER_SIZE];
+		bytes.get(byteBlock, 0, count);
+		for (int i = 0; i < count; i++)
+		    buffer[limit + i] = (char) (byteBlock[i] & 0xff);
+		limit += count;
+	    }
+	    else {
+		int count = reader.read(buffer, limit, space);
+		if (count < 0)
+		    atEnd = true;
+		else
+		    limit += count;
+	    }
+	}
+	return limit >= n;
+    }
+
+    /** start scanning a source: a named file is mapped into memory if
+      * possible, otherwise it is opened and read through a reader
+      * @param index index of the source in filenames
+      * */
+    private void switchInput(int index) {
+	bytes = null;
+	reader = readers[index];
+	if (reader == null) {
+	    bytes = Lexer.mapFile(filenames[index]);
+	    if (bytes == null)
+		reader = openedReader = Lexer.openFile(filenames[index]);
+	}
+	atEnd = false;
+	pos = limit = bufferOffset = 0;
+    }
+
+    /** stop scanning the current source (only the end of it is seen
+      * from then on) and close it if the scanner opened it
+      * */
+    private void closeInput() throws IOException {
+	bytes = null;
+	reader = null;
+	atEnd = true;
+	bufferOffset += pos;
+	pos = limit = 0;
+	if (openedReader != null) {
+	    Reader done = openedReader;
+	    openedReader = null;
+	    done.close();
+	}
+    }
+
+    /** print tokens - used primarily for debugging the scanner
+      * (in the same format as Lexer.printTokens)
+      * @param out stream to print the tokens on
+      * */
+    public void printTokens(PrintStream out) throws IOException {
+	int prevFileCnt = -1;
+	while (true) {
+	    Symbol symbol = next_token();
+	    if (prevFileCnt != fileCnt) {
+		out.println("# " + filenames[fileCnt]);
+		prevFileCnt = fileCnt;
+	    }
+	    out.println(new Token(symbol));
+	    if (symbol.sym == TokenIds.EOF)
+		break;
+	}
+    }
+}
@@ -28,20 +28,21 @@
 /* code below is copied to the file containing the lexer */
 package lexer;
 import parser.TokenIds;
+import util.CompilationException;
 /* import Symbol class, which represents the symbols that are passed
    from the lexer to the parser.  Each symbol consists of an ID 
    and a token value, which is defined in Token.java */
 import java_cup.runtime.Symbol;
 
 
-public class Lexer implements java_cup.runtime.Scanner {
+public class Lexer implements TokenSource {
 	private final int YY_BUFFER_SIZE = 512;
 	private final int YY_F = -1;
 	private final int YY_NO_STATE = -1;
-	private final int YY_NOT_ACCEPT = 0;
-	private final int YY_START = 1;
-	private final int YY_END = 2;
-	private final int YY_NO_ANCHOR = 4;
+	private static final int YY_NOT_ACCEPT = 0;
+	private static final int YY_START = 1;
+	private static final int YY_END = 2;
+	private static final int YY_NO_ANCHOR = 4;
 	private final int YY_BOL = 128;
 	private final int YY_EOF = 129;
 
@@ -56,10 +57,16 @@ public class Lexer implements java_cup.runtime.Scanner {
       * (used only when multipleFiles is true)
       * */
     private String[] filenames;
-    /** array that holds the reader for each file we're lexing 
-      * (used only when multipleFiles is true)
+    /** array that holds the reader given for each source we're lexing
+      * (used only when multipleFiles is true; null for a file that the
+      * lexer opens itself when it gets to it)
+      * */
+    private java.io.Reader[] readers;
+    /** reader for the file being lexed, if the lexer opened it (closed
+      * as soon as the file has been lexed, so only one file is ever
+      * open at a time)
       * */
-    private java.io.BufferedReader[] fileReaders;
+    private java.io.Reader openedReader;
     /** current file number used to index filenames and fileReaders
       * (used only when multipleFiles is true)
       * */
@@ -70,6 +77,16 @@ public class Lexer implements java_cup.runtime.Scanner {
       * @param debug boolean indicating whether debugging is enabled
       * */
     public Lexer(String[] filenames, boolean debug) {
+	this(filenames, new java.io.Reader[filenames.length], debug);
+    }
+    /** Lexer constructor - lexes sources that are already open
+      * (e.g., strings handed to the compiler API, or standard input)
+      * @param filenames names of the sources (used in error messages)
+      * @param readers one reader for each source (a null reader opens
+      *        the file of that name)
+      * @param debug boolean indicating whether debugging is enabled
+      * */
+    public Lexer(String[] filenames, java.io.Reader[] readers, boolean debug) {
 	// call private constructor, which does some initialization
 	this();
 	this.debug = debug;
@@ -82,29 +99,203 @@ public class Lexer implements java_cup.runtime.Scanner {
 	// check that there is at least one specified filename
 	if (filenames.length == 0)
 	    throw new RuntimeException("Must specify at least one filename to scan");
-	// must initialize readers for each file (BufferedReader)
-	fileReaders = new java.io.BufferedReader[filenames.length];
-	for (int i = 0; i < filenames.length; i++) {
-	    // try...catch checks if file is found
-	    try {
-		// create the ith file reader
-		fileReaders[i] = new java.io.BufferedReader(new java.io.FileReader(filenames[i]));
-	    }
-	    catch(java.io.FileNotFoundException e) {
-		// if file not found then report an error and exit
-		System.err.println("Error: file '" + filenames[i] + "' not found");
-		System.exit(1);
-	    }
+	// files are only opened when the lexer gets to them, but check
+	// now that each one is there, so a missing file is still reported
+	// before anything is lexed
+	this.readers = readers;
+	for (int i = 0; i < readers.length; i++) {
+	    if (readers[i] == null)
+		checkFile(filenames[i]);
 	}
-	// set yy_reader (a JLex variable) to the first file reader
-	yy_reader = fileReaders[0];
+	// start scanning the first file
+	switchInput(0);
 	// set yyline to 1 (as opposed to 0)
 	yyline = 1;
     }
+    /** switch (a JLex method) to scanning the given source; a named
+      * file is mapped into memory if possible, otherwise it is opened
+      * and read through a reader
+      * @param index index of the source in filenames
+      * */
+    private void switchInput(int index) {
+	java.nio.ByteBuffer bytes = null;
+	java.io.Reader reader = readers[index];
+	if (reader == null) {
+	    bytes = mapFile(filenames[index]);
+	    if (bytes == null)
+		reader = openedReader = openFile(filenames[index]);
+	}
+	yy_switch_input(reader != null ? new java.io.BufferedReader(reader) : null, bytes);
+    }
+    /** stop scanning the current source (the lexer then only sees
+      * end-of-file) and close it if the lexer opened it
+      * */
+    private void closeInput() throws java.io.IOException {
+	yy_switch_input(null, java.nio.ByteBuffer.allocate(0));
+	if (openedReader != null) {
+	    java.io.Reader done = openedReader;
+	    openedReader = null;
+	    done.close();
+	}
+    }
+    /** check that a file can be opened
+      * @param filename name of the file
+      * */
+    static void checkFile(String filename) {
+	checkFile(filename, System.err);
+    }
+    /** check that a file can be opened, reporting a missing file on the
+      * given stream
+      * @param filename name of the file
+      * @param err stream to report a missing file on
+      * */
+    public static void checkFile(String filename, java.io.PrintStream err) {
+	java.io.File file = new java.io.File(filename);
+	if (!file.isFile() || !file.canRead())
+	    notFound(filename, err);
+    }
+    /** open a reader for a file
+      * @param filename name of the file
+      * @return reader for the file
+      * */
+    static java.io.Reader openFile(String filename) {
+	// try...catch checks if file is found
+	try {
+	    return new java.io.FileReader(filename);
+	}
+	catch(java.io.FileNotFoundException e) {
+	    notFound(filename, System.err);
+	    return null;
+	}
+    }
+    /** report a file that cannot be found and halt
+      * @param filename name of the file
+      * @param err stream to report it on
+      * */
+    private static void notFound(String filename, java.io.PrintStream err) {
+	err.println("Error: file '" + filename + "' not found");
+	throw new CompilationException("file '" + filename + "' not found");
+    }
+    /** map a file into memory so that its bytes are scanned directly,
+      * one character per byte, with no decoding or copying; only done
+      * for ASCII files (every Cymbal program is one), so the tokens are
+      * the same as from a reader
+      * @param filename name of the file
+      * @return the file's bytes, or null to read the file through a
+      *         reader (which also reports a missing file)
+      * */
+    static java.nio.ByteBuffer mapFile(String filename) {
+	try (java.nio.channels.FileChannel channel
+		 = java.nio.channels.FileChannel.open(java.nio.file.Paths.get(filename))) {
+	    long size = channel.size();
+	    if (size > Integer.MAX_VALUE)
+		return null;
+	    java.nio.ByteBuffer bytes
+		= channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, size);
+	    for (int i = 0; i < (int) size; i++) {
+		if (bytes.get(i) < 0)
+		    return null;
+	    }
+	    return bytes;
+	}
+	catch (java.io.IOException e) {
+	    return null;
+	}
+	catch (java.nio.file.InvalidPathException e) {
+	    return null;
+	}
+    }
     /** holds the current string constant
-      * note: we use StringBuffer so that appending does not require constructing a new object 
+      * note: we use StringBuilder so that appending does not require constructing a new object 
+      * (one builder is reused for every string)
+      * */
+    private StringBuilder currStringConst = new StringBuilder();
+
+    /** number of tokens returned so far (EOF counted once, though the
+      * parser reads it again before it accepts) */
+    private int numTokens = 0;
+    /** whether the last token returned was EOF */
+    private boolean atEof = false;
+    /** lexemes of the one-character tokens, indexed by the character
+      * (so that those tokens do not allocate a string each; shared with
+      * CymbalScanner)
+      * */
+    static final String[] CHAR_LEXEMES = new String[128];
+    /** lexemes of the tempo constants, indexed by value */
+    static final String[] TEMPO_LEXEMES = new String[130];
+    static {
+	for (char c = 0; c < CHAR_LEXEMES.length; c++)
+	    CHAR_LEXEMES[c] = String.valueOf(c).intern();
+	for (int i = 0; i < TEMPO_LEXEMES.length; i++)
+	    TEMPO_LEXEMES[i] = String.valueOf(i).intern();
+    }
+    /** make the symbol for a token that has no lexeme of its own (a
+      * keyword); the line and offset of the token are kept in the symbol
+      * (this lexer feeds the generated parser, whose parse stack needs a
+      * new Symbol for every token; <tt>CymbalScanner</tt> can give its
+      * tokens without, see <tt>CompactTokenSource</tt>)
+      * @param kind kind of token (from TokenIds)
+      * @return the symbol
+      * */
+    private Symbol token(int kind) {
+	if (kind != TokenIds.EOF || !atEof)
+	    numTokens++;
+	atEof = (kind == TokenIds.EOF);
+	return new Symbol(kind, yyline, yychar, null);
+    }
+    /** make the symbol for a token with a lexeme
+      * @param kind kind of token (from TokenIds)
+      * @param lexeme the lexeme (the symbol's value)
+      * @return the symbol
+      * */
+    private Symbol token(int kind, String lexeme) {
+	numTokens++;
+	return new Symbol(kind, yyline, yychar, lexeme);
+    }
+    /** get the lexeme of a one-character token without allocating
+      * @return the lexeme
+      * */
+    private String charLexeme() {
+	return CHAR_LEXEMES[yycharat(0)];
+    }
+    /** get the lexeme of a tempo constant (60-129) without allocating
+      * @return the lexeme
+      * */
+    private String tempoLexeme() {
+	int value = 0;
+	for (int i = 0; i < yylength(); i++)
+	    value = value * 10 + (yycharat(i) - '0');
+	return TEMPO_LEXEMES[value];
+    }
+    /** get the lexeme of a note length without allocating
+      * @return the lexeme
+      * */
+    private String lengthLexeme() {
+	switch (yycharat(0)) {
+	case 'Q': return "Quarter";
+	case 'H': return "Half";
+	case 'W': return "Whole";
+	default: return "Eighth";
+	}
+    }
+    /** get the lexeme of a volume word without allocating
+      * @return the lexeme
+      * */
+    private String volumeLexeme() {
+	switch (yycharat(0)) {
+	case 'p': return "piano";
+	case 'd': return "default";
+	case 'f': return "forte";
+	default: return (yycharat(4) == 'p' ? "mesopiano" : "mesoforte");
+	}
+    }
+    /** getter method for accessing the number of tokens returned
+      * @return number of tokens returned so far (including EOF, once)
       * */
-    private StringBuffer currStringConst;
+    public int getTokenCount() {
+	return numTokens;
+    }
+
     /** getter method for accessing the current line number
       * @return current line number
       * */
@@ -118,8 +309,9 @@ public class Lexer implements java_cup.runtime.Scanner {
 	return filenames[fileCnt];
     }
     /** print tokens - used primarily for debugging the lexer 
+      * @param out stream to print the tokens on
       * */
-    public void printTokens() throws java.io.IOException {
+    public void printTokens(java.io.PrintStream out) throws java.io.IOException {
 	// prevFileCnt is used to determine when the filename has changed
 	// every time an EOF is encountered fileCnt is incremented
 	// by testing fileCnt with prevFileCnt, we can determine when the
@@ -134,12 +326,12 @@ public class Lexer implements java_cup.runtime.Scanner {
 		// check if file has changed
 		if (prevFileCnt != fileCnt) {
 		    // if it has then print out the new filename
-		    System.out.println("# " + filenames[fileCnt]);
+		    out.println("# " + filenames[fileCnt]);
 		    // update prevFileCnt
 		    prevFileCnt = fileCnt;
 		}
 		// print out the token
-		System.out.println((Token)symbol.value);
+		out.println(new Token(symbol));
 		// if we've reached the EOF (EOF only returned for the last
 		// file) then we break out of loop
 		if (symbol.sym == TokenIds.EOF)
@@ -158,6 +350,7 @@ public class Lexer implements java_cup.runtime.Scanner {
 	private int yy_buffer_start;
 	private int yy_buffer_end;
 	private char yy_buffer[];
+	private java.nio.ByteBuffer yy_bytes;
 	private int yychar;
 	private int yyline;
 	private boolean yy_at_bol;
@@ -199,7 +392,7 @@ public class Lexer implements java_cup.runtime.Scanner {
 	private final int YYINITIAL = 0;
 	private final int YYMLCOMMENT = 3;
 	private final int YYINSTRING = 1;
-	private final int yy_state_dtrans[] = {
+	private static final int yy_state_dtrans[] = {
 		0,
 		107,
 		108,
@@ -214,6 +407,13 @@ public class Lexer implements java_cup.runtime.Scanner {
 		int i;
 		int j;
 
+		if (null != yy_bytes) {
+			if (yy_buffer_index < yy_buffer_read) {
+				return yy_bytes.get(yy_buffer_index++) & 0xff;
+			}
+			return YY_EOF;
+		}
+
 		if (yy_buffer_index < yy_buffer_read) {
 			return yy_buffer[yy_buffer_index++];
 		}
@@ -253,22 +453,25 @@ public class Lexer implements java_cup.runtime.Scanner {
 		}
 		return yy_buffer[yy_buffer_index++];
 	}
+	private int yy_char (int index) {
+		return (null != yy_bytes) ? (yy_bytes.get(index) & 0xff) : yy_buffer[index];
+	}
 	private void yy_move_end () {
 		if (yy_buffer_end > yy_buffer_start &&
-		    '\n' == yy_buffer[yy_buffer_end-1])
+		    '\n' == yy_char(yy_buffer_end-1))
 			yy_buffer_end--;
 		if (yy_buffer_end > yy_buffer_start &&
-		    '\r' == yy_buffer[yy_buffer_end-1])
+		    '\r' == yy_char(yy_buffer_end-1))
 			yy_buffer_end--;
 	}
 	private boolean yy_last_was_cr=false;
 	private void yy_mark_start () {
 		int i;
 		for (i = yy_buffer_start; i < yy_buffer_index; ++i) {
-			if ('\n' == yy_buffer[i] && !yy_last_was_cr) {
+			if ('\n' == yy_char(i) && !yy_last_was_cr) {
 				++yyline;
 			}
-			if ('\r' == yy_buffer[i]) {
+			if ('\r' == yy_char(i)) {
 				++yyline;
 				yy_last_was_cr=true;
 			} else yy_last_was_cr=false;
@@ -283,12 +486,19 @@ public class Lexer implements java_cup.runtime.Scanner {
 	private void yy_to_mark () {
 		yy_buffer_index = yy_buffer_end;
 		yy_at_bol = (yy_buffer_end > yy_buffer_start) &&
-		            ('\r' == yy_buffer[yy_buffer_end-1] ||
-		             '\n' == yy_buffer[yy_buffer_end-1] ||
-		             2028/*LS*/ == yy_buffer[yy_buffer_end-1] ||
-		             2029/*PS*/ == yy_buffer[yy_buffer_end-1]);
+		            ('\r' == yy_char(yy_buffer_end-1) ||
+		             '\n' == yy_char(yy_buffer_end-1) ||
+		             2028/*LS*/ == yy_char(yy_buffer_end-1) ||
+		             2029/*PS*/ == yy_char(yy_buffer_end-1));
 	}
 	private java.lang.String yytext () {
+		if (null != yy_bytes) {
+			char text[] = new char[yy_buffer_end - yy_buffer_start];
+			for (int i = 0; i < text.length; ++i) {
+				text[i] = (char) (yy_bytes.get(yy_buffer_start + i) & 0xff);
+			}
+			return (new java.lang.String(text));
+		}
 		return (new java.lang.String(yy_buffer,
 			yy_buffer_start,
 			yy_buffer_end - yy_buffer_start));
@@ -296,6 +506,9 @@ public class Lexer implements java_cup.runtime.Scanner {
 	private int yylength () {
 		return yy_buffer_end - yy_buffer_start;
 	}
+	private char yycharat (int pos) {
+		return (char) yy_char(yy_buffer_start + pos);
+	}
 	private char[] yy_double (char buf[]) {
 		int i;
 		char newbuf[];
@@ -305,6 +518,15 @@ public class Lexer implements java_cup.runtime.Scanner {
 		}
 		return newbuf;
 	}
+	private void yy_switch_input (java.io.BufferedReader reader,
+			java.nio.ByteBuffer bytes) {
+		yy_reader = reader;
+		yy_bytes = bytes;
+		yy_buffer_read = (null != bytes) ? bytes.limit() : 0;
+		yy_buffer_index = 0;
+		yy_buffer_start = 0;
+		yy_buffer_end = 0;
+	}
 	private final int YY_E_INTERNAL = 0;
 	private final int YY_E_MATCH = 1;
 	private java.lang.String yy_error_string[] = {
@@ -318,44 +540,25 @@ public class Lexer implements java_cup.runtime.Scanner {
 			throw new Error("Fatal Error.\n");
 		}
 	}
-	private int[][] unpackFromString(int size1, int size2, String st) {
-		int colonIndex = -1;
-		String lengthString;
+	private static int[][] unpackFromString(int size1, int size2, String st) {
+		int index = 0;
 		int sequenceLength = 0;
 		int sequenceInteger = 0;
 
-		int commaIndex;
-		String workString;
-
 		int res[][] = new int[size1][size2];
 		for (int i= 0; i < size1; i++) {
 			for (int j= 0; j < size2; j++) {
-				if (sequenceLength != 0) {
-					res[i][j] = sequenceInteger;
-					sequenceLength--;
-					continue;
-				}
-				commaIndex = st.indexOf(',');
-				workString = (commaIndex==-1) ? st :
-					st.substring(0, commaIndex);
-				st = st.substring(commaIndex+1);
-				colonIndex = workString.indexOf(':');
-				if (colonIndex == -1) {
-					res[i][j]=Integer.parseInt(workString);
-					continue;
+				if (sequenceLength == 0) {
+					sequenceLength = st.charAt(index++);
+					sequenceInteger = st.charAt(index++) - 1;
 				}
-				lengthString =
-					workString.substring(colonIndex+1);
-				sequenceLength=Integer.parseInt(lengthString);
-				workString=workString.substring(0,colonIndex);
-				sequenceInteger=Integer.parseInt(workString);
 				res[i][j] = sequenceInteger;
 				sequenceLength--;
 			}
 		}
 		return res;
 	}
-	private int yy_acpt[] = {
+	private static final int yy_acpt[] = {
 		/* 0 */ YY_NOT_ACCEPT,
 		/* 1 */ YY_NO_ANCHOR,
 		/* 2 */ YY_NO_ANCHOR,
@@ -479,32 +682,40 @@ public class Lexer implements java_cup.runtime.Scanner {
 		/* 120 */ YY_NOT_ACCEPT,
 		/* 121 */ YY_NOT_ACCEPT
 	};
-	private int yy_cmap[] = unpackFromString(1,130,
-"3:9,4,6,3,4,1,3:18,4,3,48,38,3:4,40,41,5,39,3,39,3,2,36,35,36,34:3,37:2,33:" +
-"2,3:7,32:4,47,32:2,45,28,3:5,17,11,44,21,7,27,3,23,46,3:4,49,3:4,14,38,18,3" +
-"0,16,31,10,12,29,3:2,24,26,9,8,22,3,13,15,19,25,20,3:4,42,3,43,3:2,0:2")[0];
+	private static final int yy_cmap[] = unpackFromString(1,130,
+"\11\4\1\5\1\7\1\4\1\5\1\2\22\4\1\5\1\4\1\61\1\47\4\4\1\51\1\52\1\6\1\50\1\4\1\50" +
+"\1\4\1\3\1\45\1\44\1\45\3\43\2\46\2\42\7\4\4\41\1\60\2\41\1\56\1\35\5\4\1\22" +
+"\1\14\1\55\1\26\1\10\1\34\1\4\1\30\1\57\4\4\1\62\4\4\1\17\1\47\1\23\1\37\1\21" +
+"\1\40\1\13\1\15\1\36\2\4\1\31\1\33\1\12\1\11\1\27\1\4\1\16\1\20\1\24\1\32\1\25" +
+"\4\4\1\53\1\4\1\54\2\4\2\1")[0];
 
-	private int yy_rmap[] = unpackFromString(1,122,
-"0,1,2,3,1,4,1:8,5,1:20,6,1,7,8,9,10,11,4,12,13,14,15,16,17,18,19,20,21,22,2" +
-"3,24,25,4,26,27,28,29,30,31,32,33,34,35,36,37,38,39,40,41,42,43,44,45,46,47" +
-",48,49,50,51,52,53,54,55,56,57,58,59,60,61,62,63,64,65,66,67,68,69,37,70,71" +
-",72,73,74,75,76,77,78,79,80,81,70,82,83,84,85,86,87")[0];
+	private static final int yy_rmap[] = unpackFromString(1,122,
+"\1\1\1\2\1\3\1\4\1\2\1\5\10\2\1\6\24\2\1\7\1\2\1\10\1\11\1\12\1\13\1\14\1\5\1\15" +
+"\1\16\1\17\1\20\1\21\1\22\1\23\1\24\1\25\1\26\1\27\1\30\1\31\1\32\1\5\1\33\1\34" +
+"\1\35\1\36\1\37\1\40\1\41\1\42\1\43\1\44\1\45\1\46\1\47\1\50\1\51\1\52\1\53\1\54" +
+"\1\55\1\56\1\57\1\60\1\61\1\62\1\63\1\64\1\65\1\66\1\67\1\70\1\71\1\72\1\73\1\74" +
+"\1\75\1\76\1\77\1\100\1\101\1\102\1\103\1\104\1\105\1\106\1\46\1\107\1\110\1\111" +
+"\1\112\1\113\1\114\1\115\1\116\1\117\1\120\1\121\1\122\1\107\1\123\1\124\1\125" +
+"\1\126\1\127\1\130")[0];
 
-	private int yy_nxt[][] = unpackFromString(88,50,
-"1,2,3,36,2,36,2,41,36:3,44,36:5,46,36:3,48,50,52,36:2,54,56,58,36,60,62,4,5" +
-",6,38,6,42,7,8,9,10,11,12,64,66,68,37,13,36,-1:51,2,-1:2,2,-1,2,-1:45,14,-1" +
-":2,15,-1:77,16:5,-1:14,14:4,-1,14:43,-1:9,63,-1:69,61,-1:55,57:2,-1:15,34,-" +
-"1:60,120,-1:44,35,-1:60,121,-1:42,40,-1:52,65,-1:6,67,-1:45,43,-1:45,69,-1:" +
-"51,45,-1:57,70,-1:54,47,-1:35,114,-1:42,49,-1:67,71,-1:39,51,-1:64,73,-1:34" +
-",53,-1:42,113,-1:48,76,-1:57,55,-1:43,77,-1:47,110,-1:51,17,-1:64,111,-1:43" +
-",18,-1:44,112,-1:51,116,-1:45,59,-1:46,80,-1:65,81,-1:46,83,-1:46,117,-1:44" +
-",84,-1:48,86,-1:67,19,-1:42,87,-1:37,119,-1:52,88,-1:54,89,-1:37,20,-1:67,9" +
-"1,-1:45,92,-1:8,93,-1:26,21,-1:66,94,-1:40,20,-1:52,95,-1:46,19,-1:49,22,-1" +
-":49,23,-1:52,24,-1:46,25,-1:62,97,-1:28,98,-1:65,100,-1:41,101,-1:45,19,-1:" +
-"51,102,-1:48,103,-1:62,104,-1:42,20,-1:43,19,-1:55,85,-1:46,105,-1:42,106,-" +
-"1:59,26,-1:30,1,-1,27:4,28,27:41,29,30,1,31:8,32,31:9,32,31:11,32,31:16,32:" +
-"2,1,33:4,39,33:44,-1:13,115,-1:50,74,-1:59,75,-1:40,72,-1:42,82,-1:55,90,-1" +
-":48,118,-1:61,99,-1:43,96,-1:44,78,-1:49,79,-1:35");
+	private static final int yy_nxt[][] = unpackFromString(88,50,
+"\1\2\1\3\1\4\1\45\1\3\1\45\1\3\1\52\3\45\1\55\5\45\1\57\3\45\1\61\1\63\1\65\2\45" +
+"\1\67\1\71\1\73\1\45\1\75\1\77\1\5\1\6\1\7\1\47\1\7\1\53\1\10\1\11\1\12\1\13" +
+"\1\14\1\15\1\101\1\103\1\105\1\46\1\16\1\45\63\0\1\3\2\0\1\3\1\0\1\3\55\0\1\17" +
+"\2\0\1\20\115\0\5\21\16\0\4\17\1\0\53\17\11\0\1\100\105\0\1\76\67\0\2\72\17\0" +
+"\1\43\74\0\1\171\54\0\1\44\74\0\1\172\52\0\1\51\64\0\1\102\6\0\1\104\55\0\1\54" +
+"\55\0\1\106\63\0\1\56\71\0\1\107\66\0\1\60\43\0\1\163\52\0\1\62\103\0\1\110\47\0" +
+"\1\64\100\0\1\112\42\0\1\66\52\0\1\162\60\0\1\115\71\0\1\70\53\0\1\116\57\0\1\157" +
+"\63\0\1\22\100\0\1\160\53\0\1\23\54\0\1\161\63\0\1\165\55\0\1\74\56\0\1\121\101\0" +
+"\1\122\56\0\1\124\56\0\1\166\54\0\1\125\60\0\1\127\103\0\1\24\52\0\1\130\45\0" +
+"\1\170\64\0\1\131\66\0\1\132\45\0\1\25\103\0\1\134\55\0\1\135\10\0\1\136\32\0" +
+"\1\26\102\0\1\137\50\0\1\25\64\0\1\140\56\0\1\24\61\0\1\27\61\0\1\30\64\0\1\31" +
+"\56\0\1\32\76\0\1\142\34\0\1\143\101\0\1\145\51\0\1\146\55\0\1\24\63\0\1\147" +
+"\60\0\1\150\76\0\1\151\52\0\1\25\53\0\1\24\67\0\1\126\56\0\1\152\52\0\1\153\73\0" +
+"\1\33\36\0\1\2\1\0\4\34\1\35\51\34\1\36\1\37\1\2\10\40\1\41\11\40\1\41\13\40" +
+"\1\41\20\40\2\41\1\2\4\42\1\50\54\42\15\0\1\164\62\0\1\113\73\0\1\114\50\0\1\111" +
+"\52\0\1\123\67\0\1\133\60\0\1\167\75\0\1\144\53\0\1\141\54\0\1\117\61\0\1\120" +
+"\43\0");
 
 	public java_cup.runtime.Symbol next_token ()
 		throws java.io.IOException {
@@ -538,21 +749,28 @@ public class Lexer implements java_cup.runtime.Scanner {
         //if in YYMLCOMMENT when EOF occurs, then we have an unterminated
         //multi-line comment and we return an error
         yybegin(YYINITIAL);
-        return new Symbol(TokenIds.LEX_ERROR, new Token("LEX_ERROR", "Unterminated multi-line comment", yyline));
+        return token(TokenIds.LEX_ERROR, "Unterminated multi-line comment");
     // if defining other states then might want to add other cases here...
     }
     // if we reach here then we should either start lexing the next
     // file (if there are more files to lex) or return EOF (if we're
     // at the file)
-    if (multipleFiles && fileCnt < fileReaders.length - 1) {
-	// more files to lex so update yy_reader and yyline and then continue
-	yy_reader = fileReaders[++fileCnt];
+    if (multipleFiles && fileCnt < filenames.length - 1) {
+	// more files to lex so close this file, switch to the next file's
+	// input and update yyline and then continue
+	closeInput();
+	fileCnt++;
+	switchInput(fileCnt);
 	yyline = 1;
+	yychar = 0;
 	continue;
     }
+    // close the last file too (if the lexer opened it)
+    if (multipleFiles)
+	closeInput();
     // if we reach here, then we're at the last file so we return EOF
     // to parser
-    return new Symbol(TokenIds.EOF, new Token("EOF", yyline));
+    return token(TokenIds.EOF);
 			}
 			if (YY_F != yy_next_state) {
 				yy_state = yy_next_state;
@@ -583,57 +801,47 @@ public class Lexer implements java_cup.runtime.Scanner {
 					case -3:
 						break;
 					case 3:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -4:
 						break;
 					case 4:
-						{ return new Symbol(TokenIds.NOTE, 
-						    new Token("NOTE", yytext(), yyline)); }
+						{ return token(TokenIds.NOTE, charLexeme()); }
 					case -5:
 						break;
 					case 5:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -6:
 						break;
 					case 6:
-						{ return new Symbol(TokenIds.OCTAVEINTCONST, 
-						    new Token("OCTAVEINTCONST", yytext(), yyline)); }
+						{ return token(TokenIds.OCTAVEINTCONST, charLexeme()); }
 					case -7:
 						break;
 					case 7:
-						{ return new Symbol(TokenIds.ACCIDENTAL, 
-						    new Token("ACCIDENTAL", yytext() ,yyline)); }
+						{ return token(TokenIds.ACCIDENTAL, charLexeme()); }
 					case -8:
 						break;
 					case 8:
-						{ return new Symbol(TokenIds.OCTAVEMODVAL, 
-						    new Token("OCTAVEMODVAL", yytext(), yyline)); }
+						{ return token(TokenIds.OCTAVEMODVAL, charLexeme()); }
 					case -9:
 						break;
 					case 9:
-						{ return new Symbol(TokenIds.LPAREN, 
-						    new Token("LPAREN", "(", yyline)); }
+						{ return token(TokenIds.LPAREN, "("); }
 					case -10:
 						break;
 					case 10:
-						{ return new Symbol(TokenIds.RPAREN,
-                                                    new Token("RPAREN", ")", yyline)); }
+						{ return token(TokenIds.RPAREN, ")"); }
 					case -11:
 						break;
 					case 11:
-						{ return new Symbol(TokenIds.LBRACE,
-                                                    new Token("LBRACE", "{", yyline)); }
+						{ return token(TokenIds.LBRACE, "{"); }
 					case -12:
 						break;
 					case 12:
-						{ return new Symbol(TokenIds.RBRACE,
-                                                    new Token("RBRACE", "}", yyline)); }
+						{ return token(TokenIds.RBRACE, "}"); }
 					case -13:
 						break;
 					case 13:
-						{ currStringConst = new StringBuffer();
+						{ currStringConst.setLength(0);
                           yybegin(YYINSTRING); }
 					case -14:
 						break;
@@ -646,78 +854,64 @@ public class Lexer implements java_cup.runtime.Scanner {
 					case -16:
 						break;
 					case 16:
-						{ return new Symbol(TokenIds.TEMPOINTCONST, 
-						    new Token("TEMPOINTCONST", yytext(), yyline)); }
+						{ return token(TokenIds.TEMPOINTCONST, tempoLexeme()); }
 					case -17:
 						break;
 					case 17:
-						{ return new Symbol(TokenIds.SONG, 
-						    new Token("SONG", yyline)); }
+						{ return token(TokenIds.SONG); }
 					case -18:
 						break;
 					case 18:
-						{ return new Symbol(TokenIds.REST, 
-						    new Token("REST", yytext(), yyline)); }
+						{ return token(TokenIds.REST, "Rest"); }
 					case -19:
 						break;
 					case 19:
-						{ return new Symbol(TokenIds.LENGTH, 
-												    new Token("LENGTH", yytext(), yyline)); }
+						{ return token(TokenIds.LENGTH, lengthLexeme()); }
 					case -20:
 						break;
 					case 20:
-						{ return new Symbol(TokenIds.VOLUMEWORD, 
-						    new Token("VOLUMEWORD", yytext(), yyline)); }
+						{ return token(TokenIds.VOLUMEWORD, volumeLexeme()); }
 					case -21:
 						break;
 					case 21:
-						{ return new Symbol(TokenIds.TEMPO,
-							new Token("TEMPO", yyline)); }
+						{ return token(TokenIds.TEMPO); }
 					case -22:
 						break;
 					case 22:
-						{ return new Symbol(TokenIds.PHRASE, 
-						    new Token("PHRASE", yyline)); }
+						{ return token(TokenIds.PHRASE); }
 					case -23:
 						break;
 					case 23:
-						{ return new Symbol(TokenIds.OCTAVE,
-							new Token("OCTAVE", yyline)); }
+						{ return token(TokenIds.OCTAVE); }
 					case -24:
 						break;
 					case 24:
-						{ return new Symbol(TokenIds.REPEAT,
-							new Token("REPEAT", yyline)); }
+						{ return token(TokenIds.REPEAT); }
 					case -25:
 						break;
 					case 25:
-						{ return new Symbol(TokenIds.VOLUME,
-							new Token("VOLUME", yyline)); }
+						{ return token(TokenIds.VOLUME); }
 					case -26:
 						break;
 					case 26:
-						{ return new Symbol(TokenIds.INSTRUMENT,
-							new Token("INSTRUMENT",yyline));}
+						{ return token(TokenIds.INSTRUMENT);}
 					case -27:
 						break;
 					case 27:
-						{currStringConst.append(yytext());}
+						{currStringConst.append(yycharat(0));}
 					case -28:
 						break;
 					case 28:
 						{ yybegin(YYINITIAL);
-                            return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", "Unterminated or Multi-line string", yyline)); }
+                            return token(TokenIds.LEX_ERROR, "Unterminated or Multi-line string"); }
 					case -29:
 						break;
 					case 29:
 						{ yybegin(YYINITIAL);
                           if(currStringConst.length() > 5000){
-                              return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", "String too long",yyline));
+                              return token(TokenIds.LEX_ERROR, "String too long");
                           }
-                          return new Symbol(TokenIds.STRING_CONST, 
-						    new Token("STRING_CONST", currStringConst.toString() , yyline));}
+                          return token(TokenIds.STRING_CONST, currStringConst.toString());}
 					case -30:
 						break;
 					case 30:
@@ -726,12 +920,11 @@ public class Lexer implements java_cup.runtime.Scanner {
 						break;
 					case 31:
 						{ yybegin(YYINSTRING);
-                            return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", "Unrecognized escape character in string", yyline)); }
+                            return token(TokenIds.LEX_ERROR, "Unrecognized escape character in string"); }
 					case -32:
 						break;
 					case 32:
-						{ currStringConst.append("\\"+yytext());
+						{ currStringConst.append('\\').append(yycharat(0));
                            yybegin(YYINSTRING);}
 					case -33:
 						break;
@@ -744,18 +937,15 @@ public class Lexer implements java_cup.runtime.Scanner {
 					case -35:
 						break;
 					case 36:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -36:
 						break;
 					case 37:
-						{ return new Symbol(TokenIds.NOTE, 
-						    new Token("NOTE", yytext(), yyline)); }
+						{ return token(TokenIds.NOTE, charLexeme()); }
 					case -37:
 						break;
 					case 38:
-						{ return new Symbol(TokenIds.OCTAVEINTCONST, 
-						    new Token("OCTAVEINTCONST", yytext(), yyline)); }
+						{ return token(TokenIds.OCTAVEINTCONST, charLexeme()); }
 					case -38:
 						break;
 					case 39:
@@ -763,78 +953,63 @@ public class Lexer implements java_cup.runtime.Scanner {
 					case -39:
 						break;
 					case 41:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -40:
 						break;
 					case 42:
-						{ return new Symbol(TokenIds.OCTAVEINTCONST, 
-						    new Token("OCTAVEINTCONST", yytext(), yyline)); }
+						{ return token(TokenIds.OCTAVEINTCONST, charLexeme()); }
 					case -41:
 						break;
 					case 44:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -42:
 						break;
 					case 46:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -43:
 						break;
 					case 48:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -44:
 						break;
 					case 50:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -45:
 						break;
 					case 52:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -46:
 						break;
 					case 54:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -47:
 						break;
 					case 56:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -48:
 						break;
 					case 58:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -49:
 						break;
 					case 60:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -50:
 						break;
 					case 62:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -51:
 						break;
 					case 64:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -52:
 						break;
 					case 66:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -53:
 						break;
 					case 68:
-						{ return new Symbol(TokenIds.LEX_ERROR, 
-						    new Token("LEX_ERROR", ("Unrecognized character: " + yytext()), yyline)); }
+						{ return token(TokenIds.LEX_ERROR, "Unrecognized character: " + yytext()); }
 					case -54:
 						break;
 					default:
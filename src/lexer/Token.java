@@ -26,9 +26,15 @@
 
 package lexer;
 
-/** A class for representing tokens in the bantam compiler, passed
-  * from the lexer to the parser (as the value within a java_cup
-  * Symbol). 
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+
+/** A class for representing tokens in the bantam compiler.  The lexer
+  * hands the parser bare java_cup Symbols (kind, line in <tt>left</tt>,
+  * offset in <tt>right</tt>, and the lexeme as the value only for the
+  * tokens that have one), or, from a <tt>CompactTokenSource</tt>, just
+  * the kind with the rest read from the scanner; a Token is built when
+  * the token has to be printed or named in a message.
   * */
 public class Token {
     /** name of the token */
@@ -59,6 +65,66 @@ public class Token {
 	this.lineNum = lineNum;
     }
 
+    /** Token constructor - the token that a symbol from the lexer stands for
+      * @param symbol the symbol
+      * */
+    public Token(Symbol symbol) {
+	this(name(symbol.sym), (String)symbol.value, symbol.left);
+    }
+
+    /** Get the lexeme of a symbol from the lexer (for error messages)
+      * @param symbol the symbol
+      * @return the lexeme, or the token name if the token has none
+      * */
+    public static String getLexeme(Symbol symbol) {
+	return getLexeme(symbol.sym, (String)symbol.value);
+    }
+
+    /** Get the lexeme of a token from the lexer (for error messages)
+      * @param kind the kind of token (from TokenIds)
+      * @param lexeme the token's lexeme (null if it has none)
+      * @return the lexeme, or the token name if the token has none
+      * */
+    public static String getLexeme(int kind, String lexeme) {
+	if (lexeme == null)
+	    return name(kind);
+	return lexeme;
+    }
+
+    /** Get the name of a kind of token
+      * @param kind the kind of token (from TokenIds)
+      * @return token name
+      * */
+    public static String name(int kind) {
+	switch (kind) {
+	case TokenIds.EOF: return "EOF";
+	case TokenIds.error: return "error";
+	case TokenIds.LEX_ERROR: return "LEX_ERROR";
+	case TokenIds.SONG: return "SONG";
+	case TokenIds.PHRASE: return "PHRASE";
+	case TokenIds.NOTE: return "NOTE";
+	case TokenIds.OCTAVE: return "OCTAVE";
+	case TokenIds.REST: return "REST";
+	case TokenIds.LENGTH: return "LENGTH";
+	case TokenIds.ACCIDENTAL: return "ACCIDENTAL";
+	case TokenIds.LPAREN: return "LPAREN";
+	case TokenIds.RPAREN: return "RPAREN";
+	case TokenIds.LBRACE: return "LBRACE";
+	case TokenIds.RBRACE: return "RBRACE";
+	case TokenIds.REPEAT: return "REPEAT";
+	case TokenIds.SEMI: return "SEMI";
+	case TokenIds.VOLUME: return "VOLUME";
+	case TokenIds.INSTRUMENT: return "INSTRUMENT";
+	case TokenIds.TEMPO: return "TEMPO";
+	case TokenIds.OCTAVEINTCONST: return "OCTAVEINTCONST";
+	case TokenIds.OCTAVEMODVAL: return "OCTAVEMODVAL";
+	case TokenIds.VOLUMEWORD: return "VOLUMEWORD";
+	case TokenIds.STRING_CONST: return "STRING_CONST";
+	case TokenIds.TEMPOINTCONST: return "TEMPOINTCONST";
+	default: return "UNKNOWN";
+	}
+    }
+
     /** Get token name
       * @return token name
       * */
@@ -0,0 +1,75 @@
+/* Cymbal Compiler
+   TokenBuffer.java
+
+   Tokens lexed ahead of parsing, replayed to the parser
+*/
+
+package lexer;
+
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The <tt>TokenBuffer</tt> class lexes an entire input up front and then
+  * hands the tokens to the parser, so that lexing and parsing can be
+  * timed separately.  The position after each token is recorded as well,
+  * so the parser sees exactly what it would have seen from the lexer.
+  * */
+public class TokenBuffer implements TokenSource {
+    /** the tokens, ending with EOF */
+    private List<Symbol> symbols = new ArrayList<Symbol>();
+    /** the scanner's line number after each token */
+    private List<Integer> lineNums = new ArrayList<Integer>();
+    /** the scanner's file name after each token */
+    private List<String> filenames = new ArrayList<String>();
+    /** index of the last token returned (-1 before the first) */
+    private int curr = -1;
+
+    /** TokenBuffer constructor - reads every token from a scanner
+      * @param scanner scanner to read the tokens from
+      * @throws Exception if the scanner fails
+      * */
+    public TokenBuffer(TokenSource scanner) throws Exception {
+	Symbol symbol;
+	do {
+	    symbol = scanner.next_token();
+	    symbols.add(symbol);
+	    lineNums.add(scanner.getCurrLineNum());
+	    filenames.add(scanner.getCurrFilename());
+	} while (symbol.sym != TokenIds.EOF);
+    }
+
+    /** get the number of tokens (including EOF)
+      * @return number of tokens
+      * */
+    public int size() {
+	return symbols.size();
+    }
+
+    /** return the next token (a new EOF each time once the tokens run
+      * out, since the parser rejects a symbol it has already seen)
+      * @return the next token
+      * */
+    public Symbol next_token() {
+	if (curr < symbols.size() - 1)
+	    return symbols.get(++curr);
+	Symbol eof = symbols.get(curr);
+	return new Symbol(eof.sym, eof.left, eof.right, eof.value);
+    }
+
+    /** getter method for accessing the current line number
+      * @return line number after the last token returned
+      * */
+    public int getCurrLineNum() {
+	return (curr < 0 ? 1 : lineNums.get(curr));
+    }
+
+    /** getter method for accessing the current file name
+      * @return file name of the last token returned
+      * */
+    public String getCurrFilename() {
+	return filenames.get(Math.max(curr, 0));
+    }
+}
@@ -0,0 +1,246 @@
+/* Cymbal Compiler
+   TokenPipeline.java
+
+   Tokens lexed on a separate thread while the parser runs
+*/
+
+package lexer;
+
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+import util.CompileStats;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/** The <tt>TokenPipeline</tt> class runs a scanner on its own thread so
+  * that lexing overlaps parsing.  The lexer thread fills batches of
+  * tokens (with the position after each token, as in <tt>TokenBuffer</tt>)
+  * and hands them to the parser through a bounded ring buffer of batches;
+  * when the ring is full the lexer waits, so a huge input never has more
+  * than <tt>RING_BATCHES * BATCH_SIZE</tt> tokens in flight.
+  * <p/>
+  * Anything thrown by the scanner (an exception, or an <tt>Error</tt> such
+  * as the lexers' "Unmatched Input") is passed along in place of the next
+  * batch and rethrown to the parser, then again on every later call.
+  * Every way out of the lexer thread, other than being stopped by
+  * <tt>close</tt>, ends with a last batch (EOF, or the error), so the
+  * parser never waits for a batch that is not coming.  <tt>close</tt> must be called
+  * when the parser is done (it stops the lexer thread if the parser gave
+  * up early).
+  * */
+public class TokenPipeline implements TokenSource {
+    /** number of tokens in a batch */
+    private static final int BATCH_SIZE = 512;
+    /** number of batches in the ring buffer */
+    private static final int RING_BATCHES = 16;
+
+    /** A batch of tokens lexed together */
+    private static class Batch {
+	/** the tokens */
+	Symbol[] symbols = new Symbol[BATCH_SIZE];
+	/** the scanner's line number after each token */
+	int[] lineNums = new int[BATCH_SIZE];
+	/** the scanner's file name after each token */
+	String[] filenames = new String[BATCH_SIZE];
+	/** number of tokens in the batch */
+	int size = 0;
+	/** exception or error thrown by the scanner (in an otherwise empty batch) */
+	Throwable error = null;
+    }
+
+    /** the batches lexed but not yet parsed */
+    private BlockingQueue<Batch> ring = new ArrayBlockingQueue<Batch>(RING_BATCHES);
+    /** the lexer thread */
+    private Thread lexerThread;
+    /** number of tokens lexed (including EOF), set when the lexer is done */
+    private volatile int numTokens = 0;
+
+    /** the batch being parsed */
+    private Batch batch = null;
+    /** index in the batch of the last token returned (-1 before the first) */
+    private int curr = -1;
+    /** number of tokens returned to the parser (EOF counted once) */
+    private int numReturned = 0;
+    /** the EOF token, once it has been returned */
+    private Symbol eof = null;
+    /** what the scanner threw, once it has been rethrown */
+    private Throwable failure = null;
+    /** line number after the last token returned */
+    private int lineNum = 1;
+    /** file name of the last token returned */
+    private String filename;
+
+    /** TokenPipeline constructor - starts lexing on a new thread
+      * @param scanner scanner to read the tokens from
+      * @param stats statistics to record the lex phase in (may be null)
+      * @param name name of the input (for the lex phase's event)
+      * */
+    public TokenPipeline(final TokenSource scanner, final CompileStats stats, final String name) {
+	filename = scanner.getCurrFilename();
+	lexerThread = new Thread(new Runnable() {
+	    public void run() {
+		lex(scanner, stats, name);
+	    }
+	}, "cymbal-lexer " + name);
+	lexerThread.setDaemon(true);
+	lexerThread.start();
+    }
+
+    /** read every token from the scanner into the ring buffer (runs on the
+      * lexer thread)
+      * @param scanner scanner to read the tokens from
+      * @param stats statistics to record the lex phase in (may be null)
+      * @param name name of the input
+      * */
+    private void lex(TokenSource scanner, CompileStats stats, String name) {
+	CompileStats.Timer timer = CompileStats.start(stats, "lex");
+	timer.setFile(name);
+	int count = 0;
+	// the batch that ends the tokens (null only if the parser closed the pipeline)
+	Batch last = null;
+	try {
+	    Batch next = new Batch();
+	    while (true) {
+		Symbol symbol;
+		try {
+		    symbol = scanner.next_token();
+		}
+		catch (Throwable e) {
+		    // the tokens before the error first, then the error alone
+		    if (next.size > 0)
+			ring.put(next);
+		    last = failed(e);
+		    return;
+		}
+		next.symbols[next.size] = symbol;
+		next.lineNums[next.size] = scanner.getCurrLineNum();
+		next.filenames[next.size] = scanner.getCurrFilename();
+		next.size++;
+		count++;
+		if (symbol.sym == TokenIds.EOF) {
+		    last = next;
+		    return;
+		}
+		if (next.size == BATCH_SIZE) {
+		    ring.put(next);
+		    next = new Batch();
+		}
+	    }
+	}
+	catch (InterruptedException e) {
+	    // closed by the parser
+	    last = null;
+	}
+	catch (Throwable e) {
+	    // (e.g., out of memory while batching)
+	    last = failed(e);
+	}
+	finally {
+	    numTokens = count;
+	    timer.setTokens(count);
+	    CompileStats.count(stats, "tokens", count);
+	    CompileStats.stop(timer);
+	    if (last != null) {
+		try {
+		    ring.put(last);
+		}
+		catch (InterruptedException e) {
+		    // closed by the parser, which no longer waits
+		}
+	    }
+	}
+    }
+
+    /** make the batch that passes what the scanner threw to the parser
+      * @param error the exception or error
+      * @return the batch
+      * */
+    private static Batch failed(Throwable error) {
+	Batch failed = new Batch();
+	failed.error = error;
+	return failed;
+    }
+
+    /** get the number of tokens lexed (including EOF); only complete
+      * once the parser has seen EOF
+      * @return number of tokens
+      * */
+    public int size() {
+	return numTokens;
+    }
+
+    /** return the next token (a new EOF each time once the tokens run
+      * out, since the parser rejects a symbol it has already seen)
+      * @return the next token
+      * @throws Exception if the scanner failed
+      * @throws Error if the scanner failed with an error
+      * */
+    public Symbol next_token() throws Exception {
+	if (eof != null)
+	    return new Symbol(eof.sym, eof.left, eof.right, eof.value);
+	if (failure != null)
+	    rethrow(failure);
+	if (batch == null || curr == batch.size - 1) {
+	    Batch next = ring.take();
+	    if (next.error != null) {
+		failure = next.error;
+		rethrow(failure);
+	    }
+	    batch = next;
+	    curr = -1;
+	}
+	Symbol symbol = batch.symbols[++curr];
+	lineNum = batch.lineNums[curr];
+	filename = batch.filenames[curr];
+	if (symbol.sym == TokenIds.EOF)
+	    eof = symbol;
+	numReturned++;
+	return symbol;
+    }
+
+    /** get the number of tokens returned to the parser, as they are
+      * returned (unlike <tt>size</tt>, on the parser's thread)
+      * @return number of tokens returned so far (including EOF, once)
+      * */
+    public int getTokenCount() {
+	return numReturned;
+    }
+
+    /** rethrow what the scanner threw, on the parser's thread
+      * @param error the exception or error
+      * */
+    private static void rethrow(Throwable error) throws Exception {
+	if (error instanceof Exception)
+	    throw (Exception) error;
+	if (error instanceof Error)
+	    throw (Error) error;
+	throw new RuntimeException(error);
+    }
+
+    /** getter method for accessing the current line number
+      * @return line number after the last token returned
+      * */
+    public int getCurrLineNum() {
+	return lineNum;
+    }
+
+    /** getter method for accessing the current file name
+      * @return file name of the last token returned
+      * */
+    public String getCurrFilename() {
+	return filename;
+    }
+
+    /** stop the lexer thread (if it is still running) and wait for it
+      * */
+    public void close() {
+	lexerThread.interrupt();
+	try {
+	    lexerThread.join();
+	}
+	catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+    }
+}
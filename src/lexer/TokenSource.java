@@ -0,0 +1,26 @@
+/* Cymbal Compiler
+   TokenSource.java
+
+   What the parser needs from a scanner: the tokens, plus the position
+   of the last token for error messages and AST line numbers
+*/
+
+package lexer;
+
+import java_cup.runtime.Scanner;
+
+/** The <tt>TokenSource</tt> interface is implemented by the lexer and by
+  * anything else that hands tokens to the parser (e.g., a buffer of
+  * tokens that were lexed earlier).
+  * */
+public interface TokenSource extends Scanner {
+    /** getter method for accessing the current line number
+      * @return line number of the scanner after the last token returned
+      * */
+    int getCurrLineNum();
+
+    /** getter method for accessing the current file name
+      * @return name of the file that the last token returned came from
+      * */
+    String getCurrFilename();
+}
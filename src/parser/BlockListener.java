@@ -0,0 +1,22 @@
+/* Cymbal Compiler
+   BlockListener.java
+
+   Callback from the push parser for each top-level phrase and Song
+*/
+
+package parser;
+
+import ast.ASTNode;
+
+/** The <tt>BlockListener</tt> interface is told about each top-level
+  * block of a file (a <tt>Phrase</tt> or a <tt>Song</tt>) by a
+  * <tt>PushParser</tt> as soon as the block has been parsed, in the order
+  * of the file, while the tokens after it are still to come.
+  * */
+public interface BlockListener {
+    /** a phrase or Song has been parsed
+      * @param block the phrase or Song (a Song without its expressions
+      *              when a song listener is streaming them)
+      * */
+    void blockParsed(ASTNode block);
+}
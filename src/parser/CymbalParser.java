@@ -0,0 +1,430 @@
+/* Cymbal Compiler
+   CymbalParser.java
+
+   Hand-written recursive-descent parser for Cymbal, an alternative to
+   the LALR parser that CUP generates from parser.cup
+*/
+
+package parser;
+
+import ast.*;
+import java.util.List;
+import java_cup.runtime.Symbol;
+import lexer.CompactTokenSource;
+import lexer.Token;
+import lexer.TokenSource;
+import util.CompilationException;
+import util.ErrorHandler;
+
+/** The <tt>CymbalParser</tt> class parses Cymbal with a method for each
+  * construct of the grammar in parser.cup, choosing between alternatives
+  * by the next token alone (the grammar needs no more), instead of
+  * driving the generated <tt>Parser</tt>'s tables, parse stack and action
+  * dispatch for every token and every reduction.
+  * <p/>
+  * It builds the same AST as <tt>Parser</tt>, with the same line numbers,
+  * tells a <tt>SongListener</tt> about the same parts of the file at the
+  * same points, and reports a syntax error the same way: at the same
+  * token, with the same message, after which it stops.  To that end each
+  * node is made just after the token following it has been read (as the
+  * LALR parser reduces it on seeing that token, and takes the line number
+  * of the scanner from there), and the parser reads one token past the
+  * end of the file before it finishes, as <tt>Parser</tt> does.
+  * <tt>ParserCheck</tt> compares the two.
+  * <p/>
+  * From a <tt>CompactTokenSource</tt> (<tt>CymbalScanner</tt>), the parser
+  * reads each token's kind, and its lexeme only where the grammar keeps
+  * it (names, tempos, lengths, notes and the like), so that no object is
+  * made per token; from any other <tt>TokenSource</tt> it reads Symbols.
+  * */
+public class CymbalParser {
+    /** the scanner the tokens come from */
+    private TokenSource scanner;
+    /** the scanner, if it gives its tokens without Symbols (null if not) */
+    private CompactTokenSource compact;
+    /** the next token (read, but not yet parsed), if the scanner gives Symbols */
+    private Symbol token;
+    /** the kind of the next token */
+    private int kind;
+
+    /** object for error handling */
+    private ErrorHandler errorHandler = new ErrorHandler();
+    /** listener that phrases and song expressions are handed to as soon
+      * as they are parsed (null unless streaming) */
+    private SongListener songListener = null;
+    /** list that the first token of each phrase and Song is added to, for
+      * <tt>IncrementalParser</tt> (null unless it is parsing) */
+    private List<Symbol> blockStarts = null;
+    /** number of AST nodes built so far */
+    private int numNodes = 0;
+
+    /** CymbalParser constructor
+      * @param scanner the scanner to parse the tokens of
+      * */
+    public CymbalParser(TokenSource scanner) {
+	this.scanner = scanner;
+	if (scanner instanceof CompactTokenSource)
+	    compact = (CompactTokenSource) scanner;
+    }
+
+    /** returns the error handler
+      * @return the error handler that parsing errors are registered with
+      * */
+    public ErrorHandler getErrorHandler() {
+	return errorHandler;
+    }
+
+    /** sets the error handler (e.g., one that collects errors without printing them)
+      * @param errorHandler the error handler to register parsing errors with
+      * */
+    public void setErrorHandler(ErrorHandler errorHandler) {
+	this.errorHandler = errorHandler;
+    }
+
+    /** returns the song listener
+      * @return the song listener (null unless streaming)
+      * */
+    public SongListener getSongListener() {
+	return songListener;
+    }
+
+    /** sets the song listener; top-level song expressions are then handed
+      * to it instead of being kept in the Song's expression list
+      * @param songListener the song listener
+      * */
+    public void setSongListener(SongListener songListener) {
+	this.songListener = songListener;
+    }
+
+    /** returns the number of AST nodes built, as they are built (so that
+      * the nodes need not be counted again afterwards)
+      * @return the number of AST nodes built so far
+      * */
+    public int getNodeCount() {
+	return numNodes;
+    }
+
+    /** sets the list that the first token (the keyword) of each phrase and
+      * Song is added to as it is parsed, so that its position in the source
+      * is known
+      * @param blockStarts the list (null for none)
+      * */
+    void setBlockStarts(List<Symbol> blockStarts) {
+	this.blockStarts = blockStarts;
+    }
+
+    /** parse the file:  a list of phrases and one or more Songs (either of
+      * which may be missing, but not both)
+      * @return the AST of the file
+      * @throws CompilationException if there are lexing or parsing errors
+      * @throws Exception if the scanner fails
+      * */
+    public File parse() throws Exception {
+	advance();
+	PhraseList phraseList = null;
+	SongList songList = null;
+	if (kind == TokenIds.PHRASE) {
+	    phraseList = built(new PhraseList(0));
+	    do {
+		phraseList.addElement(parsePhrase());
+	    } while (kind == TokenIds.PHRASE);
+	}
+	if (kind == TokenIds.SONG) {
+	    songList = built(new SongList(0));
+	    do {
+		songList.addElement(parseSong());
+	    } while (kind == TokenIds.SONG);
+	}
+	if (phraseList == null && songList == null)
+	    throw syntaxError();
+	if (phraseList != null)
+	    phraseList.freeze();
+	File file = (songList == null)
+	    ? built(new File(getCurrLineNum(), phraseList, (Song) null))
+	    : built(new File(getCurrLineNum(), phraseList, (SongList) songList.freeze()));
+	if (kind != TokenIds.EOF)
+	    throw syntaxError();
+
+	// (the LALR parser reads the token after EOF before it accepts)
+	advance();
+	// if lexing errors then stop
+	errorHandler.checkErrors();
+	return file;
+    }
+
+    /** parse phrases and Songs, in any order, up to the end of the input
+      * (part of a file, for <tt>IncrementalParser</tt>:  whether the parts
+      * make a file is for it to check)
+      * @param blocks list that each phrase and Song is added to
+      * @throws CompilationException if there are lexing or parsing errors
+      * @throws Exception if the scanner fails
+      * */
+    void parseBlocks(List<ASTNode> blocks) throws Exception {
+	advance();
+	while (kind == TokenIds.PHRASE || kind == TokenIds.SONG) {
+	    if (kind == TokenIds.PHRASE)
+		blocks.add(parsePhrase());
+	    else
+		blocks.add(parseSong());
+	}
+	if (kind != TokenIds.EOF)
+	    throw syntaxError();
+	errorHandler.checkErrors();
+    }
+
+    /** parse a phrase
+      * @return the phrase
+      * */
+    private Phrase parsePhrase() throws Exception {
+	if (blockStarts != null)
+	    blockStarts.add(compact == null ? token
+			    : new Symbol(kind, compact.getTokenLine(), compact.getTokenOffset()));
+	advance();
+	String name = expectValue(TokenIds.STRING_CONST);
+	expect(TokenIds.LBRACE);
+	ExprList exprList = parseExprList();
+	expect(TokenIds.RBRACE);
+	Phrase phrase = built(new Phrase(getCurrLineNum(), name, exprList));
+	if (songListener != null)
+	    songListener.phraseParsed(phrase);
+	return phrase;
+    }
+
+    /** parse a song (the song listener, if any, is told about the song
+      * before its expressions are parsed, and is then handed them instead
+      * of the song's expression list)
+      * @return the song
+      * */
+    private Song parseSong() throws Exception {
+	if (blockStarts != null)
+	    blockStarts.add(compact == null ? token
+			    : new Symbol(kind, compact.getTokenLine(), compact.getTokenOffset()));
+	advance();
+	String name = expectValue(TokenIds.STRING_CONST);
+	String tempo = expectValue(TokenIds.TEMPOINTCONST);
+	expect(TokenIds.LBRACE);
+	if (songListener != null)
+	    songListener.songStarted(built(new Song(getCurrLineNum(), name, tempo,
+						 built(new ExprList(0)))));
+	ExprList exprList = built(new ExprList(0));
+	do {
+	    Expr expr = parseExpr();
+	    if (songListener == null)
+		exprList.addElement(expr);
+	    else
+		songListener.songExprParsed(expr);
+	} while (startsExpr());
+	expect(TokenIds.RBRACE);
+	return built(new Song(getCurrLineNum(), name, tempo, (ExprList) exprList.freeze()));
+    }
+
+    /** parse a list of one or more expressions
+      * @return the expression list (frozen)
+      * */
+    private ExprList parseExprList() throws Exception {
+	ExprList exprList = built(new ExprList(0));
+	do {
+	    exprList.addElement(parseExpr());
+	} while (startsExpr());
+	return (ExprList) exprList.freeze();
+    }
+
+    /** parse an expression:  a note literal, a phrase dispatch or a block
+      * @return the expression
+      * */
+    private Expr parseExpr() throws Exception {
+	switch (kind) {
+	case TokenIds.LENGTH:
+	    return parseNoteLiteral();
+	case TokenIds.STRING_CONST: {
+	    ConstStringExpr phraseName = parseConstString();
+	    expect(TokenIds.LPAREN);
+	    expect(TokenIds.RPAREN);
+	    return built(new PhraseDispatch(getCurrLineNum(), phraseName));
+	}
+	case TokenIds.OCTAVE: {
+	    advance();
+	    OctaveValue octaveValue = parseOctaveValue();
+	    ExprList exprList = parseBlock();
+	    return built(new OctaveBlock(getCurrLineNum(), octaveValue, exprList));
+	}
+	case TokenIds.VOLUME: {
+	    advance();
+	    String dynamic = expectValue(TokenIds.VOLUMEWORD);
+	    VolumeWord volumeWord = built(new VolumeWord(getCurrLineNum(), dynamic));
+	    ExprList exprList = parseBlock();
+	    return built(new VolumeBlock(getCurrLineNum(), volumeWord, exprList));
+	}
+	case TokenIds.REPEAT: {
+	    advance();
+	    ExprList exprList = parseBlock();
+	    return built(new RepeatBlock(getCurrLineNum(), exprList));
+	}
+	case TokenIds.INSTRUMENT: {
+	    advance();
+	    ConstStringExpr instrument = parseConstString();
+	    ExprList exprList = parseBlock();
+	    return built(new InstrumentBlock(getCurrLineNum(), instrument, exprList));
+	}
+	case TokenIds.TEMPO: {
+	    advance();
+	    String tempo = expectValue(TokenIds.TEMPOINTCONST);
+	    ExprList exprList = parseBlock();
+	    return built(new TempoBlock(getCurrLineNum(), tempo, exprList));
+	}
+	default:
+	    throw syntaxError();
+	}
+    }
+
+    /** parse the braces and expression list of a block
+      * @return the expression list
+      * */
+    private ExprList parseBlock() throws Exception {
+	expect(TokenIds.LBRACE);
+	ExprList exprList = parseExprList();
+	expect(TokenIds.RBRACE);
+	return exprList;
+    }
+
+    /** parse a note literal:  a length and a note (or rest), optionally
+      * followed by an accidental and then an octave value
+      * @return the note literal
+      * */
+    private NoteLiteral parseNoteLiteral() throws Exception {
+	String length = lexeme();
+	advance();
+	Note note;
+	if (kind == TokenIds.NOTE) {
+	    String value = lexeme();
+	    advance();
+	    note = built(new Note(getCurrLineNum(), value));
+	}
+	else if (kind == TokenIds.REST) {
+	    String value = lexeme();
+	    advance();
+	    note = built(new Rest(getCurrLineNum(), value));
+	}
+	else
+	    throw syntaxError();
+	Accidental accidental = null;
+	if (kind == TokenIds.ACCIDENTAL) {
+	    String value = lexeme();
+	    advance();
+	    accidental = built(new Accidental(getCurrLineNum(), value));
+	}
+	OctaveValue octaveValue = null;
+	if (kind == TokenIds.OCTAVEINTCONST || kind == TokenIds.OCTAVEMODVAL)
+	    octaveValue = parseOctaveValue();
+	return built(new NoteLiteral(getCurrLineNum(), length, note, accidental, octaveValue));
+    }
+
+    /** parse an octave value:  an octave number or an octave change
+      * @return the octave value
+      * */
+    private OctaveValue parseOctaveValue() throws Exception {
+	String value = lexeme();
+	if (kind == TokenIds.OCTAVEINTCONST) {
+	    advance();
+	    return built(new OctaveIntConst(getCurrLineNum(), value));
+	}
+	if (kind == TokenIds.OCTAVEMODVAL) {
+	    advance();
+	    return built(new OctaveModVal(getCurrLineNum(), value));
+	}
+	throw syntaxError();
+    }
+
+    /** parse a string constant (a phrase or instrument name)
+      * @return the string constant
+      * */
+    private ConstStringExpr parseConstString() throws Exception {
+	String value = expectValue(TokenIds.STRING_CONST);
+	return built(new ConstStringExpr(getCurrLineNum(), value));
+    }
+
+    /** count a node as it is built
+      * @param node the node
+      * @return the node
+      * */
+    private <T extends ASTNode> T built(T node) {
+	numNodes++;
+	return node;
+    }
+
+    /** check whether the next token starts an expression
+      * @return true if it does
+      * */
+    private boolean startsExpr() {
+	switch (kind) {
+	case TokenIds.LENGTH:
+	case TokenIds.STRING_CONST:
+	case TokenIds.OCTAVE:
+	case TokenIds.VOLUME:
+	case TokenIds.REPEAT:
+	case TokenIds.INSTRUMENT:
+	case TokenIds.TEMPO:
+	    return true;
+	default:
+	    return false;
+	}
+    }
+
+    /** read the next token */
+    private void advance() throws Exception {
+	if (compact != null)
+	    kind = compact.nextKind();
+	else {
+	    token = scanner.next_token();
+	    kind = token.sym;
+	}
+    }
+
+    /** returns the lexeme of the next token
+      * @return the lexeme (null for a keyword)
+      * */
+    private String lexeme() {
+	return (compact != null ? compact.getLexeme() : (String) token.value);
+    }
+
+    /** check that the next token is of a given kind, and read past it
+      * @param expected the kind of token expected
+      * */
+    private void expect(int expected) throws Exception {
+	if (kind != expected)
+	    throw syntaxError();
+	advance();
+    }
+
+    /** check that the next token is of a given kind, and read past it
+      * @param expected the kind of token expected
+      * @return the token's lexeme
+      * */
+    private String expectValue(int expected) throws Exception {
+	if (kind != expected)
+	    throw syntaxError();
+	String value = lexeme();
+	advance();
+	return value;
+    }
+
+    /** returns the current line number from the scanner */
+    private int getCurrLineNum() {
+	return scanner.getCurrLineNum();
+    }
+
+    /** register a syntax error at the next token (as <tt>Parser</tt> does)
+      * and stop
+      * @return never returns normally (declared so that callers can throw
+      * it, for the compiler's sake)
+      * @throws CompilationException always
+      * */
+    private CompilationException syntaxError() {
+	errorHandler.register(ErrorHandler.PARSE_ERROR, scanner.getCurrFilename(),
+			      scanner.getCurrLineNum(),
+			      "unexpected input near '" + Token.getLexeme(kind, lexeme()) + "'");
+	errorHandler.checkErrors();
+	// (not reached: checkErrors throws when there are errors)
+	return new CompilationException("syntax error");
+    }
+}
@@ -0,0 +1,514 @@
+/* Cymbal Compiler
+   IncrementalParser.java
+
+   Incremental front end:  keeps the AST of a source between edits, and
+   relexes and reparses only the phrases and Songs that an edit touches
+*/
+
+package parser;
+
+import ast.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java_cup.runtime.Symbol;
+import lexer.CompactTokenSource;
+import lexer.CymbalScanner;
+import util.CompilationException;
+import util.ErrorHandler;
+import visitor.LineShiftVisitor;
+
+/** The <tt>IncrementalParser</tt> class parses a source once, recording
+  * where each top-level block (each phrase and Song) starts, and after
+  * that parses only what each edit of the source touches.  A block runs
+  * from its keyword to the next block's keyword (so the comments and line
+  * ends after it are its own), and an edit damages the blocks from the
+  * one it starts in (the last whose keyword comes before it; a block that
+  * ends where the edit starts is the one) to the one it ends in.  These
+  * are relexed, from the first one's keyword (which the edit does not
+  * touch, so the scanner is in its initial state there, on the same line
+  * as before) up to where the next block's keyword now is, and reparsed
+  * with <tt>CymbalParser</tt>, and the new nodes are spliced into the
+  * <tt>PhraseList</tt> and <tt>SongList</tt> in place of the old ones.
+  * The blocks before the edit keep their nodes as they are, and so do the
+  * blocks after it, which only move:  if the edit added or removed lines,
+  * their nodes' line numbers are shifted, but not until the AST is next
+  * asked for (<tt>getFile</tt>), so that a run of edits (keystrokes, say)
+  * costs one pass over the nodes that moved rather than one per edit.
+  * Lexing, parsing and allocation track the size of the edit rather than
+  * the size of the source.
+  * <p/>
+  * The result is always the AST that a full parse of the edited source
+  * would give, line numbers included.  So whenever the edit might have
+  * changed more than the damaged blocks (if the scanner, going on past
+  * them, does not find the next block's keyword where it was, e.g. because
+  * a comment or string was opened and not closed, or if the blocks no
+  * longer make a file, with the phrases before the Songs), and whenever
+  * the damaged blocks have errors, the whole source is parsed again, and
+  * the errors are reported by that parse as by a normal compile.  After an
+  * error, every edit is a full parse until the source parses again.
+  * <p/>
+  * How often that happens depends on the edits.  Of the 12300 edits of
+  * <tt>IncrementalCheck</tt> (seed 42), only about 2700 relex less than
+  * the whole source, but that check sets out to spoil its sources: about
+  * 5800 edits leave errors, and most of the rest follow one.  Of the 3324
+  * edits from a version that parses to one that parses, 2641 relex part
+  * of the source; 583 relex all of it only because the source is a
+  * single block (which is what the damaged blocks are then); and 100 are
+  * full parses, all edits made in two steps whose first step left an
+  * error.  An edit inside a block that keeps the source parsing (a note
+  * changed, say) is always parsed incrementally, which the check asserts.
+  * Whatever the edit, <tt>update</tt> compares the whole of the old and
+  * new versions to find it, so a caller that has only the new version
+  * (<tt>CompileWatcher</tt>, which rereads the file after every save)
+  * still reads and compares the whole source on every change, though it
+  * neither lexes nor parses the blocks the change did not touch.
+  * <p/>
+  * The parser uses <tt>CymbalScanner</tt> and <tt>CymbalParser</tt>, and
+  * no <tt>SongListener</tt>.  The AST is updated in place by later edits.
+  * <tt>IncrementalCheck</tt> compares it with full parses, and
+  * <tt>IncrementalBenchmark</tt> times it.
+  * */
+public class IncrementalParser {
+    /** name of the source (for error messages) */
+    private final String name;
+    /** the source, as of the last parse or edit (null before the first) */
+    private StringBuilder text = null;
+    /** the phrases and Songs of the source in order, the phrases first
+      * (null if the source did not parse at the last parse or edit)
+      * */
+    private List<Block> blocks = null;
+    /** the phrases of the source (the first blocks) */
+    private PhraseList phraseList;
+    /** the Songs of the source (the rest of the blocks) */
+    private SongList songList;
+    /** line number of the end of the source (the file's line number) */
+    private int fileLine;
+    /** the AST of the source, if it is up to date (null if not) */
+    private File file = null;
+    /** number of characters lexed by the last parse or edit */
+    private int reparsed = 0;
+    /** number of AST nodes built by the last parse or edit */
+    private int built = 0;
+    /** visitor that moves the nodes of the blocks after an edit */
+    private final LineShiftVisitor lineShifter = new LineShiftVisitor();
+
+    /** IncrementalParser constructor
+      * @param name name of the source (used in error messages)
+      * */
+    public IncrementalParser(String name) {
+	this.name = name;
+    }
+
+    /** returns the source
+      * @return the source as of the last parse or edit (null before the first)
+      * */
+    public String getText() {
+	return (text == null ? null : text.toString());
+    }
+
+    /** returns the number of characters lexed by the last parse or edit
+      * (the whole source for a full parse)
+      * @return the number of characters
+      * */
+    public int getReparsedLength() {
+	return reparsed;
+    }
+
+    /** returns the number of AST nodes built by the last parse or edit
+      * (those of the reparsed blocks, plus those of a full parse if the
+      * edit needed one)
+      * @return the number of nodes
+      * */
+    public int getNodeCount() {
+	return built;
+    }
+
+    /** returns the AST of the source, first moving the nodes that edits
+      * since the last call have moved to other lines
+      * @return the AST of the source as of the last parse or edit
+      * @throws IllegalStateException if the source did not parse
+      * */
+    public File getFile() {
+	if (blocks == null)
+	    throw new IllegalStateException("the source has not been parsed without errors");
+	if (file != null)
+	    return file;
+	for (Block block : blocks) {
+	    if (block.lines != 0) {
+		lineShifter.shiftLines(block.node, block.lines);
+		block.lines = 0;
+	    }
+	}
+	if (songList.getSize() > 0)
+	    file = new File(fileLine, (phraseList.getSize() > 0 ? phraseList : null), songList);
+	else
+	    file = new File(fileLine, phraseList, (Song) null);
+	return file;
+    }
+
+    /** parse a source in full (replacing whatever was parsed before)
+      * @param text the source
+      * @param errorHandler error handler that lexing and parsing errors are registered with
+      * @return the AST of the source
+      * @throws CompilationException if there are lexing or parsing errors
+      * */
+    public File parse(String text, ErrorHandler errorHandler) {
+	built = 0;
+	return parse(new StringBuilder(text), errorHandler);
+    }
+
+    /** parse the source in full
+      * @param text the source (kept, and changed by later edits)
+      * @param errorHandler error handler that lexing and parsing errors are registered with
+      * @return the AST of the source
+      * @throws CompilationException if there are lexing or parsing errors
+      * */
+    private File parse(StringBuilder text, ErrorHandler errorHandler) {
+	this.text = text;
+	blocks = null;
+	file = null;
+	reparsed = text.length();
+	List<Symbol> starts = new ArrayList<Symbol>();
+	CymbalParser parser = new CymbalParser(openScanner(0));
+	parser.setErrorHandler(errorHandler);
+	parser.setBlockStarts(starts);
+	try {
+	    file = parser.parse();
+	}
+	catch (CompilationException e) {
+	    throw e;
+	}
+	catch (Exception e) {
+	    // (the source is always readable)
+	    throw new RuntimeException(e);
+	}
+	finally {
+	    built += parser.getNodeCount();
+	}
+
+	phraseList = (file.getPhraseList() != null ? file.getPhraseList()
+		      : (PhraseList) new PhraseList(0).freeze());
+	songList = (file.getSong() != null ? file.getSongList() : (SongList) new SongList(0).freeze());
+	fileLine = file.getLineNum();
+	blocks = new ArrayList<Block>(starts.size());
+	for (ASTNode phrase : phraseList)
+	    blocks.add(new Block(starts.get(blocks.size()), 0, 0, phrase));
+	for (ASTNode song : songList)
+	    blocks.add(new Block(starts.get(blocks.size()), 0, 0, song));
+	return file;
+    }
+
+    /** bring the AST up to date with a new version of the source, reparsing
+      * only the blocks between the first and last characters that changed
+      * (or the whole source, if it did not parse last time)
+      * @param text the new version of the source
+      * @param errorHandler error handler that lexing and parsing errors are registered with
+      * @return the AST of the source
+      * @throws CompilationException if there are lexing or parsing errors
+      * */
+    public File update(String text, ErrorHandler errorHandler) {
+	if (this.text == null || blocks == null)
+	    return parse(text, errorHandler);
+	StringBuilder old = this.text;
+	int limit = Math.min(old.length(), text.length());
+	int prefix = 0;
+	while (prefix < limit && old.charAt(prefix) == text.charAt(prefix))
+	    prefix++;
+	if (prefix == old.length() && prefix == text.length()) {
+	    reparsed = 0;
+	    built = 0;
+	    return getFile();
+	}
+	int suffix = 0;
+	while (suffix < limit - prefix
+	       && old.charAt(old.length() - 1 - suffix) == text.charAt(text.length() - 1 - suffix))
+	    suffix++;
+	edit(prefix, old.length() - prefix - suffix,
+	     text.substring(prefix, text.length() - suffix), errorHandler);
+	return getFile();
+    }
+
+    /** edit the source, and reparse what the edit damaged (the AST is
+      * then had from <tt>getFile</tt>)
+      * @param offset offset of the first character replaced
+      * @param length number of characters replaced
+      * @param replacement the characters that replace them
+      * @param errorHandler error handler that lexing and parsing errors are registered with
+      * @throws CompilationException if there are lexing or parsing errors
+      * */
+    public void edit(int offset, int length, String replacement, ErrorHandler errorHandler) {
+	if (text == null)
+	    throw new IllegalStateException("edit before the source has been parsed");
+	if (offset < 0 || length < 0 || offset + length > text.length())
+	    throw new IllegalArgumentException("edit of " + offset + ".." + (offset + length)
+					       + " is outside the source of " + text.length()
+					       + " characters");
+	text.replace(offset, offset + length, replacement);
+	built = 0;
+	if (blocks == null) {
+	    parse(text, errorHandler);
+	    return;
+	}
+
+	// the damaged blocks: from the one the edit starts in to the one it ends in
+	int first = Math.max(countBefore(offset) - 1, 0);
+	int last = Math.max(countBefore(offset + length) - 1, first);
+	int after = last + 1;
+	int shift = replacement.length() - length;
+	int start = (first == 0 ? 0 : blocks.get(first).start);
+	int lineBase = (first == 0 ? 0 : blocks.get(first).line - 1);
+	Block next = (after < blocks.size() ? blocks.get(after) : null);
+
+	// relex and reparse them, up to the next block's keyword
+	RegionSource source = (next == null)
+	    ? new RegionSource(openScanner(start), -1, 0, lineBase)
+	    : new RegionSource(openScanner(start), next.start + shift - start,
+			       (next.node instanceof Phrase ? TokenIds.PHRASE : TokenIds.SONG),
+			       lineBase);
+	List<ASTNode> nodes = new ArrayList<ASTNode>();
+	List<Symbol> starts = new ArrayList<Symbol>();
+	CymbalParser parser = new CymbalParser(source);
+	parser.setErrorHandler(new ErrorHandler(false));
+	parser.setBlockStarts(starts);
+	try {
+	    parser.parseBlocks(nodes);
+	}
+	catch (CompilationException e) {
+	    // (the full parse reports the errors)
+	    parse(text, errorHandler);
+	    return;
+	}
+	catch (Error e) {
+	    // (as does the scanner's error for unmatched input)
+	    parse(text, errorHandler);
+	    return;
+	}
+	catch (Exception e) {
+	    throw new RuntimeException(e);
+	}
+	finally {
+	    built += parser.getNodeCount();
+	}
+	if (!source.aligned || !fits(first, after, nodes)) {
+	    parse(text, errorHandler);
+	    return;
+	}
+
+	// splice the new nodes in place of the old ones
+	int numPhrases = phraseList.getSize();
+	int newPhrases = 0;
+	while (newPhrases < nodes.size() && nodes.get(newPhrases) instanceof Phrase)
+	    newPhrases++;
+	phraseList.replaceElements(Math.min(first, numPhrases), Math.min(after, numPhrases),
+				   nodes.subList(0, newPhrases));
+	songList.replaceElements(Math.max(first, numPhrases) - numPhrases,
+				 Math.max(after, numPhrases) - numPhrases,
+				 nodes.subList(newPhrases, nodes.size()));
+	List<Block> replaced = blocks.subList(first, after);
+	replaced.clear();
+	for (int i = 0; i < nodes.size(); i++)
+	    replaced.add(new Block(starts.get(i), start, lineBase, nodes.get(i)));
+
+	// move the blocks after the edit (their nodes are moved by getFile)
+	int lines = (next == null ? 0 : source.endLine - next.line);
+	for (int i = first + nodes.size(); i < blocks.size(); i++) {
+	    Block block = blocks.get(i);
+	    block.start += shift;
+	    block.line += lines;
+	    block.lines += lines;
+	}
+	fileLine = (next == null ? source.getCurrLineNum() : fileLine + lines);
+	reparsed = source.length;
+	file = null;
+    }
+
+    /** count the blocks whose keyword comes before an offset
+      * @param offset the offset in the source
+      * @return the number of blocks
+      * */
+    private int countBefore(int offset) {
+	int low = 0;
+	int high = blocks.size();
+	while (low < high) {
+	    int middle = (low + high) >>> 1;
+	    if (blocks.get(middle).start < offset)
+		low = middle + 1;
+	    else
+		high = middle;
+	}
+	return low;
+    }
+
+    /** check that reparsed blocks, put in place of some of the blocks, still
+      * make a file:  at least one block, and no phrase after a Song
+      * @param first index of the first block replaced
+      * @param after index after the last block replaced
+      * @param nodes the reparsed blocks
+      * @return true if they make a file
+      * */
+    private boolean fits(int first, int after, List<ASTNode> nodes) {
+	if (nodes.isEmpty() && first == 0 && after == blocks.size())
+	    return false;
+	boolean song = (first > 0 && blocks.get(first - 1).node instanceof Song);
+	for (ASTNode node : nodes) {
+	    if (song && node instanceof Phrase)
+		return false;
+	    song = (node instanceof Song);
+	}
+	return !(song && after < blocks.size() && blocks.get(after).node instanceof Phrase);
+    }
+
+    /** open the scanner for the source, starting part of the way through
+      * @param start offset to start at (the start of a block, or 0)
+      * @return the scanner, with offsets counted from <tt>start</tt>
+      * */
+    private CymbalScanner openScanner(int start) {
+	return new CymbalScanner(new String[] {name}, new Reader[] {new SourceReader(text, start)},
+				 false);
+    }
+
+    /** A top-level block of the source:  a phrase or a Song */
+    private static class Block {
+	/** offset in the source of the block's keyword */
+	int start;
+	/** line of the block's keyword */
+	int line;
+	/** number of lines that the block's node is yet to be moved by */
+	int lines = 0;
+	/** the phrase or Song */
+	final ASTNode node;
+
+	/** Block constructor
+	  * @param keyword the block's keyword, as the scanner returned it
+	  * @param start offset in the source that the scanner started at
+	  * @param lineBase number of lines before the one the scanner started on
+	  * @param node the phrase or Song
+	  * */
+	Block(Symbol keyword, int start, int lineBase, ASTNode node) {
+	    this.start = keyword.right + start;
+	    this.line = keyword.left + lineBase;
+	    this.node = node;
+	}
+    }
+
+    /** Reader of the source from some offset on (which, unlike a
+      * <tt>StringReader</tt>, does not need the source copied into a
+      * <tt>String</tt> after every edit)
+      * */
+    private static class SourceReader extends Reader {
+	/** the source */
+	private final StringBuilder text;
+	/** offset of the next character to read */
+	private int pos;
+
+	/** SourceReader constructor
+	  * @param text the source
+	  * @param start offset of the first character to read
+	  * */
+	SourceReader(StringBuilder text, int start) {
+	    this.text = text;
+	    this.pos = start;
+	}
+
+	public int read(char[] buffer, int offset, int length) {
+	    if (pos >= text.length())
+		return -1;
+	    int n = Math.min(length, text.length() - pos);
+	    text.getChars(pos, pos + n, buffer, offset);
+	    pos += n;
+	    return n;
+	}
+
+	public void close() {
+	}
+    }
+
+    /** The tokens of the damaged blocks:  those of a scanner that starts at
+      * the first one's keyword, up to the keyword of the block after them,
+      * where it gives EOF instead; line numbers are those of the source
+      * (but the tokens' own lines and offsets are the scanner's)
+      * */
+    private static class RegionSource implements CompactTokenSource {
+	/** the scanner */
+	private final CymbalScanner scanner;
+	/** offset (from where the scanner started) of the keyword of the
+	  * block after the damaged ones, or -1 if there is none */
+	private final int end;
+	/** the kind of that keyword */
+	private final int endKind;
+	/** number of lines before the one the scanner started on */
+	private final int lineBase;
+	/** whether the end has been reached (EOF is then given, at the
+	  * position of the next block's keyword) */
+	private boolean atEnd = false;
+	/** line of the last token (the scanner's, or the EOF's at the end) */
+	private int tokenLine;
+	/** offset of the last token (the scanner's, or the EOF's at the end) */
+	private int tokenOffset;
+	/** whether the scanner found the next block's keyword where it was
+	  * (always true if there is no next block) */
+	boolean aligned;
+	/** line of the next block's keyword, once it has been reached */
+	int endLine;
+	/** number of characters lexed */
+	int length;
+
+	/** RegionSource constructor
+	  * @param scanner the scanner
+	  * @param end offset of the next block's keyword, or -1 if there is none
+	  * @param endKind the kind of the next block's keyword
+	  * @param lineBase number of lines before the one the scanner started on
+	  * */
+	RegionSource(CymbalScanner scanner, int end, int endKind, int lineBase) {
+	    this.scanner = scanner;
+	    this.end = end;
+	    this.endKind = endKind;
+	    this.lineBase = lineBase;
+	    this.aligned = (end < 0);
+	}
+
+	public Symbol next_token() throws IOException {
+	    int kind = nextKind();
+	    return new Symbol(kind, tokenLine, tokenOffset, getLexeme());
+	}
+
+	public int nextKind() throws IOException {
+	    if (atEnd)
+		return TokenIds.EOF;
+	    int kind = scanner.nextKind();
+	    tokenLine = scanner.getTokenLine();
+	    tokenOffset = scanner.getTokenOffset();
+	    if (kind == TokenIds.EOF)
+		length = tokenOffset;
+	    if (end < 0 || (tokenOffset < end && kind != TokenIds.EOF))
+		return kind;
+	    aligned = (tokenOffset == end && kind == endKind);
+	    endLine = tokenLine + lineBase;
+	    length = end;
+	    atEnd = true;
+	    return TokenIds.EOF;
+	}
+
+	public int getTokenLine() {
+	    return tokenLine;
+	}
+
+	public int getTokenOffset() {
+	    return tokenOffset;
+	}
+
+	public String getLexeme() {
+	    return (atEnd ? null : scanner.getLexeme());
+	}
+
+	public int getCurrLineNum() {
+	    return scanner.getCurrLineNum() + lineBase;
+	}
+
+	public String getCurrFilename() {
+	    return scanner.getCurrFilename();
+	}
+    }
+}
@@ -1,7 +1,7 @@
 
 //----------------------------------------------------
 // The following code was generated by CUP v0.10k
-// Fri May 09 11:42:34 EDT 2014
+// Sun Oct 18 12:32:16 UTC 2026
 //----------------------------------------------------
 
 package parser;
@@ -12,7 +12,7 @@ import util.ErrorHandler;
 import java_cup.runtime.Symbol;
 
 /** CUP v0.10k generated parser.
-  * @version Fri May 09 11:42:34 EDT 2014
+  * @version Sun Oct 18 12:32:16 UTC 2026
   */
 public class Parser extends java_cup.runtime.lr_parser {
 
@@ -22,169 +22,137 @@ public class Parser extends java_cup.runtime.lr_parser {
   /** Constructor which sets the default scanner. */
   public Parser(java_cup.runtime.Scanner s) {super(s);}
 
-  /** Production table. */
-  protected static final short _production_table[][] = 
-    unpackFromStrings(new String[] {
-    "\000\045\000\002\004\004\000\002\002\004\000\002\004" +
-    "\003\000\002\003\010\000\002\005\003\000\002\005\004" +
-    "\000\002\006\007\000\002\011\003\000\002\011\004\000" +
-    "\002\010\003\000\002\010\003\000\002\023\003\000\002" +
-    "\023\003\000\002\023\003\000\002\023\003\000\002\023" +
-    "\003\000\002\012\007\000\002\024\006\000\002\025\007" +
-    "\000\002\026\007\000\002\027\007\000\002\030\003\000" +
-    "\002\013\003\000\002\013\003\000\002\016\005\000\002" +
-    "\016\005\000\002\016\006\000\002\016\004\000\002\014" +
-    "\003\000\002\014\003\000\002\017\003\000\002\020\003" +
-    "\000\002\015\003\000\002\015\003\000\002\021\003\000" +
-    "\002\007\005\000\002\022\003" });
+  /** Parse tables, decoded on first use. */
+  protected static class CUP$Parser$tables {
+
+    /** Production table. */
+    static final short[][] production = 
+      unpackFromStrings(new String[] {
+    "\000\053\000\002\005\004\000\002\002\004\000\002\005" +
+    "\003\000\002\005\003\000\002\004\003\000\002\004\004" +
+    "\000\002\033\002\000\002\003\011\000\002\013\003\000" +
+    "\002\013\004\000\002\006\003\000\002\006\004\000\002" +
+    "\007\007\000\002\012\003\000\002\012\004\000\002\011" +
+    "\003\000\002\011\003\000\002\025\003\000\002\025\003" +
+    "\000\002\025\003\000\002\025\003\000\002\025\003\000" +
+    "\002\014\007\000\002\026\006\000\002\027\007\000\002" +
+    "\030\007\000\002\031\007\000\002\032\003\000\002\015" +
+    "\003\000\002\015\003\000\002\020\005\000\002\020\005" +
+    "\000\002\020\006\000\002\020\004\000\002\016\003\000" +
+    "\002\016\003\000\002\021\003\000\002\022\003\000\002" +
+    "\017\003\000\002\017\003\000\002\023\003\000\002\010" +
+    "\005\000\002\024\003" });
+
+    /** Parse-action table. */
+    static final java_cup.runtime.comb_table action = 
+      java_cup.runtime.comb_table.unpack(new String[] {
+    "\000\004\000\114\002\002\010\005\012\002\002\010\002" +
+    "\135\002\002\002\002\006\002\015\023\024\002\002\002" +
+    "\002\002\007\002\002\012\002\144\017\002\002\045\002" +
+    "\150\002\002\002\002\023\002\002\002\002\002\002\047" +
+    "\161\034\002\050\002\170\051\002\051\205\066\002\054" +
+    "\214\103\002\002\002\046\064\002\231\002\120\002\002" +
+    "\002\076\000\114\002\ufff7\ufffe\002\uffff\002\ufffd\002\002" +
+    "\002\uffd7\uffee\ufff4\uffe4\002\ufff2\002\002\002\002\ufff0\uffed" +
+    "\uffe5\002\002\uffef\ufff1\002\uffec\002\002\ufff3\uffea\002\uffd8" +
+    "\uffe0\uffda\uffdb\uffdf\uffdc\uffe2\uffd9\uffdd\uffde\uffe3\uffe1\ufff5\002" +
+    "\002\002\uffe7\002\uffe6\002\002\uffe9\002\002\002\uffe8\002" +
+    "\002\002\uffeb\000\ufffc\002\002\ufffb\002\ufff9\002\ufff8\ufffa" +
+    "\ufff6\001\000\256\007\001\001\002\002\031\025\031\025" +
+    "\004\004\006\012\025\025\032\025\025\025\040\035\040" +
+    "\025\020\020\005\040\040\011\040\040\040\063\022\063" +
+    "\040\052\052\023\063\063\024\063\063\063\070\043\070" +
+    "\063\061\065\072\070\070\076\070\070\070\074\104\074" +
+    "\070\105\115\001\074\074\001\074\074\074\100\001\100" +
+    "\074\001\001\001\100\100\001\100\100\100\111\001\111" +
+    "\100\001\001\001\111\111\001\111\111\111\013\001\013" +
+    "\111\001\001\001\037\013\037\013\013\013\001\045\037" +
+    "\013\037\037\037\062\001\062\037\045\045\001\067\062" +
+    "\067\062\062\062\001\001\067\062\067\067\067\073\001" +
+    "\073\067\001\001\001\077\073\077\073\073\073\001\001" +
+    "\077\073\077\077\077\107\001\107\077\001\001\001\001" +
+    "\107\001\107\107\107\001\001\001\107\000\256\103\002" +
+    "\002\006\012\050\021\047\032\006\012\006\014\061\036" +
+    "\044\024\023\025\021\040\032\015\055\052\105\043\036" +
+    "\013\024\023\025\021\015\032\015\055\052\067\065\036" +
+    "\062\024\023\025\021\045\032\015\063\070\074\072\036" +
+    "\100\024\023\025\021\106\032\015\107\006\002\076\036" +
+    "\002\024\023\025\021\002\032\015\002\002\002\102\036" +
+    "\002\024\023\025\021\002\032\015\002\002\002\114\036" +
+    "\002\024\023\025\021\002\032\015\002\002\002\021\036" +
+    "\032\024\023\025\002\054\036\015\024\023\025\021\002" +
+    "\032\015\055\052\002\021\036\032\024\023\025\002\002" +
+    "\036\015\024\023\025\021\002\032\015\002\002\002\021" +
+    "\036\032\024\023\025\002\002\036\015\024\023\025\021" +
+    "\002\032\015\002\002\002\002\036\002\024\023\025\002" +
+    "\002\002\015" });
+
+    /** <code>reduce_goto</code> table. */
+    static final java_cup.runtime.comb_table reduce = 
+      java_cup.runtime.comb_table.unpack(new String[] {
+    "\000\004\000\114\002\002\037\002\012\002\002\002\002" +
+    "\002\002\002\002\002\043\002\013\013\002\200\002\002" +
+    "\002\002\002\002\002\002\002\024\222\002\002\002\002" +
+    "\002\002\002\002\002\065\002\002\002\002\002\002\002" +
+    "\046\244\002\002\002\070\266\002\002\112\310\002\002" +
+    "\134\332\002\002\002\002\002\014\156\002\354\002\002" +
+    "\002\064\000\114\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\001\001\001\001\001\001\001\001\001\001\001" +
+    "\001\001\000\u0102\001\002\002\002\002\002\013\013\013" +
+    "\006\013\013\045\031\013\045\045\045\013\013\013\013" +
+    "\013\013\037\037\037\022\037\037\004\004\037\023\004" +
+    "\106\037\037\037\037\037\037\062\062\062\020\062\062" +
+    "\020\020\062\115\001\001\062\062\062\062\062\062\067" +
+    "\067\067\052\067\067\052\052\067\001\001\001\067\067" +
+    "\067\067\067\067\073\073\073\001\073\073\001\001\073" +
+    "\001\001\001\073\073\073\073\073\073\077\077\077\001" +
+    "\077\077\001\001\077\001\001\001\077\077\077\077\077" +
+    "\077\107\107\001\107\107\107\001\001\107\001\001\001" +
+    "\107\107\107\107\107\107\025\025\001\001\025\025\001" +
+    "\001\025\001\001\001\025\025\025\025\025\025\040\040" +
+    "\001\001\040\040\001\001\040\001\001\001\040\040\040" +
+    "\040\040\040\063\063\001\001\063\063\001\001\063\001" +
+    "\001\001\063\063\063\063\063\063\070\070\001\001\070" +
+    "\070\001\001\070\001\001\001\070\070\070\070\070\070" +
+    "\074\074\001\001\074\074\001\001\074\001\001\001\074" +
+    "\074\074\074\074\074\100\100\001\001\100\100\001\001" +
+    "\100\001\001\001\100\100\100\100\100\100\111\111\001" +
+    "\001\111\111\001\001\111\001\001\001\111\111\111\111" +
+    "\111\111\000\u0102\002\010\006\007\004\003\030\016\025" +
+    "\103\026\021\056\045\017\050\055\052\032\034\015\033" +
+    "\027\036\030\016\040\072\026\021\010\115\017\065\114" +
+    "\107\032\034\015\033\027\036\030\016\063\076\026\021" +
+    "\050\055\017\103\002\002\032\034\015\033\027\036\030" +
+    "\016\070\057\026\021\050\055\017\002\002\002\032\034" +
+    "\015\033\027\036\030\016\074\002\026\021\002\002\017" +
+    "\002\002\002\032\034\015\033\027\036\030\016\100\002" +
+    "\026\021\002\002\017\002\002\002\032\034\015\033\027" +
+    "\036\030\110\002\111\026\021\002\002\017\002\002\002" +
+    "\032\034\015\033\027\036\030\041\002\002\026\021\002" +
+    "\002\017\002\002\002\032\034\015\033\027\036\030\041" +
+    "\002\002\026\021\002\002\017\002\002\002\032\034\015" +
+    "\033\027\036\030\041\002\002\026\021\002\002\017\002" +
+    "\002\002\032\034\015\033\027\036\030\041\002\002\026" +
+    "\021\002\002\017\002\002\002\032\034\015\033\027\036" +
+    "\030\041\002\002\026\021\002\002\017\002\002\002\032" +
+    "\034\015\033\027\036\030\041\002\002\026\021\002\002" +
+    "\017\002\002\002\032\034\015\033\027\036\030\112\002" +
+    "\002\026\021\002\002\017\002\002\002\032\034\015\033" +
+    "\027\036" });
+  }
 
   /** Access to production table. */
-  public short[][] production_table() {return _production_table;}
-
-  /** Parse-action table. */
-  protected static final short[][] _action_table = 
-    unpackFromStrings(new String[] {
-    "\000\107\000\006\005\006\006\011\001\002\000\006\005" +
-    "\ufffd\006\ufffd\001\002\000\006\005\006\006\011\001\002" +
-    "\000\004\030\103\001\002\000\004\002\102\001\002\000" +
-    "\004\002\uffff\001\002\000\004\030\012\001\002\000\004" +
-    "\016\013\001\002\000\020\010\020\012\031\020\035\022" +
-    "\023\023\022\024\024\030\014\001\002\000\006\014\uffdd" +
-    "\016\uffdd\001\002\000\022\010\ufff4\012\ufff4\017\ufff4\020" +
-    "\ufff4\022\ufff4\023\ufff4\024\ufff4\030\ufff4\001\002\000\022" +
-    "\010\ufffa\012\ufffa\017\ufffa\020\ufffa\022\ufffa\023\ufffa\024" +
-    "\ufffa\030\ufffa\001\002\000\022\010\uffea\012\uffea\017\uffea" +
-    "\020\uffea\022\uffea\023\uffea\024\uffea\030\uffea\001\002\000" +
-    "\006\025\054\026\051\001\002\000\022\010\ufff8\012\ufff8" +
-    "\017\ufff8\020\ufff8\022\ufff8\023\ufff8\024\ufff8\030\ufff8\001" +
-    "\002\000\004\030\014\001\002\000\004\027\066\001\002" +
-    "\000\004\031\061\001\002\000\022\010\020\012\031\017" +
-    "\060\020\035\022\023\023\022\024\024\030\014\001\002" +
-    "\000\022\010\ufff6\012\ufff6\017\ufff6\020\ufff6\022\ufff6\023" +
-    "\ufff6\024\ufff6\030\ufff6\001\002\000\022\010\ufff3\012\ufff3" +
-    "\017\ufff3\020\ufff3\022\ufff3\023\ufff3\024\ufff3\030\ufff3\001" +
-    "\002\000\022\010\uffeb\012\uffeb\017\uffeb\020\uffeb\022\uffeb" +
-    "\023\uffeb\024\uffeb\030\uffeb\001\002\000\006\007\047\011" +
-    "\046\001\002\000\004\014\043\001\002\000\022\010\ufff5" +
-    "\012\ufff5\017\ufff5\020\ufff5\022\ufff5\023\ufff5\024\ufff5\030" +
-    "\ufff5\001\002\000\022\010\ufff7\012\ufff7\017\ufff7\020\ufff7" +
-    "\022\ufff7\023\ufff7\024\ufff7\030\ufff7\001\002\000\004\016" +
-    "\037\001\002\000\022\010\ufff2\012\ufff2\017\ufff2\020\ufff2" +
-    "\022\ufff2\023\ufff2\024\ufff2\030\ufff2\001\002\000\020\010" +
-    "\020\012\031\020\035\022\023\023\022\024\024\030\014" +
-    "\001\002\000\022\010\020\012\031\017\042\020\035\022" +
-    "\023\023\022\024\024\030\014\001\002\000\022\010\ufff9" +
-    "\012\ufff9\017\ufff9\020\ufff9\022\ufff9\023\ufff9\024\ufff9\030" +
-    "\ufff9\001\002\000\022\010\ufff0\012\ufff0\017\ufff0\020\ufff0" +
-    "\022\ufff0\023\ufff0\024\ufff0\030\ufff0\001\002\000\004\015" +
-    "\044\001\002\000\022\010\uffde\012\uffde\017\uffde\020\uffde" +
-    "\022\uffde\023\uffde\024\uffde\030\uffde\001\002\000\030\010" +
-    "\uffe6\012\uffe6\013\053\017\uffe6\020\uffe6\022\uffe6\023\uffe6" +
-    "\024\uffe6\025\054\026\051\030\uffe6\001\002\000\030\010" +
-    "\uffe0\012\uffe0\013\uffe0\017\uffe0\020\uffe0\022\uffe0\023\uffe0" +
-    "\024\uffe0\025\uffe0\026\uffe0\030\uffe0\001\002\000\030\010" +
-    "\uffe1\012\uffe1\013\uffe1\017\uffe1\020\uffe1\022\uffe1\023\uffe1" +
-    "\024\uffe1\025\uffe1\026\uffe1\030\uffe1\001\002\000\024\010" +
-    "\uffe5\012\uffe5\016\uffe5\017\uffe5\020\uffe5\022\uffe5\023\uffe5" +
-    "\024\uffe5\030\uffe5\001\002\000\024\010\uffe2\012\uffe2\016" +
-    "\uffe2\017\uffe2\020\uffe2\022\uffe2\023\uffe2\024\uffe2\030\uffe2" +
-    "\001\002\000\026\010\uffe8\012\uffe8\017\uffe8\020\uffe8\022" +
-    "\uffe8\023\uffe8\024\uffe8\025\054\026\051\030\uffe8\001\002" +
-    "\000\026\010\uffdf\012\uffdf\017\uffdf\020\uffdf\022\uffdf\023" +
-    "\uffdf\024\uffdf\025\uffdf\026\uffdf\030\uffdf\001\002\000\024" +
-    "\010\uffe3\012\uffe3\016\uffe3\017\uffe3\020\uffe3\022\uffe3\023" +
-    "\uffe3\024\uffe3\030\uffe3\001\002\000\024\010\uffe4\012\uffe4" +
-    "\016\uffe4\017\uffe4\020\uffe4\022\uffe4\023\uffe4\024\uffe4\030" +
-    "\uffe4\001\002\000\022\010\uffe9\012\uffe9\017\uffe9\020\uffe9" +
-    "\022\uffe9\023\uffe9\024\uffe9\030\uffe9\001\002\000\022\010" +
-    "\uffe7\012\uffe7\017\uffe7\020\uffe7\022\uffe7\023\uffe7\024\uffe7" +
-    "\030\uffe7\001\002\000\006\005\ufffb\006\ufffb\001\002\000" +
-    "\004\016\062\001\002\000\020\010\020\012\031\020\035" +
-    "\022\023\023\022\024\024\030\014\001\002\000\022\010" +
-    "\020\012\031\017\064\020\035\022\023\023\022\024\024" +
-    "\030\014\001\002\000\022\010\uffed\012\uffed\017\uffed\020" +
-    "\uffed\022\uffed\023\uffed\024\uffed\030\uffed\001\002\000\004" +
-    "\016\067\001\002\000\004\016\uffec\001\002\000\020\010" +
-    "\020\012\031\020\035\022\023\023\022\024\024\030\014" +
-    "\001\002\000\022\010\020\012\031\017\071\020\035\022" +
-    "\023\023\022\024\024\030\014\001\002\000\022\010\uffef" +
-    "\012\uffef\017\uffef\020\uffef\022\uffef\023\uffef\024\uffef\030" +
-    "\uffef\001\002\000\004\016\073\001\002\000\020\010\020" +
-    "\012\031\020\035\022\023\023\022\024\024\030\014\001" +
-    "\002\000\022\010\020\012\031\017\075\020\035\022\023" +
-    "\023\022\024\024\030\014\001\002\000\022\010\uffee\012" +
-    "\uffee\017\uffee\020\uffee\022\uffee\023\uffee\024\uffee\030\uffee" +
-    "\001\002\000\004\016\077\001\002\000\020\010\020\012" +
-    "\031\020\035\022\023\023\022\024\024\030\014\001\002" +
-    "\000\022\010\020\012\031\017\101\020\035\022\023\023" +
-    "\022\024\024\030\014\001\002\000\022\010\ufff1\012\ufff1" +
-    "\017\ufff1\020\ufff1\022\ufff1\023\ufff1\024\ufff1\030\ufff1\001" +
-    "\002\000\004\002\000\001\002\000\004\031\104\001\002" +
-    "\000\004\016\105\001\002\000\020\010\020\012\031\020" +
-    "\035\022\023\023\022\024\024\030\014\001\002\000\022" +
-    "\010\020\012\031\017\107\020\035\022\023\023\022\024" +
-    "\024\030\014\001\002\000\004\002\ufffe\001\002\000\006" +
-    "\005\ufffc\006\ufffc\001\002\000\004\002\001\001\002" });
+  public short[][] production_table() {return CUP$Parser$tables.production;}
 
   /** Access to parse-action table. */
-  public short[][] action_table() {return _action_table;}
-
-  /** <code>reduce_goto</code> table. */
-  protected static final short[][] _reduce_table = 
-    unpackFromStrings(new String[] {
-    "\000\107\000\012\003\007\004\006\005\004\006\003\001" +
-    "\001\000\002\001\001\000\006\003\110\006\107\001\001" +
-    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\032\007\027\010\015" +
-    "\011\024\012\025\013\020\016\016\022\031\023\033\024" +
-    "\014\025\032\026\026\027\035\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-    "\010\014\075\017\047\020\054\001\001\000\002\001\001" +
-    "\000\004\022\071\001\001\000\004\030\064\001\001\000" +
-    "\002\001\001\000\030\007\027\010\040\012\025\013\020" +
-    "\016\016\022\031\023\033\024\014\025\032\026\026\027" +
-    "\035\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\004\015\044\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\002\001\001\000\002" +
-    "\001\001\000\032\007\027\010\015\011\037\012\025\013" +
-    "\020\016\016\022\031\023\033\024\014\025\032\026\026" +
-    "\027\035\001\001\000\030\007\027\010\040\012\025\013" +
-    "\020\016\016\022\031\023\033\024\014\025\032\026\026" +
-    "\027\035\001\001\000\002\001\001\000\002\001\001\000" +
-    "\002\001\001\000\002\001\001\000\012\014\055\017\047" +
-    "\020\054\021\051\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\010\014\056" +
-    "\017\047\020\054\001\001\000\002\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\032\007\027\010" +
-    "\015\011\062\012\025\013\020\016\016\022\031\023\033" +
-    "\024\014\025\032\026\026\027\035\001\001\000\030\007" +
-    "\027\010\040\012\025\013\020\016\016\022\031\023\033" +
-    "\024\014\025\032\026\026\027\035\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001\000\032\007\027" +
-    "\010\015\011\067\012\025\013\020\016\016\022\031\023" +
-    "\033\024\014\025\032\026\026\027\035\001\001\000\030" +
-    "\007\027\010\040\012\025\013\020\016\016\022\031\023" +
-    "\033\024\014\025\032\026\026\027\035\001\001\000\002" +
-    "\001\001\000\002\001\001\000\032\007\027\010\015\011" +
-    "\073\012\025\013\020\016\016\022\031\023\033\024\014" +
-    "\025\032\026\026\027\035\001\001\000\030\007\027\010" +
-    "\040\012\025\013\020\016\016\022\031\023\033\024\014" +
-    "\025\032\026\026\027\035\001\001\000\002\001\001\000" +
-    "\002\001\001\000\032\007\027\010\015\011\077\012\025" +
-    "\013\020\016\016\022\031\023\033\024\014\025\032\026" +
-    "\026\027\035\001\001\000\030\007\027\010\040\012\025" +
-    "\013\020\016\016\022\031\023\033\024\014\025\032\026" +
-    "\026\027\035\001\001\000\002\001\001\000\002\001\001" +
-    "\000\002\001\001\000\002\001\001\000\032\007\027\010" +
-    "\015\011\105\012\025\013\020\016\016\022\031\023\033" +
-    "\024\014\025\032\026\026\027\035\001\001\000\030\007" +
-    "\027\010\040\012\025\013\020\016\016\022\031\023\033" +
-    "\024\014\025\032\026\026\027\035\001\001\000\002\001" +
-    "\001\000\002\001\001\000\002\001\001" });
+  public java_cup.runtime.comb_table action_comb_table() {return CUP$Parser$tables.action;}
 
   /** Access to <code>reduce_goto</code> table. */
-  public short[][] reduce_table() {return _reduce_table;}
+  public java_cup.runtime.comb_table reduce_comb_table() {return CUP$Parser$tables.reduce;}
 
   /** Instance of action encapsulation class. */
   protected CUP$Parser$actions action_obj;
@@ -196,11 +164,11 @@ public class Parser extends java_cup.runtime.lr_parser {
     }
 
   /** Invoke a user supplied parse action. */
-  public java_cup.runtime.Symbol do_action(
-    int                        act_num,
-    java_cup.runtime.lr_parser parser,
-    java.util.Stack            stack,
-    int                        top)
+  public java.lang.Object do_action(
+    int                          act_num,
+    java_cup.runtime.lr_parser   parser,
+    java_cup.runtime.parse_stack stack,
+    int                          top)
     throws java.lang.Exception
   {
     /* call code in generated class */
@@ -226,30 +194,71 @@ public class Parser extends java_cup.runtime.lr_parser {
  * Last Edit: 02/25/2014
  * Added nonterminals, grammar rules to build parse tree and AST
  */
+    /** object for error handling */
+    private ErrorHandler errorHandler = new ErrorHandler();
+
+    /** returns the error handler
+      * @return the error handler that lexing and parsing errors are registered with
+      * */
+    public ErrorHandler getErrorHandler() {
+		return errorHandler;
+    }
+
+    /** sets the error handler (e.g., one that collects errors without printing them)
+      * @param errorHandler the error handler to register lexing and parsing errors with
+      * */
+    public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+    }
+
+    /** listener that phrases and song expressions are handed to as soon
+      * as they are parsed (null unless streaming) */
+    private SongListener songListener = null;
+
+    /** returns the song listener
+      * @return the song listener (null unless streaming)
+      * */
+    public SongListener getSongListener() {
+		return songListener;
+    }
+
+    /** sets the song listener; top-level song expressions are then handed
+      * to it instead of being kept in the Song's expression list
+      * @param songListener the song listener
+      * */
+    public void setSongListener(SongListener songListener) {
+		this.songListener = songListener;
+    }
+
+    /** number of AST nodes built so far (counted by the actions) */
+    int numNodes = 0;
+
+    /** returns the number of AST nodes built, as they are built (so that
+      * the nodes need not be counted again afterwards)
+      * @return the number of AST nodes built so far
+      * */
+    public int getNodeCount() {
+		return numNodes;
+    }
+
     /** overrides done_parsing in inherited class, called when parsing finishes
       * either after accepting or because of errors
       * */
     public void done_parsing() {
 		super.done_parsing();
 		// if lexing and/or parsing errors then exit
-		action_obj.getErrorHandler().checkErrors();
+		errorHandler.checkErrors();
     }
 
     /** overrides syntax_error in inherited class and handles syntax errors 
       * @param curr current symbol from the lexer
       * */
     public void syntax_error(Symbol curr) {
-		// get token value from the symbol
-		Token t = (Token)curr.value;
-	
-		// get the error handler object
-		ErrorHandler errorHandler = action_obj.getErrorHandler();
-
 		// may want to modify and augment the code below for more
 		// accurate error reporting
-		errorHandler.register(errorHandler.PARSE_ERROR, action_obj.getCurrFilename(), 
+		errorHandler.register(ErrorHandler.PARSE_ERROR, action_obj.getCurrFilename(), 
 			      action_obj.getCurrLineNum(), 
-			      "unexpected input near '" + t.getLexeme() + "'");
+			      "unexpected input near '" + Token.getLexeme(curr) + "'");
     }
 
     /** override error_sync_size in inherited class and
@@ -266,22 +275,35 @@ public class Parser extends java_cup.runtime.lr_parser {
 class CUP$Parser$actions {
 
  
-    /** object for error handling */
-    private ErrorHandler errorHandler = new ErrorHandler();
-
-    /* sets the error handler */
+    /* returns the error handler (kept by the parser, so that it can be
+       set before parsing starts) */
     public ErrorHandler getErrorHandler() {
-		return errorHandler;
+		return parser.getErrorHandler();
     }
 
     /* returns the current line number from the scanner */
     public int getCurrLineNum() {
-		return ((Lexer)parser.getScanner()).getCurrLineNum();
+		return ((TokenSource)parser.getScanner()).getCurrLineNum();
     }
 
     /* returns the current file name from the scanner */
     public String getCurrFilename() {
-		return ((Lexer)parser.getScanner()).getCurrFilename();
+		return ((TokenSource)parser.getScanner()).getCurrFilename();
+    }
+
+    /* counts a node built by an action (see Parser.getNodeCount) */
+    private <T extends ASTNode> T built(T node) {
+		parser.numNodes++;
+		return node;
+    }
+
+    /* adds a top-level song expression to the song's list, or hands it
+       to the song listener (and drops it) when streaming */
+    private ExprList addSongExpr(ExprList el, Expr e) {
+		if (parser.getSongListener() == null)
+			return (ExprList)el.addElement(e);
+		parser.getSongListener().songExprParsed(e);
+		return el;
     }
 
   private final Parser parser;
@@ -292,383 +314,453 @@ class CUP$Parser$actions {
   }
 
   /** Method with the actual generated action code. */
-  public final java_cup.runtime.Symbol CUP$Parser$do_action(
-    int                        CUP$Parser$act_num,
-    java_cup.runtime.lr_parser CUP$Parser$parser,
-    java.util.Stack            CUP$Parser$stack,
-    int                        CUP$Parser$top)
+  public final java.lang.Object CUP$Parser$do_action(
+    int                          CUP$Parser$act_num,
+    java_cup.runtime.lr_parser   CUP$Parser$parser,
+    java_cup.runtime.parse_stack CUP$Parser$stack,
+    int                          CUP$Parser$top)
     throws java.lang.Exception
     {
-      /* Symbol object for return from actions */
-      java_cup.runtime.Symbol CUP$Parser$result;
+      /* Value of the LHS for return from actions */
+      java.lang.Object CUP$Parser$result;
 
       /* select the action based on the action number */
       switch (CUP$Parser$act_num)
         {
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 36: // constStringExpr ::= STRING_CONST 
+          case 42: // constStringExpr ::= STRING_CONST 
             {
               ConstStringExpr RESULT = null;
-		Token s = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new ConstStringExpr(getCurrLineNum(),s.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(16/*constStringExpr*/, RESULT);
+		String s = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new ConstStringExpr(getCurrLineNum(),s)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 35: // phraseDispatch ::= constStringExpr LPAREN RPAREN 
+          case 41: // phraseDispatch ::= constStringExpr LPAREN RPAREN 
             {
               PhraseDispatch RESULT = null;
-		ConstStringExpr s = (ConstStringExpr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
-		 RESULT = new PhraseDispatch(getCurrLineNum(),s); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(5/*phraseDispatch*/, RESULT);
+		ConstStringExpr s = (ConstStringExpr)CUP$Parser$stack.value(CUP$Parser$top-2);
+		 RESULT = built(new PhraseDispatch(getCurrLineNum(),s)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 34: // accidental ::= ACCIDENTAL 
+          case 40: // accidental ::= ACCIDENTAL 
             {
               Accidental RESULT = null;
-		Token a = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new Accidental(getCurrLineNum(),a.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(15/*accidental*/, RESULT);
+		String a = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new Accidental(getCurrLineNum(),a)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 33: // note ::= REST 
+          case 39: // note ::= REST 
             {
               Note RESULT = null;
-		Token r = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new Rest(getCurrLineNum(), r.getAttribute() ); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(11/*note*/, RESULT);
+		String r = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new Rest(getCurrLineNum(), r )); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 32: // note ::= NOTE 
+          case 38: // note ::= NOTE 
             {
               Note RESULT = null;
-		Token n = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new Note(getCurrLineNum(),n.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(11/*note*/, RESULT);
+		String n = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new Note(getCurrLineNum(),n)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 31: // octaveModVal ::= OCTAVEMODVAL 
+          case 37: // octaveModVal ::= OCTAVEMODVAL 
             {
               OctaveModVal RESULT = null;
-		Token om = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new OctaveModVal(getCurrLineNum(),om.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(14/*octaveModVal*/, RESULT);
+		String om = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new OctaveModVal(getCurrLineNum(),om)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 30: // octaveIntConst ::= OCTAVEINTCONST 
+          case 36: // octaveIntConst ::= OCTAVEINTCONST 
             {
               OctaveIntConst RESULT = null;
-		Token oi = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new OctaveIntConst(getCurrLineNum(),oi.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(13/*octaveIntConst*/, RESULT);
+		String oi = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new OctaveIntConst(getCurrLineNum(),oi)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 29: // octaveValue ::= octaveModVal 
+          case 35: // octaveValue ::= octaveModVal 
             {
               OctaveValue RESULT = null;
-		OctaveModVal om = (OctaveModVal)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		OctaveModVal om = (OctaveModVal)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (OctaveModVal)om; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(10/*octaveValue*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 28: // octaveValue ::= octaveIntConst 
+          case 34: // octaveValue ::= octaveIntConst 
             {
               OctaveValue RESULT = null;
-		OctaveIntConst oi = (OctaveIntConst)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		OctaveIntConst oi = (OctaveIntConst)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (OctaveIntConst)oi; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(10/*octaveValue*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 27: // noteLiteral ::= LENGTH note 
+          case 33: // noteLiteral ::= LENGTH note 
             {
               NoteLiteral RESULT = null;
-		Token len = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		Note n = (Note)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new NoteLiteral(getCurrLineNum(),len.getAttribute(), n,null, null); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(12/*noteLiteral*/, RESULT);
+		String len = (String)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Note n = (Note)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new NoteLiteral(getCurrLineNum(),len, n,null, null)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 26: // noteLiteral ::= LENGTH note accidental octaveValue 
+          case 32: // noteLiteral ::= LENGTH note accidental octaveValue 
             {
               NoteLiteral RESULT = null;
-		Token len = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		Note n = (Note)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
-		Accidental a = (Accidental)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		OctaveValue val = (OctaveValue)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new NoteLiteral(getCurrLineNum(),len.getAttribute(), n,a, val); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(12/*noteLiteral*/, RESULT);
+		String len = (String)CUP$Parser$stack.value(CUP$Parser$top-3);
+		Note n = (Note)CUP$Parser$stack.value(CUP$Parser$top-2);
+		Accidental a = (Accidental)CUP$Parser$stack.value(CUP$Parser$top-1);
+		OctaveValue val = (OctaveValue)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new NoteLiteral(getCurrLineNum(),len, n,a, val)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 25: // noteLiteral ::= LENGTH note accidental 
+          case 31: // noteLiteral ::= LENGTH note accidental 
             {
               NoteLiteral RESULT = null;
-		Token len = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
-		Note n = (Note)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		Accidental a = (Accidental)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new NoteLiteral(getCurrLineNum(),len.getAttribute(), n,a, null); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(12/*noteLiteral*/, RESULT);
+		String len = (String)CUP$Parser$stack.value(CUP$Parser$top-2);
+		Note n = (Note)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Accidental a = (Accidental)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new NoteLiteral(getCurrLineNum(),len, n,a, null)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 24: // noteLiteral ::= LENGTH note octaveValue 
+          case 30: // noteLiteral ::= LENGTH note octaveValue 
             {
               NoteLiteral RESULT = null;
-		Token len = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-2)).value;
-		Note n = (Note)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		OctaveValue val = (OctaveValue)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new NoteLiteral(getCurrLineNum(),len.getAttribute(), n,null, val); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(12/*noteLiteral*/, RESULT);
+		String len = (String)CUP$Parser$stack.value(CUP$Parser$top-2);
+		Note n = (Note)CUP$Parser$stack.value(CUP$Parser$top-1);
+		OctaveValue val = (OctaveValue)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new NoteLiteral(getCurrLineNum(),len, n,null, val)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 23: // noteExpr ::= noteLiteral 
+          case 29: // noteExpr ::= noteLiteral 
             {
               NoteExpr RESULT = null;
-		NoteLiteral n = (NoteLiteral)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		NoteLiteral n = (NoteLiteral)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT =  (NoteLiteral)n; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(9/*noteExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 22: // noteExpr ::= phraseDispatch 
+          case 28: // noteExpr ::= phraseDispatch 
             {
               NoteExpr RESULT = null;
-		PhraseDispatch p = (PhraseDispatch)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		PhraseDispatch p = (PhraseDispatch)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (PhraseDispatch)p; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(9/*noteExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 21: // volumeWord ::= VOLUMEWORD 
+          case 27: // volumeWord ::= VOLUMEWORD 
             {
               VolumeWord RESULT = null;
-		Token vw = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new VolumeWord(getCurrLineNum(),vw.getAttribute()); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(22/*volumeWord*/, RESULT);
+		String vw = (String)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new VolumeWord(getCurrLineNum(),vw)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 20: // tempoBlock ::= TEMPO TEMPOINTCONST LBRACE exprList RBRACE 
+          case 26: // tempoBlock ::= TEMPO TEMPOINTCONST LBRACE exprList RBRACE 
             {
               TempoBlock RESULT = null;
-		Token tic = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new TempoBlock(getCurrLineNum(), tic.getAttribute(), el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(21/*tempoBlock*/, RESULT);
+		String tic = (String)CUP$Parser$stack.value(CUP$Parser$top-3);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new TempoBlock(getCurrLineNum(), tic, (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 19: // instrumentBlock ::= INSTRUMENT constStringExpr LBRACE exprList RBRACE 
+          case 25: // instrumentBlock ::= INSTRUMENT constStringExpr LBRACE exprList RBRACE 
             {
               InstrumentBlock RESULT = null;
-		ConstStringExpr s = (ConstStringExpr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new InstrumentBlock(getCurrLineNum(), s, el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(20/*instrumentBlock*/, RESULT);
+		ConstStringExpr s = (ConstStringExpr)CUP$Parser$stack.value(CUP$Parser$top-3);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new InstrumentBlock(getCurrLineNum(), s, (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 18: // volumeBlock ::= VOLUME volumeWord LBRACE exprList RBRACE 
+          case 24: // volumeBlock ::= VOLUME volumeWord LBRACE exprList RBRACE 
             {
               VolumeBlock RESULT = null;
-		VolumeWord vw = (VolumeWord)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new VolumeBlock(getCurrLineNum(), vw, el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(19/*volumeBlock*/, RESULT);
+		VolumeWord vw = (VolumeWord)CUP$Parser$stack.value(CUP$Parser$top-3);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new VolumeBlock(getCurrLineNum(), vw, (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 17: // repeatBlock ::= REPEAT LBRACE exprList RBRACE 
+          case 23: // repeatBlock ::= REPEAT LBRACE exprList RBRACE 
             {
               RepeatBlock RESULT = null;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new RepeatBlock(getCurrLineNum(), el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(18/*repeatBlock*/, RESULT);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new RepeatBlock(getCurrLineNum(), (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 16: // octaveBlock ::= OCTAVE octaveValue LBRACE exprList RBRACE 
+          case 22: // octaveBlock ::= OCTAVE octaveValue LBRACE exprList RBRACE 
             {
               OctaveBlock RESULT = null;
-		OctaveValue val = (OctaveValue)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new OctaveBlock(getCurrLineNum(),val, el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(8/*octaveBlock*/, RESULT);
+		OctaveValue val = (OctaveValue)CUP$Parser$stack.value(CUP$Parser$top-3);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new OctaveBlock(getCurrLineNum(),val, (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 15: // blockExpr ::= tempoBlock 
+          case 21: // blockExpr ::= tempoBlock 
             {
               BlockExpr RESULT = null;
-		TempoBlock tb = (TempoBlock)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		TempoBlock tb = (TempoBlock)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (TempoBlock)tb; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(17/*blockExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 14: // blockExpr ::= instrumentBlock 
+          case 20: // blockExpr ::= instrumentBlock 
             {
               BlockExpr RESULT = null;
-		InstrumentBlock ib = (InstrumentBlock)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		InstrumentBlock ib = (InstrumentBlock)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (InstrumentBlock)ib; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(17/*blockExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 13: // blockExpr ::= repeatBlock 
+          case 19: // blockExpr ::= repeatBlock 
             {
               BlockExpr RESULT = null;
-		RepeatBlock rb = (RepeatBlock)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		RepeatBlock rb = (RepeatBlock)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (RepeatBlock)rb; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(17/*blockExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 12: // blockExpr ::= volumeBlock 
+          case 18: // blockExpr ::= volumeBlock 
             {
               BlockExpr RESULT = null;
-		VolumeBlock vb = (VolumeBlock)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		VolumeBlock vb = (VolumeBlock)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (VolumeBlock)vb; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(17/*blockExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 11: // blockExpr ::= octaveBlock 
+          case 17: // blockExpr ::= octaveBlock 
             {
               BlockExpr RESULT = null;
-		OctaveBlock ob = (OctaveBlock)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		OctaveBlock ob = (OctaveBlock)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (OctaveBlock)ob; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(17/*blockExpr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 10: // expr ::= blockExpr 
+          case 16: // expr ::= blockExpr 
             {
               Expr RESULT = null;
-		BlockExpr be = (BlockExpr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		BlockExpr be = (BlockExpr)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (BlockExpr)be; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(6/*expr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 9: // expr ::= noteExpr 
+          case 15: // expr ::= noteExpr 
             {
               Expr RESULT = null;
-		NoteExpr ne = (NoteExpr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		NoteExpr ne = (NoteExpr)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (NoteExpr)ne; 
-              CUP$Parser$result = new java_cup.runtime.Symbol(6/*expr*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 8: // exprList ::= exprList expr 
+          case 14: // exprList ::= exprList expr 
             {
               ExprList RESULT = null;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		Expr e = (Expr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Expr e = (Expr)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (ExprList)el.addElement(e); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(7/*exprList*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 7: // exprList ::= expr 
+          case 13: // exprList ::= expr 
             {
               ExprList RESULT = null;
-		Expr e = (Expr)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = (ExprList)(new ExprList(0)).addElement(e); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(7/*exprList*/, RESULT);
+		Expr e = (Expr)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = (ExprList)built(new ExprList(0)).addElement(e); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 6: // phrase ::= PHRASE STRING_CONST LBRACE exprList RBRACE 
+          case 12: // phrase ::= PHRASE STRING_CONST LBRACE exprList RBRACE 
             {
               Phrase RESULT = null;
-		Token name = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new Phrase(getCurrLineNum(),name.getAttribute(), el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(4/*phrase*/, RESULT);
+		String name = (String)CUP$Parser$stack.value(CUP$Parser$top-3);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new Phrase(getCurrLineNum(),name, (ExprList)el.freeze()));
+	       if (parser.getSongListener() != null)
+			parser.getSongListener().phraseParsed(RESULT); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 5: // phraseList ::= phraseList phrase 
+          case 11: // phraseList ::= phraseList phrase 
             {
               PhraseList RESULT = null;
-		PhraseList pl = (PhraseList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		Phrase p = (Phrase)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
+		PhraseList pl = (PhraseList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Phrase p = (Phrase)CUP$Parser$stack.value(CUP$Parser$top-0);
 		 RESULT = (PhraseList)pl.addElement(p); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(3/*phraseList*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 4: // phraseList ::= phrase 
+          case 10: // phraseList ::= phrase 
             {
               PhraseList RESULT = null;
-		Phrase p = (Phrase)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = (PhraseList)(new PhraseList(0)).addElement(p); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(3/*phraseList*/, RESULT);
+		Phrase p = (Phrase)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = (PhraseList)built(new PhraseList(0)).addElement(p); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 9: // songExprList ::= songExprList expr 
+            {
+              ExprList RESULT = null;
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Expr e = (Expr)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = addSongExpr(el, e); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 3: // song ::= SONG STRING_CONST TEMPOINTCONST LBRACE exprList RBRACE 
+          case 8: // songExprList ::= expr 
+            {
+              ExprList RESULT = null;
+		Expr e = (Expr)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = addSongExpr(built(new ExprList(0)), e); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 7: // song ::= SONG STRING_CONST TEMPOINTCONST LBRACE NT$0 songExprList RBRACE 
             {
               Song RESULT = null;
-		Token name = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-4)).value;
-		Token t = (Token)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-3)).value;
-		ExprList el = (ExprList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		 RESULT = new Song(getCurrLineNum(),name.getAttribute(), t.getAttribute(), el); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(1/*song*/, RESULT);
+              // propagate RESULT from NT$0
+              if ( CUP$Parser$stack.value(CUP$Parser$top-2) != null )
+                RESULT = (Song) CUP$Parser$stack.value(CUP$Parser$top-2);
+		String name = (String)CUP$Parser$stack.value(CUP$Parser$top-5);
+		String t = (String)CUP$Parser$stack.value(CUP$Parser$top-4);
+		ExprList el = (ExprList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		 RESULT = built(new Song(getCurrLineNum(),name, t, (ExprList)el.freeze())); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 6: // NT$0 ::= 
+            {
+              Object RESULT = null;
+		String name = (String)CUP$Parser$stack.value(CUP$Parser$top-2);
+		String t = (String)CUP$Parser$stack.value(CUP$Parser$top-1);
+ if (parser.getSongListener() != null)
+			parser.getSongListener().songStarted(built(new Song(getCurrLineNum(),
+				name, t, built(new ExprList(0))))); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 5: // songList ::= songList song 
+            {
+              SongList RESULT = null;
+		SongList sl = (SongList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		Song s = (Song)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = (SongList)sl.addElement(s); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 4: // songList ::= song 
+            {
+              SongList RESULT = null;
+		Song s = (Song)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = (SongList)built(new SongList(0)).addElement(s); 
+              CUP$Parser$result = RESULT;
+            }
+          return CUP$Parser$result;
+
+          /*. . . . . . . . . . . . . . . . . . . .*/
+          case 3: // file ::= phraseList 
+            {
+              File RESULT = null;
+		PhraseList pl = (PhraseList)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new File(getCurrLineNum(),(PhraseList)pl.freeze(), (Song) null)); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 2: // file ::= song 
+          case 2: // file ::= songList 
             {
               File RESULT = null;
-		Song s = (Song)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new File(getCurrLineNum(),null,s); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(2/*file*/, RESULT);
+		SongList sl = (SongList)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new File(getCurrLineNum(),null,(SongList)sl.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
@@ -676,22 +768,22 @@ class CUP$Parser$actions {
           case 1: // $START ::= file EOF 
             {
               Object RESULT = null;
-		File start_val = (File)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
+		File start_val = (File)CUP$Parser$stack.value(CUP$Parser$top-1);
 		RESULT = start_val;
-              CUP$Parser$result = new java_cup.runtime.Symbol(0/*$START*/, RESULT);
+              CUP$Parser$result = RESULT;
             }
           /* ACCEPT */
           CUP$Parser$parser.done_parsing();
           return CUP$Parser$result;
 
           /*. . . . . . . . . . . . . . . . . . . .*/
-          case 0: // file ::= phraseList song 
+          case 0: // file ::= phraseList songList 
             {
               File RESULT = null;
-		PhraseList pl = (PhraseList)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-1)).value;
-		Song s = (Song)((java_cup.runtime.Symbol) CUP$Parser$stack.elementAt(CUP$Parser$top-0)).value;
-		 RESULT = new File(getCurrLineNum(),pl, s); 
-              CUP$Parser$result = new java_cup.runtime.Symbol(2/*file*/, RESULT);
+		PhraseList pl = (PhraseList)CUP$Parser$stack.value(CUP$Parser$top-1);
+		SongList sl = (SongList)CUP$Parser$stack.value(CUP$Parser$top-0);
+		 RESULT = built(new File(getCurrLineNum(),(PhraseList)pl.freeze(), (SongList)sl.freeze())); 
+              CUP$Parser$result = RESULT;
             }
           return CUP$Parser$result;
 
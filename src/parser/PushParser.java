@@ -0,0 +1,147 @@
+/* Cymbal Compiler
+   PushParser.java
+
+   The generated parser, driven by tokens pushed to it one at a time
+*/
+
+package parser;
+
+import ast.ASTNode;
+import ast.File;
+import java_cup.runtime.ReduceListener;
+import java_cup.runtime.Symbol;
+import lexer.TokenSource;
+import util.ErrorHandler;
+
+/** The <tt>PushParser</tt> class parses a Cymbal file with the generated
+  * <tt>Parser</tt> in push mode: rather than the parser reading tokens
+  * from a scanner, its caller hands it each token as it comes (e.g., from
+  * a network buffer, an editor or a producer thread) and the parser runs
+  * as far as that token allows before returning.  Each top-level phrase
+  * and Song is handed to a <tt>BlockListener</tt> as soon as the parser
+  * reduces it (on seeing the token after its closing brace), so work on
+  * it can start while the rest of the file is still on its way.
+  * <p/>
+  * The AST, the errors and the calls to a <tt>SongListener</tt> are
+  * those of a <tt>Parser</tt> reading the same tokens from a scanner,
+  * as long as every token the scanner would return is fed, EOF included
+  * (the parser takes the line number and file name for nodes and errors
+  * from the last token fed, as it would from the scanner after reading
+  * it).  <tt>ParserCheck</tt> compares the two.
+  * */
+public class PushParser {
+    /** the generated parser, driven by <tt>feed</tt> */
+    private final Parser parser;
+    /** the position of the last token fed, as the parser's scanner */
+    private final FedTokens fedTokens;
+    /** listener that phrases and Songs are handed to (null for none) */
+    private BlockListener blockListener = null;
+
+    /** PushParser constructor
+      * @param filename name of the file the tokens come from (for errors)
+      * */
+    public PushParser(String filename) {
+	fedTokens = new FedTokens(filename);
+	parser = new Parser(fedTokens);
+	parser.set_reduce_listener(new ReduceListener() {
+		public void reduced(int nt, Object value, int left, int right) {
+		    if (blockListener != null)
+			blockListener.blockParsed((ASTNode) value);
+		}
+	    }, new int[] {TokenIds.phrase, TokenIds.song});
+    }
+
+    /** returns the error handler
+      * @return the error handler that parsing errors are registered with
+      * */
+    public ErrorHandler getErrorHandler() {
+	return parser.getErrorHandler();
+    }
+
+    /** sets the error handler (e.g., one that collects errors without printing them)
+      * @param errorHandler the error handler to register parsing errors with
+      * */
+    public void setErrorHandler(ErrorHandler errorHandler) {
+	parser.setErrorHandler(errorHandler);
+    }
+
+    /** sets the song listener; top-level song expressions are then handed
+      * to it instead of being kept in the Song's expression list
+      * @param songListener the song listener
+      * */
+    public void setSongListener(SongListener songListener) {
+	parser.setSongListener(songListener);
+    }
+
+    /** sets the block listener, handed each phrase and Song once parsed
+      * @param blockListener the block listener (null for none)
+      * */
+    public void setBlockListener(BlockListener blockListener) {
+	this.blockListener = blockListener;
+    }
+
+    /** parse the next token
+      * @param token the token (EOF at the end of the file)
+      * @return false once the parser needs no more tokens (after the
+      *         end of the file, or an error it cannot recover from)
+      * @throws CompilationException if the file has syntax errors (when
+      *         the parse ends)
+      * @throws Exception if an action fails
+      * */
+    public boolean feed(Symbol token) throws Exception {
+	fedTokens.last = token;
+	return parser.feed(token);
+    }
+
+    /** end the file (feeding EOF for as long as the parser needs it) and
+      * return its AST; the next token fed starts a new file
+      * @return the AST of the file
+      * @throws CompilationException if the file has syntax errors
+      * @throws Exception if an action fails
+      * */
+    public File finish() throws Exception {
+	try {
+	    return (File) parser.finish().value;
+	} finally {
+	    fedTokens.last = null;
+	}
+    }
+
+    /** The parser's view of its scanner: the position of the last token
+      * fed (its tokens come from <tt>feed</tt>, never from the scanner)
+      * */
+    private static class FedTokens implements TokenSource {
+	/** name of the file */
+	private final String filename;
+	/** the last token fed (null before the first) */
+	Symbol last = null;
+
+	/** FedTokens constructor
+	  * @param filename name of the file
+	  * */
+	FedTokens(String filename) {
+	    this.filename = filename;
+	}
+
+	/** not used: the tokens are fed to the parser
+	  * @return never returns
+	  * */
+	public Symbol next_token() {
+	    throw new IllegalStateException("the tokens of a PushParser are fed to it");
+	}
+
+	/** getter method for accessing the current line number
+	  * @return line number of the last token fed
+	  * */
+	public int getCurrLineNum() {
+	    return (last == null ? 1 : last.left);
+	}
+
+	/** getter method for accessing the current file name
+	  * @return name of the file
+	  * */
+	public String getCurrFilename() {
+	    return filename;
+	}
+    }
+}
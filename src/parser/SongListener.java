@@ -0,0 +1,35 @@
+/* Cymbal Compiler
+   SongListener.java
+
+   Callbacks from the parser for streaming compiles
+*/
+
+package parser;
+
+import ast.Expr;
+import ast.Phrase;
+import ast.Song;
+
+/** The <tt>SongListener</tt> interface is told about each part of a file
+  * as soon as the parser reduces it, so that a song can be analyzed and
+  * code generated while the rest of it is still being parsed.  A parser
+  * with a listener drops the Song's top-level expressions after handing
+  * them over, so only the phrases (and the expression being parsed) are
+  * ever held in memory.
+  * */
+public interface SongListener {
+    /** a phrase has been parsed (phrases come before the Song in a file)
+      * @param phrase the phrase
+      * */
+    void phraseParsed(Phrase phrase);
+
+    /** the Song's header has been parsed
+      * @param song the song, with an empty expression list
+      * */
+    void songStarted(Song song);
+
+    /** a top-level expression of the Song has been parsed
+      * @param expr the expression
+      * */
+    void songExprParsed(Expr expr);
+}
@@ -1,7 +1,7 @@
 
 //----------------------------------------------------
 // The following code was generated by CUP v0.10k
-// Fri May 09 11:42:34 EDT 2014
+// Sun Oct 18 10:51:39 UTC 2026
 //----------------------------------------------------
 
 package parser;
@@ -33,5 +33,33 @@ public class TokenIds {
   public static final int REST = 7;
   public static final int ACCIDENTAL = 9;
   public static final int REPEAT = 14;
+
+  /* non terminals */
+  static final int repeatBlock = 20;
+  static final int expr = 7;
+  static final int note = 13;
+  static final int noteLiteral = 14;
+  static final int noteExpr = 11;
+  static final int volumeWord = 24;
+  static final int octaveIntConst = 15;
+  static final int accidental = 17;
+  static final int NT$0 = 25;
+  static final int exprList = 8;
+  static final int octaveBlock = 10;
+  static final int $START = 0;
+  static final int songList = 2;
+  static final int instrumentBlock = 22;
+  static final int phraseList = 4;
+  static final int phrase = 5;
+  static final int phraseDispatch = 6;
+  static final int octaveModVal = 16;
+  static final int octaveValue = 12;
+  static final int constStringExpr = 18;
+  static final int song = 1;
+  static final int volumeBlock = 21;
+  static final int blockExpr = 19;
+  static final int file = 3;
+  static final int songExprList = 9;
+  static final int tempoBlock = 23;
 }
 
@@ -38,8 +38,12 @@ package semant;
 
 import visitor.*;
 import ast.*;
+import util.CompileStats;
 import util.ErrorHandler;
 
+import java.util.Collections;
+import java.util.List;
+
 
 /** The <tt>SemanticAnalyzer</tt> class performs semantic analysis.
  * In particular this class is able to perform (via the <tt>analyze()</tt>
@@ -58,6 +62,17 @@ public class SemanticAnalyzer {
 	/** Object for error handling */
 	private ErrorHandler errorHandler = new ErrorHandler();
 
+	/** Statistics to record each check in (null unless -stats is given) */
+	private CompileStats stats = null;
+
+	/** Checks of a streamed analysis, in the order <tt>analyze()</tt> runs them
+	 *  (null unless streaming) */
+	private Visitor[] streamChecks;
+
+	/** Errors found by each check of a streamed analysis (merged in check
+	 *  order at the end, so they are reported as <tt>analyze()</tt> would) */
+	private ErrorHandler[] streamErrors;
+
 	/** Boolean indicating whether debugging is enabled */
 	@SuppressWarnings("unused")
 	private boolean debug = false;
@@ -76,6 +91,23 @@ public class SemanticAnalyzer {
 		this.debug = debug;
 	}
 
+	/** SemanticAnalyzer constructor
+	 * @param file root of the AST
+	 * @param errorHandler error handler that semantic errors are registered with
+	 * @param debug boolean indicating whether debugging is enabled
+	 */
+	public SemanticAnalyzer(File file, ErrorHandler errorHandler, boolean debug) {
+		this(file, debug);
+		this.errorHandler = errorHandler;
+	}
+
+	/** Set the statistics that each check is recorded in
+	 * @param stats the statistics (null to not record)
+	 */
+	public void setStats(CompileStats stats) {
+		this.stats = stats;
+	}
+
 	/** 
 	 * Analyze the AST checking for semantic errors and annotating the tree
 	 * Also builds an auxiliary class hierarchy tree 
@@ -84,19 +116,29 @@ public class SemanticAnalyzer {
 	public File analyze() {
 		
 		//check to make sure octave blocks are declared with valid values
+		CompileStats.Timer timer = CompileStats.start(stats, "checkOctaveBlocks");
 		this.checkOctaveBlocks();
+		CompileStats.stop(timer);
 		
 		//check to make sure octave values given to notes are valid
+		timer = CompileStats.start(stats, "checkOctaveMods");
 		this.checkOctaveMods();
+		CompileStats.stop(timer);
 		
 		//check to make sure octave values do not go past max/min values with mods
+		timer = CompileStats.start(stats, "checkMinMaxOctave");
 		this.checkMinMaxOctave();
+		CompileStats.stop(timer);
 		
 		//check to make sure phrase names are not duplicated or undeclared
+		timer = CompileStats.start(stats, "validatePhraseNames");
 		this.validatePhraseNames();
+		CompileStats.stop(timer);
 		
 		//check to make sure all instruments are valid
+		timer = CompileStats.start(stats, "validateInstrumentNames");
 		this.validateInstrumentNames();
+		CompileStats.stop(timer);
 		
 		// Give back the semantically correct root
 		errorHandler.checkErrors();
@@ -104,6 +146,65 @@ public class SemanticAnalyzer {
 		
 		return file;
 	}
+	/**
+	 * Start a streamed analysis, in which the phrases and then the Song's
+	 * top-level expressions are checked one at a time as they are parsed
+	 * (the file given to the constructor is not used)
+	 */
+	public void startStream() {
+		streamErrors = new ErrorHandler[5];
+		for (int i = 0; i < streamErrors.length; i++)
+			streamErrors[i] = new ErrorHandler(false);
+		streamChecks = new Visitor[] {
+				new OctaveCheckVisitor(null, streamErrors[0]),
+				new InvalidOctaveModVisitor(null, streamErrors[1]),
+				new OctaveValueCheckVisitor(null, streamErrors[2]),
+				new PhraseValidatorVisitor(null, streamErrors[3]),
+				new InstrumentValidatorVisitor(null, streamErrors[4])};
+	}
+
+	/**
+	 * Check a phrase of a streamed analysis
+	 * @param phrase the phrase
+	 */
+	public void analyzePhrase(Phrase phrase) {
+		for (Visitor check : streamChecks) {
+			// (octave modifiers outside blocks are only checked in the Song)
+			if (!(check instanceof InvalidOctaveModVisitor))
+				phrase.accept(check);
+		}
+	}
+
+	/**
+	 * Check a top-level Song expression of a streamed analysis
+	 * @param expr the expression
+	 * @return true if no errors have been found so far
+	 */
+	public boolean analyzeSongExpr(Expr expr) {
+		boolean ok = true;
+		for (int i = 0; i < streamChecks.length; i++) {
+			expr.accept(streamChecks[i]);
+			ok = ok && !streamErrors[i].hasErrors();
+		}
+		return ok;
+	}
+
+	/**
+	 * Finish a streamed analysis, reporting the errors of every check
+	 */
+	public void finishStream() {
+		for (ErrorHandler errors : streamErrors) {
+			// semantic errors have no file name, so the error handler lists
+			// them most recent first; register them again oldest first
+			List<ErrorHandler.Error> found = errors.getErrors();
+			Collections.reverse(found);
+			for (ErrorHandler.Error error : found)
+				errorHandler.register(error.getType(), error.getFilename(),
+						error.getLineNum(), error.getMessage());
+		}
+		errorHandler.checkErrors();
+	}
+
 	/**
 	 * check to make sure octave blocks are declared with valid values
 	 */
@@ -0,0 +1,26 @@
+/* Cymbal Compiler
+   CompilationException.java
+
+   Thrown in place of System.exit() when compilation has to stop,
+   so the compiler can be run more than once inside one JVM
+*/
+
+package util;
+
+/** The <tt>CompilationException</tt> class signals that compilation
+  * was halted (because of source errors, a missing input file, an
+  * unwritable output file or a usage error).  Any diagnostics have
+  * already been reported by the time it is thrown; the driver only
+  * has to stop the current compilation.
+  * */
+public class CompilationException extends RuntimeException {
+    /** version of the serialized form */
+    private static final long serialVersionUID = 1L;
+
+    /** CompilationException constructor
+      * @param message short description of why compilation stopped
+      * */
+    public CompilationException(String message) {
+	super(message);
+    }
+}
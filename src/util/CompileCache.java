@@ -0,0 +1,238 @@
+/* Cymbal Compiler
+   CompileCache.java
+
+   On-disk cache of generated assembly, keyed by a hash of the
+   input files and the compiler flags
+*/
+
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** The <tt>CompileCache</tt> class stores the assembly generated for a
+  * set of input files so that an unchanged compile can skip every phase
+  * and copy the previous output instead.
+  * <p/>
+  * An entry is named by the SHA-256 hash of the cache format version,
+  * the flags that affect the output and the contents of each input file
+  * (in order).  Entries are written to a temporary file and renamed into
+  * place, so several compilers (threads or processes) can share one cache
+  * directory and never see a partial entry.  When the entries take more
+  * than the size limit, the least recently used ones (by modification
+  * time, which is refreshed on every hit) are deleted until they take
+  * three quarters of it.
+  * <p/>
+  * The directory is only listed when the cache may be over its limit: the
+  * size of the entries is taken from the directory once, and then grows
+  * by the size of each entry this cache stores.  Entries stored by other
+  * compilers are only counted at the next listing, so a shared cache can
+  * run over its limit by what the others stored since then.
+  * */
+public class CompileCache {
+    /** Bump when the generated assembly changes for the same input,
+      * so that entries written by older compilers are not reused */
+    private static final String FORMAT_VERSION = "cymbal-cache-2";
+
+    /** Suffix of finished cache entries */
+    private static final String ENTRY_SUFFIX = ".s";
+
+    /** Directory holding the entries */
+    private Path dir;
+
+    /** Maximum total size of the entries, in bytes */
+    private long maxBytes;
+
+    /** Total size of the entries as of the last listing plus the entries
+      * stored since, in bytes (-1 until the directory is first listed) */
+    private long knownBytes = -1;
+
+    /** CompileCache constructor
+      * @param dir directory holding the entries (created if needed)
+      * @param maxBytes maximum total size of the entries, in bytes
+      * @throws IOException if the directory cannot be created
+      * */
+    public CompileCache(String dir, long maxBytes) throws IOException {
+	this.dir = Paths.get(dir);
+	this.maxBytes = maxBytes;
+	Files.createDirectories(this.dir);
+    }
+
+    /** Compute the cache key for a compile
+      * @param inFiles input file names, in command line order
+      * @param flags description of every flag that affects the output
+      * @return the key (a hex string)
+      * @throws IOException if an input file cannot be read
+      * */
+    public String key(String[] inFiles, String flags) throws IOException {
+	return hash(FORMAT_VERSION + " " + flags, inFiles);
+    }
+
+    /** Hash a string and the contents of some files (also used by watch
+      * mode to tell whether a save actually changed anything)
+      * @param header string hashed before the files
+      * @param files file names, in order
+      * @return the SHA-256 hash (a hex string)
+      * @throws IOException if a file cannot be read
+      * */
+    public static String hash(String header, String[] files) throws IOException {
+	MessageDigest digest;
+	try {
+	    digest = MessageDigest.getInstance("SHA-256");
+	}
+	catch (NoSuchAlgorithmException e) {
+	    throw new RuntimeException("Internal error: SHA-256 unavailable", e);
+	}
+
+	update(digest, header.getBytes(StandardCharsets.UTF_8));
+	for (String file : files) {
+	    update(digest, Files.readAllBytes(Paths.get(file)));
+	}
+
+	StringBuilder key = new StringBuilder();
+	for (byte b : digest.digest()) {
+	    key.append(String.format("%02x", b));
+	}
+	return key.toString();
+    }
+
+    /** Add a length-prefixed block to a digest, so that the boundaries
+      * between inputs are part of the hash
+      * @param digest the digest to update
+      * @param bytes the block
+      * */
+    private static void update(MessageDigest digest, byte[] bytes) {
+	int n = bytes.length;
+	digest.update(new byte[] {(byte)(n >>> 24), (byte)(n >>> 16), (byte)(n >>> 8), (byte)n});
+	digest.update(bytes);
+    }
+
+    /** Copy the cached output for a key, if there is one (the copy replaces
+      * the output file in one step once it is complete, and the output file
+      * is left alone if it already holds the cached output)
+      * @param key the cache key
+      * @param outFile file to copy the cached output to
+      * @return true on a hit, false on a miss
+      * @throws IOException if the output file cannot be written
+      * */
+    public boolean fetch(String key, String outFile) throws IOException {
+	Path entry = dir.resolve(key + ENTRY_SUFFIX);
+	try {
+	    // (the entry is opened first, so a miss leaves the output file alone)
+	    try (InputStream in = Files.newInputStream(entry)) {
+		ReplacingFileOutputStream out = new ReplacingFileOutputStream(Paths.get(outFile));
+		try {
+		    byte[] block = new byte[1 << 16];
+		    int n;
+		    while ((n = in.read(block)) > 0)
+			out.write(block, 0, n);
+		    out.commit();
+		}
+		finally {
+		    out.discard();
+		}
+	    }
+	    Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+	    return true;
+	}
+	catch (NoSuchFileException e) {
+	    // not cached (or evicted by another compiler in the meantime)
+	    return false;
+	}
+    }
+
+    /** Add a freshly generated output to the cache, then evict old entries
+      * if the cache may be over its size limit
+      * @param key the cache key
+      * @param outFile the generated output file
+      * @throws IOException if the entry cannot be written
+      * */
+    public void store(String key, String outFile) throws IOException {
+	Path tmp = Files.createTempFile(dir, key, ".tmp");
+	long size;
+	try {
+	    Files.copy(Paths.get(outFile), tmp, StandardCopyOption.REPLACE_EXISTING);
+	    size = Files.size(tmp);
+	    Files.move(tmp, dir.resolve(key + ENTRY_SUFFIX),
+		       StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+	finally {
+	    Files.deleteIfExists(tmp);
+	}
+	if (grow(size))
+	    evict();
+    }
+
+    /** Count a stored entry in the size of the cache
+      * @param size size of the entry, in bytes
+      * @return true if the cache may be over its size limit
+      * */
+    private synchronized boolean grow(long size) {
+	if (knownBytes < 0)
+	    return true;
+	knownBytes += size;
+	return (knownBytes > maxBytes);
+    }
+
+    /** List the entries, and if they are over the size limit, delete the
+      * least recently used ones until they take three quarters of it (so
+      * that the next few entries stored fit without listing again)
+      * @throws IOException if the directory cannot be listed
+      * */
+    private synchronized void evict() throws IOException {
+	final List<Path> entries = new ArrayList<Path>();
+	final List<FileTime> times = new ArrayList<FileTime>();
+	final List<Long> sizes = new ArrayList<Long>();
+	long total = 0;
+	try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + ENTRY_SUFFIX)) {
+	    for (Path entry : stream) {
+		try {
+		    FileTime time = Files.getLastModifiedTime(entry);
+		    long size = Files.size(entry);
+		    entries.add(entry);
+		    times.add(time);
+		    sizes.add(size);
+		    total += size;
+		}
+		catch (NoSuchFileException e) {
+		    // evicted by another compiler while listing
+		}
+	    }
+	}
+	if (total <= maxBytes) {
+	    knownBytes = total;
+	    return;
+	}
+
+	// oldest first
+	List<Integer> order = new ArrayList<Integer>();
+	for (int i = 0; i < entries.size(); i++)
+	    order.add(i);
+	Collections.sort(order, new Comparator<Integer>() {
+	    public int compare(Integer a, Integer b) {
+		return times.get(a).compareTo(times.get(b));
+	    }
+	});
+	for (int i : order) {
+	    if (total <= maxBytes / 4 * 3)
+		break;
+	    Files.deleteIfExists(entries.get(i));
+	    total -= sizes.get(i);
+	}
+	knownBytes = total;
+    }
+}
@@ -0,0 +1,43 @@
+/* Cymbal Compiler
+   CompileEvent.java
+
+   Java Flight Recorder event for a whole compile
+*/
+
+package util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** The <tt>CompileEvent</tt> class is the flight recorder event that
+  * spans one compile, from the first input file being read to the
+  * assembly being written; its <tt>PhaseEvent</tt>s fall inside it.
+  * */
+@Name("cymbal.Compile")
+@Label("Cymbal Compile")
+@Category({"Cymbal", "Compiler"})
+@Description("One Cymbal compile, from the input files to the assembly")
+@StackTrace(false)
+public class CompileEvent extends Event {
+    /** input file names, separated by spaces */
+    @Label("Input Files")
+    public String files;
+
+    /** number of AST nodes built by the parsers (0 with -stream) */
+    @Label("AST Nodes")
+    public long nodes;
+
+    /** number of assembly bytes written */
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+
+    /** whether the compile produced assembly */
+    @Label("Succeeded")
+    public boolean succeeded;
+}
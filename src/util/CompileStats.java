@@ -0,0 +1,239 @@
+/* Cymbal Compiler
+   CompileStats.java
+
+   Per-phase timing, allocation and size statistics ("-stats")
+*/
+
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** The <tt>CompileStats</tt> class collects, for each phase of a compile,
+  * the wall time, the CPU time and the bytes allocated by the thread that
+  * ran it (through <tt>ThreadMXBean</tt>), plus counts such as the number
+  * of tokens and AST nodes.
+  * <p/>
+  * A phase that runs more than once (e.g., lexing each input file, or a
+  * batch compile of many songs) accumulates, so with parallel parsing the
+  * wall times of lex and parse are summed over the files.  All methods are
+  * thread-safe.  The phases are reported in the order they first started.
+  * <p/>
+  * The same timers also emit a <tt>PhaseEvent</tt> for each phase, so the
+  * phases show up in flight recordings whether or not -stats is given.  A
+  * recording only times the phases as the compiler runs them, though:
+  * without -stats the sources are lexed as they are parsed (so the lex
+  * events are short and the parse events include the lexing).  The token
+  * and AST node counts are kept by the lexers and parsers as they go, so
+  * the parse events carry them either way.
+  * */
+public class CompileStats {
+    /** the JVM's thread management bean */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** wall time, CPU time and allocated bytes of each phase */
+    private Map<String, long[]> phases = new LinkedHashMap<String, long[]>();
+
+    /** counts (tokens, AST nodes, ...) */
+    private Map<String, Long> counts = new LinkedHashMap<String, Long>();
+
+    /** Start timing a phase on the current thread
+      * @param stats statistics to record the phase in (null when -stats is off)
+      * @param phase name of the phase
+      * @return timer to stop when the phase is done
+      * */
+    public static Timer start(CompileStats stats, String phase) {
+	return new Timer(stats, phase);
+    }
+
+    /** Stop timing a phase and record it
+      * @param timer timer returned by start
+      * */
+    public static void stop(Timer timer) {
+	timer.stop();
+    }
+
+    /** Get a count
+      * @param name name of the count
+      * @return the count (0 if nothing was added to it)
+      * */
+    public synchronized long getCount(String name) {
+	Long count = counts.get(name);
+	return (count != null ? count : 0);
+    }
+
+    /** Add to a count
+      * @param stats statistics to record the count in (null when -stats is off)
+      * @param name name of the count
+      * @param n amount to add
+      * */
+    public static void count(CompileStats stats, String name, long n) {
+	if (stats != null) {
+	    synchronized (stats) {
+		Long old = stats.counts.get(name);
+		stats.counts.put(name, (old != null ? old : 0) + n);
+	    }
+	}
+    }
+
+    /** Add a phase to the report (so that phases are listed in the order
+      * they start, even when a phase contains other phases)
+      * @param phase name of the phase
+      * */
+    private synchronized void register(String phase) {
+	if (!phases.containsKey(phase))
+	    phases.put(phase, new long[3]);
+    }
+
+    /** Record one run of a phase
+      * @param phase name of the phase
+      * @param wall wall time in nanoseconds
+      * @param cpu CPU time in nanoseconds (-1 if unavailable)
+      * @param alloc allocated bytes (-1 if unavailable)
+      * */
+    private synchronized void record(String phase, long wall, long cpu, long alloc) {
+	register(phase);
+	long[] totals = phases.get(phase);
+	totals[0] += wall;
+	totals[1] = (cpu < 0 || totals[1] < 0 ? -1 : totals[1] + cpu);
+	totals[2] = (alloc < 0 || totals[2] < 0 ? -1 : totals[2] + alloc);
+    }
+
+    /** Format the statistics as a table for people
+      * @return the statistics, one phase per line
+      * */
+    public synchronized String toText() {
+	StringBuilder text = new StringBuilder();
+	text.append(String.format("%-24s %10s %10s %12s%n", "phase", "wall ms", "cpu ms", "alloc KB"));
+	for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+	    long[] totals = phase.getValue();
+	    text.append(String.format("%-24s %10.3f %10s %12s%n", phase.getKey(), totals[0] / 1e6,
+				      (totals[1] < 0 ? "n/a" : String.format("%.3f", totals[1] / 1e6)),
+				      (totals[2] < 0 ? "n/a" : String.valueOf(totals[2] / 1024))));
+	}
+	for (Map.Entry<String, Long> count : counts.entrySet()) {
+	    text.append(String.format("%-24s %10d%n", count.getKey(), count.getValue()));
+	}
+	return text.toString();
+    }
+
+    /** Format the statistics as one line of JSON (times in nanoseconds,
+      * -1 where the JVM cannot measure CPU time or allocation)
+      * @return the statistics as a JSON object
+      * */
+    public synchronized String toJson() {
+	StringBuilder json = new StringBuilder("{\"phases\":{");
+	String sep = "";
+	for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+	    long[] totals = phase.getValue();
+	    json.append(sep).append('"').append(phase.getKey()).append("\":{")
+		.append("\"wall_ns\":").append(totals[0])
+		.append(",\"cpu_ns\":").append(totals[1])
+		.append(",\"alloc_bytes\":").append(totals[2]).append('}');
+	    sep = ",";
+	}
+	json.append("},\"counts\":{");
+	sep = "";
+	for (Map.Entry<String, Long> count : counts.entrySet()) {
+	    json.append(sep).append('"').append(count.getKey()).append("\":").append(count.getValue());
+	    sep = ",";
+	}
+	return json.append("}}").toString();
+    }
+
+    /** Get the CPU time of the current thread
+      * @return CPU time in nanoseconds, or -1 if unavailable
+      * */
+    private static long cpuTime() {
+	return (THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1);
+    }
+
+    /** Get the bytes allocated so far by the current thread
+      * @return allocated bytes, or -1 if unavailable
+      * */
+    private static long allocatedBytes() {
+	if (THREADS instanceof com.sun.management.ThreadMXBean) {
+	    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+	    if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	return -1;
+    }
+
+    /** Measures one run of a phase on the thread that started it, and
+      * brackets it with a flight recorder event
+      * */
+    public static class Timer {
+	/** statistics to record the phase in (null when -stats is off) */
+	private CompileStats stats;
+	/** name of the phase */
+	private String phase;
+	/** wall time, CPU time and allocated bytes at the start */
+	private long wall, cpu, alloc;
+	/** flight recorder event for the phase */
+	private PhaseEvent event = new PhaseEvent();
+
+	/** Timer constructor - starts timing
+	  * @param stats statistics to record the phase in (may be null)
+	  * @param phase name of the phase
+	  * */
+	Timer(CompileStats stats, String phase) {
+	    this.stats = stats;
+	    this.phase = phase;
+	    event.phase = phase;
+	    event.begin();
+	    if (stats != null) {
+		stats.register(phase);
+		this.alloc = allocatedBytes();
+		this.cpu = cpuTime();
+		this.wall = System.nanoTime();
+	    }
+	}
+
+	/** Set the input file(s) the phase works on (for the event)
+	  * @param file file name(s)
+	  * */
+	public void setFile(String file) {
+	    event.file = file;
+	}
+
+	/** Set the number of tokens lexed (for the event)
+	  * @param tokens number of tokens
+	  * */
+	public void setTokens(long tokens) {
+	    event.tokens = tokens;
+	}
+
+	/** Set the number of AST nodes built (for the event)
+	  * @param nodes number of nodes
+	  * */
+	public void setNodes(long nodes) {
+	    event.nodes = nodes;
+	}
+
+	/** Set the number of assembly bytes written (for the event)
+	  * @param outputBytes number of bytes
+	  * */
+	public void setOutputBytes(long outputBytes) {
+	    event.outputBytes = outputBytes;
+	}
+
+	/** Stop timing, record the phase and commit the event
+	  * */
+	void stop() {
+	    if (stats != null) {
+		long wallEnd = System.nanoTime();
+		long cpuEnd = cpuTime();
+		long allocEnd = allocatedBytes();
+		stats.record(phase, wallEnd - wall,
+			     (cpu < 0 ? -1 : cpuEnd - cpu),
+			     (alloc < 0 ? -1 : allocEnd - alloc));
+	    }
+	    event.end();
+	    if (event.shouldCommit())
+		event.commit();
+	}
+    }
+}
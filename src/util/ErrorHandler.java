@@ -32,16 +32,39 @@ import java.util.*;
  * */
 public class ErrorHandler {
 	/** Lexical error constant - use to indicate the type of error */
-	public final int LEX_ERROR = 0;
+	public static final int LEX_ERROR = 0;
 	/** Parse error constant - use to indicate the type of error */
-	public final int PARSE_ERROR = 1;
+	public static final int PARSE_ERROR = 1;
 	/** Semantic error constant - use to indicate the type of error */
-	public final int SEMANT_ERROR = 2;
+	public static final int SEMANT_ERROR = 2;
 
 	/** The number of errors registered */
 	private int numErrors;
 	/** The list of errors */
 	private Vector<Error> errorList = new Vector<Error>();
+	/** Stream that checkErrors prints the errors to (null when the errors
+	 * are handed back to a caller of the compiler API instead) */
+	private java.io.PrintStream err = System.err;
+
+	/** ErrorHandler constructor - errors are printed when checked
+	 * */
+	public ErrorHandler() {
+	}
+
+	/** ErrorHandler constructor
+	 * @param print whether checkErrors prints the errors to System.err
+	 * */
+	public ErrorHandler(boolean print) {
+		this(print ? System.err : null);
+	}
+
+	/** ErrorHandler constructor
+	 * @param err stream that checkErrors prints the errors to (null to not
+	 * print them)
+	 * */
+	public ErrorHandler(java.io.PrintStream err) {
+		this.err = err;
+	}
 
 	/** Register an error - auxiliarly method used by the other (public) register methods
 	 * @param error the error object
@@ -76,15 +99,44 @@ public class ErrorHandler {
 		register((new Error(type, null, -1, errorMessage)));
 	}
 
+	/** Register every error of another error handler (used to merge the
+	 * errors found in several files into one report)
+	 * @param other the error handler to copy the errors from
+	 * */
+	public void registerAll(ErrorHandler other) {
+		for (Error e : other.getErrors())
+			register(e);
+	}
+
+	/** Check whether any errors have been registered (without halting)
+	 * @return true if there are errors
+	 * */
+	public boolean hasErrors() {
+		return numErrors > 0;
+	}
+
+	/** Get the registered errors, ordered by file name and line number
+	 * @return list of errors
+	 * */
+	public List<Error> getErrors() {
+		return new ArrayList<Error>(errorList);
+	}
+
 	/** Check the errors - halts if there are any registered errors
+	 * @throws CompilationException if any errors have been registered
 	 * */
 	public void checkErrors() {
-		// if errors have been registered then print them and exit
+		// if errors have been registered then print them and halt
+		// (as one block, since several files may be checked in parallel)
 		if (numErrors > 0) {
-			printErrors();
-			System.err.println("Stopping compilation due to errors");
-			System.err.println(numErrors + " error(s)");
-			System.exit(1);
+			if (err != null) {
+				synchronized (err) {
+					printErrors();
+					err.println("Stopping compilation due to errors");
+					err.println(numErrors + " error(s)");
+				}
+			}
+			throw new CompilationException(numErrors + " error(s)");
 		}
 	}
 
@@ -126,24 +178,16 @@ public class ErrorHandler {
 	private void printErrors() {
 		// traverse the error list
 		for (int i = 0; i < errorList.size(); i++) {
-			// get the next error
-			Error e = errorList.elementAt(i);
-
 			// print error message
-			if (e.getFilename() == null)
-				System.err.println("Error: " + getTypeString(e.getType())
-						+ "on line: " + e.getLineNum()+ ", " + e.getMessage());
-			else
-				System.err.println(e.getFilename() + ":" + e.getLineNum() + ":" + 
-						getTypeString(e.getType()) + e.getMessage());
-			System.err.println();
+			err.println(errorList.elementAt(i));
+			err.println();
 		}
 	}
 
 	/** Get the type string (lex, parse, semantic, none)
 	 * @return string representing the type of error
 	 * */
-	private String getTypeString(int type) {
+	private static String getTypeString(int type) {
 		if (type == LEX_ERROR)
 			return "lexical error: ";
 		else if (type == PARSE_ERROR)
@@ -156,7 +200,7 @@ public class ErrorHandler {
 
 	/** Class for representing errors 
 	 * */
-	class Error {
+	public static class Error {
 		/** Type of an error (lex, parse, semantic) */
 		private int type;
 		/** File name where the error occurred */
@@ -199,5 +243,14 @@ public class ErrorHandler {
 		 * @return the error message
 		 * */
 		public String getMessage() { return message; }
+		/** Get the error as it is printed
+		 * @return the formatted error message
+		 * */
+		public String toString() {
+			if (filename == null)
+				return "Error: " + getTypeString(type)
+						+ "on line: " + lineNum + ", " + message;
+			return filename + ":" + lineNum + ":" + getTypeString(type) + message;
+		}
 	}
 }
@@ -0,0 +1,51 @@
+/* Cymbal Compiler
+   PhaseEvent.java
+
+   Java Flight Recorder event for one stage of a compile
+*/
+
+package util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** The <tt>PhaseEvent</tt> class is the flight recorder event emitted
+  * around each stage of a compile (lexing, parsing, each semantic check,
+  * the length map, each code generation visitor and the output flush),
+  * so that a recording shows the compiler's timeline next to the JVM's
+  * GC and JIT events.  Events are begun and committed by
+  * <tt>CompileStats.Timer</tt>; fields that do not apply to a stage are
+  * left at 0.
+  * */
+@Name("cymbal.Phase")
+@Label("Cymbal Compiler Phase")
+@Category({"Cymbal", "Compiler"})
+@Description("One stage of a Cymbal compile")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+    /** name of the stage */
+    @Label("Phase")
+    public String phase;
+
+    /** input file(s) the stage worked on */
+    @Label("File")
+    public String file;
+
+    /** number of tokens lexed (lex) or read by the parser (parse) */
+    @Label("Tokens")
+    public long tokens;
+
+    /** number of AST nodes built by the parser (parse) */
+    @Label("AST Nodes")
+    public long nodes;
+
+    /** number of assembly bytes written */
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+}
@@ -0,0 +1,156 @@
+/* Cymbal Compiler
+   ReplacingFileOutputStream.java
+
+   Output file that is written to the side and renamed into place
+*/
+
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/** The <tt>ReplacingFileOutputStream</tt> class writes the new contents
+  * of a file to a temporary file next to it, and <tt>commit</tt> renames
+  * the temporary file over the file in one step.  Until then the file
+  * keeps its old contents, so a compile that fails or is killed while
+  * writing never leaves a partial output behind (<tt>discard</tt> drops
+  * the temporary file of a compile that fails; one that is killed leaves
+  * it next to the untouched file).
+  * <p/>
+  * When the new contents are the same as the old ones, <tt>commit</tt>
+  * leaves the file alone, so regenerating an unchanged output keeps the
+  * file's modification time, and build steps that depend on it do not
+  * run again.
+  * */
+public class ReplacingFileOutputStream extends FilterOutputStream {
+    /** size of the write buffer and of the blocks compared */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /** the file to replace */
+    private Path target;
+    /** the temporary file holding the new contents */
+    private Path tmp;
+    /** whether the temporary file has been closed */
+    private boolean closed = false;
+
+    /** ReplacingFileOutputStream constructor - creates the temporary file
+      * @param target the file to replace
+      * @throws IOException if the temporary file cannot be created
+      * */
+    public ReplacingFileOutputStream(Path target) throws IOException {
+	super(null);
+	this.target = target.toAbsolutePath();
+	// (java.io.File gives the temporary file the usual permissions)
+	this.tmp = java.io.File.createTempFile(this.target.getFileName().toString(), ".tmp",
+					       this.target.getParent().toFile()).toPath();
+	try {
+	    out = new BufferedOutputStream(Files.newOutputStream(tmp), BLOCK_SIZE);
+	}
+	catch (IOException e) {
+	    Files.deleteIfExists(tmp);
+	    throw e;
+	}
+    }
+
+    public void write(byte[] b, int off, int len) throws IOException {
+	out.write(b, off, len);
+    }
+
+    /** close the temporary file (the file itself is only replaced by
+      * <tt>commit</tt>)
+      * @throws IOException if the temporary file cannot be written
+      * */
+    public void close() throws IOException {
+	if (!closed) {
+	    closed = true;
+	    out.close();
+	}
+    }
+
+    /** Close the temporary file and rename it over the file, unless the
+      * two have the same contents (the temporary file is then deleted)
+      * @return true if the file was replaced
+      * @throws IOException if the files cannot be written, read or renamed
+      * */
+    public boolean commit() throws IOException {
+	try {
+	    close();
+	    if (sameContents(tmp, target))
+		return false;
+	    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING,
+		       StandardCopyOption.ATOMIC_MOVE);
+	    return true;
+	}
+	finally {
+	    discard();
+	}
+    }
+
+    /** Close and delete the temporary file, leaving the file alone (does
+      * nothing once the stream has been committed)
+      * @throws IOException if the temporary file cannot be deleted
+      * */
+    public void discard() throws IOException {
+	try {
+	    close();
+	}
+	catch (IOException e) {
+	    // the new contents are dropped anyway
+	}
+	Files.deleteIfExists(tmp);
+    }
+
+    /** Check whether two files have the same contents
+      * @param a one file
+      * @param b the other file (which need not exist)
+      * @return true if both exist and hold the same bytes
+      * @throws IOException if the files cannot be read
+      * */
+    private static boolean sameContents(Path a, Path b) throws IOException {
+	try {
+	    if (Files.size(a) != Files.size(b))
+		return false;
+	}
+	catch (NoSuchFileException e) {
+	    return false;
+	}
+	try (InputStream inA = Files.newInputStream(a); InputStream inB = Files.newInputStream(b)) {
+	    byte[] blockA = new byte[BLOCK_SIZE];
+	    byte[] blockB = new byte[BLOCK_SIZE];
+	    while (true) {
+		int n = readBlock(inA, blockA);
+		if (n != readBlock(inB, blockB))
+		    return false;
+		if (n == 0)
+		    return true;
+		for (int i = 0; i < n; i++) {
+		    if (blockA[i] != blockB[i])
+			return false;
+		}
+	    }
+	}
+    }
+
+    /** Read a full block (or whatever is left) from a stream
+      * @param in the stream
+      * @param block the block to fill
+      * @return number of bytes read (0 at the end of the stream)
+      * @throws IOException if the stream cannot be read
+      * */
+    private static int readBlock(InputStream in, byte[] block) throws IOException {
+	int n = 0;
+	while (n < block.length) {
+	    int read = in.read(block, n, block.length - n);
+	    if (read < 0)
+		break;
+	    n += read;
+	}
+	return n;
+    }
+}
@@ -13,7 +13,6 @@
 package visitor;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Stack;
 
 import visitor.*;
@@ -72,6 +71,31 @@ public class CodeGenVisitor extends Visitor {
 			return null;
 		}
 
+		/**
+		 * Generate the start of a song whose top-level expressions
+		 * are handed over one at a time (streaming)
+		 */
+		public void genSongStart(HashMap<String,Integer> noteMap,
+				HashMap<String,Integer> lengthMap){
+			this.noteMap = noteMap;
+			this.lengthMap = lengthMap;
+			songStart();
+		}
+
+		/**
+		 * Generate a top-level song expression (streaming)
+		 */
+		public void genSongExpr(Expr expr){
+			expr.accept(this);
+		}
+
+		/**
+		 * Generate the end of a streamed song
+		 */
+		public void genSongEnd(){
+			songEnd();
+		}
+
     /**
      * Visit a File node
      *
@@ -91,8 +115,8 @@ public class CodeGenVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(PhraseList node) {
-        for (ASTNode aNode : node)
-            aNode.accept(this);
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
     
@@ -117,17 +141,31 @@ public class CodeGenVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(Song node) {
+    	songStart();
+        node.getExprList().accept(this);
+        songEnd();
+        return null;
+    }
+
+    /**
+     * Set the default values and start the song
+     */
+    private void songStart() {
     	octaveStack.push(3);
     	volumeStack.push(75);
     	instrumentStack.push(0);
     	tempoStack.push(500);
     	assemblySupport.genComment("Song starts here");
-        node.getExprList().accept(this);
+    }
+
+    /**
+     * End the program after the song
+     */
+    private void songEnd() {
         //end program
       	assemblySupport.genLoadImm("$v0", 10 );
       	//load a unique no side effect syscall
       	assemblySupport.genSyscall(999);
-        return null;
     }
 
 
@@ -138,8 +176,8 @@ public class CodeGenVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(ExprList node) {
-        for (Iterator it = node.iterator(); it.hasNext(); )
-            ((Expr) it.next()).accept(this);
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
 
@@ -213,7 +213,7 @@ public class InstrumentValidatorVisitor extends Visitor {
     	}
     	if(index == -1){
     		errorHandler.register(
-        			errorHandler.SEMANT_ERROR, 
+        			ErrorHandler.SEMANT_ERROR, 
     				null, 
     				node.getLineNum(), 
     				"Insturment: " + node.getConstant() + " is invalid");
@@ -49,7 +49,7 @@ public class InvalidOctaveModVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(File node) {
-        node.getSong().accept(this);
+        node.getSongList().accept(this);
         return null;
     }
 	/**
@@ -100,7 +100,7 @@ public class InvalidOctaveModVisitor extends Visitor {
 	*/
     public Object visit(OctaveModVal node) {
     	errorHandler.register(
-    			errorHandler.SEMANT_ERROR, 
+    			ErrorHandler.SEMANT_ERROR, 
 				null, 
 				node.getLineNum(), 
 				"Octave Modifiers can only be used in octave blocks");
@@ -0,0 +1,128 @@
+/* Cymbal Compiler Visitor.
+ * 	File: LineShiftVisitor.java
+
+	Visitor to traverse the Tree of Cymbal's grammar
+	as outlined in the design document
+
+	Moves nodes to other lines (for the incremental parser)
+*/
+
+package visitor;
+
+import ast.*;
+
+/**
+ *  visitor class for traversing the AST
+ *  Adds the same number to the line number of every node the standard
+ *  traversal reaches, except lists (which the parser puts on line 0)
+ */
+public class LineShiftVisitor extends Visitor {
+
+	/** Number of lines to move the nodes by */
+	private int lines = 0;
+
+	/**
+	 * Move a node and everything under it
+	 *
+	 * @param node the node to move
+	 * @param lines number of lines to move it by (negative to move it up)
+	 */
+	public void shiftLines(ASTNode node, int lines) {
+		this.lines = lines;
+		node.accept(this);
+	}
+
+	/**
+	 * Move one node
+	 *
+	 * @param node the node
+	 */
+	private void shift(ASTNode node) {
+		node.setLineNum(node.getLineNum() + lines);
+	}
+
+	public Object visit(Phrase node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(Song node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(NoteExpr node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(NoteLiteral node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(PhraseDispatch node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(OctaveBlock node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(InstrumentBlock node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(VolumeBlock node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(TempoBlock node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(VolumeWord node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(RepeatBlock node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(OctaveIntConst node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(OctaveModVal node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(Note node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(Rest node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(Accidental node) {
+		shift(node);
+		return super.visit(node);
+	}
+
+	public Object visit(ConstStringExpr node) {
+		shift(node);
+		return super.visit(node);
+	}
+}
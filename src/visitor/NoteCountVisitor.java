@@ -0,0 +1,46 @@
+/* Cymbal Compiler Visitor.
+ * 	File: NoteCountVisitor.java
+
+	Visitor to traverse the Tree of Cymbal's grammar
+	as outlined in the design document
+
+	Counts the notes (and rests) written in the phrases and the song
+*/
+
+package visitor;
+
+import ast.*;
+
+/**
+ *  visitor class for traversing the AST
+ *  Counts the note literals (notes and rests) in a file, used for
+ *  throughput reporting
+ */
+public class NoteCountVisitor extends Visitor {
+
+	/** Number of note literals seen so far */
+	private int numNotes = 0;
+
+	/**
+	 * Count the note literals in a file
+	 *
+	 * @param file the file to count
+	 * @return number of note literals in the phrases and the song
+	 */
+	public int countNotes(File file) {
+		numNotes = 0;
+		file.accept(this);
+		return numNotes;
+	}
+
+    /**
+     * Visit a Note literal
+     *
+     * @param node the literal node
+     * @return result of the visit
+     */
+    public Object visit(NoteLiteral node) {
+    	numNotes++;
+        return null;
+    }
+}
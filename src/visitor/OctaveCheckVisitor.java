@@ -75,7 +75,7 @@ public class OctaveCheckVisitor extends Visitor {
     public Object visit(OctaveModVal node) {
     	if(block == true){
     	errorHandler.register(
-    			errorHandler.SEMANT_ERROR, 
+    			ErrorHandler.SEMANT_ERROR, 
 				null, 
 				node.getLineNum(), 
 				"invalid Octave Mod value in Octave Block Declaration");
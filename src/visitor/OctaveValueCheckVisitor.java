@@ -44,10 +44,33 @@ public class OctaveValueCheckVisitor extends Visitor {
 	 */
 	
 	public ErrorHandler checkOctaveValues(File file){
-		file.accept(this);	
+		file.accept(this);
 		return errorHandler;
 	}
-	
+
+    /**
+     * Visit a File node: the phrases, then each song starting from the
+     * octaves the phrases left, so each song is checked as it would be
+     * alone in a file with the phrases
+     *
+     * @param node the file node
+     * @return result of the visit
+     */
+    public Object visit(File node) {
+    	if (node.getPhraseList() != null){
+    		node.getPhraseList().accept(this);
+    	}
+    	int phraseOctave = currOctave;
+    	int phraseBlockOctave = blockOctave;
+    	SongList songList = node.getSongList();
+    	for (int i = 0; i < songList.getSize(); i++) {
+    		currOctave = phraseOctave;
+    		blockOctave = phraseBlockOctave;
+    		songList.get(i).accept(this);
+    	}
+        return null;
+    }
+
 	 /**
      * Visit a OcatveBlock
      *
@@ -84,13 +107,13 @@ public class OctaveValueCheckVisitor extends Visitor {
     public Object visit(OctaveModVal node) {
     	if (blockOctave == 7 && node.getModVal().equals("+"))
     	errorHandler.register(
-    			errorHandler.SEMANT_ERROR, 
+    			ErrorHandler.SEMANT_ERROR, 
 				null, 
 				node.getLineNum(), 
 				"Cannot go above 7th Octave");
     	else if (blockOctave == 0 && node.getModVal().equals("-")){
     		errorHandler.register(
-        			errorHandler.SEMANT_ERROR, 
+        			ErrorHandler.SEMANT_ERROR, 
     				null, 
     				node.getLineNum(), 
     				"Cannot go below 0th Octave");
@@ -10,7 +10,6 @@
 package visitor;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Stack;
 
 import codegenmips.MipsSupport;
@@ -71,8 +70,8 @@ public class PhraseCodeGenVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(PhraseList node) {
-        for (ASTNode aNode : node)
-            aNode.accept(this);
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
     
@@ -114,8 +113,8 @@ public class PhraseCodeGenVisitor extends Visitor {
      * @return result of the visit
      */
     public Object visit(ExprList node) {
-        for (Iterator it = node.iterator(); it.hasNext(); ){
-            ((Expr) it.next()).accept(this);
+        for (int i = 0; i < node.getSize(); i++){
+            node.get(i).accept(this);
         }
         return null;
     }
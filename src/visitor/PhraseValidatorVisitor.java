@@ -27,6 +27,9 @@ public class PhraseValidatorVisitor extends Visitor {
 	/**List containing names of all phrases */
 	private List<String> phraseNames = new ArrayList<String>();
 	
+	/**List containing names of all songs (each song gets its own output) */
+	private List<String> songNames = new ArrayList<String>();
+	
 	/**current file */
 	private File file;
 	
@@ -56,7 +59,7 @@ public class PhraseValidatorVisitor extends Visitor {
     	}
     	else{
     		errorHandler.register(
-        			errorHandler.SEMANT_ERROR, 
+        			ErrorHandler.SEMANT_ERROR, 
     				null, 
     				node.getLineNum(), 
     				"Duplicate Phrase Name: " + node.getPhraseName());
@@ -67,6 +70,27 @@ public class PhraseValidatorVisitor extends Visitor {
 
 
     
+    /**
+     * Visit a song node
+     *
+     * @param node the song node
+     * @return result of the visit
+     */
+    public Object visit(Song node) {
+    	if( !songNames.contains(node.getName())){
+        	songNames.add(node.getName());
+    	}
+    	else{
+    		errorHandler.register(
+        			ErrorHandler.SEMANT_ERROR, 
+    				null, 
+    				node.getLineNum(), 
+    				"Duplicate Song Name: " + node.getName());
+    	}
+        node.getExprList().accept(this);
+        return null;
+    }
+    
     /**
      * Visit a PhraseDispatch
      *
@@ -101,7 +125,7 @@ public class PhraseValidatorVisitor extends Visitor {
     public Object visit(ConstStringExpr node) {
     	if(!phraseNames.contains(node.getConstant())){
     		errorHandler.register(
-        			errorHandler.SEMANT_ERROR, 
+        			ErrorHandler.SEMANT_ERROR, 
     				null, 
     				node.getLineNum(), 
     				"Phrase: " + node.getConstant() + " is undeclared");
@@ -12,8 +12,6 @@ package visitor;
 
 import ast.*;
 
-import java.util.Iterator;
-
 /**
  * Abstract visitor class for traversing the AST
  */
@@ -48,7 +46,19 @@ public abstract class Visitor {
         if (node.getPhraseList() != null){
     		node.getPhraseList().accept(this);
         }
-        node.getSong().accept(this);
+        node.getSongList().accept(this);
+        return null;
+    }
+
+    /**
+     * Visit a list node of songs
+     *
+     * @param node the song list node
+     * @return result of the visit
+     */
+    public Object visit(SongList node) {
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
 
@@ -59,8 +69,8 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(PhraseList node) {
-        for (ASTNode aNode : node)
-            aNode.accept(this);
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
     
@@ -95,8 +105,8 @@ public abstract class Visitor {
      * @return result of the visit
      */
     public Object visit(ExprList node) {
-        for (Iterator it = node.iterator(); it.hasNext(); )
-            ((Expr) it.next()).accept(this);
+        for (int i = 0; i < node.getSize(); i++)
+            node.get(i).accept(this);
         return null;
     }
 
@@ -0,0 +1,413 @@
+
+package java_cup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import java_cup.runtime.ReduceListener;
+import java_cup.runtime.Scanner;
+import java_cup.runtime.Symbol;
+import java_cup.runtime.lr_parser;
+
+/** This class checks that a parser driven by feed() and finish() does
+ *  exactly what the same parser does when parse() reads the same input
+ *  from a scanner.  It runs CUP over a small grammar of statements and
+ *  expressions with error productions in several places (so that error
+ *  recovery is exercised, which the Cymbal grammar never does), compiles
+ *  the parser and loads it, then parses random token streams both ways:
+ *  well-formed programs, and the same programs with tokens deleted,
+ *  repeated, swapped, replaced or cut off.  The actions record a trace
+ *  of the parse (every syntax error reported, and every error recovered
+ *  from), and a reduce listener registered for every non terminal
+ *  records every reduction with its value and positions; the traces,
+ *  the results (or the exception the parse failed with) and the number
+ *  of tokens read or fed must be the same.<p>
+ *
+ *  Usage: java java_cup.PushCheck [streams [seed]] (20000 streams by
+ *  default); exits with status 1 at the first difference.  Needs a JDK
+ *  (to compile the parser).
+ */
+
+public class PushCheck {
+
+  /*-----------------------------------------------------------*/
+  /*--- Constructor(s) ----------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Only constructor is private, so we do not allocate any instances of
+      this class. */
+  private PushCheck() { }
+
+  /*-----------------------------------------------------------*/
+  /*--- Static Variables --------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** The grammar checked. */
+  protected static final String[] GRAMMAR = {
+    "parser code {:",
+    "  public StringBuilder trace = new StringBuilder();",
+    "  public void report_error(String message, Object info) {",
+    "    trace.append(\"report(\" + message + \") \"); }",
+    "  public void syntax_error(java_cup.runtime.Symbol cur_token) {",
+    "    trace.append(\"error@\" + cur_token.left + \" \"); }",
+    "  public void unrecovered_syntax_error(java_cup.runtime.Symbol cur_token)",
+    "    throws java.lang.Exception {",
+    "    trace.append(\"fatal@\" + cur_token.left + \" \");",
+    "    super.unrecovered_syntax_error(cur_token); }",
+    ":};",
+    "terminal String ID, NUM;",
+    "terminal EQ, PLUS, TIMES, LPAREN, RPAREN, SEMI, LBRACE, RBRACE;",
+    "non terminal String prog, stmts, stmt, block, expr, term, factor;",
+    "prog ::= stmts:s {: RESULT = s; :}",
+    "      | {: RESULT = \"\"; :}",
+    "      ;",
+    "stmts ::= stmts:a stmt:b {: RESULT = a + b; :}",
+    "       | stmt:b {: RESULT = b; :}",
+    "       ;",
+    "stmt ::= ID:i EQ expr:e SEMI {: RESULT = i + \"=\" + e + \";\"; :}",
+    "      | block:b {: RESULT = b; :}",
+    "      | error SEMI {: RESULT = \"?;\"; parser.trace.append(\"recovered; \"); :}",
+    "      | LBRACE error RBRACE",
+    "          {: RESULT = \"{?}\"; parser.trace.append(\"recovered} \"); :}",
+    "      ;",
+    "block ::= LBRACE stmts:s RBRACE {: RESULT = \"{\" + s + \"}\"; :}",
+    "       | LBRACE RBRACE {: RESULT = \"{}\"; :}",
+    "       ;",
+    "expr ::= expr:a PLUS term:b {: RESULT = \"(\" + a + \"+\" + b + \")\"; :}",
+    "      | term:t {: RESULT = t; :}",
+    "      ;",
+    "term ::= term:a TIMES factor:b {: RESULT = \"(\" + a + \"*\" + b + \")\"; :}",
+    "      | factor:f {: RESULT = f; :}",
+    "      ;",
+    "factor ::= ID:i {: RESULT = i; :}",
+    "        | NUM:n {: RESULT = n; :}",
+    "        | LPAREN expr:e RPAREN {: RESULT = e; :}",
+    "        | LPAREN error RPAREN",
+    "            {: RESULT = \"?\"; parser.trace.append(\"recovered) \"); :}",
+    "        ;",
+  };
+
+  /** Symbol indexes of the terminals (as CUP numbers them: EOF and error
+   *  first, then in the order declared). */
+  protected static final int EOF = 0, ID = 2, NUM = 3, EQ = 4, PLUS = 5,
+    TIMES = 6, LPAREN = 7, RPAREN = 8, SEMI = 9, LBRACE = 10, RBRACE = 11;
+
+  /** Number of streams parsed, of them those with syntax errors, and
+   *  those in which the parser recovered from an error. */
+  protected static int streams, failed, recovered;
+
+  /*-----------------------------------------------------------*/
+  /*--- General Methods ---------------------------------------*/
+  /*-----------------------------------------------------------*/
+
+  /** Run the check.
+   * @param argv optional number of streams, and seed.
+   */
+  public static void main(String argv[]) throws Exception
+    {
+      int count = (argv.length > 0) ? Integer.parseInt(argv[0]) : 20000;
+      long seed = (argv.length > 1) ? Long.parseLong(argv[1]) : 42;
+
+      JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+      if (javac == null)
+	throw new Exception("PushCheck needs a JDK to compile the parser");
+
+      File dir = File.createTempFile("cup-push", "");
+      dir.delete();
+      dir.mkdir();
+      try
+	{
+	  File grammar = new File(dir, "push.cup");
+	  PrintWriter out = new PrintWriter(grammar, "US-ASCII");
+	  for (int i = 0; i < GRAMMAR.length; i++)
+	    out.println(GRAMMAR[i]);
+	  out.close();
+	  lr_parser built = build(javac, grammar, new File(dir, "parser"), 0);
+	  if (built == null)
+	    throw new Exception("could not compile the parser of " + grammar);
+	  Class<? extends lr_parser> parser_class = built.getClass();
+
+	  Random random = new Random(seed);
+	  for (int n = 0; n < count; n++)
+	    {
+	      List<Integer> tokens = new ArrayList<Integer>();
+	      generate_stmts(tokens, random, 0);
+	      if (n % 4 != 0)
+		mutate(tokens, random);
+	      check(parser_class, tokens);
+	    }
+	}
+      finally
+	{
+	  delete(dir);
+	}
+      System.out.println(streams + " streams (" + failed + " with errors, " +
+			 recovered + " recovered from): the parses agree");
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Parse a token stream pulled by parse() and pushed by feed(), and
+   *  compare the outcomes.
+   * @param parser_class the class of the parser.
+   * @param tokens       the Symbol index of each token.
+   */
+  protected static void check(Class<? extends lr_parser> parser_class,
+			      List<Integer> tokens)
+    throws Exception
+    {
+      streams++;
+      String pulled = parse(parser_class, tokens, false);
+      String pushed = parse(parser_class, tokens, true);
+      if (!pulled.equals(pushed))
+	{
+	  System.err.println("Difference on stream " + streams + ": " + tokens);
+	  System.err.println("  parse():        " + pulled);
+	  System.err.println("  feed()/finish(): " + pushed);
+	  System.exit(1);
+	}
+      if (pulled.indexOf("error@") >= 0) failed++;
+      if (pulled.indexOf("recovered") >= 0) recovered++;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Parse a token stream one way.
+   * @param parser_class the class of the parser.
+   * @param tokens       the Symbol index of each token.
+   * @param push         whether to feed() the tokens rather than parse().
+   * @return the outcome: result or exception, trace, reductions, and
+   *         the number of tokens read.
+   */
+  protected static String parse(
+    Class<? extends lr_parser> parser_class,
+    final List<Integer>        tokens,
+    boolean                    push)
+    throws Exception
+    {
+      /* the tokens (then EOF again and again), positioned by index */
+      final int[] read = {0};
+      Scanner scanner = new Scanner() {
+	  public Symbol next_token()
+	    {
+	      int i = read[0]++;
+	      int sym = (i < tokens.size()) ? tokens.get(i) : EOF;
+	      Object value = (sym == ID) ? "x" + i : (sym == NUM) ? "" + i : null;
+	      return new Symbol(sym, i, i + 1, value);
+	    }
+	};
+
+      lr_parser parser = parser_class.getDeclaredConstructor().newInstance();
+      parser.setScanner(scanner);
+      final StringBuilder reductions = new StringBuilder();
+      int[] non_terminals = new int[64];
+      for (int i = 0; i < non_terminals.length; i++)
+	non_terminals[i] = i;
+      parser.set_reduce_listener(new ReduceListener() {
+	  public void reduced(int nt, Object value, int left, int right)
+	    {
+	      reductions.append(nt).append('=').append(value).append('[')
+		.append(left).append(',').append(right).append("] ");
+	    }
+	}, non_terminals);
+
+      String result;
+      try
+	{
+	  Symbol top;
+	  if (push)
+	    {
+	      while (parser.feed(scanner.next_token()))
+		{
+		  /* the parser runs as far as each token allows */
+		}
+	      top = parser.finish();
+	    }
+	  else
+	    top = parser.parse();
+	  result = (top == null) ? "null" : "" + top.value;
+	}
+      catch (Exception e)
+	{
+	  result = e.getClass().getName() + ": " + e.getMessage();
+	}
+      Field trace = parser_class.getField("trace");
+      return result + " trace=" + trace.get(parser) + " tokens=" + read[0] +
+	" reductions=" + reductions;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Generate the tokens of a list of statements.
+   * @param tokens the tokens so far.
+   * @param random random numbers.
+   * @param depth  number of blocks the list is nested in.
+   */
+  protected static void generate_stmts(
+    List<Integer> tokens,
+    Random        random,
+    int           depth)
+    {
+      int stmts = (depth == 0) ? random.nextInt(6) : 1 + random.nextInt(3);
+      for (int s = 0; s < stmts; s++)
+	{
+	  if (depth < 3 && random.nextInt(4) == 0)
+	    {
+	      tokens.add(LBRACE);
+	      if (random.nextInt(5) > 0)
+		generate_stmts(tokens, random, depth + 1);
+	      tokens.add(RBRACE);
+	    }
+	  else
+	    {
+	      tokens.add(ID);
+	      tokens.add(EQ);
+	      generate_expr(tokens, random, 0);
+	      tokens.add(SEMI);
+	    }
+	}
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Generate the tokens of an expression.
+   * @param tokens the tokens so far.
+   * @param random random numbers.
+   * @param depth  number of parentheses the expression is nested in.
+   */
+  protected static void generate_expr(
+    List<Integer> tokens,
+    Random        random,
+    int           depth)
+    {
+      int operands = 1 + random.nextInt(3);
+      for (int o = 0; o < operands; o++)
+	{
+	  if (o > 0)
+	    tokens.add(random.nextBoolean() ? PLUS : TIMES);
+	  if (depth < 2 && random.nextInt(4) == 0)
+	    {
+	      tokens.add(LPAREN);
+	      generate_expr(tokens, random, depth + 1);
+	      tokens.add(RPAREN);
+	    }
+	  else
+	    tokens.add(random.nextBoolean() ? ID : NUM);
+	}
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Spoil a token stream with a few edits: tokens deleted, repeated,
+   *  swapped or replaced by random ones, or the stream cut off.
+   * @param tokens the tokens.
+   * @param random random numbers.
+   */
+  protected static void mutate(List<Integer> tokens, Random random)
+    {
+      int edits = 1 + random.nextInt(3);
+      for (int e = 0; e < edits && !tokens.isEmpty(); e++)
+	{
+	  int at = random.nextInt(tokens.size());
+	  int token = 2 + random.nextInt(RBRACE - 1);
+	  switch (random.nextInt(5))
+	    {
+	    case 0:
+	      tokens.remove(at);
+	      break;
+	    case 1:
+	      tokens.add(at, tokens.get(at));
+	      break;
+	    case 2:
+	      if (at + 1 < tokens.size())
+		tokens.add(at + 1, tokens.remove(at));
+	      break;
+	    case 3:
+	      tokens.set(at, token);
+	      break;
+	    default:
+	      tokens.subList(at, tokens.size()).clear();
+	      break;
+	    }
+	}
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Run CUP over a grammar, compile the parser and load it (in a class
+   *  loader of its own, sharing this one's runtime classes).
+   * @param javac   the Java compiler.
+   * @param grammar the grammar file.
+   * @param dir     directory for the parser.
+   * @param split   productions per action method (0 for one method).
+   * @return a parser, with its actions initialized, or null if the 
+   *         parser does not compile.
+   */
+  protected static lr_parser build(
+    JavaCompiler javac,
+    File         grammar,
+    File         dir,
+    int          split)
+    throws Exception
+    {
+      dir.mkdir();
+      String java = System.getProperty("java.home") + File.separator +
+		    "bin" + File.separator + "java";
+      String classpath = System.getProperty("java.class.path");
+      /* (the reductions are compacted to keep the tables of the larger
+	 grammars within the size of a class initializer) */
+      ProcessBuilder cup = (split > 0)
+	? new ProcessBuilder(java, "-cp", classpath, "java_cup.Main",
+			     "-nosummary", "-compact_red", 
+			     "-split_actions", "" + split)
+	: new ProcessBuilder(java, "-cp", classpath, "java_cup.Main",
+			     "-nosummary", "-compact_red");
+      cup.directory(dir);
+      cup.redirectInput(grammar);
+      cup.redirectErrorStream(true);
+      cup.redirectOutput(new File(dir, "cup.out"));
+      if (cup.start().waitFor() != 0)
+	throw new Exception("CUP failed on " + grammar +
+			    " (see " + new File(dir, "cup.out") + ")");
+
+      ByteArrayOutputStream errors = new ByteArrayOutputStream();
+      if (javac.run(null, null, errors, "-nowarn", "-cp", classpath,
+		    "-d", dir.getPath(), new File(dir, "parser.java").getPath(),
+		    new File(dir, "sym.java").getPath()) != 0)
+	return null;
+
+      URLClassLoader loader = new URLClassLoader(
+	new URL[] {dir.toURI().toURL()}, PushCheck.class.getClassLoader());
+      lr_parser parser = loader.loadClass("parser").asSubclass(lr_parser.class)
+	.getDeclaredConstructor().newInstance();
+      Method init = lr_parser.class.getDeclaredMethod("init_actions");
+      init.setAccessible(true);
+      init.invoke(parser);
+      return parser;
+    }
+
+  /*. . . . . . . . . . . . . . . . . . . . . . . . . . . . . .*/
+
+  /** Delete a file, or a directory and everything in it. */
+  protected static void delete(File file)
+    {
+      File[] files = file.listFiles();
+      if (files != null)
+	for (int i = 0; i < files.length; i++)
+	  delete(files[i]);
+      file.delete();
+    }
+
+  /*-----------------------------------------------------------*/
+
+}
@@ -0,0 +1,270 @@
+/* Cymbal Compiler
+   ScannerCheck.java
+
+   Differential check of the hand-written scanner against the generated
+   lexer
+*/
+
+package lexer;
+
+import java_cup.runtime.Symbol;
+import parser.TokenIds;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * The <tt>ScannerCheck</tt> class runs <tt>CymbalScanner</tt> and the
+ * JLex-generated <tt>Lexer</tt> over the same sources and requires the
+ * same token stream from both: the same kind, lexeme, line and offset of
+ * every token, the same line and file name after it, a few more EOFs at
+ * the end, and the same exception if the lexer fails.  The sources are a
+ * generated corpus (well-formed songs, and fragments of every token, of
+ * near-misses such as "Son" or "13", of comments and strings, including
+ * unterminated ones and bad escapes, and of every ASCII character, mixed
+ * with "\n", "\r\n" and "\r" line ends and split over several files)
+ * plus any files named on the command line; each is scanned once from
+ * files (memory-mapped) and once through readers.
+ * <p/>
+ * Usage: <tt>java lexer.ScannerCheck [-n &lt;sources&gt;] [-seed &lt;seed&gt;]
+ * [&lt;files&gt;]</tt> (2000 sources by default); exits with status 1 at
+ * the first difference.
+ */
+public class ScannerCheck {
+    /**
+     * Pieces the generated sources are made of
+     */
+    private static final String[] PIECES = {
+        "Song", "Phrase", "Octave", "Repeat", "Volume", "Tempo", "Instrument", "Rest",
+        "Quarter", "Half", "Whole", "Eighth", "piano", "mesopiano", "default", "mesoforte",
+        "forte", "Son", "Songs", "Phras", "Eig", "Eight", "meso", "mesop", "mesof", "Re",
+        "Rep", "Res", "pian", "fort", "defaul", "Instrumen", "Quart", "Hal", "Whol",
+        "A", "B", "C", "D", "E", "F", "G", "#", "b", "+", "-", "(", ")", "{", "}",
+        "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "12", "13", "59", "60", "99",
+        "100", "119", "129", "130", "1299", "999",
+        " ", "  ", "\t", "\f", "\n", "\r\n", "\r", "\n\r", "\n\n",
+        "//", "// comment", "/", "/*", "*/", "/* comment */", "*", "/**/", "/*/",
+        "\"", "\"name\"", "\"a b\"", "\\", "\\n", "\\t", "\\f", "\\\\", "\\\"", "\\q",
+        "\"\\n\\\"x\"", "\"bad \\q escape\"", "\"open",
+    };
+
+    /**
+     * Run the check
+     *
+     * @param args options and files to check
+     * @throws IOException if a file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int numSources = 2000;
+        long seed = 42;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-n") && i + 1 < args.length) {
+                numSources = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        Random random = new Random(seed);
+        Path dir = Files.createTempDirectory("cymbal-scan");
+        int tokens = 0;
+        try {
+            for (int n = 0; n < numSources; n++) {
+                String[] parts = split(generate(random, n), random);
+                String[] names = new String[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    Path file = dir.resolve("s" + n + "_" + i + ".cym");
+                    Files.write(file, parts[i].getBytes(StandardCharsets.US_ASCII));
+                    names[i] = file.toString();
+                }
+                tokens += check(names, parts);
+                for (String name : names) {
+                    Files.delete(java.nio.file.Paths.get(name));
+                }
+            }
+            for (String file : files) {
+                String text = new String(Files.readAllBytes(java.nio.file.Paths.get(file)),
+                        StandardCharsets.ISO_8859_1);
+                tokens += check(new String[] {file}, new String[] {text});
+            }
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+        System.out.println((numSources + files.size()) + " sources, " + tokens
+                + " tokens: the scanner and the lexer agree");
+    }
+
+    /**
+     * Generate a source
+     *
+     * @param random random numbers
+     * @param n      number of the source (every tenth one is a song, and
+     *               every fiftieth one is long enough to fill the
+     *               scanner's buffer several times)
+     * @return the source
+     */
+    private static String generate(Random random, int n) {
+        StringBuilder source = new StringBuilder();
+        if (n % 10 == 0) {
+            String end = (n % 20 == 0 ? "\r\n" : "\n");
+            int phrases = 1 + random.nextInt(n % 50 == 0 ? 2000 : 5);
+            for (int p = 0; p < phrases; p++) {
+                source.append("Phrase \"p").append(p).append("\" {").append(end)
+                        .append("  // notes").append(end)
+                        .append("  Quarter C# 4").append(end)
+                        .append("  Octave + { Half Eb Whole G5 }").append(end)
+                        .append("  Volume mesopiano { Eighth A Rest }").append(end)
+                        .append("}").append(end).append("/* end */").append(end);
+            }
+            source.append("Song \"S\" 120 {").append(end)
+                    .append("  Tempo 60 { Instrument \"piano\" { \"p0\"() } }").append(end)
+                    .append("}").append(end);
+            return source.toString();
+        }
+        int pieces = random.nextInt(n % 50 == 1 ? 20000 : 60);
+        for (int i = 0; i < pieces; i++) {
+            if (random.nextInt(8) == 0) {
+                // any ASCII character
+                source.append((char) random.nextInt(128));
+            } else {
+                source.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+        }
+        return source.toString();
+    }
+
+    /**
+     * Split a source into one to four files
+     *
+     * @param source the source
+     * @param random random numbers
+     * @return the files' contents
+     */
+    private static String[] split(String source, Random random) {
+        int numParts = 1 + random.nextInt(4);
+        String[] parts = new String[numParts];
+        int start = 0;
+        for (int i = 0; i < numParts; i++) {
+            int end = (i == numParts - 1 ? source.length()
+                    : start + random.nextInt(source.length() - start + 1));
+            parts[i] = source.substring(start, end);
+            start = end;
+        }
+        return parts;
+    }
+
+    /**
+     * Compare the two scanners on some files, read from the files and
+     * through readers
+     *
+     * @param names    names of the files
+     * @param contents contents of the files
+     * @return number of tokens compared
+     * @throws IOException if a file cannot be read
+     */
+    private static int check(String[] names, String[] contents) throws IOException {
+        int tokens = compare(names, new Lexer(names, false), new CymbalScanner(names, false));
+        tokens += compare(names, new Lexer(names, readers(contents), false),
+                new CymbalScanner(names, readers(contents), false));
+        return tokens;
+    }
+
+    /**
+     * Make a reader for each of some strings
+     *
+     * @param contents the strings
+     * @return the readers
+     */
+    private static Reader[] readers(String[] contents) {
+        Reader[] readers = new Reader[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            readers[i] = new StringReader(contents[i]);
+        }
+        return readers;
+    }
+
+    /**
+     * Compare the token streams of the lexer and the scanner
+     *
+     * @param names   names of the files being scanned
+     * @param lexer   the generated lexer
+     * @param scanner the hand-written scanner
+     * @return number of tokens compared
+     * @throws IOException if a file cannot be read
+     */
+    private static int compare(String[] names, TokenSource lexer, TokenSource scanner)
+            throws IOException {
+        int count = 0;
+        int eofs = 0;
+        while (eofs < 3) {
+            Object expected = next(lexer);
+            Object actual = next(scanner);
+            String want = describe(expected, lexer);
+            String got = describe(actual, scanner);
+            if (!want.equals(got)) {
+                System.err.println("Difference at token " + count + " of " + String.join(" ", names));
+                System.err.println("  lexer:   " + want);
+                System.err.println("  scanner: " + got);
+                System.exit(1);
+            }
+            count++;
+            if (!(expected instanceof Symbol)) {
+                break;
+            }
+            if (((Symbol) expected).sym == TokenIds.EOF) {
+                eofs++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the next token, or the exception the scanner fails with
+     *
+     * @param scanner the scanner
+     * @return the token or the exception
+     * @throws IOException if a file cannot be read
+     */
+    private static Object next(TokenSource scanner) throws IOException {
+        try {
+            return scanner.next_token();
+        } catch (RuntimeException e) {
+            return e;
+        } catch (Error e) {
+            return e;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Describe a token and the scanner's position after it
+     *
+     * @param token   the token (or the exception)
+     * @param scanner the scanner
+     * @return the description
+     */
+    private static String describe(Object token, TokenSource scanner) {
+        if (!(token instanceof Symbol)) {
+            Throwable e = (Throwable) token;
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+        Symbol symbol = (Symbol) token;
+        return Token.name(symbol.sym) + " " + Objects.toString(symbol.value)
+                + " line " + symbol.left + " offset " + symbol.right
+                + " at " + scanner.getCurrFilename() + ":" + scanner.getCurrLineNum();
+    }
+}
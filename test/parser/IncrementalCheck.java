@@ -0,0 +1,425 @@
+/* Cymbal Compiler
+   IncrementalCheck.java
+
+   Differential check of the incremental parser against full parses of
+   each version of an edited source
+*/
+
+package parser;
+
+import ast.File;
+import lexer.CymbalScanner;
+import util.CompilationException;
+import util.ErrorHandler;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The <tt>IncrementalCheck</tt> class edits sources over and over with an
+ * <tt>IncrementalParser</tt> and, after every edit, requires the same
+ * outcome as a full parse of the edited source by <tt>CymbalParser</tt>:
+ * an identical AST (compared in full, line numbers included, as by
+ * <tt>ParserCheck</tt>), or the same exception, and the same errors.  The
+ * sources are those of <tt>ParserCheck</tt>, and the edits are a mix of
+ * ones that keep the source well-formed (a note changed, a line end or a
+ * comment added, a phrase or Song added, copied or deleted) and ones
+ * that may not (a few characters deleted, noise inserted, a comment or
+ * string opened, a range of the source copied elsewhere), some given to
+ * the parser as edits (now and then split in two, with no AST asked for
+ * in between) and some as new versions of the whole source; after an
+ * error, an edit is often undone, so that the parser gets back to
+ * editing incrementally.
+ * <p/>
+ * Most of these edits are meant to make the parser fall back to a full
+ * parse, so the share parsed incrementally says little about the edits of
+ * a user; the check also counts the edits from a version that parses to
+ * one that parses, and requires the commonest edit, a note's duration
+ * changed inside a phrase or Song, to be parsed incrementally, relexing
+ * just that block (from its keyword to the next block's, or from the start
+ * of the source for the first block).
+ * <p/>
+ * Usage: <tt>java parser.IncrementalCheck [-n &lt;sources&gt;] [-edits
+ * &lt;edits per source&gt;] [-seed &lt;seed&gt;]</tt> (300 sources of 40
+ * edits by default); exits with status 1 at the first difference.
+ */
+public class IncrementalCheck {
+    /**
+     * Text inserted by the edits that may spoil a source
+     */
+    private static final String[] NOISE = {
+        "Song", "Phrase", "Phrase \"n\" {", "Song \"T\" 90 {", "}", "{", "Rest", "Half",
+        "#", "+", "8", "99", "(", ")", "\"", "\"p0\"", "/*", "*/", "//", "@", "\r", "\n",
+    };
+
+    /**
+     * Number of edits, of them those with errors, and those parsed
+     * incrementally (without a full parse)
+     */
+    private static int edits, failed, incremental;
+
+    /**
+     * Number of edits from a version that parsed to one that parses, and
+     * of them those parsed incrementally
+     */
+    private static int clean, cleanIncremental;
+
+    /**
+     * Number of durations changed inside a block (all parsed incrementally)
+     */
+    private static int blockEdits;
+
+    /**
+     * The durations of notes, swapped by the edits inside a block
+     */
+    private static final String[] DURATIONS = {"Quarter", "Half", "Whole", "Eighth"};
+
+    /**
+     * Characters relexed by the incremental edits, and the length of the
+     * sources they edited
+     */
+    private static long reparsed, length;
+
+    /**
+     * Run the check
+     *
+     * @param args options
+     */
+    public static void main(String[] args) {
+        int numSources = 300;
+        int numEdits = 40;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("-n")) {
+                numSources = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("-edits")) {
+                numEdits = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("-seed")) {
+                seed = Long.parseLong(args[i + 1]);
+            }
+        }
+
+        Random random = new Random(seed);
+        for (int n = 0; n < numSources; n++) {
+            String name = "source " + n;
+            String text = ParserCheck.join(ParserCheck.generateFile(random, n), random, n);
+            IncrementalParser parser = new IncrementalParser(name);
+            check(name, text, parser, null, false, random);
+            text = checkBlockEdit(name, text, parser, random);
+            String good = text;
+            boolean ok = true;
+            for (int e = 0; e < numEdits; e++) {
+                String edited;
+                if (!ok && random.nextInt(2) == 0) {
+                    // undo back to the last version that parsed
+                    edited = good;
+                } else {
+                    edited = edit(text, random);
+                }
+                ok = check(name, edited, parser, text, ok, random);
+                text = edited;
+                if (ok) {
+                    good = text;
+                }
+            }
+        }
+        System.out.println(edits + " edits (" + failed + " with errors), " + incremental
+                + " parsed incrementally, relexing " + reparsed + " of " + length
+                + " characters; " + cleanIncremental + " of the " + clean
+                + " edits between versions that parse, and all " + blockEdits
+                + " durations changed inside a block: the parses agree");
+    }
+
+    /**
+     * Make an edit of a source
+     *
+     * @param text   the source
+     * @param random random numbers
+     * @return the edited source
+     */
+    private static String edit(String text, Random random) {
+        int at = random.nextInt(text.length() + 1);
+        switch (random.nextInt(10)) {
+            case 0: {
+                // a note changed
+                int note = indexOfAny(text, "ABCDFG", at);
+                String other = String.valueOf("ABCDFG".charAt(random.nextInt(6)));
+                return (note < 0 ? text : replace(text, note, 1, other));
+            }
+            case 1:
+                return replace(text, at, 0, (random.nextInt(3) == 0 ? "\r\n" : "\n"));
+            case 2:
+                return replace(text, at, 0,
+                        (random.nextInt(2) == 0 ? " // note\n" : "/* a\n b */"));
+            case 3: {
+                // a phrase (or now and then a Song) added before a block
+                int block = blockAt(text, at);
+                String header = (random.nextInt(4) == 0 ? "Song \"T\" 90"
+                        : "Phrase \"q" + at + "\"");
+                return replace(text, block, 0,
+                        header + " {\n Quarter C 4 Repeat {\n  Half Rest } }\n");
+            }
+            case 4: {
+                // a block copied to just before itself, or deleted
+                int block = blockAt(text, at);
+                int next = blockAt(text, block + 1);
+                String copy = text.substring(block, next);
+                return (random.nextInt(2) == 0 ? replace(text, block, 0, copy)
+                        : replace(text, block, next - block, ""));
+            }
+            case 5:
+                return replace(text, at, Math.min(1 + random.nextInt(8), text.length() - at), "");
+            case 6: {
+                // a range copied elsewhere
+                int from = random.nextInt(text.length() + 1);
+                int to = Math.min(from + random.nextInt(40), text.length());
+                return replace(text, at, 0, text.substring(from, to));
+            }
+            default:
+                return replace(text, at, 0, NOISE[random.nextInt(NOISE.length)]);
+        }
+    }
+
+    /**
+     * Change the duration of a note of a source that parses, and require the
+     * incremental parser to relex only the block the note is in, and to give
+     * the AST of a full parse
+     *
+     * @param name   name of the source
+     * @param text   the source (which the parser has parsed without errors)
+     * @param parser the incremental parser
+     * @param random random numbers
+     * @return the edited source, or the source if it has no notes
+     */
+    private static String checkBlockEdit(String name, String text, IncrementalParser parser,
+                                         Random random) {
+        int from = random.nextInt(text.length());
+        int note = -1;
+        String duration = null;
+        for (int i = 0; i < text.length() && note < 0; i++) {
+            int at = (from + i) % text.length();
+            for (String d : DURATIONS) {
+                if (text.startsWith(d, at)) {
+                    note = at;
+                    duration = d;
+                }
+            }
+        }
+        if (note < 0) {
+            return text;
+        }
+        String other = DURATIONS[random.nextInt(DURATIONS.length)];
+        if (other.equals(duration)) {
+            other = DURATIONS[(Arrays.asList(DURATIONS).indexOf(other) + 1) % DURATIONS.length];
+        }
+        String edited = replace(text, note, duration.length(), other);
+        // the note's block (the source has no "Phrase" or "Song" but the
+        // keywords, and starts with one)
+        int start = Math.max(edited.lastIndexOf("Phrase", note), edited.lastIndexOf("Song", note));
+        int end = blockAt(edited, note);
+
+        String actual;
+        try {
+            ErrorHandler errorHandler = new ErrorHandler(false);
+            if (random.nextInt(2) == 0) {
+                parser.update(edited, errorHandler);
+            } else {
+                parser.edit(note, duration.length(), other, errorHandler);
+            }
+            actual = ParserCheck.dump(parser.getFile());
+        } catch (Exception e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        } catch (Error e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        }
+        String expected;
+        try {
+            expected = ParserCheck.dump(parseFully(name, edited, new ErrorHandler(false)));
+        } catch (Exception e) {
+            expected = e.getClass().getName() + ": " + e.getMessage();
+        }
+        if (!actual.equals(expected) || parser.getReparsedLength() != end - start) {
+            System.out.println("The duration at " + note + " of " + name + " changed to " + other
+                    + " relexed " + parser.getReparsedLength() + " characters, not "
+                    + (end - start) + ":");
+            System.out.println(edited);
+            System.out.println("----- incremental -----");
+            System.out.println(actual);
+            System.out.println("----- full -----");
+            System.out.println(expected);
+            System.exit(1);
+        }
+        blockEdits++;
+        return edited;
+    }
+
+    /**
+     * Parse an edited source incrementally and in full, and compare the outcomes
+     *
+     * @param name   name of the source
+     * @param text   the edited source
+     * @param parser the incremental parser (of the source before the edit)
+     * @param old    the source before the edit, or null for the first parse
+     * @param parsed whether the source before the edit parsed without errors
+     * @param random random numbers
+     * @return true if the source parsed without errors
+     */
+    private static boolean check(String name, String text, IncrementalParser parser,
+                                 String old, boolean parsed, Random random) {
+        edits++;
+        // the incremental parse, given either the edit or the new version
+        ErrorHandler errorHandler = new ErrorHandler(false);
+        String actual;
+        try {
+            File file;
+            if (old == null) {
+                file = parser.parse(text, errorHandler);
+            } else if (random.nextInt(2) == 0) {
+                file = parser.update(text, errorHandler);
+            } else {
+                int prefix = 0;
+                while (prefix < old.length() && prefix < text.length()
+                        && old.charAt(prefix) == text.charAt(prefix)) {
+                    prefix++;
+                }
+                // (the edit made as a larger replacement than needed)
+                prefix = Math.max(prefix - random.nextInt(3), 0);
+                int suffix = Math.min(old.length(), text.length()) - prefix;
+                int s = 0;
+                while (s < suffix && old.charAt(old.length() - 1 - s)
+                        == text.charAt(text.length() - 1 - s)) {
+                    s++;
+                }
+                String replacement = text.substring(prefix, text.length() - s);
+                int split = (random.nextInt(4) == 0
+                        ? random.nextInt(replacement.length() + 1) : 0);
+                if (split > 0) {
+                    // (in two edits, with no AST asked for in between)
+                    try {
+                        parser.edit(prefix, old.length() - prefix - s,
+                                replacement.substring(0, split), new ErrorHandler(false));
+                    } catch (CompilationException e) {
+                        // the second edit parses again
+                    } catch (Error e) {
+                        // (as for the scanner's error for unmatched input)
+                    }
+                    parser.edit(prefix + split, 0, replacement.substring(split), errorHandler);
+                } else {
+                    parser.edit(prefix, old.length() - prefix - s, replacement, errorHandler);
+                }
+                file = parser.getFile();
+            }
+            actual = ParserCheck.dump(file);
+        } catch (Exception e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        } catch (Error e) {
+            actual = e.getClass().getName() + ": " + e.getMessage();
+        }
+        actual += " errors=" + errorHandler.getErrors();
+        if (old != null && parser.getReparsedLength() < text.length()) {
+            incremental++;
+            reparsed += parser.getReparsedLength();
+            length += text.length();
+        }
+
+        // the full parse
+        errorHandler = new ErrorHandler(false);
+        String expected;
+        boolean ok = false;
+        try {
+            expected = ParserCheck.dump(parseFully(name, text, errorHandler));
+            ok = true;
+        } catch (Exception e) {
+            expected = e.getClass().getName() + ": " + e.getMessage();
+        } catch (Error e) {
+            expected = e.getClass().getName() + ": " + e.getMessage();
+        }
+        expected += " errors=" + errorHandler.getErrors();
+        if (!ok) {
+            failed++;
+        } else if (parsed) {
+            clean++;
+            if (parser.getReparsedLength() < text.length()) {
+                cleanIncremental++;
+            }
+        }
+
+        if (!actual.equals(expected)) {
+            System.out.println("The parses differ after edit " + edits + " of " + name + ":");
+            System.out.println("----- before -----");
+            System.out.println(old);
+            System.out.println("----- after -----");
+            System.out.println(text);
+            System.out.println("----- incremental -----");
+            System.out.println(actual);
+            System.out.println("----- full -----");
+            System.out.println(expected);
+            System.exit(1);
+        }
+        return ok;
+    }
+
+    /**
+     * Parse a source in full with <tt>CymbalParser</tt>
+     *
+     * @param name         name of the source
+     * @param text         the source
+     * @param errorHandler error handler that errors are registered with
+     * @return the AST of the source
+     * @throws Exception if the source has errors
+     */
+    private static File parseFully(String name, String text, ErrorHandler errorHandler)
+            throws Exception {
+        CymbalParser full = new CymbalParser(new CymbalScanner(new String[] {name},
+                new Reader[] {new StringReader(text)}, false));
+        full.setErrorHandler(errorHandler);
+        return full.parse();
+    }
+
+    /**
+     * Find the next of some characters in a source, wrapping around
+     *
+     * @param text  the source
+     * @param chars the characters
+     * @param from  where to start looking
+     * @return the index of the character, or -1 if there is none
+     */
+    private static int indexOfAny(String text, String chars, int from) {
+        for (int i = 0; i < text.length(); i++) {
+            int index = (from + i) % text.length();
+            if (chars.indexOf(text.charAt(index)) >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the start of the first block (phrase or Song keyword) at or after
+     * an offset
+     *
+     * @param text the source
+     * @param from the offset
+     * @return the start of the block, or the length of the source if there is none
+     */
+    private static int blockAt(String text, int from) {
+        int phrase = text.indexOf("Phrase", from);
+        int song = text.indexOf("Song", from);
+        return Math.min(phrase < 0 ? text.length() : phrase, song < 0 ? text.length() : song);
+    }
+
+    /**
+     * Replace part of a source
+     *
+     * @param text        the source
+     * @param at          offset of the part
+     * @param length      length of the part
+     * @param replacement what replaces it
+     * @return the edited source
+     */
+    private static String replace(String text, int at, int length, String replacement) {
+        return text.substring(0, at) + replacement + text.substring(at + length);
+    }
+}
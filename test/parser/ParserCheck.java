@@ -0,0 +1,606 @@
+/* Cymbal Compiler
+   ParserCheck.java
+
+   Differential check of the hand-written parser, and of the generated
+   parser in push mode, against the generated parser
+*/
+
+package parser;
+
+import ast.ASTNode;
+import ast.Expr;
+import ast.File;
+import ast.ListNode;
+import ast.Phrase;
+import ast.Song;
+import java_cup.runtime.Symbol;
+import lexer.CompactTokenSource;
+import lexer.CymbalScanner;
+import lexer.Lexer;
+import lexer.TokenSource;
+import util.ErrorHandler;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The <tt>ParserCheck</tt> class runs <tt>CymbalParser</tt> and the
+ * CUP-generated <tt>Parser</tt> over the same sources and requires the
+ * same outcome from both: an identical AST (every node's class, line
+ * number and fields, compared in full), or the same exception; the same
+ * errors registered with the error handler; the same number of tokens
+ * read from the lexer; and, when parsing with a <tt>SongListener</tt>
+ * (as streaming compiles do), the same calls to it in the same order and
+ * with identical nodes.  The generated parser is also run in push mode,
+ * by a <tt>PushParser</tt> fed the tokens one at a time, and must give
+ * the same outcome again, having handed each phrase and Song of the AST
+ * to its block listener in order, and the hand-written parser is run
+ * once more on <tt>CymbalScanner</tt>, reading its tokens without
+ * Symbols (as a <tt>CompactTokenSource</tt>; only on ASCII sources,
+ * since beyond ASCII the generated lexer fails where the scanner reports
+ * an unrecognized character).  The sources are a generated corpus of
+ * well-formed files (phrases only, one or several Songs, or both, with
+ * nested blocks, every form of note, phrase dispatches and string
+ * constants, and comments and line ends placed at random) and of the
+ * same files with a few tokens deleted, repeated, swapped, replaced or
+ * cut off, so that syntax and lexical errors turn up at every point of
+ * the grammar; plus any files named on the command line.
+ * <p/>
+ * Usage: <tt>java parser.ParserCheck [-n &lt;sources&gt;] [-seed &lt;seed&gt;]
+ * [&lt;files&gt;]</tt> (2000 sources by default); exits with status 1 at
+ * the first difference.
+ */
+public class ParserCheck {
+    /**
+     * Tokens inserted into (or replacing tokens of) the mutated sources
+     */
+    private static final String[] NOISE = {
+        "Song", "Phrase", "Octave", "Repeat", "Volume", "Tempo", "Instrument", "Rest",
+        "Quarter", "Half", "A", "C", "#", "b", "+", "-", "3", "7", "60", "120", "forte",
+        "(", ")", "{", "}", "\"p0\"", "\"piano\"", "@", "9", ";", "\"open", "/* open",
+    };
+
+    /**
+     * The parsers compared: the generated parser reading from the lexer,
+     * the hand-written parser, the generated parser fed the same tokens
+     * by a <tt>PushParser</tt>, and the hand-written parser reading the
+     * hand-written scanner's tokens without Symbols
+     */
+    private static final int GENERATED = 0, HAND_WRITTEN = 1, PUSHED = 2, COMPACT = 3;
+
+    /**
+     * Name of each parser compared
+     */
+    private static final String[] PARSERS = {
+        "generated parser", "hand-written parser", "push parser", "compact parser",
+    };
+
+    /**
+     * Number of sources parsed so far, that failed with a syntax or
+     * lexical error, and tokens read by each parser
+     */
+    private static int sources, failed, tokens;
+
+    /**
+     * Run the check
+     *
+     * @param args options and files to check
+     * @throws Exception if a file cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        int numSources = 2000;
+        long seed = 42;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-n") && i + 1 < args.length) {
+                numSources = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        Random random = new Random(seed);
+        for (int n = 0; n < numSources; n++) {
+            List<String> source = generateFile(random, n);
+            if (n % 3 != 0) {
+                mutate(source, random);
+            }
+            check("source " + n, join(source, random, n));
+        }
+        for (String file : files) {
+            check(file, new String(Files.readAllBytes(Paths.get(file)),
+                    StandardCharsets.ISO_8859_1));
+        }
+        System.out.println(sources + " sources (" + failed + " with errors), " + tokens
+                + " tokens: the parsers agree");
+    }
+
+    /**
+     * Generate the tokens of a well-formed file
+     *
+     * @param random random numbers
+     * @param n      number of the source (every third one has phrases only,
+     *               every third one Songs only, and the rest both)
+     * @return the tokens
+     */
+    static List<String> generateFile(Random random, int n) {
+        List<String> source = new ArrayList<String>();
+        int phrases = (n % 3 == 1 ? 0 : 1 + random.nextInt(4));
+        int songs = (n % 3 == 0 ? 0 : 1 + random.nextInt(3));
+        for (int p = 0; p < phrases; p++) {
+            add(source, "Phrase", "\"p" + p + "\"", "{");
+            generateExprs(source, random, 0);
+            source.add("}");
+        }
+        for (int s = 0; s < songs; s++) {
+            add(source, "Song", "\"S" + s + "\"", String.valueOf(60 + random.nextInt(70)), "{");
+            generateExprs(source, random, 0);
+            source.add("}");
+        }
+        return source;
+    }
+
+    /**
+     * Generate the tokens of a list of one or more expressions
+     *
+     * @param source the tokens so far
+     * @param random random numbers
+     * @param depth  number of blocks the list is nested in
+     */
+    private static void generateExprs(List<String> source, Random random, int depth) {
+        int exprs = 1 + random.nextInt(depth == 0 ? 6 : 3);
+        for (int e = 0; e < exprs; e++) {
+            int choice = random.nextInt(depth < 3 ? 12 : 7);
+            if (choice < 6) {
+                source.add(new String[] {"Quarter", "Half", "Whole", "Eighth"}[random.nextInt(4)]);
+                source.add(random.nextInt(6) == 0 ? "Rest"
+                        : String.valueOf((char) ('A' + random.nextInt(7))));
+                if (random.nextBoolean()) {
+                    source.add(random.nextBoolean() ? "#" : "b");
+                }
+                if (random.nextBoolean()) {
+                    source.add(octaveValue(random));
+                }
+                continue;
+            }
+            if (choice == 6) {
+                add(source, "\"p" + random.nextInt(4) + "\"", "(", ")");
+                continue;
+            }
+            switch (choice) {
+                case 7:
+                    add(source, "Octave", octaveValue(random));
+                    break;
+                case 8:
+                    add(source, "Volume", new String[] {"piano", "mesopiano", "default",
+                        "mesoforte", "forte"}[random.nextInt(5)]);
+                    break;
+                case 9:
+                    source.add("Repeat");
+                    break;
+                case 10:
+                    add(source, "Instrument", "\"i" + random.nextInt(3) + "\"");
+                    break;
+                default:
+                    add(source, "Tempo", String.valueOf(60 + random.nextInt(70)));
+                    break;
+            }
+            source.add("{");
+            generateExprs(source, random, depth + 1);
+            source.add("}");
+        }
+    }
+
+    /**
+     * Pick an octave value: a number or a change
+     *
+     * @param random random numbers
+     * @return the octave value's token
+     */
+    private static String octaveValue(Random random) {
+        int value = random.nextInt(10);
+        return (value < 8 ? String.valueOf(value) : (value == 8 ? "+" : "-"));
+    }
+
+    /**
+     * Add some tokens to a source
+     *
+     * @param source the tokens so far
+     * @param tokens the tokens to add
+     */
+    private static void add(List<String> source, String... tokens) {
+        for (String token : tokens) {
+            source.add(token);
+        }
+    }
+
+    /**
+     * Spoil a well-formed source with one to three edits: a token deleted,
+     * repeated, swapped with the next, replaced or preceded by noise, or
+     * the rest of the source cut off
+     *
+     * @param source the tokens of the source
+     * @param random random numbers
+     */
+    private static void mutate(List<String> source, Random random) {
+        int edits = 1 + random.nextInt(3);
+        for (int e = 0; e < edits && !source.isEmpty(); e++) {
+            int at = random.nextInt(source.size());
+            switch (random.nextInt(6)) {
+                case 0:
+                    source.remove(at);
+                    break;
+                case 1:
+                    source.add(at, source.get(at));
+                    break;
+                case 2:
+                    if (at + 1 < source.size()) {
+                        source.add(at, source.remove(at + 1));
+                    }
+                    break;
+                case 3:
+                    source.set(at, NOISE[random.nextInt(NOISE.length)]);
+                    break;
+                case 4:
+                    source.add(at, NOISE[random.nextInt(NOISE.length)]);
+                    break;
+                default:
+                    source.subList(at, source.size()).clear();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Join the tokens of a source with spaces, line ends and comments
+     *
+     * @param source the tokens
+     * @param random random numbers
+     * @param n      number of the source (every other one has "\r\n" line
+     *               ends)
+     * @return the text of the source
+     */
+    static String join(List<String> source, Random random, int n) {
+        String end = (n % 2 == 0 ? "\r\n" : "\n");
+        StringBuilder text = new StringBuilder();
+        for (String token : source) {
+            text.append(token);
+            switch (random.nextInt(8)) {
+                case 0:
+                    text.append(end);
+                    break;
+                case 1:
+                    text.append(end).append(end).append("  ");
+                    break;
+                case 2:
+                    text.append(" // comment").append(end);
+                    break;
+                case 3:
+                    text.append(" /* comment").append(end).append("*/ ");
+                    break;
+                default:
+                    text.append(' ');
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parse a source with each parser, without and with a song listener,
+     * and compare the outcomes with those of the generated parser
+     *
+     * @param name name of the source
+     * @param text the source
+     * @throws Exception if the lexer cannot read the source
+     */
+    private static void check(String name, String text) throws Exception {
+        sources++;
+        for (int streaming = 0; streaming < 2; streaming++) {
+            Outcome expected = parse(name, text, GENERATED, streaming == 1);
+            for (int which = HAND_WRITTEN; which < PARSERS.length; which++) {
+                if (which == COMPACT && !isAscii(text)) {
+                    continue;
+                }
+                Outcome actual = parse(name, text, which, streaming == 1);
+                if (!expected.equals(actual)) {
+                    System.err.println("Difference on " + name
+                            + (streaming == 1 ? " (with a song listener)" : ""));
+                    System.err.println(text);
+                    System.err.println("  generated parser:   " + expected);
+                    System.err.println("  " + PARSERS[which] + ": " + actual);
+                    System.exit(1);
+                }
+            }
+            if (streaming == 0) {
+                tokens += expected.tokens;
+                if (!expected.errors.isEmpty()) {
+                    failed++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a source is all ASCII
+     *
+     * @param text the source
+     * @return true if it has no character beyond ASCII
+     */
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a source with one of the parsers
+     *
+     * @param name      name of the source
+     * @param text      the source
+     * @param which     the parser (<tt>GENERATED</tt>, <tt>HAND_WRITTEN</tt>,
+     *                  <tt>PUSHED</tt> or <tt>COMPACT</tt>)
+     * @param streaming whether to parse with a song listener
+     * @return the outcome
+     * @throws Exception if the lexer cannot read the source
+     */
+    private static Outcome parse(String name, String text, int which, boolean streaming)
+            throws Exception {
+        Outcome outcome = new Outcome();
+        String[] names = {name};
+        Reader[] readers = {new StringReader(text)};
+        CountingSource scanner = (which == COMPACT)
+                ? new CountingCompactSource(new CymbalScanner(names, readers, false))
+                : new CountingSource(new Lexer(names, readers, false));
+        ErrorHandler errorHandler = new ErrorHandler(false);
+        RecordingListener listener = (streaming ? new RecordingListener() : null);
+        try {
+            File file;
+            if (which == HAND_WRITTEN || which == COMPACT) {
+                CymbalParser parser = new CymbalParser(scanner);
+                parser.setErrorHandler(errorHandler);
+                parser.setSongListener(listener);
+                file = parser.parse();
+            } else if (which == PUSHED) {
+                // (the tokens fed as the generated parser would read them)
+                PushParser parser = new PushParser(name);
+                parser.setErrorHandler(errorHandler);
+                parser.setSongListener(listener);
+                final List<ASTNode> blocks = new ArrayList<ASTNode>();
+                parser.setBlockListener(new BlockListener() {
+                    public void blockParsed(ASTNode block) {
+                        blocks.add(block);
+                    }
+                });
+                while (parser.feed(scanner.next_token())) {
+                    // the parser runs as far as each token allows
+                }
+                file = parser.finish();
+                checkBlocks(file, blocks);
+            } else {
+                Parser parser = new Parser(scanner);
+                parser.setErrorHandler(errorHandler);
+                parser.setSongListener(listener);
+                file = (File) parser.parse().value;
+            }
+            outcome.result = dump(file);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            outcome.result = e.getClass().getName() + ": " + e.getMessage();
+        } catch (Error e) {
+            outcome.result = e.getClass().getName() + ": " + e.getMessage();
+        }
+        outcome.tokens = scanner.count;
+        for (Object error : errorHandler.getErrors()) {
+            outcome.errors.add(error.toString());
+        }
+        if (listener != null) {
+            outcome.calls = listener.calls;
+        }
+        return outcome;
+    }
+
+    /**
+     * Check that the blocks handed to a push parser's block listener are
+     * the phrases and Songs of the file, in order
+     *
+     * @param file   the AST of the file
+     * @param blocks the blocks handed to the listener
+     */
+    private static void checkBlocks(File file, List<ASTNode> blocks) {
+        List<ASTNode> expected = new ArrayList<ASTNode>();
+        if (file.getPhraseList() != null) {
+            for (ASTNode phrase : file.getPhraseList()) {
+                expected.add(phrase);
+            }
+        }
+        for (ASTNode song : file.getSongList()) {
+            expected.add(song);
+        }
+        boolean same = (blocks.size() == expected.size());
+        for (int i = 0; same && i < blocks.size(); i++) {
+            same = (blocks.get(i) == expected.get(i));
+        }
+        if (!same) {
+            throw new IllegalStateException("blocks handed over: " + blocks.size() + " of "
+                    + expected.size());
+        }
+    }
+
+    /**
+     * Describe a node and everything under it: its class, line number and
+     * fields (nodes in full, and other values as strings)
+     *
+     * @param node the node (or null)
+     * @return the description
+     */
+    static String dump(ASTNode node) {
+        StringBuilder out = new StringBuilder();
+        dump(node, out);
+        return out.toString();
+    }
+
+    /**
+     * Describe a node and everything under it
+     *
+     * @param value the node, or a field's value
+     * @param out   where to describe it
+     */
+    private static void dump(Object value, StringBuilder out) {
+        if (!(value instanceof ASTNode)) {
+            out.append(value == null ? "null" : "'" + value + "'");
+            return;
+        }
+        ASTNode node = (ASTNode) value;
+        out.append(node.getClass().getSimpleName()).append('@').append(node.getLineNum())
+                .append('(');
+        if (node instanceof ListNode) {
+            for (ASTNode child : (ListNode) node) {
+                dump(child, out);
+                out.append(' ');
+            }
+        } else {
+            // (the fields of the node's own classes; ASTNode's are the line)
+            for (Class<?> c = node.getClass(); c != ASTNode.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    out.append(field.getName()).append('=');
+                    try {
+                        dump(field.get(node), out);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    out.append(' ');
+                }
+            }
+        }
+        out.append(')');
+    }
+
+    /**
+     * The outcome of parsing a source: the AST or the exception, the
+     * errors registered, the tokens read and the calls to the listener
+     */
+    private static class Outcome {
+        /** the AST, or the exception the parser failed with */
+        String result;
+        /** the errors registered with the error handler */
+        List<String> errors = new ArrayList<String>();
+        /** number of tokens the parser read */
+        int tokens;
+        /** calls to the song listener */
+        List<String> calls = new ArrayList<String>();
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Outcome && toString().equals(other.toString());
+        }
+
+        @Override
+        public int hashCode() {
+            return toString().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return result + " errors=" + errors + " tokens=" + tokens + " calls=" + calls;
+        }
+    }
+
+    /**
+     * Song listener that records each call
+     */
+    private static class RecordingListener implements SongListener {
+        /** the calls so far */
+        List<String> calls = new ArrayList<String>();
+
+        public void phraseParsed(Phrase phrase) {
+            calls.add("phrase " + dump(phrase));
+        }
+
+        public void songStarted(Song song) {
+            calls.add("song " + dump(song));
+        }
+
+        public void songExprParsed(Expr expr) {
+            calls.add("expr " + dump(expr));
+        }
+    }
+
+    /**
+     * Token source that counts the tokens read from another
+     */
+    private static class CountingSource implements TokenSource {
+        /** the token source counted */
+        private final TokenSource source;
+        /** number of tokens read */
+        int count;
+
+        CountingSource(TokenSource source) {
+            this.source = source;
+        }
+
+        public Symbol next_token() throws Exception {
+            count++;
+            return source.next_token();
+        }
+
+        public int getCurrLineNum() {
+            return source.getCurrLineNum();
+        }
+
+        public String getCurrFilename() {
+            return source.getCurrFilename();
+        }
+    }
+
+    /**
+     * Token source that counts the tokens read from a scanner that gives
+     * them without Symbols (read either way)
+     */
+    private static class CountingCompactSource extends CountingSource
+            implements CompactTokenSource {
+        /** the scanner counted */
+        private final CompactTokenSource scanner;
+
+        CountingCompactSource(CompactTokenSource scanner) {
+            super(scanner);
+            this.scanner = scanner;
+        }
+
+        public int nextKind() throws IOException {
+            count++;
+            return scanner.nextKind();
+        }
+
+        public int getTokenLine() {
+            return scanner.getTokenLine();
+        }
+
+        public int getTokenOffset() {
+            return scanner.getTokenOffset();
+        }
+
+        public String getLexeme() {
+            return scanner.getLexeme();
+        }
+    }
+}